@@ -0,0 +1,242 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.cloudfront;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Generates signed URLs for serving private CloudFront content with the
+ * private key of a CloudFront key pair, for applications that sign many URLs.
+ * Unlike the file based methods of {@link CloudFrontUrlSigner}, the key is
+ * loaded once, and each thread reuses its own signature engine initialized
+ * with the key. Many URLs with the same expiration date or policy can be
+ * signed at once, in which case the parts of the URLs and policies they share
+ * are only encoded once, and a custom policy is only signed once.
+ *
+ * <pre>
+ * CloudFrontKeyPairSigner signer = CloudFrontKeyPairSigner.fromPrivateKeyFile(
+ *     "APKAJCEOKRHC3XIVU5NA", new File("/path/to/rsa-private-key.pem"));
+ * List&lt;String&gt; urls = signer.getSignedURLsWithCannedPolicy(Arrays.asList(
+ *     "https://d1b2c3a4g5h6.cloudfront.net/a/b/images.jpeg",
+ *     "https://d1b2c3a4g5h6.cloudfront.net/a/b/video.mp4"),
+ *     DateUtils.parseISO8601Date("2012-11-14T22:20:00.000Z"));
+ * </pre>
+ *
+ * The URLs are the same as the ones of {@link CloudFrontUrlSigner}.
+ */
+@ThreadSafe
+public final class CloudFrontKeyPairSigner {
+    private static final SecureRandom srand = new SecureRandom();
+    private static final byte[] CANNED_POLICY_PREFIX =
+            "{\"Statement\":[{\"Resource\":\"".getBytes(UTF8);
+
+    private final String keyPairId;
+    private final PrivateKey privateKey;
+    private final String keyPairIdParameter;
+    private final ThreadLocal<Signature> signature = new ThreadLocal<Signature>() {
+        @Override
+        protected Signature initialValue() {
+            return newSignature();
+        }
+    };
+
+    /**
+     * Creates a signer for the given key pair.
+     *
+     * @param keyPairId
+     *            Identifier of a public/private certificate keypair already
+     *            configured in your Amazon Web Services account.
+     * @param privateKey
+     *            The RSA private key of the keypair identified by keyPairId.
+     */
+    public CloudFrontKeyPairSigner(String keyPairId, PrivateKey privateKey) {
+        if (keyPairId == null || privateKey == null)
+            throw new IllegalArgumentException("keyPairId and privateKey must be specified");
+        this.keyPairId = keyPairId;
+        this.privateKey = privateKey;
+        this.keyPairIdParameter = "&Key-Pair-Id=" + keyPairId;
+        // Fails fast on an unusable key
+        signature.get();
+    }
+
+    /**
+     * Returns a signer for the given key pair, whose private key is loaded
+     * from the given RSA private key (.pem) or pkcs8 (.der) file.
+     */
+    public static CloudFrontKeyPairSigner fromPrivateKeyFile(String keyPairId,
+            File privateKeyFile) throws InvalidKeySpecException, IOException {
+        return new CloudFrontKeyPairSigner(keyPairId,
+                CloudFrontUrlSigner.loadPrivateKey(privateKeyFile));
+    }
+
+    public String getKeyPairId() {
+        return keyPairId;
+    }
+
+    /**
+     * Returns a signed URL with a canned policy that grants universal access
+     * to the given resource until the given date.
+     *
+     * @see CloudFrontUrlSigner#getSignedURLWithCannedPolicy(String, String,
+     *      PrivateKey, Date)
+     */
+    public String getSignedURLWithCannedPolicy(String resourceUrlOrPath, Date dateLessThan) {
+        return new CannedPolicy(dateLessThan).sign(resourceUrlOrPath, signature.get());
+    }
+
+    /**
+     * Returns signed URLs with canned policies that grant universal access to
+     * the given resources until the given date, in the same order as the
+     * resources.
+     *
+     * @see #getSignedURLWithCannedPolicy(String, Date)
+     */
+    public List<String> getSignedURLsWithCannedPolicy(List<String> resourceUrlsOrPaths,
+            Date dateLessThan) {
+        CannedPolicy policy = new CannedPolicy(dateLessThan);
+        Signature sig = signature.get();
+        List<String> signedUrls = new ArrayList<String>(resourceUrlsOrPaths.size());
+        for (String resourceUrlOrPath : resourceUrlsOrPaths)
+            signedUrls.add(policy.sign(resourceUrlOrPath, sig));
+        return signedUrls;
+    }
+
+    /**
+     * Returns a signed URL that allows access to the given resource as
+     * specified by the given custom policy.
+     *
+     * @see CloudFrontUrlSigner#getSignedURLWithCustomPolicy(String, String,
+     *      PrivateKey, String)
+     * @see CloudFrontUrlSigner#buildCustomPolicyForSignedUrl(String, Date,
+     *      String, Date)
+     */
+    public String getSignedURLWithCustomPolicy(String resourceUrlOrPath, String policy) {
+        return appendQuery(resourceUrlOrPath, customPolicyQuery(policy));
+    }
+
+    /**
+     * Returns signed URLs that allow access to the given resources as
+     * specified by the given custom policy, typically one with a wildcard
+     * resource, in the same order as the resources. The policy is signed
+     * once for all the URLs.
+     *
+     * @see #getSignedURLWithCustomPolicy(String, String)
+     */
+    public List<String> getSignedURLsWithCustomPolicy(List<String> resourceUrlsOrPaths,
+            String policy) {
+        String query = customPolicyQuery(policy);
+        List<String> signedUrls = new ArrayList<String>(resourceUrlsOrPaths.size());
+        for (String resourceUrlOrPath : resourceUrlsOrPaths)
+            signedUrls.add(appendQuery(resourceUrlOrPath, query));
+        return signedUrls;
+    }
+
+    /**
+     * Returns the query parameters of the URLs signed with the given custom
+     * policy, without the leading separator.
+     */
+    private String customPolicyQuery(String policy) {
+        byte[] signatureBytes = sign(signature.get(), policy.getBytes(UTF8));
+        return "Policy=" + CloudFrontUrlSigner.makeBytesUrlSafe(policy.getBytes(UTF8))
+             + "&Signature=" + CloudFrontUrlSigner.makeBytesUrlSafe(signatureBytes)
+             + keyPairIdParameter;
+    }
+
+    private static String appendQuery(String resourceUrlOrPath, String query) {
+        return resourceUrlOrPath
+             + (resourceUrlOrPath.indexOf('?') >= 0 ? "&" : "?")
+             + query;
+    }
+
+    /**
+     * A canned policy for a given expiration date, of which only the resource
+     * varies from one URL to another.
+     */
+    private final class CannedPolicy {
+        private final byte[] policySuffix;
+        private final String expiresParameter;
+
+        CannedPolicy(Date dateLessThan) {
+            if (dateLessThan == null)
+                throw new AmazonClientException("dateLessThan must be provided to sign CloudFront URLs");
+            long expires = MILLISECONDS.toSeconds(dateLessThan.getTime());
+            policySuffix = ("\",\"Condition\":{\"DateLessThan\":{\"AWS:EpochTime\":"
+                    + expires + "}}}]}").getBytes(UTF8);
+            expiresParameter = "Expires=" + expires + "&Signature=";
+        }
+
+        String sign(String resourceUrlOrPath, Signature sig) {
+            try {
+                sig.update(CANNED_POLICY_PREFIX);
+                sig.update(resourceUrlOrPath.getBytes(UTF8));
+                sig.update(policySuffix);
+                String urlSafeSignature = CloudFrontUrlSigner.makeBytesUrlSafe(sig.sign());
+                return resourceUrlOrPath
+                     + (resourceUrlOrPath.indexOf('?') >= 0 ? "&" : "?")
+                     + expiresParameter
+                     + urlSafeSignature
+                     + keyPairIdParameter;
+            } catch (SignatureException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Signs the given data with the given signature engine, which is then
+     * ready to sign again with the same key.
+     */
+    private static byte[] sign(Signature sig, byte[] dataToSign) {
+        try {
+            sig.update(dataToSign);
+            return sig.sign();
+        } catch (SignatureException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a new SHA1withRSA signature engine initialized with the private
+     * key of this signer.
+     */
+    private Signature newSignature() {
+        try {
+            Signature sig = Signature.getInstance("SHA1withRSA");
+            sig.initSign(privateKey, srand);
+            return sig;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (InvalidKeyException e) {
+            throw new AmazonClientException("Couldn't sign url", e);
+        }
+    }
+}
@@ -64,7 +64,11 @@ import com.amazonaws.util.StringUtils;
  *              s3ObjectKey, keyPairId, dateLessThan, dateGreaterThan, ipRange);
  * </pre>
  * 
+ * The methods given a private key file load the key on every call; use a
+ * {@link CloudFrontKeyPairSigner} to sign many URLs with the same key.
+ * 
  * @see DateUtils
+ * @see CloudFrontKeyPairSigner
  */
 public enum CloudFrontUrlSigner {
     ;
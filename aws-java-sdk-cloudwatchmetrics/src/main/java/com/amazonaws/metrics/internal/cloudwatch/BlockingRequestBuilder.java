@@ -18,7 +18,6 @@ import static com.amazonaws.metrics.internal.cloudwatch.CloudWatchMetricConfig.N
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,7 +32,6 @@ import com.amazonaws.services.cloudwatch.model.MetricDatum;
 import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
 import com.amazonaws.services.cloudwatch.model.StatisticSet;
 import com.amazonaws.util.AwsHostNameUtils;
-import com.amazonaws.util.json.Jackson;
 
 /**
  * An internal builder used to retrieve the next batch of requests to be sent to
@@ -43,58 +41,48 @@ import com.amazonaws.util.json.Jackson;
 class BlockingRequestBuilder {
     private static final String OS_METRIC_NAME = MachineMetric.getOSMetricName();
     private final MachineMetricFactory machineMetricFactory = new MachineMetricFactory();
+    private final LatencyPercentileExporter percentileExporter = new LatencyPercentileExporter();
     private final BlockingQueue<MetricDatum> queue;
+    private final MetricAggregator aggregator;
     private final long timeoutNano;
 
     BlockingRequestBuilder(CloudWatchMetricConfig config, BlockingQueue<MetricDatum> queue) {
+        this(config, queue, new MetricAggregator());
+    }
+
+    BlockingRequestBuilder(CloudWatchMetricConfig config,
+            BlockingQueue<MetricDatum> queue, MetricAggregator aggregator) {
         this.queue = queue;
+        this.aggregator = aggregator;
         this.timeoutNano = TimeUnit.MILLISECONDS.toNanos(config.getQueuePollTimeoutMilli());
     }
 
     /**
      * Returns the next batch of {@link PutMetricDataRequest} to be sent to
-     * Amazon CloudWatch, blocking as necessary to gather and accumulate the
-     * necessary statistics. If there is no metrics data, this call blocks
-     * indefinitely. If there is metrics data, this call will block up to about
+     * Amazon CloudWatch, blocking for about
      * {@link CloudWatchMetricConfig#getQueuePollTimeoutMilli()} number of
-     * milliseconds.
+     * milliseconds to gather the statistics accumulated by the aggregator,
+     * together with any metrics added to the queue by custom collectors. If
+     * there is no metrics data at all, this call keeps blocking until there
+     * is.
      */
     Iterable<PutMetricDataRequest> nextUploadUnits() throws InterruptedException {
         final Map<String,MetricDatum> uniqueMetrics = new HashMap<String,MetricDatum>();
         long startNano = System.nanoTime();
-        
+
         while(true) {
             final long elapsedNano = System.nanoTime() - startNano;
             if (elapsedNano >= timeoutNano) {
-                return toPutMetricDataRequests(uniqueMetrics);
-            }
-            MetricDatum datum = queue.poll(timeoutNano - elapsedNano, TimeUnit.NANOSECONDS);
-            if (datum == null) {
-                // timed out
-                if (uniqueMetrics.size() > 0) {
-                    // return whatever we have so far
+                aggregator.drainTo(uniqueMetrics);
+                if (uniqueMetrics.size() > 0
+                ||  !AwsSdkMetrics.isMachineMetricExcluded()) {
                     return toPutMetricDataRequests(uniqueMetrics);
                 }
-                // zero AWS related metrics
-                if (AwsSdkMetrics.isMachineMetricExcluded()) {
-                    // Short note: nothing to do, so just wait indefinitely.
-                    // (Long note: There exists a pedagogical case where the
-                    // next statement is executed followed by no subsequent AWS
-                    // traffic whatsoever, and then the machine metric is enabled 
-                    // via JMX.
-                    // In such case, we require the metric generation to be
-                    // disabled and then re-enabled (eg via JMX).
-                    // So why not always wake up periodically instead of going
-                    // into long wait ?
-                    // I (hchar@) think we should optimize for the most typical
-                    // cases instead of the edge cases. Going into long wait has
-                    // the benefit of relatively less runtime footprint.)
-                    datum = queue.take();   
-                    startNano = System.nanoTime();
-                }
+                // zero metrics data; wait for another interval
+                startNano = System.nanoTime();
+                continue;
             }
-            // Note at this point datum is null if and only if there is no
-            // pending AWS related metrics but machine metrics is enabled
+            MetricDatum datum = queue.poll(timeoutNano - elapsedNano, TimeUnit.NANOSECONDS);
             if (datum != null)
                 summarize(datum, uniqueMetrics);
         }
@@ -108,33 +96,18 @@ class BlockingRequestBuilder {
         if (value == null) {
             return;
         }
-        List<Dimension> dims = datum.getDimensions();
-        Collections.sort(dims, DimensionComparator.INSTANCE);
-        String metricName = datum.getMetricName();
-        String key = metricName + Jackson.toJsonString(dims);
-        MetricDatum statDatum = uniqueMetrics.get(key);
-        if (statDatum == null) {
-            statDatum = new MetricDatum()
-                .withDimensions(datum.getDimensions())
-                .withMetricName(metricName)
-                .withUnit(datum.getUnit())
-                .withStatisticValues(new StatisticSet()
-                    .withMaximum(value)
-                    .withMinimum(value)
-                    .withSampleCount(0.0)
-                    .withSum(0.0))
-                ;
-            uniqueMetrics.put(key, statDatum);
-        }
-        StatisticSet stat = statDatum.getStatisticValues();
-        stat.setSampleCount(stat.getSampleCount() + 1.0);
-        stat.setSum(stat.getSum() + value);
-        if (value > stat.getMaximum()) {
-            stat.setMaximum(value);
-        } else if (value < stat.getMinimum()) {
-            stat.setMinimum(value);
-        }
+        MetricAggregator.merge(MetricAggregator.keyOf(datum), new MetricDatum()
+            .withDimensions(datum.getDimensions())
+            .withMetricName(datum.getMetricName())
+            .withUnit(datum.getUnit())
+            .withStatisticValues(new StatisticSet()
+                .withMaximum(value)
+                .withMinimum(value)
+                .withSampleCount(1.0)
+                .withSum(value)),
+            uniqueMetrics);
     }
+
     /**
      * Consolidates the input metrics into a list of PutMetricDataRequest, each
      * within the maximum size limit imposed by CloudWatch.
@@ -145,6 +118,12 @@ class BlockingRequestBuilder {
         for (MetricDatum datum: machineMetricFactory.generateMetrics()) {
             summarize(datum, uniqueMetrics);
         }
+        if (AwsSdkMetrics.isLatencyHistogramsIncluded()) {
+            AwsSdkMetrics.exportLatencyHistograms(percentileExporter);
+            for (MetricDatum datum: percentileExporter.drain()) {
+                summarize(datum, uniqueMetrics);
+            }
+        }
         List<PutMetricDataRequest> list = new ArrayList<PutMetricDataRequest>();
         List<MetricDatum> data = new ArrayList<MetricDatum>();
         for (MetricDatum m: uniqueMetrics.values()) {
@@ -67,7 +67,9 @@ public class CloudWatchMetricConfig {
     /**
      * Default metrics queue size. If the queue size
      * exceeds this value, then excessive metrics will be dropped to prevent
-     * resource exhaustion.
+     * resource exhaustion. The predefined SDK metrics are aggregated in place
+     * and do not go through the queue; only metrics added by custom
+     * collectors do.
      */
     public static final int DEFAULT_METRICS_QSIZE = 1000;
     /**
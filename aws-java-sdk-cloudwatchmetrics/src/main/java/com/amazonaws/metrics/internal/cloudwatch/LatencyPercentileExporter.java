@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal.cloudwatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.amazonaws.metrics.LatencyHistogram;
+import com.amazonaws.metrics.LatencyHistogramExporter;
+import com.amazonaws.metrics.internal.cloudwatch.spi.Dimensions;
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Exports the percentiles of the latency histograms of the AWS SDK as metric
+ * data, with the percentile as an additional dimension.
+ */
+class LatencyPercentileExporter implements LatencyHistogramExporter {
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+    private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p99.9" };
+
+    private final List<MetricDatum> data = new ArrayList<MetricDatum>();
+
+    @Override
+    public void export(Collection<LatencyHistogram.Snapshot> snapshots) {
+        for (LatencyHistogram.Snapshot snapshot: snapshots) {
+            LatencyHistogram h = snapshot.getHistogram();
+            String metricName = h.getServiceName() == null
+                ? h.getMetricType().name()
+                : h.getServiceName();
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                List<Dimension> dims = new ArrayList<Dimension>();
+                dims.add(new Dimension()
+                        .withName(Dimensions.MetricType.name())
+                        .withValue(h.getMetricType().name()));
+                if (h.getOperationName() != null) {
+                    dims.add(new Dimension()
+                            .withName(Dimensions.RequestType.name())
+                            .withValue(h.getOperationName()));
+                }
+                dims.add(new Dimension()
+                        .withName(Dimensions.Percentile.name())
+                        .withValue(PERCENTILE_NAMES[i]));
+                data.add(new MetricDatum()
+                    .withMetricName(metricName)
+                    .withDimensions(dims)
+                    .withUnit(StandardUnit.Milliseconds)
+                    .withValue(snapshot.getPercentileMillis(PERCENTILES[i])));
+            }
+        }
+    }
+
+    /**
+     * Returns the metric data exported so far, and clears them.
+     */
+    List<MetricDatum> drain() {
+        List<MetricDatum> result = new ArrayList<MetricDatum>(data);
+        data.clear();
+        return result;
+    }
+}
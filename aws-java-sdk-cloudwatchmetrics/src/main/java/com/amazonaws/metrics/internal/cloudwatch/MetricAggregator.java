@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal.cloudwatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.StatisticSet;
+
+/**
+ * Accumulates the statistics (sample count, sum, minimum and maximum) of the
+ * metric data points on the threads that generate them, so that the uploader
+ * thread only has to sweep one accumulator per unique metric at each upload
+ * interval, regardless of the number of requests made.
+ * <p>
+ * Each accumulator is striped across a number of cells, selected by thread,
+ * and updated via compare-and-set without locking. A data point recorded while
+ * the accumulators are being swept may be split across two intervals.
+ */
+class MetricAggregator {
+    private static final int NUM_CELLS = numCells();
+    private static final long ZERO = Double.doubleToRawLongBits(0.0);
+    private static final long POSITIVE_INFINITY = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+    private static final long NEGATIVE_INFINITY = Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY);
+
+    private final ConcurrentMap<String, Accumulator> accumulators =
+        new ConcurrentHashMap<String, Accumulator>();
+
+    /**
+     * Records the value of the given datum into the statistics of the
+     * respective unique metric.
+     *
+     * @return true if the value is recorded; false if the datum has no value.
+     */
+    boolean add(MetricDatum datum) {
+        Double value = datum.getValue();
+        if (value == null) {
+            return false;
+        }
+        String key = keyOf(datum);
+        Accumulator acc = accumulators.get(key);
+        if (acc == null) {
+            Accumulator newAcc = new Accumulator(datum);
+            acc = accumulators.putIfAbsent(key, newAcc);
+            if (acc == null)
+                acc = newAcc;
+        }
+        acc.add(value.doubleValue());
+        return true;
+    }
+
+    /**
+     * Moves the statistics accumulated since the last call into the given map
+     * of unique metrics, merging with any statistics already present. Unique
+     * metrics without new data points are skipped.
+     */
+    void drainTo(Map<String, MetricDatum> uniqueMetrics) {
+        for (Map.Entry<String, Accumulator> e: accumulators.entrySet()) {
+            StatisticSet stat = e.getValue().drain();
+            if (stat != null) {
+                merge(e.getKey(), e.getValue().newMetricDatum(stat), uniqueMetrics);
+            }
+        }
+    }
+
+    /**
+     * Returns the key of the unique metric of the given datum, sorting the
+     * dimensions of the datum in place.
+     */
+    static String keyOf(MetricDatum datum) {
+        List<Dimension> dims = datum.getDimensions();
+        Collections.sort(dims, DimensionComparator.INSTANCE);
+        StringBuilder sb = new StringBuilder(datum.getMetricName())
+            .append('|').append(datum.getUnit());
+        for (Dimension dim: dims) {
+            sb.append('|').append(dim.getName()).append('=').append(dim.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Merges the given metric datum with statistic values into the respective
+     * unique metric.
+     */
+    static void merge(String key, MetricDatum statDatum, Map<String, MetricDatum> uniqueMetrics) {
+        MetricDatum existing = uniqueMetrics.get(key);
+        if (existing == null) {
+            uniqueMetrics.put(key, statDatum);
+            return;
+        }
+        StatisticSet to = existing.getStatisticValues();
+        StatisticSet from = statDatum.getStatisticValues();
+        to.setSampleCount(to.getSampleCount() + from.getSampleCount());
+        to.setSum(to.getSum() + from.getSum());
+        to.setMaximum(Math.max(to.getMaximum(), from.getMaximum()));
+        to.setMinimum(Math.min(to.getMinimum(), from.getMinimum()));
+    }
+
+    private static int numCells() {
+        int n = 1;
+        int cpus = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        while (n < cpus)
+            n <<= 1;
+        return n;
+    }
+
+    /**
+     * The striped statistics of a unique metric.
+     */
+    private static final class Accumulator {
+        private final String metricName;
+        private final List<Dimension> dimensions;
+        private final String unit;
+        private final Cell[] cells = new Cell[NUM_CELLS];
+
+        Accumulator(MetricDatum datum) {
+            this.metricName = datum.getMetricName();
+            this.dimensions = new ArrayList<Dimension>(datum.getDimensions());
+            this.unit = datum.getUnit();
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = new Cell();
+        }
+
+        void add(double value) {
+            int h = (int) Thread.currentThread().getId();
+            cells[(h ^ (h >>> 16)) & (NUM_CELLS - 1)].add(value);
+        }
+
+        /**
+         * Returns the statistics accumulated since the last call, resetting
+         * the accumulator; or null if there is none.
+         */
+        StatisticSet drain() {
+            long count = 0;
+            double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (Cell cell: cells) {
+                long n = cell.count.getAndSet(0);
+                if (n == 0)
+                    continue;
+                count += n;
+                sum += Double.longBitsToDouble(cell.sum.getAndSet(ZERO));
+                min = Math.min(min, Double.longBitsToDouble(cell.min.getAndSet(POSITIVE_INFINITY)));
+                max = Math.max(max, Double.longBitsToDouble(cell.max.getAndSet(NEGATIVE_INFINITY)));
+            }
+            if (count == 0)
+                return null;
+            if (min > max) {
+                // Only possible if all the values raced with this sweep
+                min = max = sum / count;
+            }
+            return new StatisticSet()
+                .withSampleCount((double) count)
+                .withSum(sum)
+                .withMinimum(min)
+                .withMaximum(max);
+        }
+
+        MetricDatum newMetricDatum(StatisticSet stat) {
+            return new MetricDatum()
+                .withMetricName(metricName)
+                .withDimensions(dimensions)
+                .withUnit(unit)
+                .withStatisticValues(stat);
+        }
+    }
+
+    /**
+     * A stripe of statistics, with the double values held as raw long bits.
+     */
+    private static final class Cell {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong sum = new AtomicLong(ZERO);
+        final AtomicLong min = new AtomicLong(POSITIVE_INFINITY);
+        final AtomicLong max = new AtomicLong(NEGATIVE_INFINITY);
+
+        void add(double value) {
+            long prev;
+            do {
+                prev = sum.get();
+            } while (!sum.compareAndSet(prev,
+                    Double.doubleToRawLongBits(Double.longBitsToDouble(prev) + value)));
+            do {
+                prev = min.get();
+            } while (value < Double.longBitsToDouble(prev)
+                  && !min.compareAndSet(prev, Double.doubleToRawLongBits(value)));
+            do {
+                prev = max.get();
+            } while (value > Double.longBitsToDouble(prev)
+                  && !max.compareAndSet(prev, Double.doubleToRawLongBits(value)));
+            // Counted last, so that a sweep never sees a count without its value
+            count.incrementAndGet();
+        }
+    }
+}
@@ -87,6 +87,7 @@ public class MetricCollectorSupport extends MetricCollector {
     private final ServiceMetricCollectorSupport serviceMetricCollector;
 
     private final BlockingQueue<MetricDatum> queue;
+    private final MetricAggregator aggregator = new MetricAggregator();
 //    private final PredefinedMetricTransformer transformer = new PredefinedMetricTransformer();
     private final CloudWatchMetricConfig config;
     private MetricUploaderThread uploaderThread;
@@ -97,8 +98,8 @@ public class MetricCollectorSupport extends MetricCollector {
         }
         this.config = config;
         this.queue = new LinkedBlockingQueue<MetricDatum>(config.getMetricQueueSize());
-        this.requestMetricCollector = new RequestMetricCollectorSupport(queue);
-        this.serviceMetricCollector = new ServiceMetricCollectorSupport(queue);
+        this.requestMetricCollector = new RequestMetricCollectorSupport(queue, aggregator);
+        this.serviceMetricCollector = new ServiceMetricCollectorSupport(queue, aggregator);
     }
 
     @Override
@@ -107,7 +108,7 @@ public class MetricCollectorSupport extends MetricCollector {
             if (uploaderThread != null) {
                 return false;   // already started
             }
-            uploaderThread = new MetricUploaderThread(config, queue);
+            uploaderThread = new MetricUploaderThread(config, queue, aggregator);
             uploaderThread.start();
         }
         return true;
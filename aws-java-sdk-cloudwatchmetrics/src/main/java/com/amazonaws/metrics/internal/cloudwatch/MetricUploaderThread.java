@@ -37,8 +37,14 @@ class MetricUploaderThread extends Thread {
 
     MetricUploaderThread(CloudWatchMetricConfig config,
             BlockingQueue<MetricDatum> queue) {
+        this(config, queue, new MetricAggregator());
+    }
+
+    MetricUploaderThread(CloudWatchMetricConfig config,
+            BlockingQueue<MetricDatum> queue, MetricAggregator aggregator) {
         this(config,
              queue,
+             aggregator,
              config.getCredentialsProvider() == null
              ? new AmazonCloudWatchClient()
              : new AmazonCloudWatchClient(config.getCredentialsProvider()));
@@ -47,13 +53,21 @@ class MetricUploaderThread extends Thread {
     MetricUploaderThread(CloudWatchMetricConfig config,
         BlockingQueue<MetricDatum> queue,
         AmazonCloudWatchClient client)
+    {
+        this(config, queue, new MetricAggregator(), client);
+    }
+
+    MetricUploaderThread(CloudWatchMetricConfig config,
+        BlockingQueue<MetricDatum> queue,
+        MetricAggregator aggregator,
+        AmazonCloudWatchClient client)
     {
         super(THREAD_NAME);
-        if (config == null || queue == null) {
+        if (config == null || queue == null || aggregator == null) {
             throw new IllegalArgumentException();
         }
         this.cloudwatchClient = client;
-        this.qIterator = new BlockingRequestBuilder(config, queue);
+        this.qIterator = new BlockingRequestBuilder(config, queue, aggregator);
         String endpoint = config.getCloudWatchEndPoint();
         if (endpoint != null)
             cloudwatchClient.setEndpoint(endpoint);
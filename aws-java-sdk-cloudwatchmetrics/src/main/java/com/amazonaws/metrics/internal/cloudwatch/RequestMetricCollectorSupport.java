@@ -40,16 +40,27 @@ public class RequestMetricCollectorSupport extends RequestMetricCollector
 {
     protected final static Log log = LogFactory.getLog(RequestMetricCollectorSupport.class);
     private final BlockingQueue<MetricDatum> queue;
+    private final MetricAggregator aggregator;
     private final PredefinedMetricTransformer transformer = new PredefinedMetricTransformer();
 
     protected RequestMetricCollectorSupport(BlockingQueue<MetricDatum> queue) {
+        this(queue, null);
+    }
+
+    /**
+     * @param aggregator
+     *            if not null, metrics are accumulated directly into the given
+     *            aggregator instead of being added to the queue
+     */
+    RequestMetricCollectorSupport(BlockingQueue<MetricDatum> queue, MetricAggregator aggregator) {
         this.queue = queue;
+        this.aggregator = aggregator;
     }
 
     /**
      * Collects the metrics at the end of a request/response cycle, transforms
      * the metric data points into a cloud watch metric datum representation,
-     * and then adds it to a memory queue so it will get summarized into the
+     * and then accumulates it in memory so it will get summarized into the
      * necessary statistics and uploaded to Amazon CloudWatch.
      */
     @Override
@@ -91,11 +102,12 @@ public class RequestMetricCollectorSupport extends RequestMetricCollector
     }
 
     /**
-     * Adds the given metric to the queue, returning true if successful or false
-     * if no space available.
+     * Adds the given metric to the queue, or accumulates it into the
+     * aggregator if there is one, returning true if successful or false if no
+     * space available.
      */
     protected boolean addMetricsToQueue(MetricDatum metric) {
-        return queue.offer(metric); 
+        return aggregator == null ? queue.offer(metric) : aggregator.add(metric);
     }
     /** Returns the predefined metrics transformer. */
     protected PredefinedMetricTransformer getTransformer() { return transformer; }
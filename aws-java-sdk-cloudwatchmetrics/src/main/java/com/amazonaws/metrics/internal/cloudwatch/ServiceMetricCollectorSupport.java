@@ -47,9 +47,20 @@ public class ServiceMetricCollectorSupport extends ServiceMetricCollector
     static final double NANO_PER_SEC = TimeUnit.SECONDS.toNanos(1);
     protected final static Log log = LogFactory.getLog(ServiceMetricCollectorSupport.class);
     private final BlockingQueue<MetricDatum> queue;
+    private final MetricAggregator aggregator;
 
     protected ServiceMetricCollectorSupport(BlockingQueue<MetricDatum> queue) {
+        this(queue, null);
+    }
+
+    /**
+     * @param aggregator
+     *            if not null, metrics are accumulated directly into the given
+     *            aggregator instead of being added to the queue
+     */
+    ServiceMetricCollectorSupport(BlockingQueue<MetricDatum> queue, MetricAggregator aggregator) {
         this.queue = queue;
+        this.aggregator = aggregator;
     }
 
     @Override
@@ -150,10 +161,11 @@ public class ServiceMetricCollectorSupport extends ServiceMetricCollector
         }
     }
     /**
-     * Adds the given metric to the queue, returning true if successful or false
-     * if no space available.
+     * Adds the given metric to the queue, or accumulates it into the
+     * aggregator if there is one, returning true if successful or false if no
+     * space available.
      */
     protected boolean addMetricsToQueue(MetricDatum metric) {
-        return queue.offer(metric); 
+        return aggregator == null ? queue.offer(metric) : aggregator.add(metric);
     }
 }
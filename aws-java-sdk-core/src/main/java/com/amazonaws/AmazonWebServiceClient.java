@@ -36,13 +36,16 @@ import com.amazonaws.http.HttpMethodName;
 import com.amazonaws.http.HttpRequest;
 import com.amazonaws.log.CommonsLogFactory;
 import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.LatencyHistogram;
 import com.amazonaws.metrics.RequestMetricCollector;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetricsCompactSupport;
 import com.amazonaws.util.AWSRequestMetrics.Field;
 import com.amazonaws.util.AwsHostNameUtils;
 import com.amazonaws.util.Classes;
+import com.amazonaws.util.TimingInfo;
 
 /**
  * Abstract base class for Amazon Web Service Java clients.
@@ -174,6 +177,7 @@ public abstract class AmazonWebServiceClient {
             this.endpoint = uri;
             this.signer = signer;
         }
+        client.prewarmConnections(uri, clientConfiguration.getConnectionPrewarmCount());
     }
 
     /** Returns the endpoint as a URI. */
@@ -697,9 +701,39 @@ public abstract class AmazonWebServiceClient {
         if (request != null) {
             awsRequestMetrics.endEvent(Field.ClientExecuteTime);
             awsRequestMetrics.getTimingInfo().endTiming();
+            if (AwsSdkMetrics.isLatencyHistogramsIncluded())
+                recordLatencyHistograms(request, awsRequestMetrics.getTimingInfo());
             RequestMetricCollector c = findRequestMetricCollector(request);
             c.collectMetrics(request, response);
             awsRequestMetrics.log();
+            if (awsRequestMetrics instanceof AWSRequestMetricsCompactSupport)
+                ((AWSRequestMetricsCompactSupport) awsRequestMetrics).release();
+        }
+    }
+
+    /**
+     * Records the client execution time and, if request metrics are enabled,
+     * the HTTP request times of the given request into the latency histograms
+     * of the AWS SDK.
+     */
+    private static void recordLatencyHistograms(Request<?> request, TimingInfo root) {
+        String serviceName = request.getServiceName();
+        String operationName = request.getOriginalRequest().getClass().getSimpleName();
+        Double millis = root.getTimeTakenMillisIfKnown();
+        if (millis != null) {
+            AwsSdkMetrics.getLatencyHistogram(serviceName, operationName,
+                    Field.ClientExecuteTime).recordMillis(millis);
+        }
+        List<TimingInfo> subMeasures =
+            root.getAllSubMeasurements(Field.HttpRequestTime.name());
+        if (subMeasures != null) {
+            LatencyHistogram histogram = AwsSdkMetrics.getLatencyHistogram(
+                    serviceName, operationName, Field.HttpRequestTime);
+            for (TimingInfo sub: subMeasures) {
+                millis = sub.getTimeTakenMillisIfKnown();
+                if (millis != null)
+                    histogram.recordMillis(millis);
+            }
         }
     }
 
@@ -62,6 +62,19 @@ public abstract class AmazonWebServiceRequest implements Cloneable, ReadLimitInf
      */
     private Map<String, String> customRequestHeaders;
 
+    /**
+     * The request timeout (in milliseconds) for this request, overriding the
+     * one of the client configuration; or null if not specified.
+     */
+    private Integer sdkRequestTimeout;
+
+    /**
+     * The client execution timeout (in milliseconds) for this request,
+     * overriding the one of the client configuration; or null if not
+     * specified.
+     */
+    private Integer sdkClientExecutionTimeout;
+
 
     /**
      * Sets the optional credentials to use for this request, overriding the
@@ -203,6 +216,78 @@ public abstract class AmazonWebServiceRequest implements Cloneable, ReadLimitInf
         return customRequestHeaders.put(name, value);
     }
 
+    /**
+     * Returns the request timeout (in milliseconds) for this request; or null
+     * if the one of the client configuration applies.
+     *
+     * @see ClientConfiguration#getRequestTimeout()
+     */
+    public Integer getSdkRequestTimeout() {
+        return sdkRequestTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for each HTTP request
+     * made on behalf of this request to complete before aborting it,
+     * overriding the request timeout of the client configuration. A value of
+     * 0 disables the timeout; null restores the client's default.
+     *
+     * @see ClientConfiguration#setRequestTimeout(int)
+     */
+    public void setSdkRequestTimeout(Integer sdkRequestTimeout) {
+        this.sdkRequestTimeout = sdkRequestTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for each HTTP request
+     * made on behalf of this request to complete before aborting it.
+     *
+     * @return A reference to this updated object so that method calls can be
+     *         chained together.
+     * @see #setSdkRequestTimeout(Integer)
+     */
+    public <T extends AmazonWebServiceRequest> T withSdkRequestTimeout(Integer sdkRequestTimeout) {
+        setSdkRequestTimeout(sdkRequestTimeout);
+        @SuppressWarnings("unchecked") T t = (T)this;
+        return t;
+    }
+
+    /**
+     * Returns the client execution timeout (in milliseconds) for this
+     * request; or null if the one of the client configuration applies.
+     *
+     * @see ClientConfiguration#getClientExecutionTimeout()
+     */
+    public Integer getSdkClientExecutionTimeout() {
+        return sdkClientExecutionTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for the execution of
+     * this request, including all retries, to complete before giving up,
+     * overriding the client execution timeout of the client configuration. A
+     * value of 0 disables the timeout; null restores the client's default.
+     *
+     * @see ClientConfiguration#setClientExecutionTimeout(int)
+     */
+    public void setSdkClientExecutionTimeout(Integer sdkClientExecutionTimeout) {
+        this.sdkClientExecutionTimeout = sdkClientExecutionTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for the execution of
+     * this request, including all retries, to complete before giving up.
+     *
+     * @return A reference to this updated object so that method calls can be
+     *         chained together.
+     * @see #setSdkClientExecutionTimeout(Integer)
+     */
+    public <T extends AmazonWebServiceRequest> T withSdkClientExecutionTimeout(Integer sdkClientExecutionTimeout) {
+        setSdkClientExecutionTimeout(sdkClientExecutionTimeout);
+        @SuppressWarnings("unchecked") T t = (T)this;
+        return t;
+    }
+
     @Override
     public final int getReadLimit() {
         return requestClientOptions.getReadLimit();
@@ -222,6 +307,8 @@ public abstract class AmazonWebServiceRequest implements Cloneable, ReadLimitInf
         target.setRequestCredentials(credentials);
         target.setGeneralProgressListener(progressListener);
         target.setRequestMetricCollector(requestMetricCollector);
+        target.setSdkRequestTimeout(sdkRequestTimeout);
+        target.setSdkClientExecutionTimeout(sdkClientExecutionTimeout);
         requestClientOptions.copyTo(target.getRequestClientOptions());
         return target;
     }
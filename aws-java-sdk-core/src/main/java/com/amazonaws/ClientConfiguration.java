@@ -15,10 +15,15 @@
 package com.amazonaws;
 
 import java.net.InetAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.http.annotation.NotThreadSafe;
 
 import com.amazonaws.http.IdleConnectionReaper;
+import com.amazonaws.http.SharedHttpTransport;
+import com.amazonaws.http.conn.ssl.SdkTLSSocketFactory;
 import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.util.VersionInfoUtils;
@@ -35,6 +40,15 @@ public class ClientConfiguration {
     /** The default timeout for reading from a connected socket. */
     public static final int DEFAULT_SOCKET_TIMEOUT = 50 * 1000;
 
+    /** The default timeout for a single HTTP request; disabled by default. */
+    public static final int DEFAULT_REQUEST_TIMEOUT = 0;
+
+    /**
+     * The default timeout for a client execution, including retries; disabled
+     * by default.
+     */
+    public static final int DEFAULT_CLIENT_EXECUTION_TIMEOUT = 0;
+
     /** The default max connection pool size. */
     public static final int DEFAULT_MAX_CONNECTIONS = 50;
 
@@ -79,6 +93,18 @@ public class ClientConfiguration {
      */
     public static final boolean DEFAULT_TCP_KEEP_ALIVE = false;
 
+    /**
+     * The default idle time (in milliseconds) after which a pooled connection
+     * is checked for staleness before being reused.
+     */
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = 5 * 1000;
+
+    /**
+     * The default maximum idle time (in milliseconds) of a pooled connection
+     * before it is closed by the {@link IdleConnectionReaper}.
+     */
+    public static final long DEFAULT_CONNECTION_MAX_IDLE_MILLIS = 60 * 1000;
+
     /** The HTTP user agent header passed with all HTTP requests. */
     private String userAgent = DEFAULT_USER_AGENT;
 
@@ -145,6 +171,19 @@ public class ClientConfiguration {
      */
     private int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
 
+    /**
+     * The amount of time to wait (in milliseconds) for a single HTTP request
+     * to complete before aborting it. A value of 0 disables the timeout.
+     */
+    private int requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+
+    /**
+     * The amount of time to wait (in milliseconds) for a client execution,
+     * including all of its retries, to complete before giving up. A value of
+     * 0 disables the timeout.
+     */
+    private int clientExecutionTimeout = DEFAULT_CLIENT_EXECUTION_TIMEOUT;
+
     /**
      * Optional size hint (in bytes) for the low level TCP send buffer. This is
      * an advanced option for advanced users who want to tune low level TCP
@@ -195,6 +234,53 @@ public class ClientConfiguration {
      * the operating system (sysctl on Linux, and Registry values on Windows).
      */
     private boolean tcpKeepAlive = DEFAULT_TCP_KEEP_ALIVE;
+
+    /**
+     * The maximum number of open HTTP connections to a single route, or -1 to
+     * use {@link #maxConnections}.
+     */
+    private int maxConnectionsPerRoute = -1;
+
+    /** Per host name overrides of {@link #maxConnectionsPerRoute}. */
+    private Map<String, Integer> maxConnectionsPerHost = new HashMap<String, Integer>();
+
+    /**
+     * The idle time (in milliseconds) after which a pooled connection is
+     * checked for staleness before being reused.
+     */
+    private int validateAfterInactivityMillis = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+    /** The maximum idle time (in milliseconds) of a pooled connection. */
+    private long connectionMaxIdleMillis = DEFAULT_CONNECTION_MAX_IDLE_MILLIS;
+
+    /**
+     * The number of connections to open to a client's endpoint in the
+     * background as soon as the endpoint is configured.
+     */
+    private int connectionPrewarmCount = 0;
+
+    /**
+     * The maximum number of TLS sessions cached for resumption, or -1 to use
+     * the JVM default.
+     */
+    private int tlsSessionCacheSize = -1;
+
+    /**
+     * The time (in seconds) a cached TLS session may be resumed, or -1 to use
+     * the JVM default.
+     */
+    private int tlsSessionTimeoutSeconds = -1;
+
+    /**
+     * The cipher suites to prefer during the TLS handshake, or null to use
+     * {@link SdkTLSSocketFactory#DEFAULT_PREFERRED_CIPHER_SUITES}.
+     */
+    private String[] preferredCipherSuites;
+
+    /**
+     * Optional HTTP transport shared with other clients.
+     */
+    private SharedHttpTransport sharedHttpTransport;
     
     /**
      * Can be used to specify custom specific Apache HTTP client configurations.
@@ -220,12 +306,26 @@ public class ClientConfiguration {
         this.proxyWorkstation            = other.proxyWorkstation;
         this.preemptiveBasicProxyAuth    = other.preemptiveBasicProxyAuth;
         this.socketTimeout               = other.socketTimeout;
+        this.requestTimeout              = other.requestTimeout;
+        this.clientExecutionTimeout      = other.clientExecutionTimeout;
         this.userAgent                   = other.userAgent;
         this.useReaper                   = other.useReaper;
         this.useGzip                     = other.useGzip;
         this.socketReceiveBufferSizeHint = other.socketReceiveBufferSizeHint;
         this.socketSendBufferSizeHint    = other.socketSendBufferSizeHint;
         this.signerOverride              = other.signerOverride;
+        this.connectionTTL               = other.connectionTTL;
+        this.tcpKeepAlive                = other.tcpKeepAlive;
+        this.maxConnectionsPerRoute      = other.maxConnectionsPerRoute;
+        this.maxConnectionsPerHost       = new HashMap<String, Integer>(other.maxConnectionsPerHost);
+        this.validateAfterInactivityMillis = other.validateAfterInactivityMillis;
+        this.connectionMaxIdleMillis     = other.connectionMaxIdleMillis;
+        this.connectionPrewarmCount      = other.connectionPrewarmCount;
+        this.tlsSessionCacheSize         = other.tlsSessionCacheSize;
+        this.tlsSessionTimeoutSeconds    = other.tlsSessionTimeoutSeconds;
+        this.preferredCipherSuites       = other.preferredCipherSuites == null
+            ? null : other.preferredCipherSuites.clone();
+        this.sharedHttpTransport         = other.sharedHttpTransport;
         this.apacheHttpClientConfig =
             new ApacheHttpClientConfig(other.apacheHttpClientConfig);
     }
@@ -731,6 +831,85 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the amount of time to wait (in milliseconds) for a single HTTP
+     * request to complete before aborting it. A value of 0 means the timeout
+     * is disabled.
+     */
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for a single HTTP
+     * request to complete before aborting it. Unlike the socket timeout, which
+     * applies to each read, the request timeout bounds the whole request,
+     * from obtaining a connection to handling the response, so a slowly
+     * trickling response cannot hold up the caller indefinitely. It does not
+     * apply to the content of streaming responses that is read after the
+     * client has returned, such as Amazon S3 object content.
+     * <p>
+     * A request aborted by the timeout fails with an
+     * {@link com.amazonaws.http.HttpRequestTimeoutException}, and is retried
+     * like any other I/O failure. A value of 0 (the default) disables the
+     * timeout.
+     *
+     * @see AmazonWebServiceRequest#setSdkRequestTimeout(Integer)
+     */
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for a single HTTP
+     * request to complete before aborting it.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setRequestTimeout(int)
+     */
+    public ClientConfiguration withRequestTimeout(int requestTimeout) {
+        setRequestTimeout(requestTimeout);
+        return this;
+    }
+
+    /**
+     * Returns the amount of time to wait (in milliseconds) for a client
+     * execution, including all of its retries, to complete before giving up.
+     * A value of 0 means the timeout is disabled.
+     */
+    public int getClientExecutionTimeout() {
+        return clientExecutionTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for a client
+     * execution to complete before giving up. The timeout covers all the
+     * retries of the execution and the pauses in between; any HTTP request in
+     * progress when it elapses is aborted, and no retry is attempted that
+     * would start after it.
+     * <p>
+     * A client execution that runs out of time fails with a
+     * {@link ClientExecutionTimeoutException}. A value of 0 (the default)
+     * disables the timeout.
+     *
+     * @see AmazonWebServiceRequest#setSdkClientExecutionTimeout(Integer)
+     */
+    public void setClientExecutionTimeout(int clientExecutionTimeout) {
+        this.clientExecutionTimeout = clientExecutionTimeout;
+    }
+
+    /**
+     * Sets the amount of time to wait (in milliseconds) for a client
+     * execution to complete before giving up.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setClientExecutionTimeout(int)
+     */
+    public ClientConfiguration withClientExecutionTimeout(int clientExecutionTimeout) {
+        setClientExecutionTimeout(clientExecutionTimeout);
+        return this;
+    }
+
     /**
      * Returns the amount of time to wait (in milliseconds) when initially
      * establishing a connection before giving up and timing out. A value of 0
@@ -1140,6 +1319,295 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the maximum number of open HTTP connections to a single route
+     * (i.e. endpoint host and port). By default this is the same as
+     * {@link #getMaxConnections()}.
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute < 0 ? maxConnections : maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of open HTTP connections to a single route
+     * (i.e. endpoint host and port), or -1 to use the value of
+     * {@link #getMaxConnections()}.
+     */
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of open HTTP connections to a single route
+     * (i.e. endpoint host and port), or -1 to use the value of
+     * {@link #getMaxConnections()}.
+     *
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+        return this;
+    }
+
+    /**
+     * Returns the per host name overrides of the maximum number of open HTTP
+     * connections to a single route.
+     */
+    public Map<String, Integer> getMaxConnectionsPerHost() {
+        return Collections.unmodifiableMap(maxConnectionsPerHost);
+    }
+
+    /**
+     * Sets the maximum number of open HTTP connections to any route to the
+     * given host, overriding {@link #getMaxConnectionsPerRoute()}.
+     *
+     * @param host
+     *            the host name, as used in the endpoint
+     * @param maxConnections
+     *            the maximum number of connections to the host
+     */
+    public void setMaxConnectionsForHost(String host, int maxConnections) {
+        this.maxConnectionsPerHost.put(host, maxConnections);
+    }
+
+    /**
+     * Sets the maximum number of open HTTP connections to any route to the
+     * given host, overriding {@link #getMaxConnectionsPerRoute()}.
+     *
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withMaxConnectionsForHost(String host, int maxConnections) {
+        setMaxConnectionsForHost(host, maxConnections);
+        return this;
+    }
+
+    /**
+     * Returns the idle time (in milliseconds) after which a pooled connection
+     * is checked for staleness before being reused.
+     */
+    public int getValidateAfterInactivityMillis() {
+        return validateAfterInactivityMillis;
+    }
+
+    /**
+     * Sets the idle time (in milliseconds) after which a pooled connection is
+     * checked for staleness before being reused. Checking a connection costs
+     * a blocking read of up to 1 millisecond, so connections reused in quick
+     * succession are not checked. A value of 0 checks every connection before
+     * it is reused; a negative value disables the check.
+     */
+    public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    }
+
+    /**
+     * Sets the idle time (in milliseconds) after which a pooled connection is
+     * checked for staleness before being reused.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setValidateAfterInactivityMillis(int)
+     */
+    public ClientConfiguration withValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+        setValidateAfterInactivityMillis(validateAfterInactivityMillis);
+        return this;
+    }
+
+    /**
+     * Returns the maximum idle time (in milliseconds) of a pooled connection
+     * before it is closed by the {@link IdleConnectionReaper}.
+     */
+    public long getConnectionMaxIdleMillis() {
+        return connectionMaxIdleMillis;
+    }
+
+    /**
+     * Sets the maximum idle time (in milliseconds) of a pooled connection
+     * before it is closed by the {@link IdleConnectionReaper}. Has no effect if
+     * the reaper is disabled.
+     */
+    public void setConnectionMaxIdleMillis(long connectionMaxIdleMillis) {
+        this.connectionMaxIdleMillis = connectionMaxIdleMillis;
+    }
+
+    /**
+     * Sets the maximum idle time (in milliseconds) of a pooled connection
+     * before it is closed by the {@link IdleConnectionReaper}.
+     *
+     * @return The updated ClientConfiguration object.
+     */
+    public ClientConfiguration withConnectionMaxIdleMillis(long connectionMaxIdleMillis) {
+        setConnectionMaxIdleMillis(connectionMaxIdleMillis);
+        return this;
+    }
+
+    /**
+     * Returns the number of connections opened to a client's endpoint in the
+     * background as soon as the endpoint is configured; 0 by default.
+     */
+    public int getConnectionPrewarmCount() {
+        return connectionPrewarmCount;
+    }
+
+    /**
+     * Sets the number of connections, including their TLS handshakes, to open
+     * to a client's endpoint in the background as soon as the endpoint is
+     * configured, so that the first requests do not pay for connection setup.
+     * The count is capped at the per-route connection limit. Pre-warming is
+     * skipped for HTTPS endpoints accessed through a proxy.
+     */
+    public void setConnectionPrewarmCount(int connectionPrewarmCount) {
+        this.connectionPrewarmCount = connectionPrewarmCount;
+    }
+
+    /**
+     * Sets the number of connections to open to a client's endpoint in the
+     * background as soon as the endpoint is configured.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setConnectionPrewarmCount(int)
+     */
+    public ClientConfiguration withConnectionPrewarmCount(int connectionPrewarmCount) {
+        setConnectionPrewarmCount(connectionPrewarmCount);
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of TLS sessions cached for resumption, or -1
+     * if the JVM default is used.
+     */
+    public int getTlsSessionCacheSize() {
+        return tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of TLS sessions cached for resumption. Resuming
+     * a cached session with an endpoint saves most of the cost of a full TLS
+     * handshake when a new connection is opened, e.g. after idle connections
+     * have been reaped. A value of 0 means no limit; -1 (the default) keeps
+     * the JVM default.
+     * <p>
+     * Setting a TLS session cache size or timeout gives the client an SSL
+     * context, and thus a session cache, of its own instead of the default
+     * SSL context of the JVM.
+     */
+    public void setTlsSessionCacheSize(int tlsSessionCacheSize) {
+        this.tlsSessionCacheSize = tlsSessionCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of TLS sessions cached for resumption.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setTlsSessionCacheSize(int)
+     */
+    public ClientConfiguration withTlsSessionCacheSize(int tlsSessionCacheSize) {
+        setTlsSessionCacheSize(tlsSessionCacheSize);
+        return this;
+    }
+
+    /**
+     * Returns the time (in seconds) a cached TLS session may be resumed, or
+     * -1 if the JVM default is used.
+     */
+    public int getTlsSessionTimeoutSeconds() {
+        return tlsSessionTimeoutSeconds;
+    }
+
+    /**
+     * Sets the time (in seconds) a cached TLS session may be resumed. A value
+     * of 0 means no limit; -1 (the default) keeps the JVM default.
+     * <p>
+     * Setting a TLS session cache size or timeout gives the client an SSL
+     * context, and thus a session cache, of its own instead of the default
+     * SSL context of the JVM.
+     */
+    public void setTlsSessionTimeoutSeconds(int tlsSessionTimeoutSeconds) {
+        this.tlsSessionTimeoutSeconds = tlsSessionTimeoutSeconds;
+    }
+
+    /**
+     * Sets the time (in seconds) a cached TLS session may be resumed.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setTlsSessionTimeoutSeconds(int)
+     */
+    public ClientConfiguration withTlsSessionTimeoutSeconds(int tlsSessionTimeoutSeconds) {
+        setTlsSessionTimeoutSeconds(tlsSessionTimeoutSeconds);
+        return this;
+    }
+
+    /**
+     * Returns the cipher suites to prefer during the TLS handshake, or null
+     * if {@link SdkTLSSocketFactory#DEFAULT_PREFERRED_CIPHER_SUITES} are
+     * preferred.
+     */
+    public String[] getPreferredCipherSuites() {
+        return preferredCipherSuites == null ? null : preferredCipherSuites.clone();
+    }
+
+    /**
+     * Sets the cipher suites to prefer during the TLS handshake, in
+     * descending order of preference. The preferred suites that are enabled
+     * are offered ahead of the other enabled suites; no suite is enabled or
+     * disabled as a result. By default, AES-GCM suites, which are the
+     * cheapest to run on hardware with AES instructions, are preferred.
+     * <p>
+     * Has no effect if a custom SSL socket factory has been configured via
+     * {@link ApacheHttpClientConfig#setSslSocketFactory}.
+     *
+     * @param preferredCipherSuites
+     *            the standard names of the cipher suites to prefer, or null
+     *            for the default preference
+     */
+    public void setPreferredCipherSuites(String... preferredCipherSuites) {
+        this.preferredCipherSuites = preferredCipherSuites == null
+            ? null : preferredCipherSuites.clone();
+    }
+
+    /**
+     * Sets the cipher suites to prefer during the TLS handshake, in
+     * descending order of preference.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setPreferredCipherSuites(String...)
+     */
+    public ClientConfiguration withPreferredCipherSuites(String... preferredCipherSuites) {
+        setPreferredCipherSuites(preferredCipherSuites);
+        return this;
+    }
+
+    /**
+     * Returns the HTTP transport shared with other clients, or null if each
+     * client has its own.
+     */
+    public SharedHttpTransport getSharedHttpTransport() {
+        return sharedHttpTransport;
+    }
+
+    /**
+     * Sets the HTTP transport, i.e. HTTP client and connection pool, to share
+     * with other clients; or null (the default) for each client to have its
+     * own. When set, the HTTP settings of this configuration are ignored in
+     * favor of the ones of the transport, and {@link #getMaxConnections()}
+     * caps the number of concurrent requests of the client instead.
+     *
+     * @see SharedHttpTransport
+     */
+    public void setSharedHttpTransport(SharedHttpTransport sharedHttpTransport) {
+        this.sharedHttpTransport = sharedHttpTransport;
+    }
+
+    /**
+     * Sets the HTTP transport to share with other clients.
+     *
+     * @return The updated ClientConfiguration object.
+     * @see #setSharedHttpTransport(SharedHttpTransport)
+     */
+    public ClientConfiguration withSharedHttpTransport(SharedHttpTransport sharedHttpTransport) {
+        setSharedHttpTransport(sharedHttpTransport);
+        return this;
+    }
+
     /**
      * Returns a non-null object that can be used to specify Apache HTTP client
      * specific custom configurations.
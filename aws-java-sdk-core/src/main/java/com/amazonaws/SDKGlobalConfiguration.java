@@ -112,6 +112,38 @@ public class SDKGlobalConfiguration {
     public static final String ENFORCE_S3_SIGV4_SYSTEM_PROPERTY =
         "com.amazonaws.services.s3.enforceV4";
 
+    /**
+     * System property to configure the number of threads used to deliver
+     * progress events to listeners that are not safe to be called
+     * synchronously. Callbacks to the same listener are always delivered in
+     * order, one at a time.
+     * <p>
+     * If not set, up to 4 threads are used, depending on the number of
+     * available processors.
+     */
+    public static final String PROGRESS_LISTENER_THREADS_SYSTEM_PROPERTY =
+        "com.amazonaws.sdk.progressListenerThreads";
+
+    /**
+     * System property to configure the maximum number of progress events that
+     * may be pending delivery to a single asynchronous listener. Once reached,
+     * byte count events are merged into pending events of the same type, or
+     * dropped.
+     * <p>
+     * If not set, the default value of 1000 will be used.
+     */
+    public static final String PROGRESS_LISTENER_MAX_PENDING_EVENTS_SYSTEM_PROPERTY =
+        "com.amazonaws.sdk.progressListenerMaxPendingEvents";
+
+    /**
+     * System property to configure the default number of bytes transferred
+     * between two byte count progress events of a request or response stream.
+     * <p>
+     * If not set, the default value of 8 KB will be used.
+     */
+    public static final String PROGRESS_NOTIFICATION_THRESHOLD_SYSTEM_PROPERTY =
+        "com.amazonaws.sdk.progressNotificationThreshold";
+
     /**
      * @deprecated with {@link AmazonWebServiceRequest#getRequestClientOptions()}
      * and {@link RequestClientOptions#setReadLimit(int)}.
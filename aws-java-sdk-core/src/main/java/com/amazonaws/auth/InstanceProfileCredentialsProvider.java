@@ -16,9 +16,11 @@ package com.amazonaws.auth;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.Random;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,6 +35,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 /**
  * Credentials provider implementation that loads credentials from the Amazon
  * EC2 Instance Metadata Service.
+ * <p>
+ * Only one thread at a time loads credentials. While the current credentials
+ * are still valid, the other threads keep using them instead of waiting for
+ * the new ones; only when there are no valid credentials do they wait, and
+ * then share the credentials loaded by that thread. When refreshing
+ * asynchronously, the credentials are refreshed in the background a random
+ * time ahead of the expiration threshold, so that providers started together
+ * don't all call the metadata service at once.
  */
 public class InstanceProfileCredentialsProvider implements AWSCredentialsProvider {
 
@@ -65,6 +75,12 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
      */
     private static final int ASYNC_REFRESH_INTERVAL_TIME_MINUTES= 1;
 
+    /**
+     * The longest time (in milliseconds) ahead of the expiration threshold at
+     * which the background thread refreshes the credentials.
+     */
+    private static final int ASYNC_REFRESH_JITTER = 1000 * 60 * 5;
+
 
     /** The current instance profile credentials */
     protected volatile AWSCredentials credentials;
@@ -81,6 +97,21 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
      */
     private volatile ScheduledExecutorService executor;
 
+    /** The client for the metadata service, whose connections are reused */
+    private final EC2MetadataClient metadataClient = new EC2MetadataClient();
+
+    /** Held by the thread loading credentials */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final Random random = new Random();
+
+    /**
+     * The time ahead of the expiration threshold (in milliseconds) at which
+     * the background thread refreshes the credentials, picked again after
+     * every load.
+     */
+    private volatile int asyncRefreshJitter = random.nextInt(ASYNC_REFRESH_JITTER);
+
     public InstanceProfileCredentialsProvider() {
         this(false);
     }
@@ -101,7 +132,8 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
                 @Override
                 public void run() {
                     try {
-                        getCredentials();
+                        loadCredentials(true, true);
+                        checkNotExpired();
                     } catch (AmazonClientException ace) {
                         handleError(ace);
                     } catch (RuntimeException re) {
@@ -121,12 +153,16 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
 
     public AWSCredentials getCredentials() {
         if (needsToLoadCredentials())
-            loadCredentials();
+            loadCredentials(credentials == null || expired(), false);
+        checkNotExpired();
+        return credentials;
+    }
+
+    private void checkNotExpired() {
         if (expired()) {
             throw new AmazonClientException(
                     "The credentials received from the Amazon EC2 metadata service have expired");
         }
-        return credentials;
     }
 
     public void refresh() {
@@ -164,6 +200,16 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
         return (System.currentTimeMillis() - lastInstanceProfileCheck.getTime()) > REFRESH_THRESHOLD;
     }
 
+    /**
+     * Returns true if the current credentials are within the expiration
+     * threshold plus the jitter of the background refresh.
+     */
+    private boolean isWithinAsyncRefreshThreshold() {
+        return credentials != null && credentialsExpiration != null
+                && (credentialsExpiration.getTime() - System.currentTimeMillis())
+                        < EXPIRATION_THRESHOLD + asyncRefreshJitter;
+    }
+
     private boolean expired() {
         if (credentialsExpiration != null) {
             if (credentialsExpiration.getTime() < System.currentTimeMillis()) {
@@ -174,17 +220,41 @@ public class InstanceProfileCredentialsProvider implements AWSCredentialsProvide
         return false;
     }
 
-    private synchronized void loadCredentials() {
-        if (!needsToLoadCredentials()) return;
+    /**
+     * Loads credentials unless another thread is already loading them.
+     *
+     * @param wait
+     *            true to wait for the thread loading credentials, if any, and
+     *            use the credentials it loaded; false to return at once and
+     *            keep using the current credentials.
+     * @param ahead
+     *            true to load credentials within the threshold of the
+     *            background refresh, ahead of the expiration threshold.
+     */
+    private void loadCredentials(boolean wait, boolean ahead) {
+        if (wait) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (needsToLoadCredentials() || (ahead && isWithinAsyncRefreshThreshold())) {
+                fetchCredentials();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
 
+    private void fetchCredentials() {
         JsonNode accessKey;
         JsonNode secretKey;
         JsonNode node;
         JsonNode token;
         try {
             lastInstanceProfileCheck = new Date();
-            String credentialsResponse = new EC2MetadataClient()
-                    .getDefaultCredentials();
+            asyncRefreshJitter = random.nextInt(ASYNC_REFRESH_JITTER);
+            String credentialsResponse = metadataClient.getDefaultCredentials();
 
             node = Jackson.jsonNodeOf(credentialsResponse);
             accessKey = node.get(ACCESS_KEY_ID);
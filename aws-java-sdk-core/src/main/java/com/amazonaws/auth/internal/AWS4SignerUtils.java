@@ -14,8 +14,9 @@
  */
 package com.amazonaws.auth.internal;
 
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import com.amazonaws.util.DateUtils;
 
 /**
  * Utility methods that is used by the different AWS Signer implementations.
@@ -23,12 +24,6 @@ import org.joda.time.format.DateTimeFormatter;
  */
 public final class AWS4SignerUtils {
 
-    private static final DateTimeFormatter dateFormatter = DateTimeFormat
-            .forPattern("yyyyMMdd").withZoneUTC();
-
-    private static final DateTimeFormatter timeFormatter = DateTimeFormat
-            .forPattern("yyyyMMdd'T'HHmmss'Z'").withZoneUTC();
-
     /**
      * Returns a string representation of the given date time in yyyyMMdd
      * format. The date returned is in the UTC zone.
@@ -36,7 +31,7 @@ public final class AWS4SignerUtils {
      * For example, given a time "1416863450581", this method returns "20141124"
      */
     public static String formatDateStamp(long timeMilli) {
-        return dateFormatter.print(timeMilli);
+        return formatTimestamp(timeMilli).substring(0, 8);
     }
 
     /**
@@ -47,6 +42,6 @@ public final class AWS4SignerUtils {
      * "20141124T211050Z"
      */
     public static String formatTimestamp(long timeMilli) {
-        return timeFormatter.print(timeMilli);
+        return DateUtils.formatCompressedISO8601Date(new Date(timeMilli));
     }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.event;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Delivers asynchronous progress callbacks over a shared pool of threads.
+ * <p>
+ * Callbacks for the same listener are queued in a per-listener mailbox and
+ * executed one at a time, in order, so a listener never sees concurrent or
+ * reordered lifecycle events. Different listeners are served in parallel.
+ * <p>
+ * Byte count events are coalesced: an event is merged into the most recent
+ * pending event of the same type, so a slow listener receives fewer, larger
+ * events rather than an ever growing backlog. Once a mailbox holds
+ * {@code maxPendingEvents} entries, byte count events are merged into any
+ * pending event of the same type, or dropped if there is none; lifecycle
+ * events and other callbacks are never dropped.
+ */
+final class ProgressEventDispatcher {
+    private final ExecutorService executor;
+    private final int maxPendingEvents;
+    private final ConcurrentMap<Object, Mailbox> mailboxes =
+            new ConcurrentHashMap<Object, Mailbox>();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    ProgressEventDispatcher(ExecutorService executor, int maxPendingEvents) {
+        this.executor = executor;
+        this.maxPendingEvents = maxPendingEvents;
+    }
+
+    /**
+     * Queues the given event for asynchronous delivery to the listener.
+     *
+     * @return the future of the task that will deliver the event
+     */
+    Future<?> dispatch(ProgressListener listener, ProgressEvent event) {
+        return enqueue(listener, event);
+    }
+
+    /**
+     * Queues an arbitrary callback, to be executed in order with the other
+     * callbacks queued for the same listener.
+     *
+     * @return the future of the task that will execute the callback
+     */
+    Future<?> dispatch(Object listener, Runnable callback) {
+        return enqueue(listener, callback);
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /** Returns the number of byte count events merged into pending events. */
+    long getCoalescedEventCount() {
+        return coalescedEvents.get();
+    }
+
+    /** Returns the number of byte count events dropped on full mailboxes. */
+    long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    private Future<?> enqueue(Object listener, Object entry) {
+        while (true) {
+            Mailbox mailbox = mailboxes.get(listener);
+            if (mailbox == null) {
+                Mailbox created = new Mailbox(listener);
+                mailbox = mailboxes.putIfAbsent(listener, created);
+                if (mailbox == null)
+                    mailbox = created;
+            }
+            Future<?> future = mailbox.offer(entry);
+            if (future != null)
+                return future;
+            // The mailbox drained and retired concurrently; use a new one.
+        }
+    }
+
+    private static boolean isCoalescable(ProgressEventType type) {
+        switch (type) {
+            case BYTE_TRANSFER_EVENT:
+            case REQUEST_BYTE_TRANSFER_EVENT:
+            case RESPONSE_BYTE_TRANSFER_EVENT:
+            case RESPONSE_BYTE_DISCARD_EVENT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Pending callbacks of a single listener. A mailbox is removed from the
+     * map as soon as it is drained, so idle listeners hold no resources.
+     */
+    private final class Mailbox implements Runnable {
+        private final Object listener;
+        private final ArrayDeque<Object> pending = new ArrayDeque<Object>();
+        private Future<?> drainTask;
+        private boolean retired;
+
+        Mailbox(Object listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Returns the future of the task draining this mailbox, or null if
+         * the mailbox has been retired.
+         */
+        synchronized Future<?> offer(Object entry) {
+            if (retired)
+                return null;
+            if (!(entry instanceof ProgressEvent) || !merge((ProgressEvent) entry))
+                pending.addLast(entry);
+            if (drainTask == null)
+                drainTask = executor.submit(this);
+            return drainTask;
+        }
+
+        /**
+         * Returns true if the event was merged or dropped, false if it must
+         * be queued.
+         */
+        private boolean merge(ProgressEvent event) {
+            ProgressEventType type = event.getEventType();
+            if (!isCoalescable(type))
+                return false;
+            boolean full = pending.size() >= maxPendingEvents;
+            Iterator<Object> it = pending.descendingIterator();
+            while (it.hasNext()) {
+                Object entry = it.next();
+                if (entry instanceof ProgressEvent
+                        && ((ProgressEvent) entry).getEventType() == type) {
+                    ProgressEvent merged = new ProgressEvent(type,
+                            ((ProgressEvent) entry).getBytes() + event.getBytes());
+                    if (entry == pending.peekLast()) {
+                        pending.pollLast();
+                        pending.addLast(merged);
+                    } else {
+                        replace(entry, merged);
+                    }
+                    coalescedEvents.incrementAndGet();
+                    return true;
+                }
+                // Only merge past other entries once the mailbox is full, so
+                // byte counts are not reordered relative to lifecycle events.
+                if (!full)
+                    return false;
+            }
+            if (full) {
+                droppedEvents.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private void replace(Object entry, ProgressEvent merged) {
+            ArrayDeque<Object> copy = new ArrayDeque<Object>(pending.size());
+            for (Object e : pending)
+                copy.addLast(e == entry ? merged : e);
+            pending.clear();
+            pending.addAll(copy);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object entry;
+                synchronized (this) {
+                    entry = pending.pollFirst();
+                    if (entry == null) {
+                        retired = true;
+                        mailboxes.remove(listener, this);
+                        return;
+                    }
+                }
+                deliver(entry);
+            }
+        }
+
+        private void deliver(Object entry) {
+            try {
+                if (entry instanceof ProgressEvent) {
+                    ((ProgressListener) listener).progressChanged((ProgressEvent) entry);
+                } else {
+                    ((Runnable) entry).run();
+                }
+            } catch (Throwable t) {
+                // Failures of asynchronous listeners have always been ignored.
+                LogFactory.getLog(SDKProgressPublisher.class)
+                    .debug("Failure from the event listener", t);
+            }
+        }
+    }
+}
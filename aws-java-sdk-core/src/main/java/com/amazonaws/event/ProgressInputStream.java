@@ -17,9 +17,11 @@ package com.amazonaws.event;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.annotation.NotThreadSafe;
 
 import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.internal.SdkFilterInputStream;
 
 /**
@@ -55,8 +57,12 @@ public abstract class ProgressInputStream extends SdkFilterInputStream {
              : new ResponseProgressInputStream(is, req.getGeneralProgressListener());
     }
 
-    /** The threshold of bytes between notifications. */
-    private static final int DEFAULT_NOTIFICATION_THRESHOLD = 8 * 1024;
+    /**
+     * The default threshold of bytes between notifications.
+     *
+     * @see SDKGlobalConfiguration#PROGRESS_NOTIFICATION_THRESHOLD_SYSTEM_PROPERTY
+     */
+    private static final int DEFAULT_NOTIFICATION_THRESHOLD = defaultNotificationThreshold();
 
     private final ProgressListener listener;
     private final int notifyThresHold;
@@ -185,4 +191,20 @@ public abstract class ProgressInputStream extends SdkFilterInputStream {
     public final ProgressListener getListener() {
         return listener;
     }
+
+    private static int defaultNotificationThreshold() {
+        String value = System.getProperty(
+                SDKGlobalConfiguration.PROGRESS_NOTIFICATION_THRESHOLD_SYSTEM_PROPERTY);
+        if (value != null) {
+            try {
+                int threshold = Integer.parseInt(value.trim());
+                if (threshold > 0)
+                    return threshold;
+            } catch (NumberFormatException ignore) {
+            }
+            LogFactory.getLog(ProgressInputStream.class).warn(
+                "Ignoring invalid progress notification threshold " + value);
+        }
+        return 8 * 1024;
+    }
 }
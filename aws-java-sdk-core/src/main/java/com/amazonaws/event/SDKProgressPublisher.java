@@ -26,15 +26,29 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.LogFactory;
 
+import com.amazonaws.SDKGlobalConfiguration;
+
 /**
  * This class is responsible for executing the callback method of
- * ProgressListener; listener callbacks are executed sequentially in a separate
- * single thread.
+ * ProgressListener. Listeners that are not safe to be called synchronously are
+ * called from a small pool of threads; callbacks to the same listener are
+ * executed sequentially and in order, and byte count events pending delivery
+ * to the same listener are coalesced.
+ *
+ * @see SDKGlobalConfiguration#PROGRESS_LISTENER_THREADS_SYSTEM_PROPERTY
+ * @see SDKGlobalConfiguration#PROGRESS_LISTENER_MAX_PENDING_EVENTS_SYSTEM_PROPERTY
  */
 public class SDKProgressPublisher {
+    /** Default number of threads used for asynchronous callbacks. */
+    static final int DEFAULT_CALLBACK_THREADS =
+        Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors()));
+    /** Default number of callbacks that may be pending per listener. */
+    static final int DEFAULT_MAX_PENDING_EVENTS = 1000;
+
     protected static final boolean SYNC = false;  // for testing purposes only
     protected static final boolean ASYNC = false; // for testing purposes only
     /**
@@ -77,12 +91,19 @@ public class SDKProgressPublisher {
         // This is unfortunate as the listener should never block in the first
         // place, but such task submission is necessary to remain backward
         // compatible.
-        return latestFutureTask = LazyHolder.executor.submit(new Runnable() {
-            @Override
-            public void run() {
-                listener.progressChanged(event);
-            }
-        });
+        return latestFutureTask = LazyHolder.dispatcher.dispatch(listener, event);
+    }
+
+    /**
+     * Used to execute an arbitrary callback on behalf of the given listener
+     * asynchronously, in order with the progress events delivered to the same
+     * listener.
+     *
+     * @return the future of the task that will execute the callback
+     */
+    protected static Future<?> deliverCallback(final Object listener,
+            final Runnable callback) {
+        return latestFutureTask = LazyHolder.dispatcher.dispatch(listener, callback);
     }
 
     private static Future<?> quietlyCallListener(final ProgressListener listener,
@@ -222,7 +243,23 @@ public class SDKProgressPublisher {
      * Returns the executor service used for performing the callbacks.
      */
     protected static ExecutorService getExecutorService() {
-        return LazyHolder.executor;
+        return LazyHolder.dispatcher.getExecutor();
+    }
+
+    /**
+     * Returns the number of byte count events that have been merged into
+     * events already pending delivery to the same listener.
+     */
+    public static long getCoalescedEventCount() {
+        return LazyHolder.dispatcher.getCoalescedEventCount();
+    }
+
+    /**
+     * Returns the number of byte count events that have been dropped because
+     * too many events were already pending delivery to the same listener.
+     */
+    public static long getDroppedEventCount() {
+        return LazyHolder.dispatcher.getDroppedEventCount();
     }
     
     protected static Future<?> setLatestFutureTask(Future<?> f) {
@@ -243,21 +280,29 @@ public class SDKProgressPublisher {
     }
 
     /**
-     * Used to avoid creating the extra thread until absolutely necessary.
+     * Used to avoid creating the extra threads until absolutely necessary.
      */
     private static final class LazyHolder {
-        /** A single thread pool for executing all ProgressListener callbacks. **/
-        private static final ExecutorService executor = createNewExecutorService();
+        /** Dispatches all asynchronous ProgressListener callbacks. **/
+        private static final ProgressEventDispatcher dispatcher =
+            new ProgressEventDispatcher(createNewExecutorService(),
+                intProperty(SDKGlobalConfiguration.PROGRESS_LISTENER_MAX_PENDING_EVENTS_SYSTEM_PROPERTY,
+                    DEFAULT_MAX_PENDING_EVENTS));
 
         /**
-         * Creates a new single threaded executor service for performing the
-         * callbacks.
+         * Creates a new executor service for performing the callbacks.
          */
         private static ExecutorService createNewExecutorService() {
-            return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            final int threads = intProperty(
+                    SDKGlobalConfiguration.PROGRESS_LISTENER_THREADS_SYSTEM_PROPERTY,
+                    DEFAULT_CALLBACK_THREADS);
+            return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
                 public Thread newThread(Runnable r) {
                     Thread t = new Thread(r);
-                    t.setName("java-sdk-progress-listener-callback-thread");
+                    t.setName("java-sdk-progress-listener-callback-thread-"
+                            + count.incrementAndGet());
                     t.setDaemon(true);
                     return t;
                 }
@@ -265,6 +310,21 @@ public class SDKProgressPublisher {
         }
     }
 
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        if (value != null) {
+            try {
+                int i = Integer.parseInt(value.trim());
+                if (i > 0)
+                    return i;
+            } catch (NumberFormatException ignore) {
+            }
+            LogFactory.getLog(SDKProgressPublisher.class).warn(
+                "Ignoring invalid value " + value + " for " + name);
+        }
+        return defaultValue;
+    }
+
     /**
      * Can be used to shutdown the (legacy) executor.
      * <p>
@@ -278,8 +338,8 @@ public class SDKProgressPublisher {
      */
     public static void shutdown(boolean now) {
         if (now)
-            LazyHolder.executor.shutdownNow();
+            getExecutorService().shutdownNow();
         else
-            LazyHolder.executor.shutdown();
+            getExecutorService().shutdown();
     }
 }
@@ -19,15 +19,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.util.ClassLoaderHelper;
 
 /**
  * Factory for creating request/response handler chains.
+ * <p>
+ * The handler classes listed in each classpath resource are loaded once per
+ * JVM, so constructing further clients of the same service only instantiates
+ * the handlers. Only classes loaded by the class loader of the SDK itself are
+ * cached, so that handlers found through a thread context class loader, such
+ * as that of a web application, are neither shared with other context class
+ * loaders nor keep theirs from being unloaded.
  */
 public class HandlerChainFactory {
+    /**
+     * The handler classes listed in each resource, keyed by the handler API
+     * and the resource name. Only holds classes of the SDK's class loader.
+     */
+    private static final ConcurrentMap<String, List<Class<?>>> handlerClasses =
+        new ConcurrentHashMap<String, List<Class<?>>>();
 
     /**
      * For backward compatibility, constructs a new request handler chain
@@ -62,11 +78,48 @@ public class HandlerChainFactory {
 
     private List<RequestHandler2> createRequestHandlerChain(String resource, Class<?> handlerApiClass) {
         List<RequestHandler2> handlers = new ArrayList<RequestHandler2>();
+        try {
+            for (Class<?> requestHandlerClass: loadHandlerClasses(resource, handlerApiClass)) {
+                Object requestHandlerObject = requestHandlerClass.newInstance();
+                if (handlerApiClass == RequestHandler2.class) {
+                    RequestHandler2 h = (RequestHandler2)requestHandlerObject;
+                    handlers.add(h);
+                } else if (handlerApiClass == RequestHandler.class) {
+                    RequestHandler h = (RequestHandler)requestHandlerObject;
+                    handlers.add(RequestHandler2.adapt(h));
+                } else {
+                    throw new IllegalStateException();
+                }
+            }
+        } catch (Exception e) {
+            throw new AmazonClientException("Unable to instantiate request handler chain for client: "
+                    + e.getMessage(), e);
+        }
+        return handlers;
+    }
+
+    /**
+     * Returns the handler classes listed in the specified classpath resource,
+     * loading them on first use.
+     */
+    private List<Class<?>> loadHandlerClasses(String resource, Class<?> handlerApiClass)
+            throws IOException, ClassNotFoundException {
+        String key = handlerApiClass.getName() + ":" + resource;
+        List<Class<?>> classes = handlerClasses.get(key);
+        if (classes != null)
+            return classes;
+        classes = new ArrayList<Class<?>>();
+        ClassLoader sdkLoader = HandlerChainFactory.class.getClassLoader();
+        boolean cacheable = getClass().getClassLoader() == sdkLoader;
         BufferedReader reader = null;
 
         try {
             InputStream input = getClass().getResourceAsStream(resource);
-            if (input == null) return handlers;
+            if (input == null) {
+                if (cacheable)
+                    handlerClasses.putIfAbsent(key, Collections.<Class<?>>emptyList());
+                return Collections.emptyList();
+            }
 
             reader = new BufferedReader(new InputStreamReader(input));
             while (true) {
@@ -79,18 +132,7 @@ public class HandlerChainFactory {
                 Class<?> requestHandlerClass = ClassLoaderHelper.loadClass(
                     requestHandlerClassName,
                     handlerApiClass, getClass());
-                Object requestHandlerObject = requestHandlerClass.newInstance();
-                if (handlerApiClass.isInstance(requestHandlerObject)) {
-                    if (handlerApiClass == RequestHandler2.class) {
-                        RequestHandler2 h = (RequestHandler2)requestHandlerObject;
-                        handlers.add(h);
-                    } else if (handlerApiClass == RequestHandler.class) {
-                        RequestHandler h = (RequestHandler)requestHandlerObject;
-                        handlers.add(RequestHandler2.adapt(h));
-                    } else {
-                        throw new IllegalStateException();
-                    }
-                } else {
+                if (!handlerApiClass.isAssignableFrom(requestHandlerClass)) {
                     throw new AmazonClientException(
                         "Unable to instantiate request handler chain for client.  "
                                 + "Listed request handler ('"
@@ -98,10 +140,10 @@ public class HandlerChainFactory {
                                 + "does not implement the "
                                 + handlerApiClass + " API.");
                 }
+                if (requestHandlerClass.getClassLoader() != sdkLoader)
+                    cacheable = false;
+                classes.add(requestHandlerClass);
             }
-        } catch (Exception e) {
-            throw new AmazonClientException("Unable to instantiate request handler chain for client: "
-                    + e.getMessage(), e);
         } finally {
             try {
                 if (reader != null) {
@@ -110,6 +152,9 @@ public class HandlerChainFactory {
             } catch (IOException e) {
             }
         }
-        return handlers;
+        classes = Collections.unmodifiableList(classes);
+        if (cacheable)
+            handlerClasses.putIfAbsent(key, classes);
+        return classes;
     }
 }
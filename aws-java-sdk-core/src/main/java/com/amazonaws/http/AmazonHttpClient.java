@@ -20,6 +20,7 @@ import static com.amazonaws.event.SDKProgressPublisher.publishRequestContentLeng
 import static com.amazonaws.event.SDKProgressPublisher.publishResponseContentLength;
 import static com.amazonaws.util.AWSRequestMetrics.Field.AWSErrorCode;
 import static com.amazonaws.util.AWSRequestMetrics.Field.AWSRequestID;
+import static com.amazonaws.util.AWSRequestMetrics.Field.ClientExecutionTimeoutCount;
 import static com.amazonaws.util.AWSRequestMetrics.Field.Exception;
 import static com.amazonaws.util.AWSRequestMetrics.Field.HttpClientPoolAvailableCount;
 import static com.amazonaws.util.AWSRequestMetrics.Field.HttpClientPoolLeasedCount;
@@ -28,6 +29,7 @@ import static com.amazonaws.util.AWSRequestMetrics.Field.HttpRequestTime;
 import static com.amazonaws.util.AWSRequestMetrics.Field.RedirectLocation;
 import static com.amazonaws.util.AWSRequestMetrics.Field.RequestCount;
 import static com.amazonaws.util.AWSRequestMetrics.Field.RequestSigningTime;
+import static com.amazonaws.util.AWSRequestMetrics.Field.RequestTimeoutCount;
 import static com.amazonaws.util.AWSRequestMetrics.Field.RetryPauseTime;
 import static com.amazonaws.util.AWSRequestMetrics.Field.ServiceEndpoint;
 import static com.amazonaws.util.AWSRequestMetrics.Field.ServiceName;
@@ -47,6 +49,8 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 
@@ -61,20 +65,24 @@ import org.apache.http.annotation.ThreadSafe;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.conn.scheme.Scheme;
 import org.apache.http.conn.scheme.SchemeRegistry;
 import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.AbstractHttpClient;
 import org.apache.http.pool.ConnPoolControl;
 import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 
+import com.amazonaws.AbortedException;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.AmazonServiceException.ErrorType;
 import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.AmazonWebServiceResponse;
 import com.amazonaws.ClientConfiguration;
+import com.amazonaws.ClientExecutionTimeoutException;
 import com.amazonaws.Request;
 import com.amazonaws.RequestClientOptions;
 import com.amazonaws.RequestClientOptions.Marker;
@@ -149,6 +157,18 @@ public class AmazonHttpClient {
     /** Client configuration options, such as proxy settings, max retries, etc. */
     private final ClientConfiguration config;
 
+    /**
+     * The transport whose HTTP client is used, if shared with other clients;
+     * or null if this client owns its HTTP client.
+     */
+    private final SharedHttpTransport sharedHttpTransport;
+
+    /**
+     * Caps the number of concurrent HTTP requests of this client when the
+     * transport is shared; or null if not shared.
+     */
+    private final Semaphore concurrentRequests;
+
     /** Cache of metadata for recently executed requests for diagnostic purposes */
     private final ResponseMetadataCache responseMetadataCache = new ResponseMetadataCache(50);
 
@@ -190,7 +210,18 @@ public class AmazonHttpClient {
      *            is none.
      */
     public AmazonHttpClient(ClientConfiguration config, RequestMetricCollector requestMetricCollector) {
-        this(config, httpClientFactory.createHttpClient(config), requestMetricCollector);
+        this(config, newHttpClient(config), requestMetricCollector);
+    }
+
+    /**
+     * Returns the HTTP client of the shared transport of the given
+     * configuration, if any; or a new HTTP client otherwise.
+     */
+    private static HttpClient newHttpClient(ClientConfiguration config) {
+        SharedHttpTransport transport = config.getSharedHttpTransport();
+        return transport == null
+             ? httpClientFactory.createHttpClient(config)
+             : transport.getHttpClient();
     }
 
     /**
@@ -204,6 +235,9 @@ public class AmazonHttpClient {
         this.config = config;
         this.httpClient = httpClient;
         this.requestMetricCollector = requestMetricCollector;
+        this.sharedHttpTransport = config.getSharedHttpTransport();
+        this.concurrentRequests = sharedHttpTransport == null
+                ? null : new Semaphore(Math.max(1, config.getMaxConnections()));
     }
 
     /**
@@ -224,10 +258,31 @@ public class AmazonHttpClient {
         return responseMetadataCache.get(request);
     }
 
+    /**
+     * Opens up to the given number of pooled connections to the given endpoint
+     * in the background, so that subsequent requests to the endpoint do not
+     * have to wait for connection setup and TLS handshakes. Failures are
+     * ignored.
+     *
+     * @param endpoint
+     *            the endpoint to open connections to
+     * @param count
+     *            the number of connections to open, capped at the per-route
+     *            connection limit
+     */
+    public void prewarmConnections(URI endpoint, int count) {
+        if (count <= 0 || !(httpClient instanceof AbstractHttpClient))
+            return;
+        new ConnectionPrewarmer((AbstractHttpClient) httpClient, config,
+                endpoint, count).start();
+    }
+
     /**
      * Disables the default strict hostname verification in this client and
      * instead uses a browser compatible hostname verification strategy (i.e.
-     * cert hostname wildcards are evaulated more liberally).
+     * cert hostname wildcards are evaulated more liberally). If the client
+     * uses a {@link SharedHttpTransport}, all the clients of the transport are
+     * affected.
      */
     public void disableStrictHostnameVerification() {
 
@@ -245,7 +300,8 @@ public class AmazonHttpClient {
             if (sf == null) {
                 sf = new SdkTLSSocketFactory(
                         SSLContext.getDefault(),
-                        SSLSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER);
+                        SSLSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER,
+                        config.getPreferredCipherSuites());
             }
             Scheme https = new Scheme("https", 443, sf);
             schemeRegistry.register(https);
@@ -434,7 +490,47 @@ public class AmazonHttpClient {
             originalContent.mark(readLimit);
         }
         final ExecOneRequestParams p = new ExecOneRequestParams();
+        p.timeouts = newExecutionTimeouts(request.getOriginalRequest());
+        try {
+            return executeWithRetries(request, responseHandler,
+                    errorResponseHandler, executionContext, awsRequestMetrics,
+                    originalParameters, originalHeaders, originalContent, p);
+        } finally {
+            p.timeouts.end();
+        }
+    }
+
+    /**
+     * Returns the timeouts of a client execution of the given request, with
+     * the settings of the request taking precedence over the ones of the
+     * client configuration.
+     */
+    private ExecutionTimeouts newExecutionTimeouts(AmazonWebServiceRequest awsreq) {
+        Integer requestTimeout = awsreq == null ? null : awsreq.getSdkRequestTimeout();
+        Integer clientExecutionTimeout = awsreq == null ? null : awsreq.getSdkClientExecutionTimeout();
+        return new ExecutionTimeouts(
+                requestTimeout == null ? config.getRequestTimeout() : requestTimeout.intValue(),
+                clientExecutionTimeout == null ? config.getClientExecutionTimeout() : clientExecutionTimeout.intValue());
+    }
+
+    /**
+     * Executes the given request, retrying as necessary.
+     */
+    private <T> Response<T> executeWithRetries(final Request<?> request,
+            HttpResponseHandler<AmazonWebServiceResponse<T>> responseHandler,
+            HttpResponseHandler<AmazonServiceException> errorResponseHandler,
+            final ExecutionContext executionContext,
+            final AWSRequestMetrics awsRequestMetrics,
+            final Map<String, String> originalParameters,
+            final Map<String, String> originalHeaders,
+            final InputStream originalContent,
+            final ExecOneRequestParams p) {
         while (true) {
+            if (p.timeouts.hasClientExecutionTimedOut()) {
+                throw lastReset(
+                        newClientExecutionTimeoutException(p.timeouts, awsRequestMetrics, null),
+                        request);
+            }
             p.initPerRetry();
             if (p.redirectedURI != null) {
                 /*
@@ -463,7 +559,19 @@ public class AmazonHttpClient {
                     p);
                 if (response != null)
                     return response;
-            } catch (IOException ioe) {
+            } catch (IOException e) {
+                if (p.timeouts.hasClientExecutionTimedOut()) {
+                    throw lastReset(
+                            newClientExecutionTimeoutException(p.timeouts, awsRequestMetrics, e),
+                            request);
+                }
+                IOException ioe = e;
+                if (p.timeouts.hasRequestTimedOut()) {
+                    awsRequestMetrics.incrementCounter(RequestTimeoutCount);
+                    ioe = new HttpRequestTimeoutException(
+                            "Request did not complete within the request timeout of "
+                            + p.timeouts.getRequestTimeout() + " ms", e);
+                }
                 if (log.isInfoEnabled()) {
                     log.info("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
                 }
@@ -482,6 +590,15 @@ public class AmazonHttpClient {
                 // Cache the retryable exception
                 p.retriedException = ace;
             } catch(RuntimeException e) {
+                if (e instanceof ClientExecutionTimeoutException) {
+                    // metrics already captured
+                    throw lastReset(e, request);
+                }
+                if (p.timeouts.hasClientExecutionTimedOut()) {
+                    throw lastReset(
+                            newClientExecutionTimeoutException(p.timeouts, awsRequestMetrics, e),
+                            request);
+                }
                 throw lastReset(
                         captureExceptionMetrics(e, awsRequestMetrics),
                         request);
@@ -490,6 +607,11 @@ public class AmazonHttpClient {
                         captureExceptionMetrics(e, awsRequestMetrics),
                         request);
             } finally {
+                p.timeouts.endRequest();
+                if (p.concurrentRequestAcquired) {
+                    p.concurrentRequestAcquired = false;
+                    concurrentRequests.release();
+                }
                 /*
                  * Some response handlers need to manually manage the HTTP
                  * connection and will take care of releasing the connection on
@@ -513,6 +635,47 @@ public class AmazonHttpClient {
         } /* end while (true) */
     }
 
+    /**
+     * Waits, up to the connection timeout, until the number of concurrent
+     * requests of this client is below the limit, if the transport is shared.
+     */
+    private void acquireConcurrentRequest(ExecOneRequestParams p)
+            throws ConnectionPoolTimeoutException {
+        if (concurrentRequests == null)
+            return;
+        int timeout = config.getConnectionTimeout();
+        try {
+            if (timeout > 0) {
+                if (!concurrentRequests.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                    throw new ConnectionPoolTimeoutException(
+                            "Timeout waiting for one of the "
+                            + config.getMaxConnections()
+                            + " concurrent requests allowed for this client");
+                }
+            } else {
+                concurrentRequests.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        }
+        p.concurrentRequestAcquired = true;
+    }
+
+    /**
+     * Returns a new exception for a client execution that has timed out, and
+     * captures the related metrics.
+     */
+    private ClientExecutionTimeoutException newClientExecutionTimeoutException(
+            ExecutionTimeouts timeouts, AWSRequestMetrics awsRequestMetrics,
+            Throwable cause) {
+        awsRequestMetrics.incrementCounter(ClientExecutionTimeoutCount);
+        ClientExecutionTimeoutException e = new ClientExecutionTimeoutException(
+                "Client execution did not complete within the client execution timeout of "
+                + timeouts.getClientExecutionTimeout() + " ms", cause);
+        return captureExceptionMetrics(e, awsRequestMetrics);
+    }
+
     /**
      * Used to perform a last reset on the content input stream (if
      * mark-supported); this is so that, for backward compatibility reason, any
@@ -555,6 +718,7 @@ public class AmazonHttpClient {
         URI redirectedURI;
 
         AuthRetryParameters authRetryParam;
+        ExecutionTimeouts timeouts;
         /*
          * Depending on which response handler we end up choosing to handle the
          * HTTP response, it might require us to leave the underlying HTTP
@@ -563,6 +727,8 @@ public class AmazonHttpClient {
          * any of the content until after a response is returned to the caller.
          */
         boolean leaveHttpConnectionOpen;
+        /** True while counted against the concurrent requests of the client. */
+        boolean concurrentRequestAcquired;
 
         boolean isRetry() {
             return requestCount > 1 ||
@@ -677,7 +843,7 @@ public class AmazonHttpClient {
                 if (p.retriedException != null) {
                     pauseBeforeNextRetry(request.getOriginalRequest(),
                         p.retriedException, p.requestCount,
-                        config.getRetryPolicy());
+                        config.getRetryPolicy(), p.timeouts, awsRequestMetrics);
                 }
             } finally {
                 awsRequestMetrics.endEvent(RetryPauseTime);
@@ -691,7 +857,9 @@ public class AmazonHttpClient {
         p.resetBeforeHttpRequest();
         publishProgress(listener, ProgressEventType.HTTP_REQUEST_STARTED_EVENT);
         awsRequestMetrics.startEvent(HttpRequestTime);
+        p.timeouts.startRequest(p.apacheRequest);
         try {
+            acquireConcurrentRequest(p);
             p.apacheResponse = httpClient.execute(p.apacheRequest, httpContext);
         } finally {
             awsRequestMetrics.endEvent(HttpRequestTime);
@@ -847,8 +1015,12 @@ public class AmazonHttpClient {
      * held open. This is an optional method, and callers are not expected to
      * call it, but can if they want to explicitly release any open resources.
      * Once a client has been shutdown, it cannot be used to make more requests.
+     * <p>
+     * A {@link SharedHttpTransport} used by this client is left open.
      */
     public void shutdown() {
+        if (sharedHttpTransport != null)
+            return;
         IdleConnectionReaper.removeConnectionManager(httpClient.getConnectionManager());
         httpClient.getConnectionManager().shutdown();
     }
@@ -1137,7 +1309,9 @@ public class AmazonHttpClient {
     private void pauseBeforeNextRetry(AmazonWebServiceRequest originalRequest,
                                     AmazonClientException previousException,
                                     int requestCount,
-                                    RetryPolicy retryPolicy) {
+                                    RetryPolicy retryPolicy,
+                                    ExecutionTimeouts timeouts,
+                                    AWSRequestMetrics awsRequestMetrics) {
         final int retries = requestCount // including next attempt
                             - 1          // number of attempted requests
                             - 1;         // number of attempted retries
@@ -1145,6 +1319,12 @@ public class AmazonHttpClient {
         long delay = retryPolicy.getBackoffStrategy().delayBeforeNextRetry(
                 originalRequest, previousException, retries);
 
+        if (timeouts.wouldTimeOutAfter(delay)) {
+            // No point in waiting for a retry that could not start in time
+            throw newClientExecutionTimeoutException(
+                    timeouts, awsRequestMetrics, previousException);
+        }
+
         if (log.isDebugEnabled()) {
             log.debug("Retriable error detected, " +
                     "will retry in " + delay + "ms, attempt number: " + retries);
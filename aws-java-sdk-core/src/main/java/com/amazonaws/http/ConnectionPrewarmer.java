@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+
+import com.amazonaws.ClientConfiguration;
+
+/**
+ * Opens pooled connections to an endpoint ahead of the first request, so that
+ * the TCP and TLS handshakes are out of the way by the time the client is
+ * used.
+ */
+@SuppressWarnings("deprecation")
+class ConnectionPrewarmer implements Runnable {
+    private static final Log log = LogFactory.getLog(ConnectionPrewarmer.class);
+
+    private final AbstractHttpClient httpClient;
+    private final ClientConfiguration config;
+    private final URI endpoint;
+    private final int count;
+
+    ConnectionPrewarmer(AbstractHttpClient httpClient,
+            ClientConfiguration config, URI endpoint, int count) {
+        this.httpClient = httpClient;
+        this.config = config;
+        this.endpoint = endpoint;
+        this.count = count;
+    }
+
+    /**
+     * Pre-warms the connections on a short-lived daemon thread.
+     */
+    void start() {
+        Thread thread = new Thread(this, "java-sdk-connection-prewarmer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        ClientConnectionManager cm = httpClient.getConnectionManager();
+        HttpHost target = new HttpHost(endpoint.getHost(), endpoint.getPort(),
+                endpoint.getScheme());
+        HttpContext context = new BasicHttpContext();
+        List<ManagedClientConnection> opened = new ArrayList<ManagedClientConnection>();
+        try {
+            HttpRoute route = httpClient.getRoutePlanner().determineRoute(
+                    target, new BasicHttpRequest("HEAD", "/"), context);
+            if (route.isTunnelled()) {
+                log.debug("Skipping pre-warming of connections tunnelled through a proxy");
+                return;
+            }
+            int n = count;
+            if (cm instanceof PoolingClientConnectionManager)
+                n = Math.min(n, ((PoolingClientConnectionManager) cm).getMaxPerRoute(route));
+            // Hold on to every connection until all are open; otherwise the
+            // pool would hand the same connection out again.
+            for (int i = 0; i < n; i++) {
+                ManagedClientConnection conn = cm.requestConnection(route, null)
+                        .getConnection(config.getConnectionTimeout(), TimeUnit.MILLISECONDS);
+                opened.add(conn);
+                if (!conn.isOpen())
+                    conn.open(route, context, httpClient.getParams());
+                conn.markReusable();
+            }
+            log.debug("Pre-warmed " + opened.size() + " connections to " + target);
+        } catch (Exception e) {
+            log.debug("Unable to pre-warm connections to " + target, e);
+        } finally {
+            for (ManagedClientConnection conn : opened) {
+                cm.releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -24,7 +24,9 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.Signer;
 import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.retry.internal.AuthErrorRetryStrategy;
+import com.amazonaws.metrics.AwsSdkMetrics;
 import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetricsCompactSupport;
 import com.amazonaws.util.AWSRequestMetricsFullSupport;
 
 @NotThreadSafe
@@ -54,9 +56,11 @@ public class ExecutionContext {
                             boolean isMetricEnabled,
                             AmazonWebServiceClient awsClient) {
         this.requestHandler2s = requestHandler2s;
-        awsRequestMetrics = isMetricEnabled
-                          ? new AWSRequestMetricsFullSupport()
-                          : new AWSRequestMetrics();
+        awsRequestMetrics = !isMetricEnabled
+                          ? new AWSRequestMetrics()
+                          : AwsSdkMetrics.isCompactRequestMetrics()
+                          ? new AWSRequestMetricsCompactSupport()
+                          : new AWSRequestMetricsFullSupport();
         this.awsClient = awsClient;
     }
 
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Enforces the request timeout and the client execution timeout of a single
+ * client execution, by aborting the underlying HTTP request once a timeout
+ * has elapsed. All executions share a single timer thread.
+ */
+class ExecutionTimeouts {
+    private static final Log log = LogFactory.getLog(ExecutionTimeouts.class);
+
+    private final int requestTimeout;
+    private final int clientExecutionTimeout;
+    private final long clientExecutionDeadlineNanos;
+
+    /** The HTTP request currently being executed, if any. */
+    private HttpRequestBase currentRequest;
+    private ScheduledFuture<?> requestFuture;
+    private ScheduledFuture<?> clientExecutionFuture;
+    private boolean requestTimedOut;
+    private boolean clientExecutionTimedOut;
+    private boolean ended;
+
+    /**
+     * Starts the client execution timer, if any.
+     *
+     * @param requestTimeout
+     *            the timeout in milliseconds of each HTTP request, or a
+     *            non-positive value for none
+     * @param clientExecutionTimeout
+     *            the timeout in milliseconds of the whole client execution,
+     *            or a non-positive value for none
+     */
+    ExecutionTimeouts(int requestTimeout, int clientExecutionTimeout) {
+        this.requestTimeout = requestTimeout;
+        this.clientExecutionTimeout = clientExecutionTimeout;
+        if (clientExecutionTimeout > 0) {
+            this.clientExecutionDeadlineNanos = System.nanoTime()
+                    + TimeUnit.MILLISECONDS.toNanos(clientExecutionTimeout);
+            this.clientExecutionFuture = Timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    abortClientExecution();
+                }
+            }, clientExecutionTimeout);
+        } else {
+            this.clientExecutionDeadlineNanos = 0;
+        }
+    }
+
+    /**
+     * Starts the request timer, if any, for the given HTTP request, which is
+     * also aborted should the client execution time out.
+     */
+    synchronized void startRequest(final HttpRequestBase request) {
+        currentRequest = request;
+        requestTimedOut = false;
+        if (clientExecutionTimedOut) {
+            request.abort();
+            return;
+        }
+        if (requestTimeout > 0) {
+            requestFuture = Timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    abortRequest(request);
+                }
+            }, requestTimeout);
+        }
+    }
+
+    /**
+     * Stops the request timer, if any. The request is no longer aborted by
+     * either timer.
+     */
+    void endRequest() {
+        ScheduledFuture<?> future;
+        synchronized (this) {
+            currentRequest = null;
+            future = requestFuture;
+            requestFuture = null;
+        }
+        if (future != null)
+            Timer.cancel(future);
+    }
+
+    /**
+     * Stops all the timers of the client execution.
+     */
+    void end() {
+        endRequest();
+        ScheduledFuture<?> future;
+        synchronized (this) {
+            ended = true;
+            future = clientExecutionFuture;
+            clientExecutionFuture = null;
+        }
+        if (future != null)
+            Timer.cancel(future);
+    }
+
+    private void abortRequest(HttpRequestBase request) {
+        synchronized (this) {
+            // The request may have ended while the timer was firing
+            if (ended || currentRequest != request)
+                return;
+            requestTimedOut = true;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Aborting " + request.getRequestLine()
+                    + " after the request timeout of " + requestTimeout + " ms");
+        }
+        request.abort();
+    }
+
+    private void abortClientExecution() {
+        HttpRequestBase request;
+        synchronized (this) {
+            if (ended)
+                return;
+            clientExecutionTimedOut = true;
+            request = currentRequest;
+        }
+        if (request != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Aborting " + request.getRequestLine()
+                        + " after the client execution timeout of "
+                        + clientExecutionTimeout + " ms");
+            }
+            request.abort();
+        }
+    }
+
+    /**
+     * Returns true if the current or last HTTP request has been aborted by the
+     * request timer; false otherwise.
+     */
+    synchronized boolean hasRequestTimedOut() {
+        return requestTimedOut;
+    }
+
+    /**
+     * Returns true if the client execution timeout has elapsed; false
+     * otherwise.
+     */
+    synchronized boolean hasClientExecutionTimedOut() {
+        return clientExecutionTimedOut;
+    }
+
+    /**
+     * Returns true if a pause of the given length would run past the client
+     * execution timeout; false otherwise.
+     */
+    boolean wouldTimeOutAfter(long delayMillis) {
+        return clientExecutionTimeout > 0
+            && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis)
+                    - clientExecutionDeadlineNanos >= 0;
+    }
+
+    int getClientExecutionTimeout() {
+        return clientExecutionTimeout;
+    }
+
+    int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * The timer shared by all client executions, started on first use.
+     */
+    private static class Timer {
+        private static final ScheduledThreadPoolExecutor executor;
+        /**
+         * Number of cancellations since the last purge, when cancelled tasks
+         * cannot be removed from the timer queue immediately.
+         */
+        private static final AtomicInteger cancellations = new AtomicInteger();
+        private static final int PURGE_INTERVAL = 1000;
+        private static final boolean removeOnCancel;
+
+        static {
+            executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "java-sdk-execution-timer");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            removeOnCancel = enableRemoveOnCancel(executor);
+        }
+
+        /**
+         * Enables the removal of cancelled tasks from the timer queue, which
+         * is only supported since Java 7.
+         */
+        private static boolean enableRemoveOnCancel(ScheduledThreadPoolExecutor executor) {
+            try {
+                Method method = ScheduledThreadPoolExecutor.class.getMethod(
+                        "setRemoveOnCancelPolicy", boolean.class);
+                method.invoke(executor, Boolean.TRUE);
+                return true;
+            } catch (Exception e) {
+                log.debug("Cancelled timeouts will be purged periodically", e);
+                return false;
+            }
+        }
+
+        static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+            return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        static void cancel(ScheduledFuture<?> future) {
+            future.cancel(false);
+            if (!removeOnCancel
+            &&  cancellations.incrementAndGet() % PURGE_INTERVAL == 0)
+                executor.purge();
+        }
+    }
+}
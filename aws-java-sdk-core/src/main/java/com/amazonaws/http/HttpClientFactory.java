@@ -20,11 +20,13 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -90,7 +92,9 @@ class HttpClientFactory {
         HttpParams httpClientParams = new BasicHttpParams();
         HttpConnectionParams.setConnectionTimeout(httpClientParams, config.getConnectionTimeout());
         HttpConnectionParams.setSoTimeout(httpClientParams, config.getSocketTimeout());
-        HttpConnectionParams.setStaleCheckingEnabled(httpClientParams, true);
+        // Stale connections are detected by the connection pool, and only
+        // for connections that have been idle for a while
+        HttpConnectionParams.setStaleCheckingEnabled(httpClientParams, false);
         HttpConnectionParams.setTcpNoDelay(httpClientParams, true);
         HttpConnectionParams.setSoKeepalive(httpClientParams, config.useTcpKeepAlive());
 
@@ -115,9 +119,11 @@ class HttpClientFactory {
             Scheme http = new Scheme("http", 80, PlainSocketFactory.getSocketFactory());
             SSLSocketFactory sf = config.getApacheHttpClientConfig().getSslSocketFactory();
             if (sf == null) {
+                SSLContext sslContext = createSslContext(config);
                 sf = new SdkTLSSocketFactory(
-                        SSLContext.getDefault(),
-                        SSLSocketFactory.STRICT_HOSTNAME_VERIFIER);
+                        sslContext,
+                        SSLSocketFactory.STRICT_HOSTNAME_VERIFIER,
+                        config.getPreferredCipherSuites());
             }
             Scheme https = new Scheme("https", 443, sf);
             SchemeRegistry sr = connectionManager.getSchemeRegistry();
@@ -125,6 +131,8 @@ class HttpClientFactory {
             sr.register(https);
         } catch (NoSuchAlgorithmException e) {
             throw new AmazonClientException("Unable to access default SSL context", e);
+        } catch (KeyManagementException e) {
+            throw new AmazonClientException("Unable to initialize SSL context", e);
         }
 
         /*
@@ -206,6 +214,31 @@ class HttpClientFactory {
     }
 
 
+    /**
+     * Returns the default SSL context of the JVM, unless a TLS session cache
+     * size or timeout is configured, in which case a dedicated SSL context is
+     * created for the client, so as to leave the session cache of the default
+     * context, shared by the whole JVM, as it is. Sessions in the cache are
+     * keyed by endpoint host and port, and are resumed with an abbreviated
+     * handshake when a new connection to the same endpoint is opened.
+     */
+    private static SSLContext createSslContext(ClientConfiguration config)
+            throws NoSuchAlgorithmException, KeyManagementException {
+        if (config.getTlsSessionCacheSize() < 0
+                && config.getTlsSessionTimeoutSeconds() < 0)
+            return SSLContext.getDefault();
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, null, null);
+        SSLSessionContext sessions = sslContext.getClientSessionContext();
+        if (sessions != null) {
+            if (config.getTlsSessionCacheSize() >= 0)
+                sessions.setSessionCacheSize(config.getTlsSessionCacheSize());
+            if (config.getTlsSessionTimeoutSeconds() >= 0)
+                sessions.setSessionTimeout(config.getTlsSessionTimeoutSeconds());
+        }
+        return sslContext;
+    }
+
     /**
      * Disable http redirect inside Apache HttpClient.
      */
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.io.IOException;
+
+/**
+ * Signals that an HTTP request has been aborted because it did not complete
+ * within the configured request timeout. Like other I/O failures, the request
+ * may be retried according to the retry policy.
+ *
+ * @see com.amazonaws.ClientConfiguration#setRequestTimeout(int)
+ * @see com.amazonaws.AmazonWebServiceRequest#setSdkRequestTimeout(Integer)
+ */
+public class HttpRequestTimeoutException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public HttpRequestTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
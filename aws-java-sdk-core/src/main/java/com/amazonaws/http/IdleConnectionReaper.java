@@ -14,8 +14,8 @@
  */
 package com.amazonaws.http;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -42,14 +42,22 @@ import org.apache.http.conn.ClientConnectionManager;
  */
 public final class IdleConnectionReaper extends Thread {
 
-    /** The period between invocations of the idle connection reaper. */
+    /** The maximum period between invocations of the idle connection reaper. */
     private static final int PERIOD_MILLISECONDS = 1000 * 60 * 1;
 
+    /** The minimum period between invocations of the idle connection reaper. */
+    private static final int MIN_PERIOD_MILLISECONDS = 1000;
+
+    /** The default maximum idle time of a connection. */
+    private static final long DEFAULT_MAX_IDLE_MILLISECONDS = 1000 * 60 * 1;
+
     /**
-     * The list of registered connection managers, whose connections
-     * will be periodically checked and idle connections closed.
+     * The registered connection managers, whose connections will be
+     * periodically checked and idle connections closed, mapped to the maximum
+     * idle time of their connections.
      */
-    private static final ArrayList<ClientConnectionManager> connectionManagers = new ArrayList<ClientConnectionManager>();
+    private static final Map<ClientConnectionManager, Long> connectionManagers =
+        new LinkedHashMap<ClientConnectionManager, Long>();
     /**
      * Set to true when shutting down the reaper;  Once set to true, this
      * flag is never set back to false.
@@ -74,12 +82,27 @@ public final class IdleConnectionReaper extends Thread {
      * @return true if the connection manager has been successfully registered;
      * false otherwise.
      */
-    public static synchronized boolean registerConnectionManager(ClientConnectionManager connectionManager) {
+    public static boolean registerConnectionManager(ClientConnectionManager connectionManager) {
+        return registerConnectionManager(connectionManager, DEFAULT_MAX_IDLE_MILLISECONDS);
+    }
+
+    /**
+     * Registers the given connection manager with this reaper, so that its
+     * connections idle for longer than the given time are closed. The reaper
+     * runs at least once per minute, and more often if needed to honor the
+     * smallest registered idle time.
+     *
+     * @return true if the connection manager has been successfully registered;
+     * false otherwise.
+     */
+    public static synchronized boolean registerConnectionManager(
+            ClientConnectionManager connectionManager, long maxIdleMillis) {
         if (instance == null) {
             instance = new IdleConnectionReaper();
             instance.start();
         }
-        return connectionManagers.add(connectionManager);
+        connectionManagers.put(connectionManager, maxIdleMillis);
+        return true;
     }
 
     /**
@@ -90,7 +113,7 @@ public final class IdleConnectionReaper extends Thread {
      * false otherwise.
      */
     public static synchronized boolean removeConnectionManager(ClientConnectionManager connectionManager) {
-        boolean b = connectionManagers.remove(connectionManager);
+        boolean b = connectionManagers.remove(connectionManager) != null;
         if (connectionManagers.isEmpty())
             shutdown();
         return b;
@@ -100,7 +123,6 @@ public final class IdleConnectionReaper extends Thread {
         shuttingDown = true;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void run() {
         while (true) {
@@ -109,22 +131,24 @@ public final class IdleConnectionReaper extends Thread {
                 return;
             }
             try {
-                Thread.sleep(PERIOD_MILLISECONDS);
+                Thread.sleep(period());
 
-                // Copy the list of managed ConnectionManagers to avoid possible
+                // Copy the managed ConnectionManagers to avoid possible
                 // ConcurrentModificationExceptions if registerConnectionManager or
                 // removeConnectionManager are called while we're iterating (rather
                 // than block/lock while this loop executes).
-                List<ClientConnectionManager> connectionManagers = null;
+                Map<ClientConnectionManager, Long> connectionManagers = null;
                 synchronized (IdleConnectionReaper.class) {
-                    connectionManagers = (List<ClientConnectionManager>)IdleConnectionReaper.connectionManagers.clone();
+                    connectionManagers = new LinkedHashMap<ClientConnectionManager, Long>(
+                            IdleConnectionReaper.connectionManagers);
                 }
-                for (ClientConnectionManager connectionManager : connectionManagers) {
+                for (Map.Entry<ClientConnectionManager, Long> entry : connectionManagers.entrySet()) {
                     // When we release connections, the connection manager leaves them
                     // open so they can be reused.  We want to close out any idle
                     // connections so that they don't sit around in CLOSE_WAIT.
                     try {
-                        connectionManager.closeIdleConnections(60, TimeUnit.SECONDS);
+                        entry.getKey().closeExpiredConnections();
+                        entry.getKey().closeIdleConnections(entry.getValue(), TimeUnit.MILLISECONDS);
                     } catch (Exception t) {
                         log.warn("Unable to close idle connections", t);
                     }
@@ -135,6 +159,18 @@ public final class IdleConnectionReaper extends Thread {
         }
     }
 
+    /**
+     * Returns the time to sleep before the next scan: half the smallest
+     * registered idle time, bounded by the minimum and maximum periods.
+     */
+    private static synchronized long period() {
+        long period = PERIOD_MILLISECONDS;
+        for (Long maxIdle : connectionManagers.values()) {
+            period = Math.min(period, Math.max(MIN_PERIOD_MILLISECONDS, maxIdle / 2));
+        }
+        return period;
+    }
+
     /**
      * Shuts down the thread, allowing the class and instance to be collected.
      * <p>
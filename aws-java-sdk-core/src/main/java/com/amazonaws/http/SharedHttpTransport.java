@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * An HTTP client and connection pool that can be shared by many service
+ * clients, so that the number of open sockets and pooled connections grows
+ * with the load rather than the number of clients. For example:
+ *
+ * <pre>
+ * SharedHttpTransport transport = new SharedHttpTransport(
+ *     new ClientConfiguration().withMaxConnections(100));
+ * ClientConfiguration config = new ClientConfiguration()
+ *     .withSharedHttpTransport(transport)
+ *     .withMaxConnections(20);
+ * AmazonSQSClient sqs = new AmazonSQSClient(credentials, config);
+ * AmazonDynamoDBClient dynamo = new AmazonDynamoDBClient(credentials, config);
+ * ...
+ * transport.shutdown();
+ * </pre>
+ * <p>
+ * The transport is configured by the {@link ClientConfiguration} given at
+ * construction, of which only the HTTP settings apply: the total and per
+ * route or per host connection limits, the connection and socket timeouts,
+ * the proxy, TLS, gzip and idle connection reaper settings. These settings of
+ * the configurations of the clients using the transport are ignored, except
+ * for {@link ClientConfiguration#getMaxConnections()}, which then caps the
+ * number of concurrent requests of each client. Retry, timeout and signing
+ * settings remain per client.
+ * <p>
+ * Shutting down a client does not shut down the transport it uses; the
+ * transport is shut down explicitly via {@link #shutdown()} once none of its
+ * clients is in use.
+ */
+@ThreadSafe
+public class SharedHttpTransport {
+    private static final HttpClientFactory httpClientFactory = new HttpClientFactory();
+
+    private final ClientConfiguration config;
+    private final HttpClient httpClient;
+
+    /**
+     * Creates a transport with the HTTP settings of the given configuration.
+     */
+    public SharedHttpTransport(ClientConfiguration config) {
+        this.config = new ClientConfiguration(config);
+        // The transport is not shared by itself
+        this.config.setSharedHttpTransport(null);
+        this.httpClient = httpClientFactory.createHttpClient(this.config);
+    }
+
+    /** Returns the HTTP client used by all the clients of this transport. */
+    HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Returns a copy of the configuration of this transport.
+     */
+    public ClientConfiguration getClientConfiguration() {
+        return new ClientConfiguration(config);
+    }
+
+    /**
+     * Returns the number of connections of this transport that are currently
+     * in use.
+     */
+    public int getLeasedConnections() {
+        PoolStats stats = getTotalStats();
+        return stats == null ? 0 : stats.getLeased();
+    }
+
+    /**
+     * Returns the number of idle connections pooled by this transport.
+     */
+    public int getAvailableConnections() {
+        PoolStats stats = getTotalStats();
+        return stats == null ? 0 : stats.getAvailable();
+    }
+
+    private PoolStats getTotalStats() {
+        ClientConnectionManager cm = httpClient.getConnectionManager();
+        return cm instanceof ConnPoolControl
+             ? ((ConnPoolControl<?>) cm).getTotalStats()
+             : null;
+    }
+
+    /**
+     * Closes all the connections of this transport. The clients using it can
+     * no longer make requests.
+     */
+    public void shutdown() {
+        IdleConnectionReaper.removeConnectionManager(httpClient.getConnectionManager());
+        httpClient.getConnectionManager().shutdown();
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.http.conn.ClientConnectionRequest;
 
 import com.amazonaws.metrics.AwsSdkMetrics;
 import com.amazonaws.metrics.ServiceLatencyProvider;
+import com.amazonaws.metrics.ServiceMetricType;
 import com.amazonaws.util.AWSServiceMetrics;
 
 class ClientConnectionRequestFactory {
@@ -71,6 +72,11 @@ class ClientConnectionRequestFactory {
                     } finally {
                         AwsSdkMetrics.getServiceMetricCollector()
                                 .collectLatency(latencyProvider.endTiming());
+                        if (AwsSdkMetrics.isLatencyHistogramsIncluded()) {
+                            ServiceMetricType type = latencyProvider.getServiceMetricType();
+                            AwsSdkMetrics.getLatencyHistogram(type.getServiceName(), null, type)
+                                    .recordMillis(latencyProvider.getDurationMilli());
+                        }
                     }
                 }
                 return method.invoke(orig, args);
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Connection pool used by the SDK's HTTP clients.
+ * <p>
+ * In addition to the standard pooling behavior, this pool
+ * <ul>
+ * <li>applies per-host connection limits to routes as they are first used;</li>
+ * <li>checks a leased connection for staleness only if it has been idle in
+ * the pool for longer than a configurable period, instead of before every
+ * request;</li>
+ * <li>records how long callers wait to lease a connection, and makes the
+ * aggregated statistics of all live pools available via
+ * {@link #getAggregatedStats()}.</li>
+ * </ul>
+ */
+@SuppressWarnings("deprecation")
+public class SdkPoolingClientConnectionManager extends PoolingClientConnectionManager {
+    private static final Log log = LogFactory.getLog(SdkPoolingClientConnectionManager.class);
+
+    /** All live pools, for aggregated metrics; weakly held. */
+    private static final Set<SdkPoolingClientConnectionManager> pools =
+        Collections.newSetFromMap(new WeakHashMap<SdkPoolingClientConnectionManager, Boolean>());
+
+    private final Map<String, Integer> maxConnectionsPerHost;
+    private final Set<HttpRoute> configuredRoutes =
+        Collections.newSetFromMap(new ConcurrentHashMap<HttpRoute, Boolean>());
+    private final int validateAfterInactivityMillis;
+    /** Time at which each pooled socket was last released, keyed weakly. */
+    private final Map<Socket, Long> releasedAt = new WeakHashMap<Socket, Long>();
+
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong leaseWaitNanos = new AtomicLong();
+    private final AtomicLong staleConnectionsClosed = new AtomicLong();
+
+    /**
+     * @param schemeRegistry
+     *            the scheme registry of the pool
+     * @param connectionTTL
+     *            maximum time to live of a pooled connection in milliseconds,
+     *            or a non-positive value for no limit
+     * @param maxConnectionsPerHost
+     *            per host name overrides of the per-route connection limit;
+     *            may be null
+     * @param validateAfterInactivityMillis
+     *            idle time in milliseconds after which a leased connection is
+     *            checked for staleness; zero to check every lease, or a
+     *            negative value to never check
+     */
+    public SdkPoolingClientConnectionManager(SchemeRegistry schemeRegistry,
+            long connectionTTL, Map<String, Integer> maxConnectionsPerHost,
+            int validateAfterInactivityMillis) {
+        super(schemeRegistry, connectionTTL, TimeUnit.MILLISECONDS);
+        this.maxConnectionsPerHost = maxConnectionsPerHost == null
+            ? Collections.<String, Integer>emptyMap()
+            : new HashMap<String, Integer>(maxConnectionsPerHost);
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+        synchronized (pools) {
+            pools.add(this);
+        }
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+        applyRouteLimit(route);
+        final ClientConnectionRequest request = super.requestConnection(route, state);
+        return new ClientConnectionRequest() {
+            @Override
+            public ManagedClientConnection getConnection(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ConnectionPoolTimeoutException {
+                final long start = System.nanoTime();
+                ManagedClientConnection conn;
+                try {
+                    conn = request.getConnection(timeout, tunit);
+                } finally {
+                    leaseCount.incrementAndGet();
+                    leaseWaitNanos.addAndGet(System.nanoTime() - start);
+                }
+                validate(conn);
+                return conn;
+            }
+
+            @Override
+            public void abortRequest() {
+                request.abortRequest();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(ManagedClientConnection conn,
+            long keepalive, TimeUnit tunit) {
+        if (validateAfterInactivityMillis >= 0 && conn.isOpen() && conn.isMarkedReusable()) {
+            Socket socket = socketOf(conn);
+            if (socket != null) {
+                synchronized (releasedAt) {
+                    releasedAt.put(socket, System.currentTimeMillis());
+                }
+            }
+        }
+        super.releaseConnection(conn, keepalive, tunit);
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (pools) {
+            pools.remove(this);
+        }
+        super.shutdown();
+    }
+
+    /**
+     * Returns the number of connections leased from this pool so far.
+     */
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    /**
+     * Returns the total time in nanoseconds callers have waited to lease a
+     * connection from this pool.
+     */
+    public long getLeaseWaitNanos() {
+        return leaseWaitNanos.get();
+    }
+
+    /**
+     * Returns the number of stale connections detected and closed at lease
+     * time.
+     */
+    public long getStaleConnectionsClosed() {
+        return staleConnectionsClosed.get();
+    }
+
+    /**
+     * Returns the statistics of all the live SDK connection pools, summed.
+     */
+    public static PoolStats getAggregatedStats() {
+        int leased = 0, pending = 0, available = 0, max = 0;
+        for (SdkPoolingClientConnectionManager pool : livePools()) {
+            PoolStats stats = pool.getTotalStats();
+            leased += stats.getLeased();
+            pending += stats.getPending();
+            available += stats.getAvailable();
+            max += stats.getMax();
+        }
+        return new PoolStats(leased, pending, available, max);
+    }
+
+    /**
+     * Returns the number of connections leased from all the live SDK
+     * connection pools.
+     */
+    public static long getAggregatedLeaseCount() {
+        long count = 0;
+        for (SdkPoolingClientConnectionManager pool : livePools())
+            count += pool.getLeaseCount();
+        return count;
+    }
+
+    /**
+     * Returns the total time in nanoseconds callers have waited to lease a
+     * connection from all the live SDK connection pools.
+     */
+    public static long getAggregatedLeaseWaitNanos() {
+        long nanos = 0;
+        for (SdkPoolingClientConnectionManager pool : livePools())
+            nanos += pool.getLeaseWaitNanos();
+        return nanos;
+    }
+
+    private static List<SdkPoolingClientConnectionManager> livePools() {
+        synchronized (pools) {
+            return new ArrayList<SdkPoolingClientConnectionManager>(pools);
+        }
+    }
+
+    private void applyRouteLimit(HttpRoute route) {
+        if (maxConnectionsPerHost.isEmpty() || !configuredRoutes.add(route))
+            return;
+        Integer max = maxConnectionsPerHost.get(route.getTargetHost().getHostName());
+        if (max != null)
+            setMaxPerRoute(route, max);
+    }
+
+    /**
+     * Closes the given connection if it has been idle for longer than the
+     * validation period and turns out to be stale, in which case the HTTP
+     * client transparently opens a new one.
+     */
+    private void validate(ManagedClientConnection conn) {
+        if (validateAfterInactivityMillis < 0 || !conn.isOpen())
+            return;
+        Socket socket = socketOf(conn);
+        if (socket == null)
+            return;
+        Long released;
+        synchronized (releasedAt) {
+            released = releasedAt.remove(socket);
+        }
+        if (released == null
+        ||  System.currentTimeMillis() - released < validateAfterInactivityMillis)
+            return;
+        if (conn.isStale()) {
+            staleConnectionsClosed.incrementAndGet();
+            try {
+                conn.close();
+            } catch (IOException e) {
+                log.debug("Unable to close stale connection", e);
+            }
+        }
+    }
+
+    private static Socket socketOf(ManagedClientConnection conn) {
+        try {
+            return conn.getSocket();
+        } catch (RuntimeException e) {
+            // The connection has been detached from its pool entry
+            return null;
+        }
+    }
+}
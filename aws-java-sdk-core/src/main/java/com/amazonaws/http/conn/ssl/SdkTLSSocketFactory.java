@@ -21,6 +21,7 @@ import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import javax.net.ssl.SSLContext;
@@ -34,29 +35,80 @@ import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
 import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
 
 import com.amazonaws.internal.SdkSSLSocket;
 import com.amazonaws.internal.SdkSocket;
 
 /**
- * Used to enforce the preferred TLS protocol during SSL handshake.
+ * Used to enforce the preferred TLS protocol and cipher suites during SSL
+ * handshake, and to time the handshake of each new connection.
  */
 @ThreadSafe
 public class SdkTLSSocketFactory extends SSLSocketFactory {
     private static final Log log = LogFactory.getLog(SdkTLSSocketFactory.class);
-    
+
+    /**
+     * The cipher suites preferred by default, in descending order of
+     * preference. AES-GCM suites are the cheapest to run on processors with
+     * AES and carry-less multiplication instructions, and ECDHE key exchange
+     * is faster than DHE.
+     */
+    public static final List<String> DEFAULT_PREFERRED_CIPHER_SUITES =
+        Collections.unmodifiableList(Arrays.asList(
+            "TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_ECDSA_WITH_AES_256_GCM_SHA384",
+            "TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384",
+            "TLS_RSA_WITH_AES_128_GCM_SHA256",
+            "TLS_RSA_WITH_AES_256_GCM_SHA384"));
+
+    private final List<String> preferredCipherSuites;
+
     public SdkTLSSocketFactory(final SSLContext sslContext,
             final X509HostnameVerifier hostnameVerifier) {
+        this(sslContext, hostnameVerifier, null);
+    }
+
+    /**
+     * @param preferredCipherSuites
+     *            the cipher suites to offer ahead of the other enabled suites,
+     *            in descending order of preference; or null to use
+     *            {@link #DEFAULT_PREFERRED_CIPHER_SUITES}
+     */
+    public SdkTLSSocketFactory(final SSLContext sslContext,
+            final X509HostnameVerifier hostnameVerifier,
+            final String[] preferredCipherSuites) {
         super(sslContext, hostnameVerifier);
+        this.preferredCipherSuites = preferredCipherSuites == null
+            ? DEFAULT_PREFERRED_CIPHER_SUITES
+            : Collections.unmodifiableList(Arrays.asList(preferredCipherSuites.clone()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Wraps the socket so that the latency of its TLS handshake can be
+     * captured.
+     */
+    @Override
+    public Socket createSocket(final HttpContext context) throws IOException {
+        return new SdkSSLSocket((SSLSocket) super.createSocket(context));
     }
 
     /**
      * {@inheritDoc}
      * 
-     * Used to enforce the preferred TLS protocol during SSL handshake.
+     * Used to enforce the preferred TLS protocol and cipher suites during SSL
+     * handshake.
      */
     @Override
     protected final void prepareSocket(final SSLSocket socket) {
+        prepareProtocols(socket);
+        prepareCipherSuites(socket);
+    }
+
+    private void prepareProtocols(final SSLSocket socket) {
         String[] supported = socket.getSupportedProtocols();
         String[] enabled = socket.getEnabledProtocols();
         if (log.isDebugEnabled()) {
@@ -93,6 +145,34 @@ public class SdkTLSSocketFactory extends SSLSocketFactory {
             }
         }
     }
+
+    /**
+     * Moves the preferred cipher suites that are enabled ahead of the other
+     * enabled suites. No suite gets enabled or disabled.
+     */
+    private void prepareCipherSuites(final SSLSocket socket) {
+        String[] enabled = socket.getEnabledCipherSuites();
+        if (enabled == null || enabled.length == 0)
+            return;
+        List<String> target = new ArrayList<String>(enabled.length);
+        for (String suite: preferredCipherSuites) {
+            if (existsIn(suite, enabled) && !target.contains(suite))
+                target.add(suite);
+        }
+        if (target.isEmpty())
+            return;
+        for (String suite: enabled) {
+            if (!target.contains(suite))
+                target.add(suite);
+        }
+        String[] enabling = target.toArray(new String[target.size()]);
+        socket.setEnabledCipherSuites(enabling);
+        if (log.isDebugEnabled()) {
+            log.debug("Cipher suites enabled for SSL handshake: "
+                    + Arrays.toString(enabling));
+        }
+    }
+
     /**
      * Returns true if the given element exists in the given array;
      * false otherwise.
@@ -117,6 +197,8 @@ public class SdkTLSSocketFactory extends SSLSocketFactory {
                     + remoteAddress.getPort());
         verifyMasterSecret(
             super.connectSocket(socket, remoteAddress, localAddress, params));
+        if (socket instanceof SdkSSLSocket)
+            return socket;
         if (socket instanceof SSLSocket)
             return new SdkSSLSocket((SSLSocket)socket);
         return new SdkSocket(socket);
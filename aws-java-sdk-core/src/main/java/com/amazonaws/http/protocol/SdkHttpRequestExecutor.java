@@ -15,20 +15,25 @@
 package com.amazonaws.http.protocol;
 
 import java.io.IOException;
+import java.net.Socket;
 
 import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.conn.ManagedHttpClientConnection;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpRequestExecutor;
 
+import com.amazonaws.internal.SdkSSLSocket;
 import com.amazonaws.util.AWSRequestMetrics;
 import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.TimingInfo;
 
 /**
  * Used to capture the http send-request and receive-response latency metrics
- * of the http client library, with no retries involved.
+ * of the http client library, with no retries involved, as well as the TLS
+ * handshake latency of newly opened connections.
  */
 public class SdkHttpRequestExecutor extends HttpRequestExecutor {
     @Override
@@ -42,6 +47,7 @@ public class SdkHttpRequestExecutor extends HttpRequestExecutor {
         if (awsRequestMetrics == null) {
             return super.doSendRequest(request, conn, context);
         }
+        captureHandshakeMetrics(conn, awsRequestMetrics);
         awsRequestMetrics.startEvent(Field.HttpClientSendRequestTime);
         try {
             return super.doSendRequest(request, conn, context);
@@ -68,4 +74,32 @@ public class SdkHttpRequestExecutor extends HttpRequestExecutor {
             awsRequestMetrics.endEvent(Field.HttpClientReceiveResponseTime);
         }
     }
+
+    /**
+     * Captures the latency of the TLS handshake of the given connection, if
+     * it has been newly opened.
+     */
+    private void captureHandshakeMetrics(
+            final HttpClientConnection conn,
+            final AWSRequestMetrics awsRequestMetrics) {
+        if (!(conn instanceof ManagedHttpClientConnection))
+            return;
+        Socket socket;
+        try {
+            socket = ((ManagedHttpClientConnection) conn).getSocket();
+        } catch (RuntimeException e) {
+            // The connection has been detached from its pool entry
+            return;
+        }
+        if (!(socket instanceof SdkSSLSocket))
+            return;
+        SdkSSLSocket sslSocket = (SdkSSLSocket) socket;
+        TimingInfo handshake = sslSocket.pollHandshakeTiming();
+        if (handshake == null)
+            return;
+        awsRequestMetrics.getTimingInfo().addSubMeasurement(
+                Field.TlsHandshakeTime.name(), handshake);
+        if (sslSocket.isSessionResumed())
+            awsRequestMetrics.incrementCounter(Field.TlsSessionResumedCount);
+    }
 }
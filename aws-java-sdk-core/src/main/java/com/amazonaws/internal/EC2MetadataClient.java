@@ -25,12 +25,22 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.util.IOUtils;
 
 /**
  * Simple client for accessing the Amazon EC2 Instance Metadata Service.
+ * <p>
+ * Responses are read to the end, including those of errors, so that the
+ * connections are kept alive and reused by later requests, and a client can
+ * be shared by any number of threads.
  */
 public class EC2MetadataClient {
 
+    /** The timeout for connecting to the service, in milliseconds */
+    private static final int CONNECT_TIMEOUT = 1000 * 2;
+
+    /** The timeout for reading a response of the service, in milliseconds */
+    private static final int READ_TIMEOUT = 1000 * 5;
 
     /** Default endpoint for the Amazon EC2 Instance Metadata Service. */
     private static final String EC2_METADATA_SERVICE_URL = "http://169.254.169.254";
@@ -84,7 +94,8 @@ public class EC2MetadataClient {
         log.debug("Connecting to EC2 instance metadata service at URL: " + url.toString());
 
         HttpURLConnection connection = (HttpURLConnection)url.openConnection();
-        connection.setConnectTimeout(1000 * 2);
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
         connection.setRequestMethod("GET");
         connection.setDoOutput(true);
         connection.connect();
@@ -107,25 +118,35 @@ public class EC2MetadataClient {
      *             If any problems ocurred while reading the response.
      */
     private String readResponse(HttpURLConnection connection) throws IOException {
-    	if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND)
-    		throw new AmazonClientException("The requested metadata is not found at " + connection.getURL());
-    	
+        if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+            drain(connection.getErrorStream());
+            throw new AmazonClientException("The requested metadata is not found at " + connection.getURL());
+        }
+
         InputStream inputStream = connection.getInputStream();
 
         try {
-            StringBuilder buffer = new StringBuilder();
-            while (true) {
-                int c = inputStream.read();
-                if (c == -1) break;
-                buffer.append((char)c);
-            }
-
-            return buffer.toString();
+            return IOUtils.toString(inputStream);
         } finally {
             inputStream.close();
         }
     }
 
+    /**
+     * Reads the given error stream to the end and closes it, so that its
+     * connection can be reused.
+     */
+    private void drain(InputStream errorStream) {
+        if (errorStream == null) return;
+        try {
+            IOUtils.toByteArray(errorStream);
+        } catch (IOException e) {
+            log.debug("Unable to read the error response of the EC2 instance metadata service", e);
+        } finally {
+            IOUtils.closeQuietly(errorStream, log);
+        }
+    }
+
     /**
      * Constructs a URL to the EC2 metadata service for the specified
      * resource path.
@@ -21,6 +21,7 @@ import java.net.InetAddress;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.HandshakeCompletedListener;
 import javax.net.ssl.SSLSession;
@@ -29,10 +30,16 @@ import javax.net.ssl.SSLSocket;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.amazonaws.util.TimingInfo;
+
 public class SdkSSLSocket extends SSLSocket {
     private static final Log log = LogFactory.getLog(SdkSSLSocket.class);
 
     private final SSLSocket sock;
+    /** Timing of the last handshake not yet reported, if any. */
+    private final AtomicReference<TimingInfo> handshakeTiming =
+        new AtomicReference<TimingInfo>();
+    private volatile boolean sessionResumed;
 
     public SdkSSLSocket(SSLSocket sock) {
         this.sock = sock;
@@ -316,7 +323,36 @@ public class SdkSSLSocket extends SSLSocket {
 
     @Override
     public void startHandshake() throws IOException {
+        final long startEpochMilli = System.currentTimeMillis();
+        final long startNano = System.nanoTime();
         sock.startHandshake();
+        final long endNano = System.nanoTime();
+        SSLSession session = sock.getSession();
+        // A resumed session was created by an earlier handshake
+        sessionResumed = session != null
+                && session.getCreationTime() < startEpochMilli;
+        handshakeTiming.set(TimingInfo.unmodifiableTimingInfo(
+                startEpochMilli, startNano, Long.valueOf(endNano)));
+        if (log.isDebugEnabled())
+            log.debug("TLS handshake with " + endpoint() + " took "
+                    + TimingInfo.durationMilliOf(startNano, endNano) + " ms"
+                    + (sessionResumed ? " (session resumed)" : ""));
+    }
+
+    /**
+     * Returns the timing of the last TLS handshake performed on this socket,
+     * or null if there has been none since the last call to this method.
+     */
+    public TimingInfo pollHandshakeTiming() {
+        return handshakeTiming.getAndSet(null);
+    }
+
+    /**
+     * Returns true if the last TLS handshake performed on this socket resumed
+     * a previously established session; false otherwise.
+     */
+    public boolean isSessionResumed() {
+        return sessionResumed;
     }
 
     @Override
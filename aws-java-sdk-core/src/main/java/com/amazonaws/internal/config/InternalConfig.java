@@ -26,9 +26,6 @@ import com.amazonaws.annotation.Immutable;
 import com.amazonaws.log.InternalLogApi;
 import com.amazonaws.log.InternalLogFactory;
 import com.amazonaws.util.ClassLoaderHelper;
-import com.amazonaws.util.json.Jackson;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 
 /**
  * Internal configuration for the AWS Java SDK.
@@ -223,21 +220,18 @@ public class InternalConfig {
         return userAgentTemplate;
     }
 
-    static InternalConfigJsonHelper loadfrom(URL url)
-            throws JsonParseException, JsonMappingException, IOException {
+    static InternalConfigJsonHelper loadfrom(URL url) throws IOException {
         if (url == null)
             throw new IllegalArgumentException();
-        InternalConfigJsonHelper target = Jackson.getObjectMapper().readValue(
-                url, InternalConfigJsonHelper.class);
-        return target;
+        // Avoids initializing an ObjectMapper, which is costly at start up
+        return InternalConfigJsonReader.read(url);
     }
 
     /**
      * Loads and returns the AWS Java SDK internal configuration from the
      * classpath.
      */
-    static InternalConfig load() throws JsonParseException,
-        JsonMappingException, IOException {
+    static InternalConfig load() throws IOException {
         URL url = ClassLoaderHelper.getResource("/" + DEFAULT_CONFIG_RESOURCE,
                 InternalConfig.class);
         if (url == null) { // Try without a leading "/"
@@ -18,7 +18,8 @@ package com.amazonaws.internal.config;
  * An internal class used to help build {@link InternalConfig} after this
  * class per se has been unmarshalled from JSON. This class allows us to make
  * use of Jackson without the need to write any special parser or json
- * marshaller/unmarshaller.
+ * marshaller/unmarshaller, although the SDK reads its own configuration files
+ * with {@link InternalConfigJsonReader} to start up faster.
  */
 class InternalConfigJsonHelper {
 
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads an {@link InternalConfigJsonHelper} from JSON with the streaming
+ * parser of Jackson, instead of data binding via an <code>ObjectMapper</code>,
+ * which takes hundreds of milliseconds to initialize in a new JVM. Like the
+ * <code>ObjectMapper</code> of the SDK, comments are allowed and unknown
+ * properties are ignored.
+ */
+class InternalConfigJsonReader {
+    private static final JsonFactory jsonFactory = new JsonFactory()
+            .configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+
+    private final JsonParser parser;
+
+    private InternalConfigJsonReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    static InternalConfigJsonHelper read(URL url) throws IOException {
+        InputStream in = url.openStream();
+        try {
+            return read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    static InternalConfigJsonHelper read(InputStream in) throws IOException {
+        JsonParser parser = jsonFactory.createParser(in);
+        try {
+            return new InternalConfigJsonReader(parser).readConfig();
+        } finally {
+            parser.close();
+        }
+    }
+
+    private InternalConfigJsonHelper readConfig() throws IOException {
+        InternalConfigJsonHelper config = new InternalConfigJsonHelper();
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL)
+                continue;
+            if ("defaultSigner".equals(name)) {
+                config.setDefaultSigner(readSignerConfig(token));
+            } else if ("serviceSigners".equals(name)) {
+                config.setServiceSigners(readSignerIndexes(token));
+            } else if ("regionSigners".equals(name)) {
+                config.setRegionSigners(readSignerIndexes(token));
+            } else if ("serviceRegionSigners".equals(name)) {
+                config.setServiceRegionSigners(readSignerIndexes(token));
+            } else if ("httpClients".equals(name)) {
+                config.setHttpClients(readHttpClientIndexes(token));
+            } else if ("hostRegexToRegionMappings".equals(name)) {
+                config.setHostRegexToRegionMappings(readHostRegexToRegionMappings(token));
+            } else if ("userAgentTemplate".equals(name)) {
+                config.setUserAgentTemplate(readString(token));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return config;
+    }
+
+    private SignerConfigJsonHelper readSignerConfig(JsonToken token) throws IOException {
+        expect(token, JsonToken.START_OBJECT);
+        SignerConfigJsonHelper signer = new SignerConfigJsonHelper();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            token = parser.nextToken();
+            if ("signerType".equals(name))
+                signer.setSignerType(readString(token));
+            else
+                parser.skipChildren();
+        }
+        return signer;
+    }
+
+    private HttpClientConfigJsonHelper readHttpClientConfig(JsonToken token) throws IOException {
+        expect(token, JsonToken.START_OBJECT);
+        HttpClientConfigJsonHelper httpClient = new HttpClientConfigJsonHelper();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            token = parser.nextToken();
+            if ("serviceName".equals(name))
+                httpClient.setServiceName(readString(token));
+            else
+                parser.skipChildren();
+        }
+        return httpClient;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonIndex<SignerConfigJsonHelper, SignerConfig>[] readSignerIndexes(
+            JsonToken token) throws IOException {
+        expect(token, JsonToken.START_ARRAY);
+        List<JsonIndex<SignerConfigJsonHelper, SignerConfig>> list =
+                new ArrayList<JsonIndex<SignerConfigJsonHelper, SignerConfig>>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(token, JsonToken.START_OBJECT);
+            String key = null;
+            SignerConfigJsonHelper config = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if ("key".equals(name))
+                    key = readString(token);
+                else if ("config".equals(name) && token != JsonToken.VALUE_NULL)
+                    config = readSignerConfig(token);
+                else
+                    parser.skipChildren();
+            }
+            list.add(new JsonIndex<SignerConfigJsonHelper, SignerConfig>(key, config));
+        }
+        return list.toArray(new JsonIndex[list.size()]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>[] readHttpClientIndexes(
+            JsonToken token) throws IOException {
+        expect(token, JsonToken.START_ARRAY);
+        List<JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>> list =
+                new ArrayList<JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(token, JsonToken.START_OBJECT);
+            String key = null;
+            HttpClientConfigJsonHelper config = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if ("key".equals(name))
+                    key = readString(token);
+                else if ("config".equals(name) && token != JsonToken.VALUE_NULL)
+                    config = readHttpClientConfig(token);
+                else
+                    parser.skipChildren();
+            }
+            list.add(new JsonIndex<HttpClientConfigJsonHelper, HttpClientConfig>(key, config));
+        }
+        return list.toArray(new JsonIndex[list.size()]);
+    }
+
+    private HostRegexToRegionMappingJsonHelper[] readHostRegexToRegionMappings(
+            JsonToken token) throws IOException {
+        expect(token, JsonToken.START_ARRAY);
+        List<HostRegexToRegionMappingJsonHelper> list =
+                new ArrayList<HostRegexToRegionMappingJsonHelper>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(token, JsonToken.START_OBJECT);
+            HostRegexToRegionMappingJsonHelper mapping = new HostRegexToRegionMappingJsonHelper();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                if ("hostNameRegex".equals(name))
+                    mapping.setHostNameRegex(readString(token));
+                else if ("regionName".equals(name))
+                    mapping.setRegionName(readString(token));
+                else
+                    parser.skipChildren();
+            }
+            list.add(mapping);
+        }
+        return list.toArray(new HostRegexToRegionMappingJsonHelper[list.size()]);
+    }
+
+    private String readString(JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL)
+            return null;
+        if (!token.isScalarValue())
+            throw new JsonParseException("Expected a string but found " + token,
+                    parser.getCurrentLocation());
+        return parser.getText();
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException("Expected " + expected + " but found "
+                    + actual, parser.getCurrentLocation());
+        }
+    }
+}
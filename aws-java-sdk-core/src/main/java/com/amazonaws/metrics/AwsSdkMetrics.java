@@ -20,19 +20,27 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.pool.PoolStats;
 
 import com.amazonaws.SDKGlobalConfiguration;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.PropertiesCredentials;
+import com.amazonaws.http.conn.SdkPoolingClientConnectionManager;
 import com.amazonaws.jmx.spi.SdkMBeanRegistry;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.util.AWSRequestMetrics.Field;
@@ -115,6 +123,40 @@ public enum AwsSdkMetrics {
      */
     public static final String INCLUDE_PER_HOST_METRICS = "includePerHostMetrics";
 
+    /**
+     * Used to record the latencies of the AWS SDK into histograms, from which
+     * percentiles can be obtained. The client execution time is recorded for
+     * every request; the HTTP request and connection lease times only when
+     * request metrics are enabled.
+     * By default, latency histograms are not recorded.
+     * 
+     * <pre>
+     * Example:
+     *  -Dcom.amazonaws.sdk.enableDefaultMetrics=includeLatencyHistograms
+     * </pre>
+     * 
+     * @see #getLatencyHistograms()
+     */
+    public static final String INCLUDE_LATENCY_HISTOGRAMS = "includeLatencyHistograms";
+
+    /**
+     * Used to record request metrics into pooled primitive arrays instead of
+     * maps, which avoids most of the per-request allocation of metric
+     * collection. Request metric collectors must not retain the request
+     * metrics beyond the call to
+     * {@link RequestMetricCollector#collectMetrics}, as the storage is then
+     * reused by subsequent requests.
+     * By default, request metrics are recorded into maps.
+     * 
+     * <pre>
+     * Example:
+     *  -Dcom.amazonaws.sdk.enableDefaultMetrics=compactRequestMetrics
+     * </pre>
+     * 
+     * @see com.amazonaws.util.AWSRequestMetricsCompactSupport
+     */
+    public static final String COMPACT_REQUEST_METRICS = "compactRequestMetrics";
+
     /**
      * Used to specify an AWS credential property file.
      * By default, the {@link DefaultAWSCredentialsProviderChain} is used.
@@ -246,6 +288,27 @@ public enum AwsSdkMetrics {
      * false otherwise.
      */
     private static volatile boolean singleMetricNamespace;
+    /**
+     * True if latencies are to be recorded into histograms; false otherwise.
+     */
+    private static volatile boolean latencyHistogramsIncluded;
+    /**
+     * True if request metrics are to be recorded into pooled primitive
+     * arrays; false otherwise.
+     */
+    private static volatile boolean compactRequestMetrics;
+    /**
+     * The latency histograms keyed by service name, operation name and metric
+     * type.
+     */
+    private static final ConcurrentMap<String, LatencyHistogram> latencyHistograms =
+        new ConcurrentHashMap<String, LatencyHistogram>();
+    /**
+     * The snapshots of the latency histograms taken by the last export, from
+     * which the latencies recorded since are computed; guarded by itself.
+     */
+    private static final Map<LatencyHistogram, LatencyHistogram.Snapshot> exportedLatencySnapshots =
+        new HashMap<LatencyHistogram, LatencyHistogram.Snapshot>();
 
     static {
         String defaultMetrics = System.getProperty(DEFAULT_METRICS_SYSTEM_PROPERTY);
@@ -255,6 +318,8 @@ public enum AwsSdkMetrics {
             boolean excludeMachineMetrics = false;
             boolean includePerHostMetrics = false;
             boolean useSingleMetricNamespace = false;
+            boolean includeLatencyHistograms = false;
+            boolean useCompactRequestMetrics = false;
             for (String s: values) {
                 String part = s.trim();
                 if (!excludeMachineMetrics && EXCLUDE_MACHINE_METRICS.equals(part)) {
@@ -263,6 +328,10 @@ public enum AwsSdkMetrics {
                     includePerHostMetrics = true;
                 } else if (!useSingleMetricNamespace && USE_SINGLE_METRIC_NAMESPACE.equals(part)) {
                     useSingleMetricNamespace = true;
+                } else if (!includeLatencyHistograms && INCLUDE_LATENCY_HISTOGRAMS.equals(part)) {
+                    includeLatencyHistograms = true;
+                } else if (!useCompactRequestMetrics && COMPACT_REQUEST_METRICS.equals(part)) {
+                    useCompactRequestMetrics = true;
                 } else {
                     String[] pair = part.split("=");
                     if (pair.length == 2) {
@@ -301,6 +370,8 @@ public enum AwsSdkMetrics {
             machineMetricsExcluded = excludeMachineMetrics;
             perHostMetricsIncluded = includePerHostMetrics;
             singleMetricNamespace = useSingleMetricNamespace;
+            latencyHistogramsIncluded = includeLatencyHistograms;
+            compactRequestMetrics = useCompactRequestMetrics;
         }
     }
 
@@ -805,6 +876,125 @@ public enum AwsSdkMetrics {
         AwsSdkMetrics.hostMetricName = hostMetricName;
     }
 
+    /**
+     * Returns the statistics (leased, pending, available and maximum number of
+     * connections) of all the live HTTP connection pools of the AWS SDK,
+     * summed. Available regardless of whether metrics are enabled.
+     */
+    public static PoolStats getHttpClientPoolStats() {
+        return SdkPoolingClientConnectionManager.getAggregatedStats();
+    }
+
+    /**
+     * Returns the average time in milliseconds callers have waited to lease
+     * a connection from the live HTTP connection pools of the AWS SDK, or 0
+     * if no connection has been leased yet.
+     */
+    public static double getHttpClientPoolAverageLeaseWaitMillis() {
+        long count = SdkPoolingClientConnectionManager.getAggregatedLeaseCount();
+        return count == 0 ? 0 : SdkPoolingClientConnectionManager
+                .getAggregatedLeaseWaitNanos() / 1e6 / count;
+    }
+
+    /**
+     * Returns true if the latencies of the AWS SDK are recorded into
+     * histograms; false otherwise.
+     * 
+     * @see #INCLUDE_LATENCY_HISTOGRAMS
+     */
+    public static boolean isLatencyHistogramsIncluded() {
+        return latencyHistogramsIncluded;
+    }
+
+    /**
+     * Used to set whether the latencies of the AWS SDK are to be recorded
+     * into histograms.
+     */
+    public static void setLatencyHistogramsIncluded(boolean includeLatencyHistograms) {
+        AwsSdkMetrics.latencyHistogramsIncluded = includeLatencyHistograms;
+    }
+
+    /**
+     * Returns true if request metrics are recorded into pooled primitive
+     * arrays; false otherwise.
+     * 
+     * @see #COMPACT_REQUEST_METRICS
+     */
+    public static boolean isCompactRequestMetrics() {
+        return compactRequestMetrics;
+    }
+
+    /**
+     * Used to set whether request metrics are to be recorded into pooled
+     * primitive arrays.
+     * 
+     * @see #COMPACT_REQUEST_METRICS
+     */
+    public static void setCompactRequestMetrics(boolean compactRequestMetrics) {
+        AwsSdkMetrics.compactRequestMetrics = compactRequestMetrics;
+    }
+
+    /**
+     * Returns the latency histogram of the given metric type for the given
+     * service and operation, creating it if necessary.
+     * 
+     * @param serviceName
+     *            name of the service, or null if not service specific
+     * @param operationName
+     *            name of the operation, or null if not operation specific
+     */
+    public static LatencyHistogram getLatencyHistogram(String serviceName,
+            String operationName, MetricType type) {
+        String key = serviceName + "/" + operationName + "/" + type.name();
+        LatencyHistogram histogram = latencyHistograms.get(key);
+        if (histogram == null) {
+            LatencyHistogram newHistogram =
+                new LatencyHistogram(serviceName, operationName, type);
+            histogram = latencyHistograms.putIfAbsent(key, newHistogram);
+            if (histogram == null)
+                histogram = newHistogram;
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns all the latency histograms recorded so far.
+     */
+    public static Collection<LatencyHistogram> getLatencyHistograms() {
+        return Collections.unmodifiableCollection(latencyHistograms.values());
+    }
+
+    /**
+     * Passes the latencies recorded since the last export to the given
+     * exporter. The histograms themselves keep all the latencies recorded so
+     * far. Histograms without new latencies are skipped. Meant to be called
+     * periodically by a single exporter.
+     */
+    public static void exportLatencyHistograms(LatencyHistogramExporter exporter) {
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<LatencyHistogram.Snapshot>();
+        synchronized (exportedLatencySnapshots) {
+            for (LatencyHistogram histogram: latencyHistograms.values()) {
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                LatencyHistogram.Snapshot interval =
+                    snapshot.since(exportedLatencySnapshots.put(histogram, snapshot));
+                if (interval.getCount() > 0)
+                    snapshots.add(interval);
+            }
+        }
+        if (snapshots.size() > 0)
+            exporter.export(snapshots);
+    }
+
+    /**
+     * Discards all the latency histograms.
+     */
+    public static void resetLatencyHistograms() {
+        synchronized (exportedLatencySnapshots) {
+            latencyHistograms.clear();
+            exportedLatencySnapshots.clear();
+        }
+    }
+
     /**
      * Used as a registry for the predefined metrics to be captured by the
      * metric collector at the AWS SDK level.
@@ -829,6 +1019,10 @@ public enum AwsSdkMetrics {
             metricTypes.add(Field.HttpClientPoolLeasedCount);
             metricTypes.add(Field.HttpClientPoolPendingCount);
             metricTypes.add(AWSServiceMetrics.HttpClientGetConnectionTime);
+            metricTypes.add(Field.TlsHandshakeTime);
+            metricTypes.add(Field.TlsSessionResumedCount);
+            metricTypes.add(Field.RequestTimeoutCount);
+            metricTypes.add(Field.ClientExecutionTimeoutCount);
             syncReadOnly();
         }
 
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * A fixed-memory histogram of the latencies of a metric type, optionally
+ * specific to a service and an operation, from which percentiles can be
+ * computed.
+ * <p>
+ * Latencies are recorded in microseconds into log-linear buckets: values
+ * below 32 microseconds have a bucket of their own, and every power of two
+ * above is split into 16 linear buckets, which bounds the relative error of
+ * a percentile to about 6%. Latencies above about 9.5 hours are recorded in
+ * the last bucket. Recording is lock-free and allocation-free.
+ */
+@ThreadSafe
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Values below this number of microseconds each have their own bucket. */
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+    /** Highest power of two with buckets of its own. */
+    private static final int MAX_MAGNITUDE = 35;
+    private static final int NUM_BUCKETS = bucketIndex((1L << (MAX_MAGNITUDE + 1)) - 1) + 1;
+
+    private final String serviceName;
+    private final String operationName;
+    private final MetricType metricType;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong minMicros = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxMicros = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param serviceName
+     *            name of the service, or null if not service specific
+     * @param operationName
+     *            name of the operation, or null if not operation specific
+     * @param metricType
+     *            the metric type of the recorded latencies
+     */
+    public LatencyHistogram(String serviceName, String operationName,
+            MetricType metricType) {
+        if (metricType == null)
+            throw new IllegalArgumentException();
+        this.serviceName = serviceName;
+        this.operationName = operationName;
+        this.metricType = metricType;
+    }
+
+    public String getServiceName() { return serviceName; }
+    public String getOperationName() { return operationName; }
+    public MetricType getMetricType() { return metricType; }
+
+    /**
+     * Records the given latency in milliseconds. Negative values are recorded
+     * as zero.
+     */
+    public void recordMillis(double millis) {
+        recordMicros((long) (millis * 1000));
+    }
+
+    /**
+     * Records the given latency in microseconds. Negative values are recorded
+     * as zero.
+     */
+    public void recordMicros(long micros) {
+        if (micros < 0)
+            micros = 0;
+        buckets.incrementAndGet(bucketIndex(micros));
+        sumMicros.addAndGet(micros);
+        long prev;
+        while (micros < (prev = minMicros.get())
+            && !minMicros.compareAndSet(prev, micros))
+            ;
+        while (micros > (prev = maxMicros.get())
+            && !maxMicros.compareAndSet(prev, micros))
+            ;
+    }
+
+    /**
+     * Returns a snapshot of the latencies recorded so far.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[NUM_BUCKETS];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = buckets.get(i);
+        return new Snapshot(counts, sumMicros.get(), minMicros.get(), maxMicros.get());
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_LIMIT)
+            return (int) micros;
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE)
+            return NUM_BUCKETS - 1;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (micros >>> shift);
+    }
+
+    /** Returns the lowest value in microseconds of the given bucket. */
+    static long lowestValueOf(int index) {
+        return index == 0 ? 0 : highestValueOf(index - 1) + 1;
+    }
+
+    /** Returns the highest value in microseconds of the given bucket. */
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT)
+            return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return serviceName + "/" + operationName + "/" + metricType.name()
+                + ": " + snapshot();
+    }
+
+    /**
+     * An immutable view of the latencies recorded into a histogram.
+     */
+    public final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long minMicros;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long sumMicros, long minMicros, long maxMicros) {
+            long n = 0;
+            for (long c: counts)
+                n += c;
+            this.counts = counts;
+            this.count = n;
+            this.sumMicros = sumMicros;
+            this.minMicros = n == 0 ? 0 : minMicros;
+            this.maxMicros = n == 0 ? 0 : maxMicros;
+        }
+
+        /**
+         * Returns a snapshot of the latencies recorded between the given
+         * earlier snapshot of the same histogram and this one. Its minimum
+         * and maximum are bounded by the buckets of these latencies, so they
+         * are accurate to within the relative error of a percentile.
+         *
+         * @param previous
+         *            an earlier snapshot of the same histogram, or null to
+         *            return this snapshot
+         */
+        public Snapshot since(Snapshot previous) {
+            if (previous == null)
+                return this;
+            if (previous.getHistogram() != LatencyHistogram.this)
+                throw new IllegalArgumentException("Snapshot of another histogram");
+            long[] diff = new long[counts.length];
+            int first = -1, last = -1;
+            for (int i = 0; i < diff.length; i++) {
+                diff[i] = counts[i] - previous.counts[i];
+                if (diff[i] > 0) {
+                    if (first < 0)
+                        first = i;
+                    last = i;
+                }
+            }
+            if (first < 0)
+                return new Snapshot(diff, 0, 0, 0);
+            return new Snapshot(diff, sumMicros - previous.sumMicros,
+                    Math.max(lowestValueOf(first), minMicros),
+                    Math.min(highestValueOf(last), maxMicros));
+        }
+
+        /** Returns the histogram this is a snapshot of. */
+        public LatencyHistogram getHistogram() { return LatencyHistogram.this; }
+
+        /** Returns the number of recorded latencies. */
+        public long getCount() { return count; }
+
+        public double getMinMillis() { return minMicros / 1000.0; }
+
+        public double getMaxMillis() { return maxMicros / 1000.0; }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : sumMicros / 1000.0 / count;
+        }
+
+        /**
+         * Returns the latency in milliseconds at or below which the given
+         * percentage of the recorded latencies fall, or 0 if there is none.
+         *
+         * @param percentile
+         *            between 0 and 100 inclusive
+         */
+        public double getPercentileMillis(double percentile) {
+            if (percentile < 0 || percentile > 100)
+                throw new IllegalArgumentException("percentile: " + percentile);
+            if (count == 0)
+                return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    long value = Math.min(highestValueOf(i), maxMicros);
+                    return Math.max(value, minMicros) / 1000.0;
+                }
+            }
+            return getMaxMillis();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "count=%d, min=%.3f, mean=%.3f, p50=%.3f, p90=%.3f, p99=%.3f, p99.9=%.3f, max=%.3f",
+                count, getMinMillis(), getMeanMillis(),
+                getPercentileMillis(50), getPercentileMillis(90),
+                getPercentileMillis(99), getPercentileMillis(99.9),
+                getMaxMillis());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics;
+
+import java.util.Collection;
+
+/**
+ * SPI used to export the latency histograms of the AWS SDK to a monitoring
+ * system.
+ *
+ * @see AwsSdkMetrics#exportLatencyHistograms(LatencyHistogramExporter)
+ */
+public interface LatencyHistogramExporter {
+    /**
+     * Exports the given snapshots, each of which holds the latencies recorded
+     * into a histogram since the previous export.
+     */
+    public void export(Collection<LatencyHistogram.Snapshot> snapshots);
+}
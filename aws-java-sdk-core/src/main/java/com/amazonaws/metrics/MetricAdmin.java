@@ -16,6 +16,9 @@ package com.amazonaws.metrics;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import com.amazonaws.regions.Regions;
 
@@ -144,4 +147,44 @@ public class MetricAdmin implements MetricAdminMBean {
     public void setSingleMetricNamespace(boolean singleMetricNamespace) {
         AwsSdkMetrics.setSingleMetricNamespace(singleMetricNamespace);
     }
+    @Override
+    public int getHttpClientPoolLeasedCount() {
+        return AwsSdkMetrics.getHttpClientPoolStats().getLeased();
+    }
+    @Override
+    public int getHttpClientPoolPendingCount() {
+        return AwsSdkMetrics.getHttpClientPoolStats().getPending();
+    }
+    @Override
+    public int getHttpClientPoolAvailableCount() {
+        return AwsSdkMetrics.getHttpClientPoolStats().getAvailable();
+    }
+    @Override
+    public int getHttpClientPoolMaxCount() {
+        return AwsSdkMetrics.getHttpClientPoolStats().getMax();
+    }
+    @Override
+    public double getHttpClientPoolAverageLeaseWaitMillis() {
+        return AwsSdkMetrics.getHttpClientPoolAverageLeaseWaitMillis();
+    }
+    @Override
+    public boolean isLatencyHistogramsIncluded() {
+        return AwsSdkMetrics.isLatencyHistogramsIncluded();
+    }
+    @Override
+    public void setLatencyHistogramsIncluded(boolean includeLatencyHistograms) {
+        AwsSdkMetrics.setLatencyHistogramsIncluded(includeLatencyHistograms);
+    }
+    @Override
+    public String[] getLatencyPercentiles() {
+        List<String> lines = new ArrayList<String>();
+        for (LatencyHistogram histogram: AwsSdkMetrics.getLatencyHistograms())
+            lines.add(histogram.toString());
+        Collections.sort(lines);
+        return lines.toArray(new String[lines.size()]);
+    }
+    @Override
+    public void resetLatencyHistograms() {
+        AwsSdkMetrics.resetLatencyHistograms();
+    }
 }
\ No newline at end of file
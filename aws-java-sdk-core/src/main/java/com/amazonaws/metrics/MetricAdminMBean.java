@@ -184,4 +184,57 @@ public interface MetricAdminMBean {
      * Used to set whether a single metric name space is to be used.
      */
     public void setSingleMetricNamespace(boolean singleMetricNamespace);
+
+    /**
+     * Returns the number of connections currently leased from the HTTP
+     * connection pools of the AWS SDK.
+     */
+    public int getHttpClientPoolLeasedCount();
+
+    /**
+     * Returns the number of requests currently waiting for a connection from
+     * the HTTP connection pools of the AWS SDK.
+     */
+    public int getHttpClientPoolPendingCount();
+
+    /**
+     * Returns the number of idle connections currently available in the HTTP
+     * connection pools of the AWS SDK.
+     */
+    public int getHttpClientPoolAvailableCount();
+
+    /**
+     * Returns the maximum number of connections of the HTTP connection pools
+     * of the AWS SDK.
+     */
+    public int getHttpClientPoolMaxCount();
+
+    /**
+     * Returns the average time in milliseconds spent waiting to lease a
+     * connection from the HTTP connection pools of the AWS SDK.
+     */
+    public double getHttpClientPoolAverageLeaseWaitMillis();
+
+    /**
+     * Returns true if the latencies of the AWS SDK are recorded into
+     * histograms; false otherwise.
+     */
+    public boolean isLatencyHistogramsIncluded();
+
+    /**
+     * Used to set whether the latencies of the AWS SDK are to be recorded
+     * into histograms.
+     */
+    public void setLatencyHistogramsIncluded(boolean includeLatencyHistograms);
+
+    /**
+     * Returns a summary of the percentiles of each latency histogram recorded
+     * so far, one line per service, operation and metric type.
+     */
+    public String[] getLatencyPercentiles();
+
+    /**
+     * Discards all the latency histograms recorded so far.
+     */
+    public void resetLatencyHistograms();
 }
\ No newline at end of file
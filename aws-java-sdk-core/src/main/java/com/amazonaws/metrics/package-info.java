@@ -65,7 +65,15 @@
  * client type level. </li>
  * <li>RetryCount - Number of retries per logical request. Captured on a per service 
  * client type level. </li>
+ * <li>RequestTimeoutCount - Number of HTTP requests aborted by the request
+ * timeout. Captured on a per service client type level.</li>
+ * <li>ClientExecutionTimeoutCount - Number of client executions aborted by the
+ * client execution timeout. Captured on a per service client type level.</li>
  * <li>ThrottleException - Number of times of a request has been throttled by the service.</li>
+ * <li>TlsHandshakeTime - Number of milliseconds taken by the TLS handshake of a
+ * newly opened connection. Captured on a per request type level.</li>
+ * <li>TlsSessionResumedCount - Number of TLS handshakes that resumed a cached
+ * session. Captured on a per service client type level.</li>
  * <li>DynamoDBConsumedCapacity - Number of Amazon DynamoDB capacity units consumed.
  * Captured on a per request type level, and is only available if the request
  * has been specified with the necessary "ReturnConsumedCapacity" parameter.
@@ -80,6 +88,13 @@
  * <li>S3UploadThroughput - Number of bytes uploaded to S3 per second.</li>
  * <li>S3UploadByteCount - Number of bytes uploaded to S3.</li>
  * </ol>
+ * <h3>Latency Histograms</h3>
+ * When enabled via {@link com.amazonaws.metrics.AwsSdkMetrics#INCLUDE_LATENCY_HISTOGRAMS},
+ * the ClientExecuteTime and HttpRequestTime of each request type, and the
+ * HttpClientGetConnectionTime, are also recorded into fixed-memory histograms
+ * from which percentiles are computed. See
+ * {@link com.amazonaws.metrics.AwsSdkMetrics#getLatencyHistograms()} and
+ * {@link com.amazonaws.metrics.LatencyHistogramExporter}.
  * <h3>Machine Metrics</h3>
  * <h4>Memory</h4>
  * <ol>
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.payload;
+
+/**
+ * Stores message bodies too large to be sent through a queue or topic, and
+ * hands out the compact pointers sent in their place, as the
+ * {@code PayloadOffloadingHandler} of the Amazon SQS client does.
+ * Implementations are shared by all the requests of a client, so they must be
+ * thread-safe. The Amazon S3 module provides one keeping the payloads in a
+ * bucket, {@code com.amazonaws.services.s3.payload.S3PayloadStore}.
+ */
+public interface PayloadStore {
+
+    /**
+     * Stores the given payload.
+     *
+     * @param payload
+     *            the message body to store
+     * @return the pointer to send instead of the payload, small enough to be
+     *         a message body
+     */
+    String storePayload(String payload);
+
+    /**
+     * Returns the payload a pointer returned by {@link #storePayload(String)}
+     * refers to.
+     */
+    String getPayload(String pointer);
+
+    /**
+     * Deletes the payload a pointer returned by {@link #storePayload(String)}
+     * refers to, once the message carrying the pointer is deleted or could not
+     * be sent.
+     */
+    void deletePayload(String pointer);
+}
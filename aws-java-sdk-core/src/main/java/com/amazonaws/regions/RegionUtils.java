@@ -83,7 +83,12 @@ public class RegionUtils {
             return rval;
         }
 
-        initialize();
+        synchronized (RegionUtils.class) {
+            // Clients created concurrently at start up load the metadata once
+            if (regionMetadata == null) {
+                initialize();
+            }
+        }
         return regionMetadata;
     }
 
@@ -85,6 +85,16 @@ public class AWSRequestMetrics {
          * Number of requests to AWS.
          */
         RequestCount,
+        /**
+         * Number of HTTP requests aborted because they did not complete
+         * within the request timeout.
+         */
+        RequestTimeoutCount,
+        /**
+         * Number of client executions aborted because they did not complete
+         * within the client execution timeout.
+         */
+        ClientExecutionTimeoutCount,
         /**
          * Number of retries of AWS SDK sending a request to AWS.
          */
@@ -131,6 +141,16 @@ public class AWSRequestMetrics {
          */
         HttpClientPoolPendingCount,
         RetryPauseTime,
+        /**
+         * Number of milliseconds taken by the TLS handshake of each new
+         * connection opened to send a request to AWS.
+         */
+        TlsHandshakeTime,
+        /**
+         * Number of TLS handshakes that resumed a cached session instead of
+         * performing a full handshake.
+         */
+        TlsSessionResumedCount,
 //      S3DownloadThroughput, // migrated to S3RequestMetric in the S3 clint library
 //      S3UploadThroughput,   // migrated to S3RequestMetric in the S3 clint library
         ServiceEndpoint,
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.annotation.NotThreadSafe;
+
+import com.amazonaws.metrics.AwsSdkMetrics;
+import com.amazonaws.metrics.MetricType;
+
+/**
+ * A drop-in alternative to {@link AWSRequestMetricsFullSupport} which records
+ * the events, counters and properties of the predefined {@link Field}s into
+ * primitive arrays indexed by ordinal, pooled per thread, so that collecting
+ * request metrics allocates next to nothing per request. Metrics of other
+ * names or types are kept in maps created on first use.
+ * <p>
+ * The storage is returned to the pool via {@link #release()} once the client
+ * execution has ended and the metrics have been collected, after which this
+ * instance reads as empty. Request metric collectors must therefore not retain
+ * the metrics beyond
+ * {@link com.amazonaws.metrics.RequestMetricCollector#collectMetrics}.
+ *
+ * @see AwsSdkMetrics#COMPACT_REQUEST_METRICS
+ */
+@NotThreadSafe
+public class AWSRequestMetricsCompactSupport extends AWSRequestMetrics {
+    private static final Log latencyLogger = LogFactory.getLog("com.amazonaws.latency");
+
+    private final TimingInfoCompactSupport compact;
+    private Map<String, TimingInfo> otherEventsBeingProfiled;
+    private Map<String, List<Object>> otherProperties;
+
+    public AWSRequestMetricsCompactSupport() {
+        super(new TimingInfoCompactSupport(
+                Long.valueOf(System.currentTimeMillis()), System.nanoTime()));
+        this.compact = (TimingInfoCompactSupport) timingInfo;
+    }
+
+    /**
+     * Returns the pooled storage of this instance for reuse by subsequent
+     * requests on the current thread. All the metrics recorded so far are
+     * discarded.
+     */
+    public void release() {
+        compact.release();
+        otherEventsBeingProfiled = null;
+        otherProperties = null;
+    }
+
+    @Override
+    public void startEvent(String eventName) {
+        Field f = TimingInfoCompactSupport.fieldOf(eventName);
+        if (f != null) {
+            startEvent(f);
+            return;
+        }
+        if (otherEventsBeingProfiled == null)
+            otherEventsBeingProfiled = new HashMap<String, TimingInfo>();
+        /* This will overwrite past events */
+        otherEventsBeingProfiled.put // ignoring the wall clock time
+            (eventName, TimingInfo.startTimingFullSupport(System.nanoTime()));
+    }
+
+    @Override
+    public void startEvent(MetricType f) {
+        TimingInfoCompactSupport.Storage s = compact.storage();
+        if (!(f instanceof Field)) {
+            startEvent(f.name());
+        } else if (s != null) {
+            int i = ((Field) f).ordinal();
+            s.eventStartNanos[i] = System.nanoTime();
+            s.eventStarted[i] = true;
+        }
+    }
+
+    @Override
+    public void endEvent(String eventName) {
+        Field f = TimingInfoCompactSupport.fieldOf(eventName);
+        if (f != null) {
+            endEvent(f);
+            return;
+        }
+        TimingInfo event = otherEventsBeingProfiled == null
+                         ? null : otherEventsBeingProfiled.get(eventName);
+        /* Somebody tried to end an event that was not started. */
+        if (event == null) {
+            LogFactory.getLog(getClass()).warn
+                ("Trying to end an event which was never started: " + eventName);
+            return;
+        }
+        event.endTiming();
+        this.timingInfo.addSubMeasurement(
+            eventName,
+            TimingInfo.unmodifiableTimingInfo(
+                event.getStartTimeNano(),
+                event.getEndTimeNano()));
+    }
+
+    @Override
+    public void endEvent(MetricType f) {
+        if (!(f instanceof Field)) {
+            endEvent(f.name());
+            return;
+        }
+        TimingInfoCompactSupport.Storage s = compact.storage();
+        if (s == null)
+            return;
+        int i = ((Field) f).ordinal();
+        if (!s.eventStarted[i]) {
+            LogFactory.getLog(getClass()).warn
+                ("Trying to end an event which was never started: " + f.name());
+            return;
+        }
+        compact.addSubMeasurement((Field) f, s.eventStartNanos[i], System.nanoTime());
+    }
+
+    @Override
+    public void incrementCounter(String event) {
+        timingInfo.incrementCounter(event);
+    }
+
+    @Override
+    public void incrementCounter(MetricType f) {
+        if (f instanceof Field) {
+            compact.incrementCounter((Field) f);
+        } else {
+            incrementCounter(f.name());
+        }
+    }
+
+    @Override
+    public void setCounter(String counterName, long count) {
+        timingInfo.setCounter(counterName, count);
+    }
+
+    @Override
+    public void setCounter(MetricType f, long count) {
+        if (f instanceof Field) {
+            compact.setCounter((Field) f, count);
+        } else {
+            setCounter(f.name(), count);
+        }
+    }
+
+    @Override
+    public void addProperty(String propertyName, Object value) {
+        Field f = TimingInfoCompactSupport.fieldOf(propertyName);
+        if (f != null) {
+            addProperty(f, value);
+            return;
+        }
+        if (otherProperties == null)
+            otherProperties = new HashMap<String, List<Object>>();
+        List<Object> propertyList = otherProperties.get(propertyName);
+        if (propertyList == null) {
+            propertyList = new ArrayList<Object>();
+            otherProperties.put(propertyName, propertyList);
+        }
+        propertyList.add(value);
+    }
+
+    @Override
+    public void addProperty(MetricType f, Object value) {
+        if (!(f instanceof Field)) {
+            addProperty(f.name(), value);
+            return;
+        }
+        TimingInfoCompactSupport.Storage s = compact.storage();
+        if (s != null)
+            s.addProperty((Field) f, value);
+    }
+
+    @Override
+    public List<Object> getProperty(String propertyName) {
+        Field f = TimingInfoCompactSupport.fieldOf(propertyName);
+        if (f != null)
+            return getProperty(f);
+        return otherProperties == null ? null : otherProperties.get(propertyName);
+    }
+
+    @Override
+    public List<Object> getProperty(MetricType f) {
+        if (!(f instanceof Field))
+            return getProperty(f.name());
+        TimingInfoCompactSupport.Storage s = compact.storage();
+        return s == null ? null : s.getProperty((Field) f);
+    }
+
+    @Override
+    public void log() {
+        if (latencyLogger.isInfoEnabled()) {
+            StringBuilder builder = new StringBuilder();
+            TimingInfoCompactSupport.Storage s = compact.storage();
+            if (s != null) {
+                for (Field f: s.getPropertyFields())
+                    keyValueFormat(f, s.getProperty(f), builder);
+            }
+            if (otherProperties != null) {
+                for (Entry<String, List<Object>> entry : otherProperties.entrySet())
+                    keyValueFormat(entry.getKey(), entry.getValue(), builder);
+            }
+            for (Entry<String, Number> entry : timingInfo.getAllCounters()
+                    .entrySet()) {
+                keyValueFormat(entry.getKey(), entry.getValue(), builder);
+            }
+            for (Entry<String, List<TimingInfo>> entry : timingInfo
+                    .getSubMeasurementsByName().entrySet()) {
+                keyValueFormat(entry.getKey(), entry.getValue(), builder);
+            }
+            latencyLogger.info(builder.toString());
+        }
+    }
+
+    private void keyValueFormat(Object key, Object value, StringBuilder builder) {
+        builder.append(key).append('=').append(value).append(", ");
+    }
+
+    /** Always returns true. */
+    @Override
+    public final boolean isEnabled() {
+        return true;
+    }
+}
@@ -14,6 +14,9 @@
  */
 package com.amazonaws.util;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A Base 16 codec API.
  * 
@@ -34,6 +37,36 @@ public enum Base16 {
         return bytes.length == 0 ? "" : CodecUtils.toStringDirect(codec.encode(bytes)); 
     }
     
+    /**
+     * Base 16 encodes the remaining bytes of the source buffer into the
+     * destination buffer, which can be direct, advancing the positions of
+     * both buffers.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has less than twice as many bytes
+     *             remaining as the source, in which case neither buffer is
+     *             modified
+     */
+    public static void encode(ByteBuffer src, ByteBuffer dest) {
+        codec.encode(src, dest);
+    }
+
+    /**
+     * Decodes the remaining base 16 encoded bytes of the source buffer into
+     * the destination buffer, which can be direct, advancing the positions of
+     * both buffers. White space is not skipped.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has less than half as many bytes
+     *             remaining as the source, in which case neither buffer is
+     *             modified
+     * @throws IllegalArgumentException
+     *             if the source is not valid base 16
+     */
+    public static void decode(ByteBuffer src, ByteBuffer dest) {
+        codec.decode(src, dest);
+    }
+
     /**
      * Returns a 16 encoded byte array of the given bytes.
      */
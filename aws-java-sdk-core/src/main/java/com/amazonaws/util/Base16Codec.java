@@ -14,6 +14,9 @@
  */
 package com.amazonaws.util;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A Base 16 codec implementation.
  * 
@@ -82,8 +85,50 @@ class Base16Codec implements Codec {
         return dest;
     }
     
+    /**
+     * Encodes the remaining bytes of the source buffer into the destination
+     * buffer, advancing the positions of both.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has insufficient space, in which
+     *             case neither buffer is modified
+     */
+    void encode(ByteBuffer src, ByteBuffer dest) {
+        if (dest.remaining() < src.remaining() * 2)
+            throw new BufferOverflowException();
+        byte p;
+
+        while (src.hasRemaining()) {
+            dest.put(ALPAHBETS[(p=src.get()) >>> 4 & MASK_4BITS]);
+            dest.put(ALPAHBETS[p & MASK_4BITS]);
+        }
+    }
+
+    /**
+     * Decodes the remaining base 16 encoded bytes of the source buffer into
+     * the destination buffer, advancing the positions of both.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has insufficient space, in which
+     *             case neither buffer is modified
+     */
+    void decode(ByteBuffer src, ByteBuffer dest) {
+        final int length = src.remaining();
+        if (length % 2 != 0) {
+            throw new IllegalArgumentException(
+                "Input is expected to be encoded in multiple of 2 bytes but found: "
+                + length
+            );
+        }
+        if (dest.remaining() < length / 2)
+            throw new BufferOverflowException();
+
+        while (src.hasRemaining())
+            dest.put((byte)(pos(src.get()) << 4 | pos(src.get())));
+    }
+
     protected int pos(byte in) {
-        int pos = LazyHolder.DECODED[in];
+        int pos = in < 0 || in >= LazyHolder.DECODED.length ? -1 : LazyHolder.DECODED[in];
         
         if (pos > -1)
             return pos;
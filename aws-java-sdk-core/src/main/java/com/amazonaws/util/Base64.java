@@ -14,10 +14,17 @@
  */
 package com.amazonaws.util;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 import javax.xml.bind.DatatypeConverter;
 
 /**
  * A Base 64 codec API.
+ * <p>
+ * Besides byte arrays, data can be encoded and decoded between heap or direct
+ * {@link ByteBuffer}s supplied by the caller, or incrementally via
+ * {@link Base64EncodingOutputStream} and {@link Base64DecodingInputStream}.
  * 
  * See http://www.ietf.org/rfc/rfc4648.txt
  * 
@@ -36,6 +43,66 @@ public enum Base64 {
         return DatatypeConverter.printBase64Binary(bytes);
     }
     
+    /**
+     * Returns a base 64 encoded string of the remaining bytes of the given
+     * buffer, without changing the position of the buffer; or null if the
+     * buffer is null. Unlike {@link #encodeAsString(byte...)}, no intermediate
+     * copy of the bytes is made.
+     */
+    public static String encodeRemainingAsString(ByteBuffer bytes) {
+        if (bytes == null)
+            return null;
+        return bytes.hasRemaining() ? new String(codec.encodeAsChars(bytes)) : "";
+    }
+
+    /**
+     * Returns the length of the base 64 encoding of the given number of bytes.
+     */
+    public static int encodedLength(int length) {
+        return Base64Codec.encodedLength(length);
+    }
+
+    /**
+     * Returns the number of bytes the remaining base 64 encoded bytes of the
+     * given buffer decode into, without changing the position of the buffer.
+     *
+     * @throws IllegalArgumentException
+     *             if the number of remaining bytes is not a multiple of 4
+     */
+    public static int decodedLength(ByteBuffer b64) {
+        return Base64Codec.decodedLength(b64);
+    }
+
+    /**
+     * Base 64 encodes the remaining bytes of the source buffer into the
+     * destination buffer, advancing the positions of both buffers.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has less than
+     *             {@link #encodedLength(int)} bytes remaining, in which case
+     *             neither buffer is modified
+     */
+    public static void encode(ByteBuffer src, ByteBuffer dest) {
+        codec.encode(src, dest);
+    }
+
+    /**
+     * Decodes the remaining base 64 encoded bytes of the source buffer into
+     * the destination buffer, advancing the positions of both buffers. White
+     * space is not skipped.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has less than
+     *             {@link #decodedLength(ByteBuffer)} bytes remaining, in which
+     *             case neither buffer is modified
+     * @throws IllegalArgumentException
+     *             if the source is not valid base 64, in which case the
+     *             positions of the buffers are undefined
+     */
+    public static void decode(ByteBuffer src, ByteBuffer dest) {
+        codec.decode(src, dest);
+    }
+
     /**
      * Returns a 64 encoded byte array of the given bytes.
      */
@@ -15,6 +15,9 @@
 package com.amazonaws.util;
 import static com.amazonaws.util.CodecUtils.sanityCheckLastPos;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * A Base 64 codec implementation.
  * 
@@ -234,8 +237,147 @@ class Base64Codec implements Codec {
         return dest;
     }
     
+    /**
+     * Returns the length of the base 64 encoding of the given number of bytes.
+     */
+    static int encodedLength(int length) {
+        return (length + 2) / 3 * 4;
+    }
+
+    /**
+     * Encodes the remaining bytes of the source buffer into the destination
+     * buffer, advancing the positions of both. Either buffer can be direct.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has insufficient space, in which
+     *             case neither buffer is modified
+     */
+    void encode(ByteBuffer src, ByteBuffer dest) {
+        final int length = src.remaining();
+        final int encodedLength = encodedLength(length);
+        if (dest.remaining() < encodedLength)
+            throw new BufferOverflowException();
+        final int remainder = length % 3;
+
+        if (src.hasArray() && dest.hasArray()) {
+            final byte[] s = src.array();
+            final byte[] d = dest.array();
+            int sp = src.arrayOffset() + src.position();
+            int dp = dest.arrayOffset() + dest.position();
+            final int end = sp + length - remainder;
+
+            for (; sp < end; sp+=3, dp+=4)
+                encode3bytes(s, sp, d, dp);
+            if (remainder == 1)
+                encode1byte(s, sp, d, dp);
+            else if (remainder == 2)
+                encode2bytes(s, sp, d, dp);
+            src.position(src.limit());
+            dest.position(dest.position() + encodedLength);
+            return;
+        }
+        for (int i=length / 3; i > 0; i--) {
+            int p = (src.get() & 0xFF) << 16 | (src.get() & 0xFF) << 8 | src.get() & 0xFF;
+            dest.put(ALPAHBETS[p >>> 18])
+                .put(ALPAHBETS[p >>> 12 & MASK_6BITS])
+                .put(ALPAHBETS[p >>> 6 & MASK_6BITS])
+                .put(ALPAHBETS[p & MASK_6BITS]);
+        }
+        if (remainder == 0)
+            return;
+        int p = (src.get() & 0xFF) << 16 | (remainder == 2 ? (src.get() & 0xFF) << 8 : 0);
+        dest.put(ALPAHBETS[p >>> 18])
+            .put(ALPAHBETS[p >>> 12 & MASK_6BITS])
+            .put(remainder == 2 ? ALPAHBETS[p >>> 6 & MASK_6BITS] : PAD)
+            .put(PAD);
+    }
+
+    /**
+     * Returns the base 64 encoding of the remaining bytes of the given buffer
+     * as characters, without changing the position of the buffer.
+     */
+    char[] encodeAsChars(ByteBuffer src) {
+        final char[] dest = new char[encodedLength(src.remaining())];
+        final int remainder = src.remaining() % 3;
+        final int end = src.limit() - remainder;
+        int s = src.position(), d = 0;
+
+        for (; s < end; s+=3) {
+            int p = (src.get(s) & 0xFF) << 16 | (src.get(s+1) & 0xFF) << 8 | src.get(s+2) & 0xFF;
+            dest[d++] = (char)ALPAHBETS[p >>> 18];
+            dest[d++] = (char)ALPAHBETS[p >>> 12 & MASK_6BITS];
+            dest[d++] = (char)ALPAHBETS[p >>> 6 & MASK_6BITS];
+            dest[d++] = (char)ALPAHBETS[p & MASK_6BITS];
+        }
+        if (remainder > 0) {
+            int p = (src.get(s) & 0xFF) << 16 | (remainder == 2 ? (src.get(s+1) & 0xFF) << 8 : 0);
+            dest[d++] = (char)ALPAHBETS[p >>> 18];
+            dest[d++] = (char)ALPAHBETS[p >>> 12 & MASK_6BITS];
+            dest[d++] = remainder == 2 ? (char)ALPAHBETS[p >>> 6 & MASK_6BITS] : (char)PAD;
+            dest[d] = (char)PAD;
+        }
+        return dest;
+    }
+
+    /**
+     * Returns the number of bytes the remaining base 64 encoded bytes of the
+     * given buffer decode into.
+     *
+     * @throws IllegalArgumentException
+     *             if the number of remaining bytes is not a multiple of 4
+     */
+    static int decodedLength(ByteBuffer src) {
+        final int length = src.remaining();
+        if (length % 4 != 0)
+            throw new IllegalArgumentException
+            ("Input is expected to be encoded in multiple of 4 bytes but found: " + length);
+        if (length == 0)
+            return 0;
+        int pads = 0;
+        if (src.get(src.limit() - 1) == PAD)
+            pads = src.get(src.limit() - 2) == PAD ? 2 : 1;
+        return length / 4 * 3 - pads;
+    }
+
+    /**
+     * Decodes the remaining base 64 encoded bytes of the source buffer into
+     * the destination buffer, advancing the positions of both. Unlike
+     * {@link Base64#decode(String)}, no white space is skipped. Either buffer
+     * can be direct.
+     *
+     * @throws BufferOverflowException
+     *             if the destination buffer has insufficient space, in which
+     *             case neither buffer is modified
+     * @throws IllegalArgumentException
+     *             if the input is not valid base 64
+     */
+    void decode(ByteBuffer src, ByteBuffer dest) {
+        final int decodedLength = decodedLength(src);
+        if (dest.remaining() < decodedLength)
+            throw new BufferOverflowException();
+        final int fq = decodedLength % 3;   // bytes in a padded final quantum
+
+        for (int i=decodedLength / 3; i > 0; i--) {
+            int p = pos(src.get()) << 18 | pos(src.get()) << 12 | pos(src.get()) << 6 | pos(src.get());
+            dest.put((byte)(p >>> 16)).put((byte)(p >>> 8)).put((byte)p);
+        }
+        if (fq == 0)
+            return;
+        int p = pos(src.get()) << 18 | pos(src.get()) << 12;
+        if (fq == 1) {
+            sanityCheckLastPos(p >>> 12, MASK_4BITS);
+            dest.put((byte)(p >>> 16));
+            src.position(src.position() + 2);   // skip the pads
+            return;
+        }
+        p |= pos(src.get()) << 6;
+        sanityCheckLastPos(p >>> 6, MASK_2BITS);
+        dest.put((byte)(p >>> 16)).put((byte)(p >>> 8));
+        src.get();   // skip the pad
+    }
+
     protected int pos(byte in) {
-        int pos = LazyHolder.DECODED[in];
+        int pos = in < 0 || in >= LazyHolder.DECODED.length ? -1 : LazyHolder.DECODED[in];
         
         if (pos > -1)
             return pos;
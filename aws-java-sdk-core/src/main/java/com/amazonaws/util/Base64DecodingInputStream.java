@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.annotation.NotThreadSafe;
+
+import com.amazonaws.internal.SdkFilterInputStream;
+
+/**
+ * An input stream that decodes the base 64 encoded bytes read from the
+ * underlying input stream, skipping carriage returns, line feeds and spaces
+ * like {@link Base64#decode(String)}, so that large data can be decoded
+ * without holding both the data and its encoding in memory.
+ * <p>
+ * Mark and reset are not supported.
+ *
+ * @see Base64EncodingOutputStream
+ */
+@NotThreadSafe
+public class Base64DecodingInputStream extends SdkFilterInputStream {
+    private static final Base64Codec codec = new Base64Codec();
+    private static final int BUFFER_SIZE = 4 * 1024;
+    private static final byte PAD = '=';
+
+    private final byte[] encoded = new byte[BUFFER_SIZE];
+    /** Encoded bytes read but not yet decoded, as they don't make up a quantum. */
+    private final byte[] quantum = new byte[4];
+    private int quantumCount;
+    /**
+     * Decoded bytes not yet read, from {@link #decodedPos} to
+     * {@link #decodedLimit}. Sized for the leftover of a quantum plus a full
+     * buffer of encoded bytes.
+     */
+    private final byte[] decoded = new byte[(BUFFER_SIZE / 4 + 1) * 3];
+    private int decodedPos;
+    private int decodedLimit;
+    /** True once the final, padded quantum has been decoded. */
+    private boolean padded;
+    private boolean eof;
+    private byte[] singleByte;
+
+    public Base64DecodingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (singleByte == null)
+            singleByte = new byte[1];
+        int n = read(singleByte, 0, 1);
+        return n == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return 0;
+        abortIfNeeded();
+        while (decodedPos == decodedLimit) {
+            if (!fill())
+                return -1;
+        }
+        final int n = Math.min(len, decodedLimit - decodedPos);
+        System.arraycopy(decoded, decodedPos, b, off, n);
+        decodedPos += n;
+        return n;
+    }
+
+    /**
+     * Reads the next buffer of encoded bytes from the underlying input stream,
+     * and decodes all the complete quanta.
+     *
+     * @return false if the end of the underlying input stream has been reached
+     */
+    private boolean fill() throws IOException {
+        if (eof)
+            return false;
+        final int n = in.read(encoded, 0, encoded.length);
+        if (n == -1) {
+            eof = true;
+            if (quantumCount > 0) {
+                throw new IOException(
+                    "Input is expected to be encoded in multiple of 4 bytes but found "
+                    + quantumCount + " trailing bytes");
+            }
+            return false;
+        }
+        int d = 0;
+        try {
+            for (int i=0; i < n; i++) {
+                final byte c = encoded[i];
+                if (c == '\r' || c == '\n' || c == ' ')
+                    continue;
+                if (padded)
+                    throw new IOException("Unexpected base 64 input after padding");
+                quantum[quantumCount++] = c;
+                if (quantumCount < 4)
+                    continue;
+                quantumCount = 0;
+                if (quantum[3] != PAD) {
+                    codec.decode4bytes(quantum, 0, decoded, d);
+                    d += 3;
+                } else {
+                    final int fq = quantum[2] == PAD ? 1 : 2;
+                    codec.decode1to3bytes(fq, quantum, 0, decoded, d);
+                    d += fq;
+                    padded = true;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        decodedPos = 0;
+        decodedLimit = d;
+        return true;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0)
+            return 0;
+        long skipped = 0;
+        while (skipped < n) {
+            if (decodedPos == decodedLimit && !fill())
+                break;
+            final int c = (int)Math.min(n - skipped, decodedLimit - decodedPos);
+            decodedPos += c;
+            skipped += c;
+        }
+        return skipped;
+    }
+
+    /**
+     * Returns the number of decoded bytes that can be read without reading
+     * from the underlying input stream.
+     */
+    @Override
+    public int available() throws IOException {
+        abortIfNeeded();
+        return decodedLimit - decodedPos;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        // mark is not supported
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.http.annotation.NotThreadSafe;
+
+import com.amazonaws.internal.SdkFilterOutputStream;
+
+/**
+ * An output stream that base 64 encodes the bytes written to it into the
+ * underlying output stream, so that large data can be encoded without holding
+ * both the data and its encoding in memory.
+ * <p>
+ * The final, possibly padded, quantum is written by {@link #finish()} or
+ * {@link #close()}. Since only complete quanta can be encoded before then,
+ * {@link #flush()} can leave up to two bytes pending.
+ *
+ * @see Base64DecodingInputStream
+ */
+@NotThreadSafe
+public class Base64EncodingOutputStream extends SdkFilterOutputStream {
+    private static final Base64Codec codec = new Base64Codec();
+    /** Number of bytes encoded into the buffer per write to the stream. */
+    private static final int CHUNK_SIZE = 3 * 1024;
+
+    /** Bytes written but not yet encoded, as they don't make up a quantum. */
+    private final byte[] pending = new byte[3];
+    private int pendingCount;
+    private final byte[] buf = new byte[CHUNK_SIZE / 3 * 4];
+    private boolean finished;
+
+    public Base64EncodingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkNotFinished();
+        pending[pendingCount++] = (byte)b;
+        if (pendingCount == 3) {
+            codec.encode3bytes(pending, 0, buf, 0);
+            pendingCount = 0;
+            out.write(buf, 0, 4);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        checkNotFinished();
+        // Complete any pending quantum first
+        while (pendingCount > 0 && len > 0) {
+            write(b[off++]);
+            len--;
+        }
+        while (len >= 3) {
+            final int chunk = Math.min(len - len % 3, CHUNK_SIZE);
+            final int end = off + chunk;
+            int d = 0;
+
+            for (; off < end; off+=3, d+=4)
+                codec.encode3bytes(b, off, buf, d);
+            out.write(buf, 0, d);
+            len -= chunk;
+        }
+        for (; len > 0; len--)
+            pending[pendingCount++] = b[off++];
+    }
+
+    /**
+     * Writes the final quantum, padded as needed, to the underlying output
+     * stream without closing it. No more bytes can be written afterwards.
+     */
+    public void finish() throws IOException {
+        if (finished)
+            return;
+        finished = true;
+        if (pendingCount == 1)
+            codec.encode1byte(pending, 0, buf, 0);
+        else if (pendingCount == 2)
+            codec.encode2bytes(pending, 0, buf, 0);
+        if (pendingCount > 0)
+            out.write(buf, 0, 4);
+        pendingCount = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void checkNotFinished() throws IOException {
+        if (finished)
+            throw new IOException("Base 64 encoding has already been finished");
+    }
+}
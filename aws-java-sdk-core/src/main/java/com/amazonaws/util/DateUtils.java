@@ -33,6 +33,9 @@ import com.amazonaws.annotation.ThreadSafe;
 
 /**
  * Utilities for parsing and formatting dates.
+ * <p>
+ * The exact formats used by AWS are parsed and formatted by hand-written
+ * code; Joda-Time is only used for any other input.
  */
 @ThreadSafe
 public class DateUtils {
@@ -88,6 +91,9 @@ public class DateUtils {
     }
 
     static Date doParseISO8601Date(final String dateStringOrig) {
+        final long fast = FastDateFormats.parseISO8601(dateStringOrig);
+        if (fast != FastDateFormats.NOT_PARSED)
+            return new Date(fast);
         // https://github.com/aws/aws-sdk-java/issues/233
         final String temp = tempDateStringForJodaTime(dateStringOrig);
         try {
@@ -165,7 +171,8 @@ public class DateUtils {
      */
     public static String formatISO8601Date(Date date) {
         try {
-            return iso8601DateFormat.print(date.getTime());
+            String fast = FastDateFormats.formatISO8601(date.getTime());
+            return fast != null ? fast : iso8601DateFormat.print(date.getTime());
         } catch(RuntimeException ex) {
             throw handleException(ex);
         }
@@ -190,7 +197,9 @@ public class DateUtils {
      */
     public static Date parseRFC822Date(String dateString) {
         try {
-            return new Date(rfc822DateFormat.parseMillis(dateString));
+            long fast = FastDateFormats.parseRFC822(dateString);
+            return new Date(fast != FastDateFormats.NOT_PARSED
+                    ? fast : rfc822DateFormat.parseMillis(dateString));
         } catch(RuntimeException ex) {
             throw handleException(ex);
         }
@@ -214,7 +223,8 @@ public class DateUtils {
      */
     public static String formatRFC822Date(Date date) {
         try {
-            return rfc822DateFormat.print(date.getTime());
+            String fast = FastDateFormats.formatRFC822(date.getTime());
+            return fast != null ? fast : rfc822DateFormat.print(date.getTime());
         } catch(RuntimeException ex) {
             throw handleException(ex);
         }
@@ -239,12 +249,32 @@ public class DateUtils {
      */
     public static Date parseCompressedISO8601Date(String dateString) {
         try {
-            return new Date(compressedIso8601DateFormat.parseMillis(dateString));
+            long fast = FastDateFormats.parseCompressedISO8601(dateString);
+            return new Date(fast != FastDateFormats.NOT_PARSED
+                    ? fast : compressedIso8601DateFormat.parseMillis(dateString));
         } catch (RuntimeException ex) {
             throw handleException(ex);
         }
    }
 
+    /**
+     * Formats the specified date as a compressedIso8601DateFormat
+     * ("yyyyMMdd'T'HHmmss'Z'") string, as used for signing.
+     *
+     * @param date
+     *            The date to format.
+     *
+     * @return The compressed ISO 8601 string representing the specified date.
+     */
+    public static String formatCompressedISO8601Date(Date date) {
+        try {
+            String fast = FastDateFormats.formatCompressedISO8601(date.getTime());
+            return fast != null ? fast : compressedIso8601DateFormat.print(date.getTime());
+        } catch (RuntimeException ex) {
+            throw handleException(ex);
+        }
+    }
+
     /**
      * Parses the given date string returned by the AWS service into a Date
      * object.
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Hand-written parsers and formatters for the exact, fixed-width date formats
+ * used by the SDK, in the GMT zone and for years 0 to 9999. Used by
+ * {@link DateUtils} in preference to Joda-Time, which remains the fallback for
+ * any other input.
+ * <p>
+ * The parse methods return {@link #NOT_PARSED} for any input that is not in
+ * the exact expected format or that is out of range, so that the caller can
+ * fall back to Joda-Time for the lenient parsing and the error messages.
+ */
+@ThreadSafe
+final class FastDateFormats {
+    /** Returned by the parse methods when the input is not handled. */
+    static final long NOT_PARSED = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * MILLIS_PER_SECOND;
+    /** Range of the epoch milliseconds with a year between 0 and 9999. */
+    private static final long MIN_MILLIS = -62167219200000L;  // 0000-01-01T00:00:00Z
+    private static final long MAX_MILLIS = 253402300799999L;  // 9999-12-31T23:59:59.999Z
+
+    private static final String[] DAYS_OF_WEEK = {
+        "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"
+    };
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun",
+        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    /** The last formatted second of each format with second precision. */
+    private static volatile CachedSecond lastRFC822;
+    private static volatile CachedSecond lastCompressedISO8601;
+
+    private FastDateFormats() {}
+
+    /**
+     * Parses "yyyy-MM-dd'T'HH:mm:ss'Z'", optionally with 1 to 9 fractional
+     * digits of the second, of which the ones beyond milliseconds are
+     * ignored.
+     */
+    static long parseISO8601(String s) {
+        final int len = s.length();
+        if (len < 20 || len > 30
+        ||  s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+        ||  s.charAt(13) != ':' || s.charAt(16) != ':' || s.charAt(len - 1) != 'Z')
+            return NOT_PARSED;
+        int millis = 0;
+        if (len > 20) {
+            if (s.charAt(19) != '.' || len == 21)
+                return NOT_PARSED;
+            for (int i = 20, scale = 100; i < len - 1; i++, scale /= 10) {
+                int d = digit(s, i);
+                if (d < 0)
+                    return NOT_PARSED;
+                millis += d * scale;
+            }
+        }
+        return toMillis(number(s, 0, 4), number(s, 5, 2), number(s, 8, 2),
+                number(s, 11, 2), number(s, 14, 2), number(s, 17, 2), millis);
+    }
+
+    /** Parses "EEE, dd MMM yyyy HH:mm:ss 'GMT'". */
+    static long parseRFC822(String s) {
+        if (s.length() != 29
+        ||  s.charAt(3) != ',' || s.charAt(4) != ' ' || s.charAt(7) != ' '
+        ||  s.charAt(11) != ' ' || s.charAt(16) != ' ' || s.charAt(19) != ':'
+        ||  s.charAt(22) != ':' || !s.endsWith(" GMT"))
+            return NOT_PARSED;
+        int month = -1;
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (s.regionMatches(8, MONTHS[i], 0, 3)) {
+                month = i + 1;
+                break;
+            }
+        }
+        if (month < 0)
+            return NOT_PARSED;
+        long millis = toMillis(number(s, 12, 4), month, number(s, 5, 2),
+                number(s, 17, 2), number(s, 20, 2), number(s, 23, 2), 0);
+        // A day of week inconsistent with the date is left to Joda-Time
+        if (millis == NOT_PARSED
+        ||  !s.regionMatches(0, DAYS_OF_WEEK[dayOfWeekIndex(millis)], 0, 3))
+            return NOT_PARSED;
+        return millis;
+    }
+
+    /** Parses "yyyyMMdd'T'HHmmss'Z'". */
+    static long parseCompressedISO8601(String s) {
+        if (s.length() != 16 || s.charAt(8) != 'T' || s.charAt(15) != 'Z')
+            return NOT_PARSED;
+        return toMillis(number(s, 0, 4), number(s, 4, 2), number(s, 6, 2),
+                number(s, 9, 2), number(s, 11, 2), number(s, 13, 2), 0);
+    }
+
+    /**
+     * Formats as "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", or returns null if the year
+     * is out of range.
+     */
+    static String formatISO8601(long millis) {
+        if (millis < MIN_MILLIS || millis > MAX_MILLIS)
+            return null;
+        char[] buf = new char[24];
+        long days = floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+        int[] ymd = civilFromDays(days);
+        append(buf, 0, ymd[0], 4);
+        buf[4] = '-';
+        append(buf, 5, ymd[1], 2);
+        buf[7] = '-';
+        append(buf, 8, ymd[2], 2);
+        buf[10] = 'T';
+        appendTime(buf, 11, millisOfDay, ':');
+        buf[19] = '.';
+        append(buf, 20, millisOfDay % 1000, 3);
+        buf[23] = 'Z';
+        return new String(buf);
+    }
+
+    /**
+     * Formats as "EEE, dd MMM yyyy HH:mm:ss 'GMT'", or returns null if the
+     * year is out of range. The last formatted second is cached.
+     */
+    static String formatRFC822(long millis) {
+        if (millis < MIN_MILLIS || millis > MAX_MILLIS)
+            return null;
+        long second = floorDiv(millis, MILLIS_PER_SECOND);
+        CachedSecond cached = lastRFC822;
+        if (cached != null && cached.second == second)
+            return cached.text;
+        char[] buf = new char[29];
+        long days = floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+        int[] ymd = civilFromDays(days);
+        DAYS_OF_WEEK[dayOfWeekIndex(millis)].getChars(0, 3, buf, 0);
+        buf[3] = ',';
+        buf[4] = ' ';
+        append(buf, 5, ymd[2], 2);
+        buf[7] = ' ';
+        MONTHS[ymd[1] - 1].getChars(0, 3, buf, 8);
+        buf[11] = ' ';
+        append(buf, 12, ymd[0], 4);
+        buf[16] = ' ';
+        appendTime(buf, 17, millisOfDay, ':');
+        " GMT".getChars(0, 4, buf, 25);
+        String text = new String(buf);
+        lastRFC822 = new CachedSecond(second, text);
+        return text;
+    }
+
+    /**
+     * Formats as "yyyyMMdd'T'HHmmss'Z'", or returns null if the year is out
+     * of range. The last formatted second is cached.
+     */
+    static String formatCompressedISO8601(long millis) {
+        if (millis < MIN_MILLIS || millis > MAX_MILLIS)
+            return null;
+        long second = floorDiv(millis, MILLIS_PER_SECOND);
+        CachedSecond cached = lastCompressedISO8601;
+        if (cached != null && cached.second == second)
+            return cached.text;
+        char[] buf = new char[16];
+        long days = floorDiv(millis, MILLIS_PER_DAY);
+        int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+        int[] ymd = civilFromDays(days);
+        append(buf, 0, ymd[0], 4);
+        append(buf, 4, ymd[1], 2);
+        append(buf, 6, ymd[2], 2);
+        buf[8] = 'T';
+        int seconds = millisOfDay / 1000;
+        append(buf, 9, seconds / 3600, 2);
+        append(buf, 11, seconds / 60 % 60, 2);
+        append(buf, 13, seconds % 60, 2);
+        buf[15] = 'Z';
+        String text = new String(buf);
+        lastCompressedISO8601 = new CachedSecond(second, text);
+        return text;
+    }
+
+    /**
+     * Returns the epoch milliseconds of the given date and time in GMT, or
+     * {@link #NOT_PARSED} if any field is missing or out of range.
+     */
+    private static long toMillis(int year, int month, int day,
+            int hour, int minute, int second, int millis) {
+        if (year < 0 || month < 1 || month > 12 || day < 1
+        ||  day > daysInMonth(year, month) || hour < 0 || hour > 23
+        ||  minute < 0 || minute > 59 || second < 0 || second > 59)
+            return NOT_PARSED;
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+             + ((hour * 60L + minute) * 60 + second) * MILLIS_PER_SECOND
+             + millis;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Returns the number of days since epoch of the given date in the
+     * proleptic Gregorian calendar.
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097L + doe - 719468;
+    }
+
+    /**
+     * Returns the year, month and day of the given number of days since
+     * epoch in the proleptic Gregorian calendar.
+     */
+    private static int[] civilFromDays(long days) {
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        int doe = (int) (z - era * 146097);
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yoe + era * 400) + (month <= 2 ? 1 : 0);
+        return new int[] { year, month, day };
+    }
+
+    /** Returns the index into {@link #DAYS_OF_WEEK} of the given time. */
+    private static int dayOfWeekIndex(long millis) {
+        // 1970-01-01 was a Thursday
+        return (int) ((floorDiv(millis, MILLIS_PER_DAY) % 7 + 10) % 7);
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
+    /** Appends "HH:mm:ss" of the given milliseconds of day. */
+    private static void appendTime(char[] buf, int pos, int millisOfDay, char separator) {
+        int seconds = millisOfDay / 1000;
+        append(buf, pos, seconds / 3600, 2);
+        buf[pos + 2] = separator;
+        append(buf, pos + 3, seconds / 60 % 60, 2);
+        buf[pos + 5] = separator;
+        append(buf, pos + 6, seconds % 60, 2);
+    }
+
+    /** Appends the given non-negative value zero-padded to the given width. */
+    private static void append(char[] buf, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /** Returns the given number of digits as a number, or -1 if not digits. */
+    private static int number(String s, int pos, int width) {
+        int n = 0;
+        for (int i = pos; i < pos + width; i++) {
+            int d = digit(s, i);
+            if (d < 0)
+                return -1;
+            n = n * 10 + d;
+        }
+        return n;
+    }
+
+    private static int digit(String s, int pos) {
+        char c = s.charAt(pos);
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    private static final class CachedSecond {
+        final long second;
+        final String text;
+
+        CachedSecond(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
@@ -14,8 +14,6 @@
  */
 package com.amazonaws.util;
 
-import static com.amazonaws.util.BinaryUtils.copyBytesFrom;
-
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
@@ -131,7 +129,7 @@ public class StringUtils {
      * @return The base64 encoded contents of the specified byte buffer.
      */
     public static String fromByteBuffer(ByteBuffer byteBuffer) {
-        return Base64.encodeAsString(copyBytesFrom(byteBuffer));
+        return Base64.encodeRemainingAsString(byteBuffer);
     }
 
     public static String replace( String originalString, String partToMatch, String replacement ) {
@@ -183,4 +181,30 @@ public class StringUtils {
         }
         return value.isEmpty();
     }
+
+    /**
+     * Returns the number of bytes of the UTF-8 encoding of the given
+     * characters, without encoding them. Unpaired surrogates count as the one
+     * byte they are replaced with when encoded.
+     */
+    public static long utf8Length(CharSequence value) {
+        long length = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
 }
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.annotation.NotThreadSafe;
+
+import com.amazonaws.util.AWSRequestMetrics.Field;
+
+/**
+ * A {@link TimingInfo} with the same features as {@link TimingInfoFullSupport},
+ * but which records the sub-measurements and counters of the predefined
+ * {@link Field}s into primitive arrays indexed by ordinal, instead of maps of
+ * lists of {@link TimingInfo}. The arrays are pooled per thread and reused
+ * across requests once {@link #release()} is called. Measurements of other
+ * names fall back to maps, created on first use.
+ * <p>
+ * The {@link TimingInfo} instances and collections returned by the getters are
+ * created on demand.
+ *
+ * @see AWSRequestMetricsCompactSupport
+ */
+@NotThreadSafe
+class TimingInfoCompactSupport extends TimingInfo {
+    private static final Field[] FIELDS = Field.values();
+    private static final Map<String, Field> FIELDS_BY_NAME = new HashMap<String, Field>();
+    static {
+        for (Field f: FIELDS)
+            FIELDS_BY_NAME.put(f.name(), f);
+    }
+
+    private static final ThreadLocal<Storage> pool = new ThreadLocal<Storage>();
+
+    /** Null once released. */
+    private Storage storage;
+    private Map<String, List<TimingInfo>> otherSubMeasurements;
+    private Map<String, Number> otherCounters;
+
+    TimingInfoCompactSupport(Long startEpochTimeMilli, long startTimeNano) {
+        super(startEpochTimeMilli, startTimeNano, null);
+        Storage s = pool.get();
+        if (s == null) {
+            s = new Storage();
+        } else {
+            pool.set(null);
+        }
+        this.storage = s;
+    }
+
+    /** Returns the predefined field of the given name, or null if none. */
+    static Field fieldOf(String name) {
+        return FIELDS_BY_NAME.get(name);
+    }
+
+    /**
+     * Returns the storage of this timing info to the pool of the current
+     * thread. All the measurements are discarded.
+     */
+    void release() {
+        Storage s = storage;
+        otherSubMeasurements = null;
+        otherCounters = null;
+        if (s != null) {
+            storage = null;
+            s.reset();
+            pool.set(s);
+        }
+    }
+
+    /** Returns the storage, or null if released. */
+    Storage storage() {
+        return storage;
+    }
+
+    /**
+     * Records a sub-measurement of the given field, without creating any
+     * {@link TimingInfo}.
+     */
+    void addSubMeasurement(Field f, long startTimeNano, long endTimeNano) {
+        if (storage != null)
+            storage.addTiming(f, startTimeNano, endTimeNano);
+    }
+
+    void setCounter(Field f, long count) {
+        if (storage != null) {
+            storage.counters[f.ordinal()] = count;
+            storage.counterSet[f.ordinal()] = true;
+        }
+    }
+
+    void incrementCounter(Field f) {
+        if (storage != null) {
+            int i = f.ordinal();
+            storage.counters[i] = storage.counterSet[i] ? storage.counters[i] + 1 : 1;
+            storage.counterSet[i] = true;
+        }
+    }
+
+    @Override
+    public void addSubMeasurement(String subMeasurementName, TimingInfo ti) {
+        if (!ti.isEndTimeKnown()) {
+            LogFactory.getLog(getClass()).debug(
+                "Skip submeasurement timing info with no end time for "
+                + subMeasurementName);
+            return;
+        }
+        Field f = fieldOf(subMeasurementName);
+        if (f != null) {
+            addSubMeasurement(f, ti.getStartTimeNano(), ti.getEndTimeNano());
+            return;
+        }
+        if (otherSubMeasurements == null)
+            otherSubMeasurements = new HashMap<String, List<TimingInfo>>();
+        List<TimingInfo> timings = otherSubMeasurements.get(subMeasurementName);
+        if (timings == null) {
+            timings = new ArrayList<TimingInfo>();
+            otherSubMeasurements.put(subMeasurementName, timings);
+        }
+        timings.add(ti);
+    }
+
+    @Override
+    public TimingInfo getSubMeasurement(String subMeasurementName) {
+        return getSubMeasurement(subMeasurementName, 0);
+    }
+
+    @Override
+    public TimingInfo getSubMeasurement(String subMesurementName, int index) {
+        List<TimingInfo> timings = getAllSubMeasurements(subMesurementName);
+        if (index < 0 || timings == null || index >= timings.size())
+            return null;
+        return timings.get(index);
+    }
+
+    @Override
+    public TimingInfo getLastSubMeasurement(String subMeasurementName) {
+        List<TimingInfo> timings = getAllSubMeasurements(subMeasurementName);
+        if (timings == null || timings.size() == 0)
+            return null;
+        return timings.get(timings.size() - 1);
+    }
+
+    @Override
+    public List<TimingInfo> getAllSubMeasurements(String subMeasurementName) {
+        Field f = fieldOf(subMeasurementName);
+        if (f == null) {
+            return otherSubMeasurements == null
+                 ? null
+                 : otherSubMeasurements.get(subMeasurementName);
+        }
+        if (storage == null)
+            return null;
+        List<TimingInfo> timings = null;
+        long[] t = storage.timings;
+        for (int i = 0; i < storage.timingCount; i++) {
+            if (t[3 * i] == f.ordinal()) {
+                if (timings == null)
+                    timings = new ArrayList<TimingInfo>();
+                timings.add(unmodifiableTimingInfo(t[3 * i + 1], t[3 * i + 2]));
+            }
+        }
+        return timings;
+    }
+
+    @Override
+    public Map<String, List<TimingInfo>> getSubMeasurementsByName() {
+        Map<String, List<TimingInfo>> map = new HashMap<String, List<TimingInfo>>();
+        if (otherSubMeasurements != null)
+            map.putAll(otherSubMeasurements);
+        if (storage != null) {
+            long[] t = storage.timings;
+            for (int i = 0; i < storage.timingCount; i++) {
+                String name = FIELDS[(int) t[3 * i]].name();
+                List<TimingInfo> timings = map.get(name);
+                if (timings == null) {
+                    timings = new ArrayList<TimingInfo>();
+                    map.put(name, timings);
+                }
+                timings.add(unmodifiableTimingInfo(t[3 * i + 1], t[3 * i + 2]));
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public Number getCounter(String key) {
+        Field f = fieldOf(key);
+        if (f == null)
+            return otherCounters == null ? null : otherCounters.get(key);
+        if (storage == null || !storage.counterSet[f.ordinal()])
+            return null;
+        return storage.counters[f.ordinal()];
+    }
+
+    @Override
+    public Map<String, Number> getAllCounters() {
+        Map<String, Number> map = new HashMap<String, Number>();
+        if (otherCounters != null)
+            map.putAll(otherCounters);
+        if (storage != null) {
+            for (int i = 0; i < FIELDS.length; i++) {
+                if (storage.counterSet[i])
+                    map.put(FIELDS[i].name(), storage.counters[i]);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void setCounter(String key, long count) {
+        Field f = fieldOf(key);
+        if (f != null) {
+            setCounter(f, count);
+            return;
+        }
+        if (otherCounters == null)
+            otherCounters = new HashMap<String, Number>();
+        otherCounters.put(key, count);
+    }
+
+    @Override
+    public void incrementCounter(String key) {
+        Field f = fieldOf(key);
+        if (f != null) {
+            incrementCounter(f);
+            return;
+        }
+        Number counter = getCounter(key);
+        setCounter(key, counter == null ? 1 : counter.longValue() + 1);
+    }
+
+    /**
+     * The primitive arrays backing the measurements of the predefined fields.
+     */
+    static final class Storage {
+        /** Start times of the events being profiled, by field ordinal. */
+        final long[] eventStartNanos = new long[FIELDS.length];
+        final boolean[] eventStarted = new boolean[FIELDS.length];
+        final long[] counters = new long[FIELDS.length];
+        final boolean[] counterSet = new boolean[FIELDS.length];
+        /** Triples of field ordinal, start and end time of sub-measurements. */
+        long[] timings = new long[3 * 16];
+        int timingCount;
+        Field[] propertyFields = new Field[8];
+        Object[] propertyValues = new Object[8];
+        int propertyCount;
+
+        void addTiming(Field f, long startTimeNano, long endTimeNano) {
+            int i = 3 * timingCount;
+            if (i == timings.length)
+                timings = Arrays.copyOf(timings, timings.length << 1);
+            timings[i] = f.ordinal();
+            timings[i + 1] = startTimeNano;
+            timings[i + 2] = endTimeNano;
+            timingCount++;
+        }
+
+        void addProperty(Field f, Object value) {
+            if (propertyCount == propertyFields.length) {
+                propertyFields = Arrays.copyOf(propertyFields, propertyCount << 1);
+                propertyValues = Arrays.copyOf(propertyValues, propertyCount << 1);
+            }
+            propertyFields[propertyCount] = f;
+            propertyValues[propertyCount++] = value;
+        }
+
+        /**
+         * Returns the values of the given property in the order added, or
+         * null if none.
+         */
+        List<Object> getProperty(Field f) {
+            List<Object> values = null;
+            for (int i = 0; i < propertyCount; i++) {
+                if (propertyFields[i] == f) {
+                    if (values == null)
+                        values = new ArrayList<Object>();
+                    values.add(propertyValues[i]);
+                }
+            }
+            return values;
+        }
+
+        /** Returns the names of the properties with values, in field order. */
+        List<Field> getPropertyFields() {
+            boolean[] seen = new boolean[FIELDS.length];
+            for (int i = 0; i < propertyCount; i++)
+                seen[propertyFields[i].ordinal()] = true;
+            List<Field> fields = new ArrayList<Field>();
+            for (int i = 0; i < seen.length; i++) {
+                if (seen[i])
+                    fields.add(FIELDS[i]);
+            }
+            return fields;
+        }
+
+        void reset() {
+            Arrays.fill(eventStarted, false);
+            Arrays.fill(counterSet, false);
+            Arrays.fill(propertyFields, 0, propertyCount, null);
+            Arrays.fill(propertyValues, 0, propertyCount, null);
+            timingCount = 0;
+            propertyCount = 0;
+        }
+    }
+}
@@ -1431,6 +1431,18 @@ public class JSONObject {
         if (value == null || value.equals(NULL)) {
             return "null";
         }
+        if (value instanceof JSONString) {
+            Object o;
+            try {
+                o = ((JSONString)value).toJSONString();
+            } catch (Exception e) {
+                throw new JSONException(e);
+            }
+            if (o instanceof String) {
+                return (String)o;
+            }
+            throw new JSONException("Bad value from toJSONString: " + o);
+        }
         if (value instanceof Number) {
             return numberToString((Number) value);
         }
@@ -1470,6 +1482,18 @@ public class JSONObject {
         if (value == null || value.equals(NULL)) {
             return "null";
         }
+        if (value instanceof JSONString) {
+            Object o;
+            try {
+                o = ((JSONString)value).toJSONString();
+            } catch (Exception e) {
+                throw new JSONException(e);
+            }
+            if (o instanceof String) {
+                return (String)o;
+            }
+            throw new JSONException("Bad value from toJSONString: " + o);
+        }
         if (value instanceof Number) {
             return numberToString((Number) value);
         }
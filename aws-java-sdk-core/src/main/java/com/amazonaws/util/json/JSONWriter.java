@@ -28,7 +28,7 @@ import java.io.Writer;
 import java.nio.ByteBuffer;
 import java.util.Date;
 
-import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.Base64;
 import com.amazonaws.util.DateUtils;
 
 /**
@@ -340,11 +340,7 @@ public class JSONWriter {
      * @throws JSONException
      */
     public JSONWriter value(ByteBuffer b) throws JSONException {
-        b.mark();
-        byte[] bytes = new byte[b.remaining()];
-        b.get(bytes, 0, bytes.length);
-        b.reset();
-        return this.value(BinaryUtils.toBase64(bytes));
+        return this.value(Base64.encodeRemainingAsString(b));
     }
 
     /**
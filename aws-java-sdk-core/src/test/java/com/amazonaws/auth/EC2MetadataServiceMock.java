@@ -27,7 +27,11 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
 
@@ -36,7 +40,9 @@ import com.amazonaws.internal.EC2MetadataClient;
 /**
  * Mock server for imitating the Amazon EC2 Instance Metadata Service. Tests can
  * use this class to start up a server on a localhost port, and control what
- * response the server will send when a connection is made.
+ * response the server will send when a connection is made. Connections are
+ * kept alive between requests, and the server counts the requests and
+ * connections it served.
  */
 public class EC2MetadataServiceMock {
 
@@ -73,6 +79,23 @@ public class EC2MetadataServiceMock {
         hosmMockServerThread.setAvailableSecurityCredentials(securityCredentialNames);
     }
 
+    /**
+     * Sets how long the server waits before sending the credentials.
+     */
+    public void setResponseDelayMillis(long responseDelayMillis) {
+        hosmMockServerThread.setResponseDelayMillis(responseDelayMillis);
+    }
+
+    /** Returns the number of requests served so far. */
+    public int getRequestCount() {
+        return hosmMockServerThread.requestCount.get();
+    }
+
+    /** Returns the number of connections accepted so far. */
+    public int getConnectionCount() {
+        return hosmMockServerThread.connectionCount.get();
+    }
+
     public void start() throws IOException {
         hosmMockServerThread = new EC2MockMetadataServiceListenerThread(startServerSocket());
         hosmMockServerThread.start();
@@ -97,12 +120,17 @@ public class EC2MetadataServiceMock {
 
     /**
      * Thread subclass that listens for connections on an opened server socket
-     * and response with a predefined response file.
+     * and responds to the requests of each connection, on a thread of its
+     * own, with a predefined response file.
      */
     private static class EC2MockMetadataServiceListenerThread extends Thread {
         private ServerSocket serverSocket;
-        private String responseFileName;
-        private String securityCredentialNames;
+        private volatile String responseFileName;
+        private volatile String securityCredentialNames;
+        private volatile long responseDelayMillis;
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private final AtomicInteger connectionCount = new AtomicInteger();
+        private final Set<Socket> sockets = Collections.synchronizedSet(new HashSet<Socket>());
 
         public EC2MockMetadataServiceListenerThread(ServerSocket serverSocket) {
             this.serverSocket = serverSocket;
@@ -116,24 +144,51 @@ public class EC2MetadataServiceMock {
             this.securityCredentialNames = securityCredentialNames;
         }
 
+        public void setResponseDelayMillis(long responseDelayMillis) {
+            this.responseDelayMillis = responseDelayMillis;
+        }
+
         @Override
         public void run() {
             while (true) {
-                Socket socket = null;
+                final Socket socket;
                 try {
                     socket = serverSocket.accept();
                 } catch (IOException e) {
                     // Just exit if the socket gets shut down while we're waiting
                     return;
                 }
+                connectionCount.incrementAndGet();
+                sockets.add(socket);
 
-                OutputStream outputStream = null;
-                try {
-                    outputStream = socket.getOutputStream();
-                    InputStream inputStream = socket.getInputStream();
+                Thread connectionThread = new Thread() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                };
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            }
+        }
 
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-                    String requestLine = reader.readLine();
+        /**
+         * Responds to the requests of a connection until the client closes
+         * it.
+         */
+        private void serve(Socket socket) {
+            try {
+                OutputStream outputStream = socket.getOutputStream();
+                InputStream inputStream = socket.getInputStream();
+
+                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+                String requestLine;
+                while ((requestLine = reader.readLine()) != null) {
+                    // Skip the headers; the requests have no body
+                    String header;
+                    while ((header = reader.readLine()) != null && header.length() > 0) {
+                    }
+                    requestCount.incrementAndGet();
 
                     String[] strings = requestLine.split(" ");
                     String resourcePath = strings[1];
@@ -158,6 +213,10 @@ public class EC2MetadataServiceMock {
                         for(String line : dataFromFile)
                             credentialsString.append(line);
 
+                        if (responseDelayMillis > 0) {
+                            Thread.sleep(responseDelayMillis);
+                        }
+
                         httpResponse = formHttpResponse(credentialsString
                                 .toString());
                         outputStream.write(httpResponse.getBytes());
@@ -165,11 +224,15 @@ public class EC2MetadataServiceMock {
                     } else {
                         throw new RuntimeException("Unknown resource requested: " + resourcePath);
                     }
-                } catch (IOException e) {
-                    throw new RuntimeException("Unable to respond to request", e);
-                } finally {
-                    try {outputStream.close();} catch (Exception e) {}
+                    outputStream.flush();
                 }
+            } catch (IOException e) {
+                // The client closed the connection
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                sockets.remove(socket);
+                try {socket.close();} catch (Exception e) {}
             }
         }
 
@@ -191,6 +254,11 @@ public class EC2MetadataServiceMock {
                     throw new RuntimeException("Unable to stop server", e);
                 }
             }
+            synchronized (sockets) {
+                for (Socket socket : sockets) {
+                    try {socket.close();} catch (Exception e) {}
+                }
+            }
         }
     }
 }
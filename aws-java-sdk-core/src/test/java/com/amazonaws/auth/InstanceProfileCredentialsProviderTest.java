@@ -23,10 +23,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.After;
 import org.junit.Before;
@@ -243,6 +247,104 @@ public class InstanceProfileCredentialsProviderTest {
         assertNotSame(credentials, newCredentials);
     }
 
+    /**
+     * Tests that only one thread loads credentials about to expire, while the
+     * others keep using the current ones without waiting.
+     */
+    @Test
+    public void testConcurrentRefreshKeepsUsingValidCredentials() throws Exception {
+        mockServer.setResponseFileName("sessionResponse");
+        mockServer.setAvailableSecurityCredentials("test-credentials");
+        mockServer.setResponseDelayMillis(1000);
+
+        final TestInstanceProfileCredentialsProvider provider = new TestInstanceProfileCredentialsProvider();
+        final AWSCredentials current = new BasicAWSCredentials("foo", "bar");
+        provider.setCredentials(current);
+        provider.setCredentialsExpiration(new Date(System.currentTimeMillis() + ONE_MINUTE * 10));
+        provider.setLastInstanceProfileCheck(new Date());
+
+        Thread loader = new Thread() {
+            @Override
+            public void run() {
+                provider.getCredentials();
+            }
+        };
+        loader.start();
+        while (mockServer.getRequestCount() < 2) {
+            Thread.sleep(10);
+        }
+
+        // The credentials are being loaded; the other threads keep using the current ones
+        for (int i = 0; i < 5; i++) {
+            assertSame(current, provider.getCredentials());
+        }
+        assertTrue(loader.isAlive());
+        loader.join();
+
+        assertEquals(2, mockServer.getRequestCount());
+        assertEquals("ACCESS_KEY_ID", provider.getCredentials().getAWSAccessKeyId());
+    }
+
+    /**
+     * Tests that threads without valid credentials wait for the thread
+     * loading them and share its credentials.
+     */
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws Exception {
+        mockServer.setResponseFileName("sessionResponse");
+        mockServer.setAvailableSecurityCredentials("test-credentials");
+        mockServer.setResponseDelayMillis(200);
+
+        final InstanceProfileCredentialsProvider provider = new InstanceProfileCredentialsProvider();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<AWSCredentials> loaded = new ArrayList<AWSCredentials>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    AWSCredentials credentials = provider.getCredentials();
+                    synchronized (loaded) {
+                        loaded.add(credentials);
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8, loaded.size());
+        for (AWSCredentials credentials : loaded) {
+            assertSame(loaded.get(0), credentials);
+        }
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
+    /** Tests that the requests to the metadata service reuse its connection. */
+    @Test
+    public void testConnectionsAreReused() throws Exception {
+        mockServer.setResponseFileName("sessionResponse");
+        mockServer.setAvailableSecurityCredentials("test-credentials");
+
+        InstanceProfileCredentialsProvider provider = new InstanceProfileCredentialsProvider();
+        for (int i = 0; i < 3; i++) {
+            provider.refresh();
+            assertNotNull(provider.getCredentials());
+        }
+
+        assertEquals(6, mockServer.getRequestCount());
+        assertEquals(1, mockServer.getConnectionCount());
+    }
+
     private class RefreshThread extends Thread{
 
         private InstanceProfileCredentialsProvider provider;
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ProgressEventDispatcherTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A listener that blocks on its first event until released, so that
+     * subsequent events pile up in its mailbox.
+     */
+    private static class GatedListener implements ProgressListener {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<ProgressEvent> events =
+            Collections.synchronizedList(new ArrayList<ProgressEvent>());
+
+        @Override
+        public void progressChanged(ProgressEvent event) {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void coalescesPendingByteCountEvents() throws Exception {
+        ProgressEventDispatcher dispatcher = new ProgressEventDispatcher(executor, 100);
+        GatedListener listener = new GatedListener();
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.HTTP_REQUEST_STARTED_EVENT));
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT, 100));
+        }
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.HTTP_REQUEST_COMPLETED_EVENT));
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT, 5));
+        listener.gate.countDown();
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT)).get();
+        awaitEvents(listener, 5);
+
+        assertEquals(ProgressEventType.HTTP_REQUEST_STARTED_EVENT, listener.events.get(0).getEventType());
+        assertEquals(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT, listener.events.get(1).getEventType());
+        assertEquals(1000, listener.events.get(1).getBytes());
+        assertEquals(ProgressEventType.HTTP_REQUEST_COMPLETED_EVENT, listener.events.get(2).getEventType());
+        assertEquals(5, listener.events.get(3).getBytes());
+        assertEquals(ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT, listener.events.get(4).getEventType());
+        assertEquals(9, dispatcher.getCoalescedEventCount());
+    }
+
+    @Test
+    public void dropsByteCountEventsOnlyWhenFull() throws Exception {
+        ProgressEventDispatcher dispatcher = new ProgressEventDispatcher(executor, 2);
+        GatedListener listener = new GatedListener();
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.HTTP_REQUEST_STARTED_EVENT));
+        assertTrue(listener.started.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT, 10));
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.HTTP_REQUEST_COMPLETED_EVENT));
+        // Full: merged into the pending request byte event despite ordering
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT, 20));
+        // Full and nothing to merge into: dropped
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.RESPONSE_BYTE_TRANSFER_EVENT, 30));
+        // Lifecycle events are never dropped
+        dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT));
+        listener.gate.countDown();
+        awaitEvents(listener, 4);
+
+        assertEquals(4, listener.events.size());
+        assertEquals(30, listener.events.get(1).getBytes());
+        assertEquals(ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT, listener.events.get(3).getEventType());
+        assertEquals(1, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void deliversEventsInOrderPerListener() throws Exception {
+        ProgressEventDispatcher dispatcher = new ProgressEventDispatcher(executor, 10000);
+        final int count = 2000;
+        List<List<Integer>> received = new ArrayList<List<Integer>>();
+        List<ProgressListener> listeners = new ArrayList<ProgressListener>();
+        for (int i = 0; i < 8; i++) {
+            final List<Integer> seen = Collections.synchronizedList(new ArrayList<Integer>());
+            received.add(seen);
+            listeners.add(new ProgressListener() {
+                @Override
+                public void progressChanged(ProgressEvent event) {
+                    seen.add((int) event.getBytes());
+                }
+            });
+        }
+        for (int n = 0; n < count; n++) {
+            for (ProgressListener listener : listeners) {
+                // Content length events are never coalesced
+                dispatcher.dispatch(listener, new ProgressEvent(ProgressEventType.REQUEST_CONTENT_LENGTH_EVENT, n));
+            }
+        }
+        for (List<Integer> seen : received) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (seen.size() < count && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            assertEquals(count, seen.size());
+            for (int n = 0; n < count; n++)
+                assertEquals(n, seen.get(n).intValue());
+        }
+    }
+
+    private static void awaitEvents(GatedListener listener, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (listener.events.size() < count && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+    }
+}
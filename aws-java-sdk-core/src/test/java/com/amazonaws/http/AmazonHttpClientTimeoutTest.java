@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.protocol.HttpContext;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.ClientExecutionTimeoutException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+
+public class AmazonHttpClientTimeoutTest {
+
+    /**
+     * Returns a mock http client whose requests hang until aborted, up to the
+     * given number of times.
+     */
+    private static HttpClient hangingHttpClient(int times) throws IOException {
+        HttpClient httpClient = EasyMock.createMock(HttpClient.class);
+        EasyMock
+            .expect(httpClient.getConnectionManager())
+            .andReturn(null)
+            .anyTimes();
+        EasyMock
+            .expect(httpClient.execute(EasyMock.<HttpUriRequest>anyObject(),
+                                       EasyMock.<HttpContext>anyObject()))
+            .andAnswer(new IAnswer<org.apache.http.HttpResponse>() {
+                @Override
+                public org.apache.http.HttpResponse answer() throws Throwable {
+                    HttpRequestBase request =
+                        (HttpRequestBase) EasyMock.getCurrentArguments()[0];
+                    long deadline = System.currentTimeMillis() + 10000;
+                    while (!request.isAborted() && System.currentTimeMillis() < deadline)
+                        Thread.sleep(5);
+                    throw new IOException("Request aborted");
+                }
+            })
+            .times(times);
+        EasyMock.replay(httpClient);
+        return httpClient;
+    }
+
+    private static Request<?> newRequest(AmazonWebServiceRequest original) {
+        Request<?> request = new DefaultRequest<Object>(original, "testsvc");
+        request.setEndpoint(URI.create("http://testsvc.region.amazonaws.com"));
+        request.setContent(new ByteArrayInputStream(new byte[0]));
+        return request;
+    }
+
+    @Test
+    public void requestTimeoutAbortsAndRetries() throws IOException {
+        HttpClient httpClient = hangingHttpClient(4);
+        AmazonHttpClient client = new AmazonHttpClient(
+                new ClientConfiguration().withRequestTimeout(100), httpClient, null);
+        try {
+            client.execute(newRequest(null), null, null, new ExecutionContext());
+            Assert.fail("Expected AmazonClientException");
+        } catch (ClientExecutionTimeoutException e) {
+            Assert.fail("Unexpected " + e);
+        } catch (AmazonClientException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpRequestTimeoutException);
+        }
+        EasyMock.verify(httpClient);
+    }
+
+    @Test
+    public void clientExecutionTimeoutIsNotRetried() throws IOException {
+        HttpClient httpClient = hangingHttpClient(1);
+        AmazonHttpClient client = new AmazonHttpClient(
+                new ClientConfiguration(), httpClient, null);
+        AmazonWebServiceRequest original = new AmazonWebServiceRequest() {}
+                .withSdkClientExecutionTimeout(200);
+        long start = System.currentTimeMillis();
+        try {
+            client.execute(newRequest(original), null, null, new ExecutionContext());
+            Assert.fail("Expected ClientExecutionTimeoutException");
+        } catch (ClientExecutionTimeoutException e) {
+            Assert.assertFalse(e.isRetryable());
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        EasyMock.verify(httpClient);
+    }
+
+    @Test
+    public void requestSettingsOverrideClientConfiguration() throws IOException {
+        // All the retries must happen, as the client execution timeout of the
+        // client is disabled for the request
+        HttpClient httpClient = hangingHttpClient(4);
+        AmazonHttpClient client = new AmazonHttpClient(
+                new ClientConfiguration().withClientExecutionTimeout(200), httpClient, null);
+        AmazonWebServiceRequest original = new AmazonWebServiceRequest() {}
+                .withSdkClientExecutionTimeout(0)
+                .withSdkRequestTimeout(100);
+        try {
+            client.execute(newRequest(original), null, null, new ExecutionContext());
+            Assert.fail("Expected AmazonClientException");
+        } catch (AmazonClientException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpRequestTimeoutException);
+        }
+        EasyMock.verify(httpClient);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+import org.apache.http.client.HttpClient;
+import org.junit.Test;
+
+import com.amazonaws.ClientConfiguration;
+
+public class HttpClientFactoryTest {
+
+    /**
+     * Tests that tuning the TLS session cache of a client leaves the one of
+     * the default SSL context of the JVM as it is.
+     */
+    @Test
+    public void tlsSessionCacheIsNotShared() throws Exception {
+        SSLSessionContext defaultSessions = SSLContext.getDefault().getClientSessionContext();
+        int cacheSize = defaultSessions.getSessionCacheSize();
+        int timeout = defaultSessions.getSessionTimeout();
+
+        HttpClient httpClient = new HttpClientFactory().createHttpClient(new ClientConfiguration()
+                .withTlsSessionCacheSize(cacheSize + 7)
+                .withTlsSessionTimeoutSeconds(timeout + 7));
+        httpClient.getConnectionManager().shutdown();
+
+        assertEquals(cacheSize, defaultSessions.getSessionCacheSize());
+        assertEquals(timeout, defaultSessions.getSessionTimeout());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+
+public class SharedHttpTransportTest {
+
+    private static Request<?> newRequest() {
+        Request<?> request = new DefaultRequest<Object>(null, "testsvc");
+        request.setEndpoint(URI.create("http://testsvc.region.amazonaws.com"));
+        request.setContent(new ByteArrayInputStream(new byte[0]));
+        return request;
+    }
+
+    @Test
+    public void shutdownOfClientLeavesTransportOpen() throws Exception {
+        SharedHttpTransport transport = new SharedHttpTransport(
+                new ClientConfiguration().withMaxConnections(5));
+        try {
+            ClientConfiguration config = new ClientConfiguration()
+                    .withSharedHttpTransport(transport);
+            Assert.assertSame(transport, new ClientConfiguration(config).getSharedHttpTransport());
+            Assert.assertNull(transport.getClientConfiguration().getSharedHttpTransport());
+            new AmazonHttpClient(config).shutdown();
+
+            // The pool can still lease connections
+            HttpRoute route = new HttpRoute(new HttpHost("localhost", 80));
+            ManagedClientConnection conn = transport.getHttpClient().getConnectionManager()
+                    .requestConnection(route, null).getConnection(1, TimeUnit.SECONDS);
+            Assert.assertEquals(1, transport.getLeasedConnections());
+            transport.getHttpClient().getConnectionManager()
+                    .releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(0, transport.getLeasedConnections());
+        } finally {
+            transport.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentRequestsAreCappedPerClient() throws Exception {
+        SharedHttpTransport transport = new SharedHttpTransport(new ClientConfiguration());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        HttpClient httpClient = EasyMock.createMock(HttpClient.class);
+        EasyMock
+            .expect(httpClient.getConnectionManager())
+            .andReturn(null)
+            .anyTimes();
+        EasyMock
+            .expect(httpClient.execute(EasyMock.<HttpUriRequest>anyObject(),
+                                       EasyMock.<HttpContext>anyObject()))
+            .andAnswer(new IAnswer<org.apache.http.HttpResponse>() {
+                @Override
+                public org.apache.http.HttpResponse answer() throws Throwable {
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    throw new IOException("Done");
+                }
+            })
+            .once();
+        // Mocks serialize calls by default, which would block the second request
+        EasyMock.makeThreadSafe(httpClient, false);
+        EasyMock.replay(httpClient);
+        ClientConfiguration config = new ClientConfiguration()
+                .withSharedHttpTransport(transport)
+                .withMaxConnections(1)
+                .withMaxErrorRetry(0)
+                .withConnectionTimeout(100);
+        final AmazonHttpClient client = new AmazonHttpClient(config, httpClient, null);
+        Thread first = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    client.execute(newRequest(), null, null, new ExecutionContext());
+                } catch (AmazonClientException expected) {
+                }
+            }
+        };
+        first.start();
+        try {
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            try {
+                client.execute(newRequest(), null, null, new ExecutionContext());
+                Assert.fail("Expected AmazonClientException");
+            } catch (AmazonClientException e) {
+                Assert.assertTrue(e.getCause() instanceof ConnectionPoolTimeoutException);
+            }
+        } finally {
+            release.countDown();
+            first.join();
+            transport.shutdown();
+        }
+        EasyMock.verify(httpClient);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.http.conn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+@SuppressWarnings("deprecation")
+public class SdkPoolingClientConnectionManagerTest {
+
+    @Test
+    public void appliesPerHostLimitsToRoutes() throws Exception {
+        SdkPoolingClientConnectionManager cm = new SdkPoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), -1,
+                Collections.singletonMap("hot.example.com", 3), 5000);
+        cm.setDefaultMaxPerRoute(10);
+        HttpRoute hot = new HttpRoute(new HttpHost("hot.example.com", 443, "https"));
+        HttpRoute other = new HttpRoute(new HttpHost("other.example.com", 443, "https"));
+        try {
+            cm.requestConnection(hot, null).abortRequest();
+            cm.requestConnection(other, null).abortRequest();
+            assertEquals(3, cm.getMaxPerRoute(hot));
+            assertEquals(10, cm.getMaxPerRoute(other));
+        } finally {
+            cm.shutdown();
+        }
+    }
+
+    @Test
+    public void recordsLeasesInAggregatedStats() throws Exception {
+        SdkPoolingClientConnectionManager cm = new SdkPoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), -1, null, 5000);
+        HttpRoute route = new HttpRoute(new HttpHost("localhost", 80, "http"));
+        try {
+            long before = SdkPoolingClientConnectionManager.getAggregatedLeaseCount();
+            ManagedClientConnection conn = cm.requestConnection(route, null)
+                    .getConnection(1, TimeUnit.SECONDS);
+            assertEquals(1, cm.getLeaseCount());
+            assertEquals(before + 1, SdkPoolingClientConnectionManager.getAggregatedLeaseCount());
+            assertTrue(SdkPoolingClientConnectionManager.getAggregatedStats().getLeased() >= 1);
+            cm.releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+        } finally {
+            cm.shutdown();
+        }
+    }
+
+    @Test
+    public void closesStaleConnectionsAfterInactivity() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        SdkPoolingClientConnectionManager cm = new SdkPoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), -1, null, 0);
+        HttpRoute route = new HttpRoute(
+                new HttpHost("localhost", server.getLocalPort(), "http"));
+        try {
+            ManagedClientConnection conn = cm.requestConnection(route, null)
+                    .getConnection(1, TimeUnit.SECONDS);
+            conn.open(route, new BasicHttpContext(), new BasicHttpParams());
+            Socket accepted = server.accept();
+            conn.markReusable();
+            cm.releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+
+            // Server closes its end while the connection sits in the pool
+            accepted.close();
+            Thread.sleep(100);
+
+            conn = cm.requestConnection(route, null).getConnection(1, TimeUnit.SECONDS);
+            assertFalse(conn.isOpen());
+            assertEquals(1, cm.getStaleConnectionsClosed());
+            cm.releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+        } finally {
+            cm.shutdown();
+            server.close();
+        }
+    }
+
+    @Test
+    public void skipsValidationOfRecentlyUsedConnections() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        SdkPoolingClientConnectionManager cm = new SdkPoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), -1, null, 60000);
+        HttpRoute route = new HttpRoute(
+                new HttpHost("localhost", server.getLocalPort(), "http"));
+        try {
+            ManagedClientConnection conn = cm.requestConnection(route, null)
+                    .getConnection(1, TimeUnit.SECONDS);
+            conn.open(route, new BasicHttpContext(), new BasicHttpParams());
+            Socket accepted = server.accept();
+            conn.markReusable();
+            cm.releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+            accepted.close();
+            Thread.sleep(100);
+
+            conn = cm.requestConnection(route, null).getConnection(1, TimeUnit.SECONDS);
+            assertTrue(conn.isOpen());
+            assertEquals(0, cm.getStaleConnectionsClosed());
+            conn.close();
+            cm.releaseConnection(conn, 0, TimeUnit.MILLISECONDS);
+        } finally {
+            cm.shutdown();
+            server.close();
+        }
+    }
+}
@@ -108,6 +108,39 @@ public class SdkTLSSocketFactoryTest {
         });
     }
 
+    @Test
+    public void preferredCipherSuitesFirst() throws NoSuchAlgorithmException {
+        SdkTLSSocketFactory f = new SdkTLSSocketFactory(SSLContext.getDefault(), null,
+                new String[] {"GCM_B", "GCM_A", "NOT_ENABLED"});
+        final String[][] set = new String[1][];
+        f.prepareSocket(new TestSSLSocket() {
+            @Override
+            public String[] getEnabledCipherSuites() {
+                return new String[] {"CBC_A", "GCM_A", "CBC_B", "GCM_B"};
+            }
+            @Override
+            public void setEnabledCipherSuites(String[] suites) {
+                set[0] = suites;
+            }
+        });
+        assertTrue(Arrays.equals(set[0], new String[] {"GCM_B", "GCM_A", "CBC_A", "CBC_B"}));
+    }
+
+    @Test
+    public void noPreferredCipherSuiteEnabled() throws NoSuchAlgorithmException {
+        SdkTLSSocketFactory f = new SdkTLSSocketFactory(SSLContext.getDefault(), null);
+        f.prepareSocket(new TestSSLSocket() {
+            @Override
+            public String[] getEnabledCipherSuites() {
+                return new String[] {"CBC_A", "CBC_B"};
+            }
+            @Override
+            public void setEnabledCipherSuites(String[] suites) {
+                fail();
+            }
+        });
+    }
+
     private String[] shuffle(String[] in) {
         List<String> list = new ArrayList<String>(Arrays.asList(in));
         Collections.shuffle(list);
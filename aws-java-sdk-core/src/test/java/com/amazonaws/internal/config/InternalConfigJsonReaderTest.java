@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+
+import org.junit.Test;
+
+import com.amazonaws.util.ClassLoaderHelper;
+import com.amazonaws.util.StringUtils;
+import com.amazonaws.util.json.Jackson;
+
+public class InternalConfigJsonReaderTest {
+
+    @Test
+    public void readsLikeObjectMapper() throws Exception {
+        URL url = ClassLoaderHelper.getResource(
+                "/" + InternalConfig.DEFAULT_CONFIG_RESOURCE, InternalConfig.class);
+        InternalConfigJsonHelper expected = Jackson.getObjectMapper().readValue(
+                url, InternalConfigJsonHelper.class);
+        InternalConfigJsonHelper actual = InternalConfigJsonReader.read(url);
+        assertEquals(Jackson.toJsonPrettyString(expected),
+                Jackson.toJsonPrettyString(actual));
+    }
+
+    @Test
+    public void ignoresCommentsNullsAndUnknownProperties() throws Exception {
+        String json = "{ // comment\n"
+            + "\"unknown\" : { \"nested\" : [ 1, { \"a\" : null } ] },\n"
+            + "\"defaultSigner\" : { \"signerType\" : \"AWS4SignerType\", \"x\" : 1 },\n"
+            + "\"regionSigners\" : null,\n"
+            + "\"serviceSigners\" : [ { \"key\" : \"s3\", \"config\" : { \"signerType\" : \"S3SignerType\" } } ],\n"
+            + "\"httpClients\" : [ { \"key\" : \"AmazonS3Client\", \"config\" : { \"serviceName\" : \"s3\" } } ],\n"
+            + "\"hostRegexToRegionMappings\" : [ { \"hostNameRegex\" : \"(.+\\\\.)?s3\\\\.amazonaws\\\\.com\", \"regionName\" : \"us-east-1\" } ],\n"
+            + "\"userAgentTemplate\" : \"aws-sdk-java/1.0\"\n"
+            + "}";
+        InternalConfigJsonHelper config = InternalConfigJsonReader.read(
+                new ByteArrayInputStream(json.getBytes(StringUtils.UTF8)));
+        assertEquals("AWS4SignerType", config.getDefaultSigner().getSignerType());
+        assertNull(config.getRegionSigners());
+        assertEquals("s3", config.getServiceSigners()[0].getKey());
+        assertEquals("S3SignerType", config.getServiceSigners()[0].getConfig().getSignerType());
+        assertEquals("s3", config.getHttpClients()[0].getConfig().getServiceName());
+        assertEquals("(.+\\.)?s3\\.amazonaws\\.com",
+                config.getHostRegexToRegionMappings()[0].getHostNameRegex());
+        assertEquals("us-east-1", config.getHostRegexToRegionMappings()[0].getRegionName());
+        assertEquals("aws-sdk-java/1.0", config.getUserAgentTemplate());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.amazonaws.util.AWSRequestMetrics.Field;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguous() {
+        for (long v = 0; v < 1 << 20; v++) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(v <= LatencyHistogram.highestValueOf(index));
+            if (index > 0)
+                assertTrue(v > LatencyHistogram.highestValueOf(index - 1));
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinRelativeError() {
+        LatencyHistogram h = new LatencyHistogram("svc", "Op", Field.ClientExecuteTime);
+        // 1 to 10000 milliseconds
+        for (int i = 1; i <= 10000; i++)
+            h.recordMillis(i);
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(10000, s.getCount());
+        assertEquals(1.0, s.getMinMillis(), 0);
+        assertEquals(10000.0, s.getMaxMillis(), 0);
+        assertEquals(5000.5, s.getMeanMillis(), 0.001);
+        assertEquals(5000, s.getPercentileMillis(50), 5000 * 0.07);
+        assertEquals(9900, s.getPercentileMillis(99), 9900 * 0.07);
+        assertEquals(10000.0, s.getPercentileMillis(100), 0);
+        assertEquals(1.0, s.getPercentileMillis(0), 0.07);
+    }
+
+    @Test
+    public void sinceCoversOnlyLaterLatencies() {
+        LatencyHistogram h = new LatencyHistogram(null, null, Field.HttpRequestTime);
+        assertEquals(0, h.snapshot().getCount());
+        assertEquals(0.0, h.snapshot().getPercentileMillis(99), 0);
+        h.recordMillis(3);
+        h.recordMillis(-1);
+        LatencyHistogram.Snapshot first = h.snapshot();
+        assertEquals(2, first.getCount());
+        assertEquals(0.0, first.getMinMillis(), 0);
+
+        h.recordMillis(100);
+        h.recordMillis(200);
+        LatencyHistogram.Snapshot second = h.snapshot();
+        LatencyHistogram.Snapshot interval = second.since(first);
+        assertEquals(4, second.getCount());
+        assertEquals(2, interval.getCount());
+        assertEquals(150.0, interval.getMeanMillis(), 0.001);
+        assertEquals(100.0, interval.getMinMillis(), 100 * 0.07);
+        assertEquals(200.0, interval.getMaxMillis(), 0);
+
+        LatencyHistogram.Snapshot empty = h.snapshot().since(second);
+        assertEquals(0, empty.getCount());
+        assertEquals(0.0, empty.getPercentileMillis(99), 0);
+        assertEquals(0.0, empty.getMaxMillis(), 0);
+        assertSame(first, first.since(null));
+    }
+
+    @Test
+    public void exportsOnlyNewLatencies() {
+        final LatencyHistogram h = AwsSdkMetrics.getLatencyHistogram(
+                "LatencyHistogramTest", "ExportRequest", Field.ClientExecuteTime);
+        h.recordMillis(7);
+        final List<LatencyHistogram.Snapshot> exported = new ArrayList<LatencyHistogram.Snapshot>();
+        LatencyHistogramExporter exporter = new LatencyHistogramExporter() {
+            @Override
+            public void export(Collection<LatencyHistogram.Snapshot> snapshots) {
+                for (LatencyHistogram.Snapshot s: snapshots) {
+                    if (s.getHistogram() == h)
+                        exported.add(s);
+                }
+            }
+        };
+        AwsSdkMetrics.exportLatencyHistograms(exporter);
+        AwsSdkMetrics.exportLatencyHistograms(exporter);
+        assertEquals(1, exported.size());
+        assertEquals(1, exported.get(0).getCount());
+
+        h.recordMillis(9);
+        AwsSdkMetrics.exportLatencyHistograms(exporter);
+        assertEquals(2, exported.size());
+        assertEquals(1, exported.get(1).getCount());
+        assertEquals(9.0, exported.get(1).getMaxMillis(), 0);
+        // the histogram itself stays cumulative
+        assertEquals(2, h.snapshot().getCount());
+    }
+}
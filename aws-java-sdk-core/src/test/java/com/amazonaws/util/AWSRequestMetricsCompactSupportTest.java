@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.amazonaws.util.AWSRequestMetrics.Field;
+
+public class AWSRequestMetricsCompactSupportTest {
+
+    @Test
+    public void readsLikeFullSupport() {
+        AWSRequestMetricsCompactSupport m = new AWSRequestMetricsCompactSupport();
+        m.startEvent(Field.HttpRequestTime);
+        m.endEvent(Field.HttpRequestTime);
+        m.startEvent("HttpRequestTime");
+        m.endEvent("HttpRequestTime");
+        m.startEvent("Custom");
+        m.endEvent("Custom");
+        m.incrementCounter(Field.RequestCount);
+        m.incrementCounter("RequestCount");
+        m.setCounter("CustomCount", 5);
+        m.addProperty(Field.StatusCode, 500);
+        m.addProperty("StatusCode", 200);
+        m.addProperty("Custom", "x");
+
+        TimingInfo ti = m.getTimingInfo();
+        assertEquals(2, ti.getAllSubMeasurements(Field.HttpRequestTime.name()).size());
+        assertTrue(ti.getLastSubMeasurement(Field.HttpRequestTime.name()).isEndTimeKnown());
+        assertEquals(1, ti.getAllSubMeasurements("Custom").size());
+        assertNull(ti.getAllSubMeasurements(Field.ClientExecuteTime.name()));
+        assertEquals(2L, ti.getCounter(Field.RequestCount.name()));
+        assertEquals(5L, ti.getCounter("CustomCount"));
+        assertEquals(2, ti.getAllCounters().size());
+        assertEquals(2, ti.getSubMeasurementsByName().size());
+        assertEquals(Arrays.<Object>asList(500, 200), m.getProperty(Field.StatusCode));
+        assertEquals(Arrays.<Object>asList("x"), m.getProperty("Custom"));
+        assertNull(m.getProperty(Field.AWSRequestID));
+    }
+
+    @Test
+    public void readsEmptyOnceReleased() {
+        AWSRequestMetricsCompactSupport m = new AWSRequestMetricsCompactSupport();
+        m.incrementCounter(Field.RequestCount);
+        m.release();
+        assertNull(m.getTimingInfo().getCounter(Field.RequestCount.name()));
+        // The pooled storage is reused, and starts empty
+        AWSRequestMetricsCompactSupport next = new AWSRequestMetricsCompactSupport();
+        assertNull(next.getTimingInfo().getCounter(Field.RequestCount.name()));
+        next.incrementCounter(Field.RequestCount);
+        m.incrementCounter(Field.RequestCount);
+        assertEquals(1L, next.getTimingInfo().getCounter(Field.RequestCount.name()));
+    }
+
+    /**
+     * Compares the bytes allocated per request with full, compact and no
+     * request metrics.
+     */
+    @Test
+    public void allocatesLessThanFullSupport() throws Exception {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Method allocated = null;
+        try {
+            Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+            if (c.isInstance(bean))
+                allocated = c.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (ClassNotFoundException e) {
+            // not measurable on this JVM
+        }
+        Assume.assumeTrue(allocated != null);
+        final int n = 10000;
+        long[] bytes = new long[3];
+        for (int round = 0; round < 2; round++) {  // the first round warms up
+            for (int mode = 0; mode < bytes.length; mode++) {
+                long id = Thread.currentThread().getId();
+                long before = (Long) allocated.invoke(bean, id);
+                for (int i = 0; i < n; i++)
+                    simulateRequest(mode);
+                bytes[mode] = ((Long) allocated.invoke(bean, id) - before) / n;
+            }
+        }
+        assertTrue("Bytes allocated per request with metrics full=" + bytes[0]
+                + ", compact=" + bytes[1], bytes[1] < bytes[0]);
+    }
+
+    private static void simulateRequest(int mode) {
+        AWSRequestMetrics m = mode == 0 ? new AWSRequestMetricsFullSupport()
+                            : mode == 1 ? new AWSRequestMetricsCompactSupport()
+                            : new AWSRequestMetrics();
+        m.startEvent(Field.ClientExecuteTime);
+        m.startEvent(Field.RequestMarshallTime);
+        m.endEvent(Field.RequestMarshallTime);
+        m.startEvent(Field.RequestSigningTime);
+        m.endEvent(Field.RequestSigningTime);
+        m.startEvent(Field.HttpRequestTime);
+        m.endEvent(Field.HttpRequestTime);
+        m.incrementCounter(Field.RequestCount);
+        m.setCounter(Field.HttpClientPoolLeasedCount, 1);
+        m.addProperty(Field.ServiceName, "svc");
+        m.addProperty(Field.StatusCode, 200);
+        m.startEvent(Field.ResponseProcessingTime);
+        m.endEvent(Field.ResponseProcessingTime);
+        m.endEvent(Field.ClientExecuteTime);
+        m.getTimingInfo().endTiming();
+        if (m instanceof AWSRequestMetricsCompactSupport)
+            ((AWSRequestMetricsCompactSupport) m).release();
+    }
+
+    @Test
+    public void unstartedEventIsIgnored() {
+        AWSRequestMetricsCompactSupport m = new AWSRequestMetricsCompactSupport();
+        m.endEvent(Field.HttpRequestTime);
+        List<TimingInfo> timings = m.getTimingInfo()
+                .getAllSubMeasurements(Field.HttpRequestTime.name());
+        assertNull(timings);
+    }
+}
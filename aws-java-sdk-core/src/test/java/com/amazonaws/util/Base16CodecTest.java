@@ -19,6 +19,7 @@
 package com.amazonaws.util;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
@@ -87,4 +88,23 @@ public class Base16CodecTest
             }
         }
     }
+
+    @Test
+    public void testByteBuffers() {
+        byte[] data = {0, 1, (byte)0x7F, (byte)0x80, (byte)0xAB, (byte)0xFF};
+        for (boolean direct: new boolean[] {false, true}) {
+            ByteBuffer src = Base64CodecTest.buffer(data, direct);
+            ByteBuffer encoded = Base64CodecTest.allocate(data.length * 2, direct);
+            Base16.encode(src, encoded);
+            encoded.flip();
+            byte[] b16 = new byte[encoded.remaining()];
+            encoded.duplicate().get(b16);
+            Assert.assertEquals("00017F80ABFF", CodecUtils.toStringDirect(b16));
+
+            ByteBuffer decoded = Base64CodecTest.allocate(data.length, direct);
+            Base16.decode(encoded, decoded);
+            decoded.flip();
+            Assert.assertEquals(ByteBuffer.wrap(data), decoded);
+        }
+    }
 }
@@ -19,9 +19,12 @@
 package com.amazonaws.util;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Random;
 import java.util.UUID;
 
 import org.junit.Assert;
@@ -92,4 +95,88 @@ public class Base64CodecTest
             }
         }
     }
+
+    @Test
+    public void testByteBuffersMatchByteArrays() {
+        Random random = new Random(7);
+        for (int length=0; length < 100; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            String expected = Base64.encodeAsString(data);
+            Assert.assertEquals(expected.length(), Base64.encodedLength(length));
+
+            for (boolean direct: new boolean[] {false, true}) {
+                ByteBuffer src = buffer(data, direct);
+                Assert.assertEquals(expected, Base64.encodeRemainingAsString(src));
+                Assert.assertEquals(1, src.position());
+
+                ByteBuffer encoded = allocate(expected.length() + 2, direct);
+                encoded.position(1);
+                Base64.encode(src, encoded);
+                Assert.assertFalse(src.hasRemaining());
+                Assert.assertEquals(expected.length() + 1, encoded.position());
+                encoded.flip();
+                encoded.position(1);
+                byte[] b64 = new byte[encoded.remaining()];
+                encoded.duplicate().get(b64);
+                Assert.assertEquals(expected, CodecUtils.toStringDirect(b64));
+
+                Assert.assertEquals(length, Base64.decodedLength(encoded));
+                ByteBuffer decoded = allocate(length, direct);
+                Base64.decode(encoded, decoded);
+                Assert.assertFalse(encoded.hasRemaining());
+                decoded.flip();
+                Assert.assertEquals(ByteBuffer.wrap(data), decoded);
+            }
+        }
+    }
+
+    @Test
+    public void testByteBufferOverflowLeavesBuffersUnchanged() {
+        ByteBuffer src = ByteBuffer.wrap(new byte[] {1, 2, 3, 4});
+        ByteBuffer dest = ByteBuffer.allocateDirect(7);
+        try {
+            Base64.encode(src, dest);
+            Assert.fail();
+        } catch (BufferOverflowException expected) {
+        }
+        Assert.assertEquals(0, src.position());
+        Assert.assertEquals(0, dest.position());
+    }
+
+    @Test
+    public void testImpossibleCasesInByteBuffers() {
+        final String[] BASE64_IMPOSSIBLE_CASES = {
+            "ZE==",
+            "ZmC=",
+            "Zm9vYE==",
+            "Zm9vYmC=",
+            "Zm9v{mE=",
+            "Zm9v\u00e9E=",   // 8 bytes in UTF-8
+            "Zm9",
+        };
+        for (String s: BASE64_IMPOSSIBLE_CASES) {
+            try {
+                Base64.decode(ByteBuffer.wrap(s.getBytes(StringUtils.UTF8)), ByteBuffer.allocate(6));
+                Assert.fail(s);
+            } catch(IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Returns a buffer with the given data following one byte that is not
+     * remaining.
+     */
+    static ByteBuffer buffer(byte[] data, boolean direct) {
+        ByteBuffer b = allocate(data.length + 1, direct);
+        b.put((byte)-1).put(data).flip();
+        b.position(1);
+        return b;
+    }
+
+    static ByteBuffer allocate(int capacity, boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
 }
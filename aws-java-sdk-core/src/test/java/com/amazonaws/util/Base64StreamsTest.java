@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class Base64StreamsTest {
+
+    @Test
+    public void encodesLikeByteArrays() throws IOException {
+        Random random = new Random(11);
+        for (int length=0; length < 50; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            Base64EncodingOutputStream out = new Base64EncodingOutputStream(bos);
+            // Mix single byte and array writes
+            int i = 0;
+            while (i < length) {
+                int n = Math.min(random.nextInt(5), length - i);
+                if (n == 0) {
+                    out.write(data[i++]);
+                } else {
+                    out.write(data, i, n);
+                    i += n;
+                }
+            }
+            out.close();
+            assertEquals(Base64.encodeAsString(data), new String(bos.toByteArray(), StringUtils.UTF8));
+        }
+    }
+
+    @Test
+    public void decodesLikeByteArrays() throws IOException {
+        Random random = new Random(13);
+        for (int length=0; length < 50; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            String b64 = Base64.encodeAsString(data);
+            // Line breaks are skipped
+            StringBuilder sb = new StringBuilder();
+            for (int i=0; i < b64.length(); i+=7)
+                sb.append(b64, i, Math.min(i + 7, b64.length())).append("\r\n");
+            InputStream in = new Base64DecodingInputStream(
+                new ByteArrayInputStream(sb.toString().getBytes(StringUtils.UTF8)));
+            assertArrayEquals(data, IOUtils.toByteArray(in));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        String[] invalid = {"Zg=", "ZE==", "Zg==Zg==", "Zm9v{mE="};
+        for (String s: invalid) {
+            InputStream in = new Base64DecodingInputStream(
+                new ByteArrayInputStream(s.getBytes(StringUtils.UTF8)));
+            try {
+                IOUtils.toByteArray(in);
+                fail(s);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void skipsDecodedBytes() throws IOException {
+        byte[] data = new byte[10000];
+        new Random(17).nextBytes(data);
+        InputStream in = new Base64DecodingInputStream(
+            new ByteArrayInputStream(Base64.encode(data)));
+        assertEquals(9000, in.skip(9000));
+        assertEquals(data[9000] & 0xFF, in.read());
+        assertEquals(999, in.skip(5000));
+        assertEquals(-1, in.read());
+    }
+
+    /**
+     * Tests that encoding and decoding 10 MB via byte arrays, direct byte
+     * buffers and streams give the same bytes.
+     */
+    @Test
+    public void largeDataEquivalence() throws IOException {
+        final int size = 10 * 1024 * 1024;
+        byte[] data = new byte[size];
+        new Random(19).nextBytes(data);
+        ByteBuffer src = ByteBuffer.allocateDirect(size);
+        src.put(data).flip();
+        ByteBuffer encoded = ByteBuffer.allocateDirect(Base64.encodedLength(size));
+        ByteBuffer decoded = ByteBuffer.allocateDirect(size);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Base64.encodedLength(size));
+        byte[] buf = new byte[8192];
+
+        byte[] b64 = Base64.encode(data);
+        assertArrayEquals(data, Base64.decode(b64));
+
+        Base64.encode(src, encoded);
+        encoded.flip();
+        assertEquals(ByteBuffer.wrap(b64), encoded);
+        Base64.decode(encoded, decoded);
+        decoded.flip();
+        assertEquals(ByteBuffer.wrap(data), decoded);
+
+        Base64EncodingOutputStream out = new Base64EncodingOutputStream(bos);
+        for (int i=0; i < size; i+=buf.length)
+            out.write(data, i, Math.min(buf.length, size - i));
+        out.close();
+        assertArrayEquals(b64, bos.toByteArray());
+
+        InputStream in = new Base64DecodingInputStream(new ByteArrayInputStream(b64));
+        ByteArrayOutputStream streamDecoded = new ByteArrayOutputStream(size);
+        for (int n; (n = in.read(buf)) != -1;)
+            streamDecoded.write(buf, 0, n);
+        assertArrayEquals(data, streamDecoded.toByteArray());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the hand-written date formats against the Joda-Time formatters they
+ * replace.
+ */
+public class FastDateFormatsTest {
+    private static final long MIN = -62167219200000L;
+    private static final long MAX = 253402300799999L;
+
+    private static long[] sampleMillis() {
+        Random random = new Random(42);
+        long[] millis = new long[20000];
+        millis[0] = MIN;
+        millis[1] = MAX;
+        millis[2] = 0;
+        millis[3] = -1;
+        millis[4] = 951782400000L;      // 2000-02-29
+        for (int i = 5; i < millis.length; i++)
+            millis[i] = MIN + (long) (random.nextDouble() * (MAX - MIN));
+        return millis;
+    }
+
+    @Test
+    public void iso8601MatchesJoda() {
+        for (long millis: sampleMillis()) {
+            String expected = DateUtils.iso8601DateFormat.print(millis);
+            assertEquals(expected, FastDateFormats.formatISO8601(millis));
+            assertEquals(millis, FastDateFormats.parseISO8601(expected));
+        }
+    }
+
+    @Test
+    public void rfc822MatchesJoda() {
+        for (long millis: sampleMillis()) {
+            String expected = DateUtils.rfc822DateFormat.print(millis);
+            assertEquals(expected, FastDateFormats.formatRFC822(millis));
+            assertEquals(DateUtils.rfc822DateFormat.parseMillis(expected),
+                    FastDateFormats.parseRFC822(expected));
+        }
+    }
+
+    @Test
+    public void compressedIso8601MatchesJoda() {
+        for (long millis: sampleMillis()) {
+            String expected = DateUtils.compressedIso8601DateFormat.print(millis);
+            assertEquals(expected, FastDateFormats.formatCompressedISO8601(millis));
+            assertEquals(DateUtils.compressedIso8601DateFormat.parseMillis(expected),
+                    FastDateFormats.parseCompressedISO8601(expected));
+        }
+    }
+
+    @Test
+    public void parsesFractionsAndNoFractions() {
+        assertEquals(1425384000000L, FastDateFormats.parseISO8601("2015-03-03T12:00:00Z"));
+        assertEquals(1425384000100L, FastDateFormats.parseISO8601("2015-03-03T12:00:00.1Z"));
+        assertEquals(1425384000123L, FastDateFormats.parseISO8601("2015-03-03T12:00:00.123456789Z"));
+    }
+
+    @Test
+    public void leavesUnusualInputsToJoda() {
+        String[] inputs = {
+            "2015-03-03T12:00:00.000+01:00",
+            "2015-02-29T12:00:00.000Z",
+            "2015-03-03T24:00:00.000Z",
+            "2015-03-03T12:00:00.Z",
+            "2014-03-06T14:28:58.000Z.000Z",
+            "292278994-08-17T07:12:55.807Z",
+        };
+        for (String input: inputs)
+            assertEquals(input, FastDateFormats.NOT_PARSED, FastDateFormats.parseISO8601(input));
+        // Wrong day of week
+        assertEquals(FastDateFormats.NOT_PARSED,
+                FastDateFormats.parseRFC822("Mon, 03 Mar 2015 12:00:00 GMT"));
+        assertEquals(FastDateFormats.NOT_PARSED,
+                FastDateFormats.parseRFC822("Tue, 03 Mar 2015 12:00:00 PST"));
+        assertEquals(FastDateFormats.NOT_PARSED,
+                FastDateFormats.parseCompressedISO8601("20150303T120000"));
+    }
+}
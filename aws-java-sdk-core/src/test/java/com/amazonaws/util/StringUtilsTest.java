@@ -60,4 +60,17 @@ public class StringUtilsTest {
         assertEquals(UTF8.displayName(), "UTF-8");
     }
 
+    /**
+     * Tests that the UTF-8 length is counted like the encoder encodes,
+     * including supplementary and unpaired surrogate characters.
+     */
+    @Test
+    public void testUtf8Length() {
+        String[] values = { "", "hello", "\u00e9t\u00e9", "\u20ac100", "\ud83d\ude00 smile",
+                "\ud83d", "a\ude00b", "\ud83d\ud83d\ude00" };
+        for (String value : values) {
+            assertEquals(value.getBytes(UTF8).length, StringUtils.utf8Length(value));
+        }
+    }
+
 }
@@ -459,7 +459,8 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
             }
 
             Unmarshaller<ScanResult, JsonUnmarshallerContext> unmarshaller =
-                new ScanResultJsonUnmarshaller();
+                new ScanResultJsonUnmarshaller(
+                    scanRequest instanceof ItemReader ? (ItemReader) scanRequest : null);
             JsonResponseHandler<ScanResult> responseHandler =
                 new JsonResponseHandler<ScanResult>(unmarshaller);
 
@@ -1118,7 +1119,8 @@ public class AmazonDynamoDBClient extends AmazonWebServiceClient implements Amaz
             }
 
             Unmarshaller<QueryResult, JsonUnmarshallerContext> unmarshaller =
-                new QueryResultJsonUnmarshaller();
+                new QueryResultJsonUnmarshaller(
+                    queryRequest instanceof ItemReader ? (ItemReader) queryRequest : null);
             JsonResponseHandler<QueryResult> responseHandler =
                 new JsonResponseHandler<QueryResult>(unmarshaller);
 
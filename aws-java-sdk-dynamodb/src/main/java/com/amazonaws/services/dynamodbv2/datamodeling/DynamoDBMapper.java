@@ -29,6 +29,8 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -73,6 +75,8 @@ import com.amazonaws.services.dynamodbv2.model.Select;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.services.dynamodbv2.util.BatchGetItemIterator;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 import com.amazonaws.services.s3.model.Region;
 import com.amazonaws.util.VersionInfoUtils;
 
@@ -184,12 +188,8 @@ public class DynamoDBMapper {
 
     /** The max number of items allowed in a BatchWrite request */
     static final int MAX_ITEMS_PER_BATCH = 25;
-    /**
-     * This retry count is applicable only when every batch get item request
-     * results in no data retrieved from server and the un processed keys is
-     * same as request items
-     */
-    static final int BATCH_GET_MAX_RETRY_COUNT_ALL_KEYS = 5;
+    /** The max number of BatchGetItem requests in flight for a batch load */
+    static final int BATCH_GET_MAX_CONCURRENT_REQUESTS = 8;
 
     /**
      * User agent for requests made using the {@link DynamoDBMapper}.
@@ -447,7 +447,10 @@ public class DynamoDBMapper {
         rq.setConsistentRead(config.getConsistentReads() == ConsistentReads.CONSISTENT);
 
 
-        GetItemResult item = db.getItem(applyUserAgent(rq));
+        ItemCache itemCache = config.getItemCache();
+        GetItemResult item = itemCache == null
+                ? db.getItem(applyUserAgent(rq))
+                : itemCache.getItem(db, applyUserAgent(rq));
         Map<String, AttributeValue> itemAttributes = item.getItem();
         if ( itemAttributes == null ) {
             return null;
@@ -1217,7 +1220,11 @@ public class DynamoDBMapper {
                     .withReturnValues(ReturnValue.ALL_NEW)
                     .withRequestMetricCollector(saveConfig.getRequestMetricCollector());
 
-            return db.updateItem(applyUserAgent(req));
+            try {
+                return db.updateItem(applyUserAgent(req));
+            } finally {
+                invalidateCachedItem(saveConfig, getTableName(), getKeyAttributeValues());
+            }
         }
 
         /**
@@ -1246,7 +1253,11 @@ public class DynamoDBMapper {
                     .withConditionalOperator(userProvidedConditionOperator)
                     .withRequestMetricCollector(saveConfig.getRequestMetricCollector());
 
-            return db.putItem(applyUserAgent(req));
+            try {
+                return db.putItem(applyUserAgent(req));
+            } finally {
+                invalidateCachedItem(saveConfig, getTableName(), getKeyAttributeValues());
+            }
         }
 
         private void onAutoGenerateAssignableKey(Method method, String attributeName) {
@@ -1390,7 +1401,23 @@ public class DynamoDBMapper {
                             deleteExpression.getConditionalOperator());
 
         }
-        db.deleteItem(applyUserAgent(req));
+        try {
+            db.deleteItem(applyUserAgent(req));
+        } finally {
+            invalidateCachedItem(config, tableName, key);
+        }
+    }
+
+    /**
+     * Evicts an item that was, or may have been, written from the item cache
+     * of the config, if any.
+     */
+    private static void invalidateCachedItem(DynamoDBMapperConfig config, String tableName,
+            Map<String, AttributeValue> key) {
+        ItemCache itemCache = config.getItemCache();
+        if (itemCache != null) {
+            itemCache.invalidate(tableName, key);
+        }
     }
 
     /**
@@ -1604,7 +1631,14 @@ public class DynamoDBMapper {
                 }
             }
 
-            List<FailedBatch> failedBatches = writeOneBatch(batch);
+            List<FailedBatch> failedBatches;
+            try {
+                failedBatches = writeOneBatch(batch);
+            } finally {
+                if (config.getItemCache() != null) {
+                    config.getItemCache().invalidateWrites(batch);
+                }
+            }
             if (failedBatches != null) {
                 totalFailedBatches.addAll(failedBatches);
 
@@ -1762,6 +1796,9 @@ public class DynamoDBMapper {
 
     /**
      * Retrieves multiple items from multiple tables using their primary keys.
+     * Any number of keys can be given: they are requested in batches of
+     * {@value BatchGetItemIterator#MAX_KEYS_PER_REQUEST}, several at a time,
+     * until every item has been read.
      *
      * @param itemsToGet
      *            Key objects, corresponding to the class to fetch, with their
@@ -1788,7 +1825,6 @@ public class DynamoDBMapper {
         Map<String, KeysAndAttributes> requestItems = new HashMap<String, KeysAndAttributes>();
         Map<String, Class<?>> classesByTableName = new HashMap<String, Class<?>>();
         Map<String, List<Object>> resultSet = new HashMap<String, List<Object>>();
-        int count = 0;
 
         ItemConverter converter = getConverter(config);
 
@@ -1807,17 +1843,27 @@ public class DynamoDBMapper {
 
             requestItems.get(tableName).getKeys().add(
                     getKey(converter, keyObject));
-
-            // Reach the maximum number which can be handled in a single batchGet
-            if ( ++count == 100 ) {
-                processBatchGetRequest(classesByTableName, requestItems, resultSet, config, converter);
-                requestItems.clear();
-                count = 0;
-            }
         }
 
-        if ( count > 0 ) {
-            processBatchGetRequest(classesByTableName, requestItems, resultSet, config, converter);
+        BatchGetItemRequest batchGetItemRequest = new BatchGetItemRequest()
+            .withRequestItems(requestItems);
+        batchGetItemRequest.setRequestMetricCollector(config.getRequestMetricCollector());
+        applyBatchOperationUserAgent(batchGetItemRequest);
+
+        // A single request is made in the calling thread
+        int requests = (itemsToGet.size() - 1) / BatchGetItemIterator.MAX_KEYS_PER_REQUEST + 1;
+        ExecutorService executorService = requests == 1
+                ? null : Executors.newFixedThreadPool(Math.min(requests, BATCH_GET_MAX_CONCURRENT_REQUESTS));
+        try {
+            Iterator<BatchGetItemResult> results = new BatchGetItemIterator(
+                    db, batchGetItemRequest, executorService, BATCH_GET_MAX_CONCURRENT_REQUESTS);
+            while ( results.hasNext() ) {
+                addBatchGetItemResponses(results.next().getResponses(), classesByTableName, resultSet, config, converter);
+            }
+        } finally {
+            if ( executorService != null ) {
+                executorService.shutdown();
+            }
         }
 
         return resultSet;
@@ -1879,64 +1925,31 @@ public class DynamoDBMapper {
     /**
      * @param config never null
      */
-    private void processBatchGetRequest(
+    private void addBatchGetItemResponses(
+            final Map<String, List<Map<String, AttributeValue>>> responses,
             final Map<String, Class<?>> classesByTableName,
-            final Map<String, KeysAndAttributes> requestItems,
             final Map<String, List<Object>> resultSet,
             final DynamoDBMapperConfig config,
             final ItemConverter converter) {
 
-        BatchGetItemResult batchGetItemResult = null;
-        BatchGetItemRequest batchGetItemRequest = new BatchGetItemRequest()
-            .withRequestMetricCollector(config.getRequestMetricCollector());
-        batchGetItemRequest.setRequestItems(requestItems);
-
-        int retries = 0;
-        int noOfItemsInOriginalRequest = requestItems.size();
-
-        do {
-            if ( batchGetItemResult != null ) {
-                retries++;
-
-                if (noOfItemsInOriginalRequest == batchGetItemResult
-                        .getUnprocessedKeys().size()){
-                    pauseExponentially(retries);
-                    if (retries > BATCH_GET_MAX_RETRY_COUNT_ALL_KEYS) {
-                        throw new AmazonClientException(
-                                "Batch Get Item request to server hasn't received any data. "
-                                + "Please try again later.");
-                    }
-                }
-
-                batchGetItemRequest.setRequestItems(
-                        batchGetItemResult.getUnprocessedKeys());
+        for ( String tableName : responses.keySet() ) {
+            List<Object> objects = null;
+            if ( resultSet.get(tableName) != null ) {
+                objects = resultSet.get(tableName);
+            } else {
+                objects = new LinkedList<Object>();
             }
 
-            batchGetItemResult = db.batchGetItem(
-                    applyBatchOperationUserAgent(batchGetItemRequest));
-
-            Map<String, List<Map<String, AttributeValue>>> responses = batchGetItemResult.getResponses();
-            for ( String tableName : responses.keySet() ) {
-                List<Object> objects = null;
-                if ( resultSet.get(tableName) != null ) {
-                    objects = resultSet.get(tableName);
-                } else {
-                    objects = new LinkedList<Object>();
-                }
-
-                Class<?> clazz = classesByTableName.get(tableName);
+            Class<?> clazz = classesByTableName.get(tableName);
 
-                for ( Map<String, AttributeValue> item : responses.get(tableName) ) {
-                    AttributeTransformer.Parameters<?> parameters =
-                        toParameters(item, clazz, tableName, config);
-                    objects.add(privateMarshallIntoObject(converter, parameters));
-                }
-
-                resultSet.put(tableName, objects);
+            for ( Map<String, AttributeValue> item : responses.get(tableName) ) {
+                AttributeTransformer.Parameters<?> parameters =
+                    toParameters(item, clazz, tableName, config);
+                objects.add(privateMarshallIntoObject(converter, parameters));
             }
-            // To see whether there are unprocessed keys.
-        } while ( batchGetItemResult.getUnprocessedKeys() != null && batchGetItemResult.getUnprocessedKeys().size() > 0 );
 
+            resultSet.put(tableName, objects);
+        }
     }
 
     private final class ValueUpdate {
@@ -15,6 +15,7 @@
 package com.amazonaws.services.dynamodbv2.datamodeling;
 
 import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * Immutable configuration object for service call behavior. An instance of this
@@ -50,6 +51,7 @@ public class DynamoDBMapperConfig {
         private PaginationLoadingStrategy paginationLoadingStrategy;
         private RequestMetricCollector requestMetricCollector;
         private ConversionSchema conversionSchema;
+        private ItemCache itemCache;
 
         /**
          * Creates a new builder initialized with the {@link #DEFAULT} values.
@@ -63,6 +65,7 @@ public class DynamoDBMapperConfig {
             paginationLoadingStrategy = DEFAULT.getPaginationLoadingStrategy();
             requestMetricCollector = DEFAULT.getRequestMetricCollector();
             conversionSchema = DEFAULT.getConversionSchema();
+            itemCache = DEFAULT.getItemCache();
         }
 
         /**
@@ -260,6 +263,30 @@ public class DynamoDBMapperConfig {
         }
 
 
+        /**
+         * @return the cache items are loaded through, or null if there is none
+         */
+        public ItemCache getItemCache() {
+            return itemCache;
+        }
+
+        /**
+         * @param value the cache to load items through, or null for none
+         */
+        public void setItemCache(ItemCache value) {
+            itemCache = value;
+        }
+
+        /**
+         * @param value the cache to load items through, or null for none
+         * @return this builder
+         */
+        public Builder withItemCache(ItemCache value) {
+            setItemCache(value);
+            return this;
+        }
+
+
         /**
          * Builds a new {@code DynamoDBMapperConfig} object.
          *
@@ -274,7 +301,8 @@ public class DynamoDBMapperConfig {
                     objectTableNameResolver,
                     paginationLoadingStrategy,
                     requestMetricCollector,
-                    conversionSchema);
+                    conversionSchema,
+                    itemCache);
         }
     }
 
@@ -514,6 +542,7 @@ public class DynamoDBMapperConfig {
     private final PaginationLoadingStrategy paginationLoadingStrategy;
     private final RequestMetricCollector requestMetricCollector;
     private final ConversionSchema conversionSchema;
+    private final ItemCache itemCache;
 
     /**
      * Legacy constructor, using default PaginationLoadingStrategy
@@ -583,7 +612,8 @@ public class DynamoDBMapperConfig {
                 null,
                 paginationLoadingStrategy,
                 requestMetricCollector,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT,
+                null);
     }
 
     private DynamoDBMapperConfig(
@@ -594,7 +624,8 @@ public class DynamoDBMapperConfig {
             ObjectTableNameResolver objectTableNameResolver,
             PaginationLoadingStrategy paginationLoadingStrategy,
             RequestMetricCollector requestMetricCollector,
-            ConversionSchema conversionSchema) {
+            ConversionSchema conversionSchema,
+            ItemCache itemCache) {
 
         this.saveBehavior = saveBehavior;
         this.consistentReads = consistentReads;
@@ -604,6 +635,7 @@ public class DynamoDBMapperConfig {
         this.paginationLoadingStrategy = paginationLoadingStrategy;
         this.requestMetricCollector = requestMetricCollector;
         this.conversionSchema = conversionSchema;
+        this.itemCache = itemCache;
     }
 
     /**
@@ -611,7 +643,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(SaveBehavior saveBehavior) {
         this(saveBehavior, null, null, null, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
@@ -620,7 +652,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(ConsistentReads consistentReads) {
         this(null, consistentReads, null, null, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
@@ -628,7 +660,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameOverride tableNameOverride) {
         this(null, null, tableNameOverride, null, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
@@ -636,7 +668,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameResolver tableNameResolver) {
         this(null, null, null, tableNameResolver, null, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
@@ -644,7 +676,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(ObjectTableNameResolver objectTableNameResolver) {
         this(null, null, null, null, objectTableNameResolver, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
@@ -652,7 +684,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameResolver tableNameResolver, ObjectTableNameResolver objectTableNameResolver) {
         this(null, null, null, tableNameResolver, objectTableNameResolver, null, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
@@ -663,14 +695,14 @@ public class DynamoDBMapperConfig {
             PaginationLoadingStrategy paginationLoadingStrategy) {
 
         this(null, null, null, null, null, paginationLoadingStrategy, null,
-                ConversionSchemas.DEFAULT);
+                ConversionSchemas.DEFAULT, null);
     }
 
     /**
      * Constructs a new configuration object with the conversion schema given.
      */
     public DynamoDBMapperConfig(ConversionSchema conversionSchema) {
-        this(null, null, null, null, null, null, null, conversionSchema);
+        this(null, null, null, null, null, null, null, conversionSchema, null);
     }
 
     /**
@@ -702,6 +734,7 @@ public class DynamoDBMapperConfig {
                     defaults.getPaginationLoadingStrategy();
             this.requestMetricCollector = defaults.getRequestMetricCollector();
             this.conversionSchema = defaults.getConversionSchema();
+            this.itemCache = defaults.getItemCache();
 
         } else {
 
@@ -739,6 +772,10 @@ public class DynamoDBMapperConfig {
                     ? defaults.getConversionSchema()
                     : overrides.getConversionSchema();
 
+            this.itemCache = (overrides.getItemCache() == null)
+                    ? defaults.getItemCache()
+                    : overrides.getItemCache();
+
         }
     }
 
@@ -815,6 +852,16 @@ public class DynamoDBMapperConfig {
         return conversionSchema;
     }
 
+    /**
+     * Returns the cache items are loaded through, or null if there is none.
+     * Items saved or deleted by the mapper are evicted from it.
+     *
+     * @see ItemCache
+     */
+    public ItemCache getItemCache() {
+        return itemCache;
+    }
+
     /**
      * Default configuration uses UPDATE behavior for saves and EVENTUALly
      * consistent reads, with no table name override and lazy-loading strategy.
@@ -827,5 +874,6 @@ public class DynamoDBMapperConfig {
             null, // ObjectTableNameResolver
             PaginationLoadingStrategy.LAZY_LOADING,
             null,  // RequestMetricCollector
-            ConversionSchemas.DEFAULT);
+            ConversionSchemas.DEFAULT,
+            null); // ItemCache
 }
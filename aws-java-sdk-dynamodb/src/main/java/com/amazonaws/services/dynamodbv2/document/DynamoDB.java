@@ -14,8 +14,10 @@
  */
 package com.amazonaws.services.dynamodbv2.document;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.http.annotation.ThreadSafe;
 
@@ -40,6 +42,8 @@ import com.amazonaws.services.dynamodbv2.model.ListTablesResult;
 import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.services.dynamodbv2.util.BatchGetItemIterator;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * DynamoDB Document API. This class is the entry point to make use of this
@@ -49,19 +53,35 @@ import com.amazonaws.services.dynamodbv2.model.WriteRequest;
 public class DynamoDB implements ListTablesApi, BatchGetItemApi,
         BatchWriteItemApi {
     private final AmazonDynamoDB client;
+    private final ItemCache itemCache;
 
     private final ListTablesImpl listTablesDelegate;
     private final BatchGetItemImpl batchGetItemDelegate;
     private final BatchWriteItemImpl batchWriteItemDelegate;
 
     public DynamoDB(AmazonDynamoDB client) {
+        this(client, null);
+    }
+
+    /**
+     * Create a DynamoDB object whose tables read their items through the
+     * given cache. Items written through the tables or batch writes are
+     * updated in or evicted from the cache.
+     *
+     * @param client
+     *            the low level client
+     * @param itemCache
+     *            the cache of items, or null to read all items from DynamoDB
+     */
+    public DynamoDB(AmazonDynamoDB client, ItemCache itemCache) {
         if (client == null) {
             throw new IllegalArgumentException();
         }
         this.client = client;
+        this.itemCache = itemCache;
         this.listTablesDelegate = new ListTablesImpl(client);
         this.batchGetItemDelegate = new BatchGetItemImpl(client);
-        this.batchWriteItemDelegate = new BatchWriteItemImpl(client);
+        this.batchWriteItemDelegate = new BatchWriteItemImpl(client, itemCache);
     }
 
     /**
@@ -86,7 +106,7 @@ public class DynamoDB implements ListTablesApi, BatchGetItemApi,
      * Returns the specified DynamoDB table.  No network call is involved.
      */
     public Table getTable(String tableName) {
-        return new Table(client, tableName);
+        return new Table(client, tableName, null, itemCache);
     }
 
     /**
@@ -95,7 +115,7 @@ public class DynamoDB implements ListTablesApi, BatchGetItemApi,
     public Table createTable(CreateTableRequest req) {
         CreateTableResult result = client.createTable(req);
         return new Table(client, req.getTableName(),
-            result.getTableDescription());
+            result.getTableDescription(), itemCache);
     }
 
     /**
@@ -172,6 +192,40 @@ public class DynamoDB implements ListTablesApi, BatchGetItemApi,
         return batchGetItemDelegate.batchGetItemUnprocessed(unprocessedKeys);
     }
 
+    /**
+     * Reads all the items of the given keys, in as many requests as needed,
+     * one at a time. Unlike {@link #batchGetItem(TableKeysAndAttributes...)},
+     * any number of keys can be given, and the keys left unprocessed by
+     * DynamoDB are requested again.
+     *
+     * @return the outcomes of the requests, as they complete; their
+     *         unprocessed keys are always empty
+     */
+    public Iterator<BatchGetItemOutcome> batchGetAllItems(
+            TableKeysAndAttributes... tableKeysAndAttributes) {
+        return batchGetAllItems(new BatchGetItemSpec()
+            .withTableKeyAndAttributes(tableKeysAndAttributes), null, 1);
+    }
+
+    /**
+     * Reads all the items of the given spec, in as many requests as needed,
+     * running up to the given number of requests at a time through the given
+     * executor. The requests are only issued as the returned iterator is
+     * consumed.
+     *
+     * @param executorService
+     *            the executor to run the requests, or null to run them in the
+     *            iterating thread
+     * @return the outcomes of the requests, as they complete; their
+     *         unprocessed keys are always empty
+     * @see BatchGetItemIterator
+     */
+    public Iterator<BatchGetItemOutcome> batchGetAllItems(BatchGetItemSpec spec,
+            ExecutorService executorService, int maxConcurrentRequests) {
+        return batchGetItemDelegate.batchGetAllItems(spec, executorService,
+                maxConcurrentRequests);
+    }
+
     @Override
     public BatchWriteItemOutcome batchWriteItem(
             TableWriteItems... tableWriteItems) {
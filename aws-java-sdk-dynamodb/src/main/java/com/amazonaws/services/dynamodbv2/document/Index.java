@@ -16,6 +16,7 @@ package com.amazonaws.services.dynamodbv2.document;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.http.annotation.ThreadSafe;
 
@@ -47,7 +48,7 @@ public class Index implements QueryApi, ScanApi {
     private static final long SLEEP_TIME_MILLIS = 5000;
     private final Table table;
     private final String indexName;
-    private final QueryApi queryDelegate;
+    private final IndexQueryImpl queryDelegate;
     private final ScanImpl scanDelegate;
 
     Index(AmazonDynamoDB client, String indexName, Table table) {
@@ -356,4 +357,23 @@ public class Index implements QueryApi, ScanApi {
     public ItemCollection<ScanOutcome> scan(ScanSpec params) {
         return scanDelegate.scan(params);
     }
+
+    /**
+     * Queries the index asynchronously, returning the future of the first
+     * page.
+     *
+     * @see Table#queryAsync(QuerySpec)
+     */
+    public Future<Page<Item, QueryOutcome>> queryAsync(QuerySpec spec) {
+        return queryDelegate.queryAsync(spec);
+    }
+
+    /**
+     * Scans the index asynchronously, returning the future of the first page.
+     *
+     * @see Table#scanAsync(ScanSpec)
+     */
+    public Future<Page<Item, ScanOutcome>> scanAsync(ScanSpec spec) {
+        return scanDelegate.scanAsync(spec);
+    }
 }
@@ -17,6 +17,8 @@ package com.amazonaws.services.dynamodbv2.document;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.document.internal.AsyncPageIterator;
 import com.amazonaws.services.dynamodbv2.document.internal.PageBasedCollection;
 import com.amazonaws.services.dynamodbv2.model.Capacity;
 import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
@@ -135,6 +137,22 @@ public abstract class ItemCollection<R> extends PageBasedCollection<Item, R> {
         return val == null ? 0.0 : val.doubleValue();
     }
 
+    /**
+     * Returns an iterator over the pages of this collection that retrieves
+     * them with an {@link AmazonDynamoDBAsync} client, one page ahead of the
+     * caller: the first page is requested right away, and each next page as
+     * soon as the previous one is returned. The statistics of the collection
+     * are accumulated as the pages are returned.
+     *
+     * @throws UnsupportedOperationException
+     *             if the collection was not obtained from a table or index of
+     *             a {@link DynamoDB} with an asynchronous client
+     */
+    public AsyncPageIterator<R> pagesAsync() {
+        throw new UnsupportedOperationException(
+            "Asynchronous iteration is not supported by " + getClass().getName());
+    }
+
     /**
      * Returns the total count accumulated so far.
      */
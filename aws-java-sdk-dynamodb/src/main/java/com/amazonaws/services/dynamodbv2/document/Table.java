@@ -17,10 +17,12 @@ package com.amazonaws.services.dynamodbv2.document;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.http.annotation.ThreadSafe;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
 import com.amazonaws.services.dynamodbv2.document.api.DeleteItemApi;
 import com.amazonaws.services.dynamodbv2.document.api.GetItemApi;
 import com.amazonaws.services.dynamodbv2.document.api.PutItemApi;
@@ -55,10 +57,16 @@ import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
 import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
 import com.amazonaws.services.dynamodbv2.model.UpdateTableResult;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * A DynamoDB table. Instance of this class is typically obtained via
  * {@link DynamoDB#getTable(String)}.
+ * <p>
+ * The asynchronous operations, such as {@link #getItemOutcomeAsync(GetItemSpec)}
+ * and {@link #queryAsync(QuerySpec)}, require the table to be constructed
+ * with an {@link AmazonDynamoDBAsync} client, and throw an
+ * {@link UnsupportedOperationException} otherwise.
  */
 @ThreadSafe
 public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
@@ -67,6 +75,7 @@ public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
     private final String tableName;
     private final AmazonDynamoDB client;
     private volatile TableDescription tableDescription;
+    private final ItemCache itemCache;
 
     private final PutItemImpl putItemDelegate;
     private final GetItemImpl getItemDelegate;
@@ -82,6 +91,18 @@ public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
 
     public Table(AmazonDynamoDB client, String tableName,
             TableDescription tableDescription) {
+        this(client, tableName, tableDescription, null);
+    }
+
+    /**
+     * Constructs a table whose items are read through the given cache, and
+     * updated in or evicted from it when written.
+     *
+     * @param itemCache
+     *            the cache of items, or null to read all items from DynamoDB
+     */
+    public Table(AmazonDynamoDB client, String tableName,
+            TableDescription tableDescription, ItemCache itemCache) {
         if (client == null)
             throw new IllegalArgumentException("client must be specified");
         if (tableName == null || tableName.trim().length() == 0)
@@ -89,6 +110,7 @@ public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
         this.client = client;
         this.tableName = tableName;
         this.tableDescription = tableDescription;
+        this.itemCache = itemCache;
 
         this.putItemDelegate = new PutItemImpl(client, this);
         this.getItemDelegate = new GetItemImpl(client, this);
@@ -111,6 +133,14 @@ public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
         return tableDescription;
     }
 
+    /**
+     * Returns the cache the items of this table are read through, or null if
+     * there is none.
+     */
+    public ItemCache getItemCache() {
+        return itemCache;
+    }
+
     /**
      * Retrieves the table description from DynamoDB. Involves network calls.
      * Meant to be called as infrequently as possible to avoid throttling
@@ -279,6 +309,48 @@ public class Table implements PutItemApi, GetItemApi, QueryApi, ScanApi,
         return scanDelegate.scan(params);
     }
 
+    /**
+     * Retrieves an item asynchronously. The item is not read through the item
+     * cache of the table, if any.
+     */
+    public Future<GetItemOutcome> getItemOutcomeAsync(GetItemSpec spec) {
+        return getItemDelegate.getItemOutcomeAsync(spec);
+    }
+
+    /**
+     * Puts an item asynchronously. The item cache of the table, if any, is
+     * updated once the item is written.
+     */
+    public Future<PutItemOutcome> putItemAsync(PutItemSpec spec) {
+        return putItemDelegate.putItemAsync(spec);
+    }
+
+    /**
+     * Updates an item asynchronously. The item is evicted from the item cache
+     * of the table, if any, once the update completes.
+     */
+    public Future<UpdateItemOutcome> updateItemAsync(UpdateItemSpec spec) {
+        return updateItemDelegate.updateItemAsync(spec);
+    }
+
+    /**
+     * Queries the table asynchronously, returning the future of the first
+     * page. Use {@link ItemCollection#pagesAsync()} on {@link #query(QuerySpec)}
+     * to retrieve all the pages asynchronously.
+     */
+    public Future<Page<Item, QueryOutcome>> queryAsync(QuerySpec spec) {
+        return queryDelegate.queryAsync(spec);
+    }
+
+    /**
+     * Scans the table asynchronously, returning the future of the first page.
+     * Use {@link ItemCollection#pagesAsync()} on {@link #scan(ScanSpec)} to
+     * retrieve all the pages asynchronously.
+     */
+    public Future<Page<Item, ScanOutcome>> scanAsync(ScanSpec spec) {
+        return scanDelegate.scanAsync(spec);
+    }
+
     @Override
     public DeleteItemOutcome deleteItem(KeyAttribute... primaryKeyComponents) {
         return deleteItemDelegate.deleteItem(primaryKeyComponents);
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import java.util.concurrent.Future;
+
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.Page;
+
+/**
+ * A page of items that can retrieve its next page asynchronously.
+ *
+ * @param <R> low level result type
+ */
+interface AsyncPage<R> {
+    /**
+     * Requests the next page.
+     *
+     * @return the future of the next page
+     * @throws java.util.NoSuchElementException if there is no next page
+     */
+    Future<Page<Item,R>> nextPageAsync();
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
+
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.document.Page;
+
+/**
+ * An iterator over the pages of an item collection that retrieves them
+ * asynchronously, one page ahead of the caller: the request for the next
+ * page is sent as soon as a page is returned, so it is retrieved while the
+ * returned page is consumed. Not thread-safe.
+ *
+ * @param <R> low level result type
+ */
+public class AsyncPageIterator<R> implements Iterator<Page<Item,R>> {
+    private final PageBasedCollection<Item,R> col;
+    private Future<Page<Item,R>> next;
+
+    AsyncPageIterator(PageBasedCollection<Item,R> col, Future<Page<Item,R>> firstPage) {
+        this.col = col;
+        this.next = firstPage;
+    }
+
+    /**
+     * Returns true if there is a next page. Never blocks.
+     */
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * Returns true if the next page has been retrieved, so that
+     * {@link #next()} will not block.
+     */
+    public boolean isNextPageReady() {
+        return next != null && next.isDone();
+    }
+
+    /**
+     * Waits for the next page, requests the page after it, and returns it.
+     *
+     * @throws NoSuchElementException if there is no next page
+     * @throws com.amazonaws.AmazonServiceException on error retrieving the page
+     */
+    @Override
+    public Page<Item,R> next() {
+        if (next == null)
+            throw new NoSuchElementException("No more pages");
+        Page<Item,R> page = InternalUtils.waitFor(next);
+        next = page.hasNextPage()
+             ? ((AsyncPage<R>) page).nextPageAsync()
+             : null;
+        col.setLastLowLevelResult(page.getLowLevelResult());
+        return page;
+    }
+
+    /**
+     * Cancels the request for the next page, if any; no more pages are
+     * returned afterwards.
+     */
+    public void cancel() {
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Collection is read-only");
+    }
+}
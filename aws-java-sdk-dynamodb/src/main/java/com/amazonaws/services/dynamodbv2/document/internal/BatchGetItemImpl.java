@@ -16,10 +16,12 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.BatchGetItemOutcome;
@@ -32,6 +34,7 @@ import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
 import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
 import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.util.BatchGetItemIterator;
 
 /**
  * The implementation for <code>BatchGetItemApi</code>.
@@ -64,7 +67,40 @@ public class BatchGetItemImpl implements BatchGetItemApi {
         return doBatchGetItem(spec);
     }
 
+    /**
+     * Returns the outcomes of the requests reading all the items of the spec,
+     * as they complete.
+     *
+     * @see BatchGetItemIterator
+     */
+    public Iterator<BatchGetItemOutcome> batchGetAllItems(BatchGetItemSpec spec,
+            ExecutorService executorService, int maxConcurrentRequests) {
+        final Iterator<BatchGetItemResult> results = new BatchGetItemIterator(
+                client, toRequest(spec), executorService, maxConcurrentRequests);
+        return new Iterator<BatchGetItemOutcome>() {
+            @Override
+            public boolean hasNext() {
+                return results.hasNext();
+            }
+
+            @Override
+            public BatchGetItemOutcome next() {
+                return new BatchGetItemOutcome(results.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
     private BatchGetItemOutcome doBatchGetItem(BatchGetItemSpec spec) {
+        BatchGetItemResult result = client.batchGetItem(toRequest(spec));
+        return new BatchGetItemOutcome(result);
+    }
+
+    private BatchGetItemRequest toRequest(BatchGetItemSpec spec) {
         final Collection<TableKeysAndAttributes> tableKeysAndAttributesCol =
                 spec.getTableKeysAndAttributes();
         // Unprocessed keys take precedence
@@ -92,11 +128,9 @@ public class BatchGetItemImpl implements BatchGetItemApi {
                 requestItems.put(tableKeysAndAttributes.getTableName(), keysAndAttrs);
             }
         }
-        BatchGetItemRequest req = spec.getRequest()
+        return spec.getRequest()
                 .withRequestItems(requestItems)
                 .withReturnConsumedCapacity(spec.getReturnConsumedCapacity());
-        BatchGetItemResult result = client.batchGetItem(req);
-        return new BatchGetItemOutcome(result);
     }
 
     @Override
@@ -15,7 +15,7 @@
 package com.amazonaws.services.dynamodbv2.document.internal;
 
 import static com.amazonaws.services.dynamodbv2.document.internal.InternalUtils.toAttributeValueMap;
-import static com.amazonaws.services.dynamodbv2.document.internal.InternalUtils.toAttributeValues;
+import static com.amazonaws.services.dynamodbv2.document.internal.InternalUtils.toLazyAttributeValues;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,15 +35,22 @@ import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
 import com.amazonaws.services.dynamodbv2.model.DeleteRequest;
 import com.amazonaws.services.dynamodbv2.model.PutRequest;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * The implementation for <code>BatchWriteItemApi</code>.
  */
 public class BatchWriteItemImpl implements BatchWriteItemApi {
     private final AmazonDynamoDB client;
+    private final ItemCache itemCache;
 
     public BatchWriteItemImpl(AmazonDynamoDB client) {
+        this(client, null);
+    }
+
+    public BatchWriteItemImpl(AmazonDynamoDB client, ItemCache itemCache) {
         this.client = client;
+        this.itemCache = itemCache;
     }
 
     @Override
@@ -92,7 +99,7 @@ public class BatchWriteItemImpl implements BatchWriteItemApi {
                     for (Item item: itemsToPut) {
                         writeRequests.add(new WriteRequest()
                             .withPutRequest(new PutRequest()
-                                .withItem(toAttributeValues(item))));
+                                .withItem(toLazyAttributeValues(item))));
                     }
                 }
                 // Delete requests for a single table
@@ -109,7 +116,13 @@ public class BatchWriteItemImpl implements BatchWriteItemApi {
         BatchWriteItemRequest req = spec.getRequest()
             .withRequestItems(requestItems)
             .withReturnConsumedCapacity(spec.getReturnConsumedCapacity());
-        BatchWriteItemResult result = client.batchWriteItem(req);
+        BatchWriteItemResult result;
+        try {
+            result = client.batchWriteItem(req);
+        } finally {
+            if (itemCache != null)
+                itemCache.invalidateWrites(requestItems);
+        }
         return new BatchWriteItemOutcome(result);
     }
 }
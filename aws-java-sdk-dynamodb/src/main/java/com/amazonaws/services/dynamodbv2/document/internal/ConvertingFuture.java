@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A future converting the low level result of an asynchronous call to the
+ * outcome of the document API, once the result is available.
+ *
+ * @param <S> low level result type
+ * @param <T> outcome type
+ */
+abstract class ConvertingFuture<S,T> implements Future<T> {
+    private final Future<S> future;
+    private T outcome;
+
+    ConvertingFuture(Future<S> future) {
+        this.future = future;
+    }
+
+    /**
+     * Converts the low level result; called at most once.
+     */
+    protected abstract T convert(S result);
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return future.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        return outcome(future.get());
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return outcome(future.get(timeout, unit));
+    }
+
+    private synchronized T outcome(S result) {
+        if (outcome == null)
+            outcome = convert(result);
+        return outcome;
+    }
+}
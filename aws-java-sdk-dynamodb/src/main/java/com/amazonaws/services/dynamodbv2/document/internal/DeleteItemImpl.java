@@ -29,6 +29,7 @@ import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
 import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * The implementation for <code>DeleteItemApi</code>.
@@ -95,7 +96,14 @@ public class DeleteItemImpl extends AbstractImpl implements DeleteItemApi {
             .withExpressionAttributeNames(spec.getNameMap())
             .withExpressionAttributeValues(attrValMap)
             ;
-        DeleteItemResult result = getClient().deleteItem(req);
+        DeleteItemResult result;
+        try {
+            result = getClient().deleteItem(req);
+        } finally {
+            ItemCache itemCache = getTable().getItemCache();
+            if (itemCache != null)
+                itemCache.invalidate(tableName, req.getKey());
+        }
         return new DeleteItemOutcome(result);
     }
 
@@ -15,6 +15,7 @@
 package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.GetItemOutcome;
@@ -26,6 +27,7 @@ import com.amazonaws.services.dynamodbv2.document.api.GetItemApi;
 import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
 import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
 import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * The implementation for <code>GetItemApi</code>.
@@ -66,10 +68,33 @@ public class GetItemImpl extends AbstractImpl implements GetItemApi {
         return doLoadItem(spec).getItem();
     }
 
+    /**
+     * Retrieves an item with the asynchronous client. The item is not read
+     * through the item cache of the table, if any.
+     */
+    public Future<GetItemOutcome> getItemOutcomeAsync(GetItemSpec spec) {
+        return new ConvertingFuture<GetItemResult, GetItemOutcome>(
+                InternalUtils.toAsyncClient(getClient()).getItemAsync(toRequest(spec))) {
+            @Override
+            protected GetItemOutcome convert(GetItemResult result) {
+                return new GetItemOutcome(result);
+            }
+        };
+    }
+
     private GetItemOutcome doLoadItem(GetItemSpec spec) {
+        GetItemRequest req = toRequest(spec);
+        ItemCache itemCache = getTable().getItemCache();
+        GetItemResult result = itemCache == null
+                ? getClient().getItem(req)
+                : itemCache.getItem(getClient(), req);
+        return new GetItemOutcome(result);
+    }
+
+    private GetItemRequest toRequest(GetItemSpec spec) {
         String tableName = getTable().getTableName();
         // Set up the key attributes
-        GetItemRequest req = spec.getRequest()
+        return spec.getRequest()
                 .withTableName(tableName)
                 .withKey(InternalUtils.toAttributeValueMap(spec.getKeyComponents()))
                 .withReturnConsumedCapacity(spec.getReturnConsumedCapacity())
@@ -77,9 +102,6 @@ public class GetItemImpl extends AbstractImpl implements GetItemApi {
                 .withConsistentRead(spec.isConsistentRead())
                 .withProjectionExpression(spec.getProjectionExpression())
                 .withExpressionAttributeNames(spec.getNameMap());
-
-        GetItemResult result = getClient().getItem(req);
-        return new GetItemOutcome(result);
     }
 
     @Override
@@ -27,8 +27,13 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
 import com.amazonaws.services.dynamodbv2.document.AttributeUpdate;
 import com.amazonaws.services.dynamodbv2.document.Expected;
 import com.amazonaws.services.dynamodbv2.document.IncompatibleTypeException;
@@ -56,8 +61,11 @@ public enum InternalUtils {
         if (items == null)
             return Collections.emptyList();
         List<Item> result = new ArrayList<Item>(items.size());
-        for (Map<String, AttributeValue> item : items)
-            result.add(Item.fromMap(toSimpleMapValue(item)));
+        for (Map<String, AttributeValue> item : items) {
+            result.add(Item.fromMap(item instanceof ItemAttributeValueMap
+                    ? ((ItemAttributeValueMap) item).toSimpleMap()
+                    : InternalUtils.<Object>toSimpleMapValue(item)));
+        }
         return result;
     }
 
@@ -75,6 +83,20 @@ public enum InternalUtils {
         return result;
     }
 
+    /**
+     * Converts an <code>Item</code> into a map of low-level
+     * <code>AttributeValue</code>'s that is only populated when accessed, so
+     * that the item can be written to JSON directly from its simple values;
+     * or null if the input is null.
+     *
+     * @see ItemAttributeValueMap
+     */
+    public static Map<String, AttributeValue> toLazyAttributeValues(Item item) {
+        if (item == null)
+            return null;
+        return new ItemAttributeValueMap(item.asMap());
+    }
+
     /**
      * Converts a map of string to simple objects into the low-level
      * representation; or null if the input is null.
@@ -619,4 +641,37 @@ public enum InternalUtils {
         checkInvalidAttrName(attrName);
         rejectNullValue(val);
     }
+
+    /**
+     * Returns the given client as an asynchronous client.
+     *
+     * @throws UnsupportedOperationException
+     *             if the client is not an {@link AmazonDynamoDBAsync}
+     */
+    public static AmazonDynamoDBAsync toAsyncClient(AmazonDynamoDB client) {
+        if (client instanceof AmazonDynamoDBAsync)
+            return (AmazonDynamoDBAsync) client;
+        throw new UnsupportedOperationException(
+            "Asynchronous operations require an AmazonDynamoDBAsync client");
+    }
+
+    /**
+     * Waits for and returns the result of the given future, rethrowing the
+     * exception the computation failed with.
+     */
+    public static <T> T waitFor(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Interrupted while waiting for the result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new AmazonClientException(cause.getMessage(), cause);
+        }
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.transform.AttributeValueJsonMarshaller;
+import com.amazonaws.util.json.JSONException;
+import com.amazonaws.util.json.JSONString;
+import com.amazonaws.util.json.JSONWriter;
+
+/**
+ * A map of attribute values backed by the simple values of an item. The
+ * attribute values are converted from the simple values the first time the
+ * map is accessed, after which it behaves as a regular map; until then, the
+ * item is written to and read from JSON without any
+ * <code>AttributeValue</code> being created.
+ * <p>
+ * Internal class. Not meant for general use. May change without notice.
+ */
+public class ItemAttributeValueMap
+        implements Map<String, AttributeValue>, JSONString, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Map<String, Object> values;
+    private Map<String, AttributeValue> attributeValues;
+
+    /**
+     * @param values
+     *            the simple values of the item, which must not be modified
+     *            afterwards
+     */
+    public ItemAttributeValueMap(Map<String, Object> values) {
+        if (values == null)
+            throw new IllegalArgumentException("values must be specified");
+        this.values = values;
+    }
+
+    /**
+     * Returns the simple values of the item.
+     */
+    public synchronized Map<String, Object> toSimpleMap() {
+        if (attributeValues == null)
+            return values;
+        return InternalUtils.toSimpleMapValue(attributeValues);
+    }
+
+    /**
+     * Returns the item in the JSON wire format of DynamoDB.
+     */
+    @Override
+    public synchronized String toJSONString() {
+        if (attributeValues == null)
+            return ItemJsonCodec.toJson(values);
+        StringWriter writer = new StringWriter();
+        try {
+            JSONWriter jsonWriter = new JSONWriter(writer);
+            jsonWriter.object();
+            for (Map.Entry<String, AttributeValue> e : attributeValues.entrySet()) {
+                if (e.getValue() != null) {
+                    jsonWriter.key(e.getKey());
+                    AttributeValueJsonMarshaller.getInstance().marshall(e.getValue(), jsonWriter);
+                }
+            }
+            jsonWriter.endObject();
+        } catch (JSONException e) {
+            throw new AmazonClientException("Unable to write item to JSON: " + e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    private synchronized Map<String, AttributeValue> attributeValues() {
+        if (attributeValues == null) {
+            Map<String, AttributeValue> converted =
+                new LinkedHashMap<String, AttributeValue>(values.size() * 4 / 3 + 1);
+            for (Map.Entry<String, Object> e : values.entrySet())
+                converted.put(e.getKey(), InternalUtils.toAttributeValue(e.getValue()));
+            attributeValues = converted;
+            values = null;
+        }
+        return attributeValues;
+    }
+
+    @Override
+    public int size() {
+        return attributeValues().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return attributeValues().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return attributeValues().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return attributeValues().containsValue(value);
+    }
+
+    @Override
+    public AttributeValue get(Object key) {
+        return attributeValues().get(key);
+    }
+
+    @Override
+    public AttributeValue put(String key, AttributeValue value) {
+        return attributeValues().put(key, value);
+    }
+
+    @Override
+    public AttributeValue remove(Object key) {
+        return attributeValues().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends AttributeValue> m) {
+        attributeValues().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        attributeValues().clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return attributeValues().keySet();
+    }
+
+    @Override
+    public Collection<AttributeValue> values() {
+        return attributeValues().values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, AttributeValue>> entrySet() {
+        return attributeValues().entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof Map))
+            return false;
+        return attributeValues().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return attributeValues().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return attributeValues().toString();
+    }
+
+    private Object writeReplace() {
+        return new LinkedHashMap<String, AttributeValue>(attributeValues());
+    }
+}
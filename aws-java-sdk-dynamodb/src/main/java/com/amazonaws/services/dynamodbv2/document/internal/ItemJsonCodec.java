@@ -0,0 +1,274 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.util.Base64;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Converts the simple values of items directly from and to the JSON wire
+ * format of DynamoDB, without going through the low-level
+ * <code>AttributeValue</code> representation. The values read and written
+ * are the same as those of {@link InternalUtils#toSimpleMapValue(Map)} and
+ * {@link InternalUtils#toAttributeValue(Object)}.
+ * <p>
+ * Internal utilities. Not meant for general use. May change without notice.
+ */
+public enum ItemJsonCodec {
+    ;
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    /**
+     * Returns the JSON wire format of the given item of simple values.
+     */
+    public static String toJson(Map<String, Object> item) {
+        StringWriter writer = new StringWriter();
+        try {
+            JsonGenerator generator = jsonFactory.createGenerator(writer);
+            writeItem(generator, item);
+            generator.close();
+        } catch (IOException e) {
+            throw new AmazonClientException("Unable to write item to JSON: " + e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes the given item of simple values as a JSON object of attribute
+     * values.
+     */
+    public static void writeItem(JsonGenerator generator, Map<String, Object> item)
+            throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, Object> e : item.entrySet()) {
+            generator.writeFieldName(e.getKey());
+            writeValue(generator, e.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the given simple value as a JSON attribute value.
+     *
+     * @throws UnsupportedOperationException
+     *             if the value type is not supported
+     */
+    public static void writeValue(JsonGenerator generator, Object value)
+            throws IOException {
+        generator.writeStartObject();
+        if (value == null) {
+            generator.writeBooleanField("NULL", true);
+        } else if (value instanceof Boolean) {
+            generator.writeBooleanField("BOOL", (Boolean) value);
+        } else if (value instanceof String) {
+            generator.writeStringField("S", (String) value);
+        } else if (value instanceof BigDecimal) {
+            generator.writeStringField("N", ((BigDecimal) value).toPlainString());
+        } else if (value instanceof Number) {
+            generator.writeStringField("N", value.toString());
+        } else if (value instanceof byte[]) {
+            generator.writeFieldName("B");
+            generator.writeBinary((byte[]) value);
+        } else if (value instanceof ByteBuffer) {
+            generator.writeFieldName("B");
+            writeBinary(generator, (ByteBuffer) value);
+        } else if (value instanceof Set) {
+            writeSet(generator, (Set<?>) value);
+        } else if (value instanceof List) {
+            generator.writeFieldName("L");
+            generator.writeStartArray();
+            for (Object element : (List<?>) value) {
+                writeValue(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+            generator.writeFieldName("M");
+            writeItem(generator, map);
+        } else {
+            throw new UnsupportedOperationException("value type: "
+                    + value.getClass());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeSet(JsonGenerator generator, Set<?> set)
+            throws IOException {
+        // default to an empty string set if there is no element
+        Object first = set.isEmpty() ? "" : set.iterator().next();
+        if (first instanceof String) {
+            generator.writeFieldName("SS");
+        } else if (first instanceof Number) {
+            generator.writeFieldName("NS");
+        } else if (first instanceof byte[] || first instanceof ByteBuffer) {
+            generator.writeFieldName("BS");
+        } else {
+            throw new UnsupportedOperationException("element type: "
+                    + first.getClass());
+        }
+        generator.writeStartArray();
+        for (Object element : set) {
+            if (element == null) {
+                continue;
+            } else if (element instanceof String) {
+                generator.writeString((String) element);
+            } else if (element instanceof Number) {
+                generator.writeString(InternalUtils.toBigDecimal((Number) element).toPlainString());
+            } else if (element instanceof byte[]) {
+                generator.writeBinary((byte[]) element);
+            } else {
+                writeBinary(generator, (ByteBuffer) element);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeBinary(JsonGenerator generator, ByteBuffer buffer)
+            throws IOException {
+        if (buffer.hasArray()) {
+            generator.writeBinary(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            generator.writeString(Base64.encodeRemainingAsString(buffer));
+        }
+    }
+
+    /**
+     * Reads a JSON array of items, positioned at its start, into a list of
+     * maps of attribute values that are converted from the simple values of
+     * the items only when accessed.
+     *
+     * @return the list of items, or null if the array is a JSON null
+     */
+    public static List<Map<String, AttributeValue>> readItems(JsonParser parser)
+            throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == VALUE_NULL)
+            return null;
+        expect(START_ARRAY, token);
+        List<Map<String, AttributeValue>> items = new ArrayList<Map<String, AttributeValue>>();
+        while ((token = parser.nextToken()) != END_ARRAY) {
+            expect(START_OBJECT, token);
+            items.add(new ItemAttributeValueMap(readItem(parser)));
+        }
+        return items;
+    }
+
+    /**
+     * Reads a JSON object of attribute values, positioned at its start, into
+     * a map of simple values.
+     */
+    public static Map<String, Object> readItem(JsonParser parser)
+            throws IOException {
+        Map<String, Object> item = new LinkedHashMap<String, Object>();
+        while (parser.nextToken() == FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            item.put(name, readValue(parser));
+        }
+        return item;
+    }
+
+    /**
+     * Reads a JSON attribute value, positioned at its start, into a simple
+     * value.
+     *
+     * @throws IllegalArgumentException
+     *             if the attribute value is empty
+     */
+    public static Object readValue(JsonParser parser) throws IOException {
+        expect(START_OBJECT, parser.getCurrentToken());
+        Object value = null;
+        boolean empty = true;
+        while (parser.nextToken() == FIELD_NAME) {
+            String type = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == VALUE_NULL)
+                continue;
+            if ("S".equals(type)) {
+                value = parser.getText();
+            } else if ("N".equals(type)) {
+                value = new BigDecimal(parser.getText());
+            } else if ("B".equals(type)) {
+                value = parser.getBinaryValue();
+            } else if ("SS".equals(type)) {
+                Set<String> set = new LinkedHashSet<String>();
+                while (parser.nextToken() != END_ARRAY)
+                    set.add(parser.getText());
+                value = set;
+            } else if ("NS".equals(type)) {
+                Set<BigDecimal> set = new LinkedHashSet<BigDecimal>();
+                while (parser.nextToken() != END_ARRAY)
+                    set.add(new BigDecimal(parser.getText()));
+                value = set;
+            } else if ("BS".equals(type)) {
+                Set<byte[]> set = new LinkedHashSet<byte[]>();
+                while (parser.nextToken() != END_ARRAY)
+                    set.add(parser.getBinaryValue());
+                value = set;
+            } else if ("M".equals(type)) {
+                value = readItem(parser);
+            } else if ("L".equals(type)) {
+                List<Object> list = new ArrayList<Object>();
+                while (parser.nextToken() != END_ARRAY)
+                    list.add(readValue(parser));
+                value = list;
+            } else if ("NULL".equals(type)) {
+                if (!parser.getBooleanValue())
+                    throw new UnsupportedOperationException("False-NULL is not supported in DynamoDB");
+                value = null;
+            } else if ("BOOL".equals(type)) {
+                value = parser.getBooleanValue();
+            } else {
+                // a type this version does not know of
+                parser.skipChildren();
+                continue;
+            }
+            empty = false;
+        }
+        if (empty)
+            throw new IllegalArgumentException("Attribute value must not be empty");
+        return value;
+    }
+
+    private static void expect(JsonToken expected, JsonToken actual) {
+        if (actual != expected)
+            throw new AmazonClientException("Expected " + expected
+                    + " in item JSON but got " + actual);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.transform.ItemReader;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * A query request of the document API, whose result items are read from the
+ * response directly into the simple values of document items rather than
+ * into {@link AttributeValue}s.
+ */
+public class ItemQueryRequest extends QueryRequest implements ItemReader {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public List<Map<String, AttributeValue>> readItems(JsonParser parser)
+            throws IOException {
+        return ItemJsonCodec.readItems(parser);
+    }
+}
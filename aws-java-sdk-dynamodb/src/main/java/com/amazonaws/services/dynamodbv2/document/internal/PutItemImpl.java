@@ -15,8 +15,11 @@
 package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.Map;
+import java.util.concurrent.Future;
 
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
 import com.amazonaws.services.dynamodbv2.document.Expected;
 import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.PutItemOutcome;
@@ -27,6 +30,7 @@ import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
 import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * The implementation for <code>PutItemApi</code>.
@@ -63,13 +67,65 @@ public class PutItemImpl extends AbstractImpl implements PutItemApi {
         return doPutItem(spec);
     }
 
+    /**
+     * Puts an item with the asynchronous client.
+     */
+    public Future<PutItemOutcome> putItemAsync(PutItemSpec spec) {
+        final AmazonDynamoDBAsync client = InternalUtils.toAsyncClient(getClient());
+        final PutItemRequest req = toRequest(spec);
+        final ItemCache itemCache = getTable().getItemCache();
+        Future<PutItemResult> future;
+        if (itemCache == null) {
+            future = client.putItemAsync(req);
+        } else {
+            future = client.putItemAsync(req,
+                    new AsyncHandler<PutItemRequest, PutItemResult>() {
+                @Override
+                public void onSuccess(PutItemRequest request, PutItemResult result) {
+                    itemCache.putItem(req.getTableName(), req.getItem());
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    // the item may or may not have been written
+                    itemCache.invalidate(req.getTableName(), req.getItem());
+                }
+            });
+        }
+        return new ConvertingFuture<PutItemResult, PutItemOutcome>(future) {
+            @Override
+            protected PutItemOutcome convert(PutItemResult result) {
+                return new PutItemOutcome(result);
+            }
+        };
+    }
+
     private PutItemOutcome doPutItem(PutItemSpec spec) {
+        PutItemRequest req = toRequest(spec);
+        String tableName = req.getTableName();
+        Map<String,AttributeValue> attributes = req.getItem();
+        ItemCache itemCache = getTable().getItemCache();
+        PutItemResult result;
+        try {
+            result = getClient().putItem(req);
+        } catch (RuntimeException e) {
+            // the item may or may not have been written
+            if (itemCache != null)
+                itemCache.invalidate(tableName, attributes);
+            throw e;
+        }
+        if (itemCache != null)
+            itemCache.putItem(tableName, attributes);
+        return new PutItemOutcome(result);
+    }
+
+    private PutItemRequest toRequest(PutItemSpec spec) {
         // set the table name
         String tableName = getTable().getTableName();
         PutItemRequest req = spec.getRequest().withTableName(tableName);
         // set up the item
         Item item = spec.getItem();
-        final Map<String,AttributeValue> attributes = InternalUtils.toAttributeValues(item);
+        final Map<String,AttributeValue> attributes = InternalUtils.toLazyAttributeValues(item);
         // set up the expected attribute map, if any
         final Map<String, ExpectedAttributeValue> expectedMap =
             InternalUtils.toExpectedAttributeValueMap(spec.getExpected());
@@ -77,14 +133,12 @@ public class PutItemImpl extends AbstractImpl implements PutItemApi {
         final Map<String,AttributeValue> attrValMap =
             InternalUtils.fromSimpleMap(spec.getValueMap());
         // set up the request
-        req.withItem(attributes)
+        return req.withItem(attributes)
             .withConditionalOperator(spec.getConditionalOperator())
             .withConditionExpression(spec.getConditionExpression())
             .withExpected(expectedMap)
             .withExpressionAttributeNames(spec.getNameMap())
             .withExpressionAttributeValues(attrValMap)
             ;
-        PutItemResult result = getClient().putItem(req);
-        return new PutItemOutcome(result);
     }
 }
@@ -16,6 +16,7 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
@@ -45,15 +46,41 @@ class QueryCollection extends ItemCollection<QueryOutcome>
 
     @Override
     public Page<Item, QueryOutcome> firstPage() {
+        QueryRequest request = firstRequest();
+        QueryResult result = client.query(request);
+        QueryOutcome outcome = new QueryOutcome(result);
+        setLastLowLevelResult(outcome);
+        return new QueryPage(client, spec, request, 0, outcome);
+    }
+
+    @Override
+    public AsyncPageIterator<QueryOutcome> pagesAsync() {
+        Integer max = spec.getMaxResultSize();
+        return new AsyncPageIterator<QueryOutcome>(this,
+                max != null && max.intValue() <= 0 ? null : firstPageAsync());
+    }
+
+    /**
+     * Requests the first page with the asynchronous client.
+     */
+    Future<Page<Item, QueryOutcome>> firstPageAsync() {
+        final QueryRequest request = firstRequest();
+        return new ConvertingFuture<QueryResult, Page<Item, QueryOutcome>>(
+                InternalUtils.toAsyncClient(client).queryAsync(request)) {
+            @Override
+            protected Page<Item, QueryOutcome> convert(QueryResult result) {
+                return new QueryPage(client, spec, request, 0, new QueryOutcome(result));
+            }
+        };
+    }
+
+    private QueryRequest firstRequest() {
         QueryRequest request = spec.getRequest();
         request.setExclusiveStartKey(startKey);
         request.setLimit(InternalUtils.minimum(
                 spec.getMaxResultSize(),
                 spec.getMaxPageSize()));
-        QueryResult result = client.query(request);
-        QueryOutcome outcome = new QueryOutcome(result);
-        setLastLowLevelResult(outcome);
-        return new QueryPage(client, spec, request, 0, outcome);
+        return request;
     }
 
     @Override
@@ -16,11 +16,14 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemCollection;
 import com.amazonaws.services.dynamodbv2.document.KeyAttribute;
 import com.amazonaws.services.dynamodbv2.document.KeyConditions;
+import com.amazonaws.services.dynamodbv2.document.Page;
 import com.amazonaws.services.dynamodbv2.document.QueryFilter;
 import com.amazonaws.services.dynamodbv2.document.QueryOutcome;
 import com.amazonaws.services.dynamodbv2.document.RangeKeyCondition;
@@ -95,6 +98,13 @@ public class QueryImpl extends AbstractImpl implements QueryApi {
         return doQuery(spec);
     }
 
+    /**
+     * Requests the first page of the query with the asynchronous client.
+     */
+    public Future<Page<Item, QueryOutcome>> queryAsync(QuerySpec spec) {
+        return ((QueryCollection) doQuery(spec)).firstPageAsync();
+    }
+
     protected ItemCollection<QueryOutcome> doQuery(QuerySpec spec) {
         // set the table name
         String tableName = getTable().getTableName();
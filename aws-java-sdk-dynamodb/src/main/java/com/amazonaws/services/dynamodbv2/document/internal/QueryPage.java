@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
@@ -29,7 +30,8 @@ import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
 
-class QueryPage extends Page<Item, QueryOutcome> {
+class QueryPage extends Page<Item, QueryOutcome>
+        implements AsyncPage<QueryOutcome> {
     private final AmazonDynamoDB client;
     private final QuerySpec spec;
     private final QueryRequest request;
@@ -80,6 +82,26 @@ class QueryPage extends Page<Item, QueryOutcome> {
 
     @Override
     public Page<Item,QueryOutcome> nextPage() {
+        QueryResult result = client.query(nextRequest());
+        final int nextIndex = index + this.size();
+        return new QueryPage(client, spec, request, nextIndex,
+                new QueryOutcome(result));
+    }
+
+    @Override
+    public Future<Page<Item,QueryOutcome>> nextPageAsync() {
+        final int nextIndex = index + this.size();
+        return new ConvertingFuture<QueryResult, Page<Item,QueryOutcome>>(
+                InternalUtils.toAsyncClient(client).queryAsync(nextRequest())) {
+            @Override
+            protected Page<Item,QueryOutcome> convert(QueryResult result) {
+                return new QueryPage(client, spec, request, nextIndex,
+                        new QueryOutcome(result));
+            }
+        };
+    }
+
+    private QueryRequest nextRequest() {
         if (lastEvaluatedKey == null) {
             throw new NoSuchElementException("No more pages");
         }
@@ -91,9 +113,6 @@ class QueryPage extends Page<Item, QueryOutcome> {
             request.setLimit(nextLimit);
         }
         request.setExclusiveStartKey(lastEvaluatedKey);
-        QueryResult result = client.query(request);
-        final int nextIndex = index + this.size();
-        return new QueryPage(client, spec, request, nextIndex,
-                new QueryOutcome(result));
+        return request;
     }
 }
@@ -16,6 +16,7 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
@@ -43,17 +44,41 @@ class ScanCollection extends ItemCollection<ScanOutcome> {
 
     @Override
     public Page<Item, ScanOutcome> firstPage() {
+        ScanRequest request = firstRequest();
+        ScanResult result = client.scan(request);
+        ScanOutcome outcome = new ScanOutcome(result);
+        setLastLowLevelResult(outcome);
+        return new ScanPage(client, spec, request, 0, outcome);
+    }
+
+    @Override
+    public AsyncPageIterator<ScanOutcome> pagesAsync() {
+        Integer max = spec.getMaxResultSize();
+        return new AsyncPageIterator<ScanOutcome>(this,
+                max != null && max.intValue() <= 0 ? null : firstPageAsync());
+    }
+
+    /**
+     * Requests the first page with the asynchronous client.
+     */
+    Future<Page<Item, ScanOutcome>> firstPageAsync() {
+        final ScanRequest request = firstRequest();
+        return new ConvertingFuture<ScanResult, Page<Item, ScanOutcome>>(
+                InternalUtils.toAsyncClient(client).scanAsync(request)) {
+            @Override
+            protected Page<Item, ScanOutcome> convert(ScanResult result) {
+                return new ScanPage(client, spec, request, 0, new ScanOutcome(result));
+            }
+        };
+    }
+
+    private ScanRequest firstRequest() {
         ScanRequest request = spec.getRequest();
         request.setExclusiveStartKey(startKey);
-
         request.setLimit(InternalUtils.minimum(
                 spec.getMaxResultSize(),
                 spec.getMaxPageSize()));
-
-        ScanResult result = client.scan(request);
-        ScanOutcome outcome = new ScanOutcome(result);
-        setLastLowLevelResult(outcome);
-        return new ScanPage(client, spec, request, 0, outcome);
+        return request;
     }
 
     @Override
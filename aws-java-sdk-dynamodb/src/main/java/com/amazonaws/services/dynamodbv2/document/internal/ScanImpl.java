@@ -16,10 +16,13 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.Item;
 import com.amazonaws.services.dynamodbv2.document.ItemCollection;
 import com.amazonaws.services.dynamodbv2.document.KeyAttribute;
+import com.amazonaws.services.dynamodbv2.document.Page;
 import com.amazonaws.services.dynamodbv2.document.ScanFilter;
 import com.amazonaws.services.dynamodbv2.document.ScanOutcome;
 import com.amazonaws.services.dynamodbv2.document.Table;
@@ -69,6 +72,13 @@ public class ScanImpl extends AbstractImpl implements ScanApi {
         return doScan(spec);
     }
 
+    /**
+     * Requests the first page of the scan with the asynchronous client.
+     */
+    public Future<Page<Item, ScanOutcome>> scanAsync(ScanSpec spec) {
+        return ((ScanCollection) doScan(spec)).firstPageAsync();
+    }
+
     protected ItemCollection<ScanOutcome> doScan(ScanSpec spec) {
         // set the table name
         String tableName = getTable().getTableName();
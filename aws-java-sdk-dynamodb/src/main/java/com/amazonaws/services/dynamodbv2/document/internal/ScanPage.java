@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.Item;
@@ -29,7 +30,8 @@ import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
 
-class ScanPage extends Page<Item, ScanOutcome> {
+class ScanPage extends Page<Item, ScanOutcome>
+        implements AsyncPage<ScanOutcome> {
 
     private final AmazonDynamoDB client;
     private final ScanSpec spec;
@@ -81,6 +83,27 @@ class ScanPage extends Page<Item, ScanOutcome> {
 
     @Override
     public Page<Item, ScanOutcome> nextPage() {
+        // fire off request to the server side
+        ScanResult result = client.scan(nextRequest());
+        final int nextIndex = index + this.size();
+        return new ScanPage(client, spec, request, nextIndex, 
+                new ScanOutcome(result));
+    }
+
+    @Override
+    public Future<Page<Item, ScanOutcome>> nextPageAsync() {
+        final int nextIndex = index + this.size();
+        return new ConvertingFuture<ScanResult, Page<Item, ScanOutcome>>(
+                InternalUtils.toAsyncClient(client).scanAsync(nextRequest())) {
+            @Override
+            protected Page<Item, ScanOutcome> convert(ScanResult result) {
+                return new ScanPage(client, spec, request, nextIndex,
+                        new ScanOutcome(result));
+            }
+        };
+    }
+
+    private ScanRequest nextRequest() {
         if (lastEvaluatedKey == null) {
             throw new NoSuchElementException("No more pages");
         }
@@ -92,10 +115,6 @@ class ScanPage extends Page<Item, ScanOutcome> {
             request.setLimit(nextLimit);
         }
         request.setExclusiveStartKey(lastEvaluatedKey);
-        // fire off request to the server side
-        ScanResult result = client.scan(request);
-        final int nextIndex = index + this.size();
-        return new ScanPage(client, spec, request, nextIndex, 
-                new ScanOutcome(result));
+        return request;
     }
 }
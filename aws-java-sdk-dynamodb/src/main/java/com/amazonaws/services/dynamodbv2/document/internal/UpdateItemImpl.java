@@ -16,7 +16,9 @@ package com.amazonaws.services.dynamodbv2.document.internal;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Future;
 
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.document.AttributeUpdate;
 import com.amazonaws.services.dynamodbv2.document.Expected;
@@ -27,6 +29,8 @@ import com.amazonaws.services.dynamodbv2.document.api.UpdateItemApi;
 import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
 import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
 
 /**
  * The implementation for <code>UpdateItemApi</code>.
@@ -86,7 +90,49 @@ public class UpdateItemImpl implements UpdateItemApi {
         return doUpdateItem(spec);
     }
 
+    /**
+     * Updates an item with the asynchronous client.
+     */
+    public Future<UpdateItemOutcome> updateItemAsync(UpdateItemSpec spec) {
+        final UpdateItemRequest request = toRequest(spec);
+        final ItemCache itemCache = table.getItemCache();
+        Future<UpdateItemResult> future;
+        if (itemCache == null) {
+            future = InternalUtils.toAsyncClient(client).updateItemAsync(request);
+        } else {
+            future = InternalUtils.toAsyncClient(client).updateItemAsync(request,
+                    new AsyncHandler<UpdateItemRequest, UpdateItemResult>() {
+                @Override
+                public void onSuccess(UpdateItemRequest req, UpdateItemResult result) {
+                    itemCache.invalidate(request.getTableName(), request.getKey());
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    itemCache.invalidate(request.getTableName(), request.getKey());
+                }
+            });
+        }
+        return new ConvertingFuture<UpdateItemResult, UpdateItemOutcome>(future) {
+            @Override
+            protected UpdateItemOutcome convert(UpdateItemResult result) {
+                return new UpdateItemOutcome(result);
+            }
+        };
+    }
+
     private UpdateItemOutcome doUpdateItem(UpdateItemSpec spec) {
+        final UpdateItemRequest request = toRequest(spec);
+        try {
+            return new UpdateItemOutcome(client.updateItem(request));
+        } finally {
+            ItemCache itemCache = table.getItemCache();
+            if (itemCache != null)
+                itemCache.invalidate(table.getTableName(), request.getKey());
+        }
+    }
+
+    private UpdateItemRequest toRequest(UpdateItemSpec spec) {
         final UpdateItemRequest request = spec.getRequest();
         request.setKey(InternalUtils.toAttributeValueMap(spec.getKeyComponents()));
         request.setTableName(table.getTableName());
@@ -101,7 +147,7 @@ public class UpdateItemImpl implements UpdateItemApi {
         request.setExpressionAttributeNames(spec.getNameMap());
         request.setExpressionAttributeValues(
             InternalUtils.fromSimpleMap(spec.getValueMap()));
-        return new UpdateItemOutcome(client.updateItem(request));
+        return request;
     }
 
     @Override
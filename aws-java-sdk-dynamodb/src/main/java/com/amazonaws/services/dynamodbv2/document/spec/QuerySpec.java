@@ -29,6 +29,7 @@ import com.amazonaws.services.dynamodbv2.document.KeyAttribute;
 import com.amazonaws.services.dynamodbv2.document.PrimaryKey;
 import com.amazonaws.services.dynamodbv2.document.QueryFilter;
 import com.amazonaws.services.dynamodbv2.document.RangeKeyCondition;
+import com.amazonaws.services.dynamodbv2.document.internal.ItemQueryRequest;
 import com.amazonaws.services.dynamodbv2.model.ConditionalOperator;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
@@ -49,7 +50,7 @@ public class QuerySpec extends AbstractCollectionSpec<QueryRequest> {
     private Collection<KeyAttribute> exclusiveStartKey;
 
     public QuerySpec() {
-        super(new QueryRequest());
+        super(new ItemQueryRequest());
     }
 
     public KeyAttribute getHashKey() {
@@ -28,6 +28,7 @@ import com.amazonaws.metrics.RequestMetricCollector;
 import com.amazonaws.services.dynamodbv2.document.KeyAttribute;
 import com.amazonaws.services.dynamodbv2.document.PrimaryKey;
 import com.amazonaws.services.dynamodbv2.document.ScanFilter;
+import com.amazonaws.services.dynamodbv2.document.internal.ItemScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ConditionalOperator;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
@@ -46,7 +47,7 @@ public class ScanSpec extends AbstractCollectionSpec<ScanRequest> {
     private Collection<KeyAttribute> exclusiveStartKey;
 
     public ScanSpec() {
-        super(new ScanRequest());
+        super(new ItemScanRequest());
     }
 
     public Collection<ScanFilter> getScanFilters() {
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.amazonaws.annotation.NotThreadSafe;
+import com.amazonaws.services.dynamodbv2.document.IncompatibleTypeException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * A read-only view of an item in the compact binary format of a
+ * {@link CompactItemBuffer}, or of a file written from such buffers. Views
+ * are flyweights: iterators return the same view for every item, so a view
+ * only shows an item until the iteration moves on. Use
+ * {@link #toAttributeValues()} to keep an item.
+ * <p>
+ * An item is laid out as its size in bytes and its number of attributes,
+ * followed by each attribute name and value. Names are UTF-8 bytes preceded
+ * by their length. Values are a type byte followed by, for strings, numbers
+ * and binaries, their length and bytes; for booleans, a single byte; for
+ * nulls, nothing; and for sets, lists and maps, their size in bytes, their
+ * number of elements and the elements, so that they can be skipped over.
+ */
+@NotThreadSafe
+public final class CompactItem {
+
+    static final byte S = 1;
+    static final byte N = 2;
+    static final byte B = 3;
+    static final byte BOOL = 4;
+    static final byte NULL = 5;
+    static final byte SS = 6;
+    static final byte NS = 7;
+    static final byte BS = 8;
+    static final byte L = 9;
+    static final byte M = 10;
+
+    /** The size in bytes and number of attributes preceding the attributes */
+    static final int HEADER_BYTES = 8;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    CompactItem() {
+    }
+
+    CompactItem at(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Returns an iterator over the given number of items laid out from the
+     * given offset, all viewed through the same {@link CompactItem}.
+     */
+    static Iterator<CompactItem> iterator(final ByteBuffer buffer, final int offset, final int count) {
+        return new Iterator<CompactItem>() {
+            private final CompactItem item = new CompactItem();
+            private int position = offset;
+            private int left = count;
+
+            @Override
+            public boolean hasNext() {
+                return left > 0;
+            }
+
+            @Override
+            public CompactItem next() {
+                if (left == 0) {
+                    throw new NoSuchElementException();
+                }
+                item.at(buffer, position);
+                position += item.getSizeInBytes();
+                left--;
+                return item;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /** Returns the size of the item in the compact format, in bytes. */
+    public int getSizeInBytes() {
+        return buffer.getInt(offset);
+    }
+
+    /** Returns the number of attributes of the item. */
+    public int getAttributeCount() {
+        return buffer.getInt(offset + 4);
+    }
+
+    /** Returns the names of the attributes of the item, in their order. */
+    public List<String> getAttributeNames() {
+        int count = getAttributeCount();
+        List<String> names = new ArrayList<String>(count);
+        int position = offset + HEADER_BYTES;
+        for (int i = 0; i < count; i++) {
+            names.add(readName(position));
+            position = skipValue(skipName(position));
+        }
+        return names;
+    }
+
+    /** Returns true if the item has the given attribute. */
+    public boolean hasAttribute(String attrName) {
+        return find(attrName) >= 0;
+    }
+
+    /**
+     * Returns the value of the given string or number attribute, or null if
+     * the item does not have the attribute.
+     *
+     * @throws IncompatibleTypeException
+     *             if the attribute is neither a string nor a number
+     */
+    public String getString(String attrName) {
+        int position = find(attrName);
+        if (position < 0) {
+            return null;
+        }
+        byte type = buffer.get(position);
+        if (type != S && type != N) {
+            throw new IncompatibleTypeException(attrName + " is not a string");
+        }
+        return readString(position + 1);
+    }
+
+    /**
+     * Returns the value of the given number attribute, or null if the item
+     * does not have the attribute.
+     *
+     * @throws IncompatibleTypeException
+     *             if the attribute is not a number
+     */
+    public BigDecimal getNumber(String attrName) {
+        int position = find(attrName);
+        if (position < 0) {
+            return null;
+        }
+        if (buffer.get(position) != N) {
+            throw new IncompatibleTypeException(attrName + " is not a number");
+        }
+        return new BigDecimal(readString(position + 1));
+    }
+
+    /**
+     * Returns the value of the given binary attribute, or null if the item
+     * does not have the attribute.
+     *
+     * @throws IncompatibleTypeException
+     *             if the attribute is not a binary
+     */
+    public byte[] getBinary(String attrName) {
+        int position = find(attrName);
+        if (position < 0) {
+            return null;
+        }
+        if (buffer.get(position) != B) {
+            throw new IncompatibleTypeException(attrName + " is not a binary");
+        }
+        return readBytes(position + 1);
+    }
+
+    /**
+     * Returns the value of the given boolean attribute, or null if the item
+     * does not have the attribute.
+     *
+     * @throws IncompatibleTypeException
+     *             if the attribute is not a boolean
+     */
+    public Boolean getBoolean(String attrName) {
+        int position = find(attrName);
+        if (position < 0) {
+            return null;
+        }
+        if (buffer.get(position) != BOOL) {
+            throw new IncompatibleTypeException(attrName + " is not a boolean");
+        }
+        return buffer.get(position + 1) != 0;
+    }
+
+    /** Returns true if the item has the given attribute with a null value. */
+    public boolean isNull(String attrName) {
+        int position = find(attrName);
+        return position >= 0 && buffer.get(position) == NULL;
+    }
+
+    /**
+     * Returns the value of the given attribute, or null if the item does not
+     * have the attribute.
+     */
+    public AttributeValue getAttributeValue(String attrName) {
+        int position = find(attrName);
+        return position < 0 ? null : readValue(position);
+    }
+
+    /** Returns a copy of the item as attribute values. */
+    public Map<String, AttributeValue> toAttributeValues() {
+        return readAttributes(offset + HEADER_BYTES, getAttributeCount());
+    }
+
+    @Override
+    public String toString() {
+        return toAttributeValues().toString();
+    }
+
+    /** Returns the position of the value of the given attribute, or -1. */
+    private int find(String attrName) {
+        byte[] name = attrName.getBytes(StringUtils.UTF8);
+        int count = getAttributeCount();
+        int position = offset + HEADER_BYTES;
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getShort(position) & 0xFFFF;
+            int value = position + 2 + length;
+            if (length == name.length && nameEquals(position + 2, name)) {
+                return value;
+            }
+            position = skipValue(value);
+        }
+        return -1;
+    }
+
+    private boolean nameEquals(int position, byte[] name) {
+        for (int i = 0; i < name.length; i++) {
+            if (buffer.get(position + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipName(int position) {
+        return position + 2 + (buffer.getShort(position) & 0xFFFF);
+    }
+
+    /** Returns the position following the value at the given position. */
+    private int skipValue(int position) {
+        switch (buffer.get(position)) {
+        case BOOL:
+            return position + 2;
+        case NULL:
+            return position + 1;
+        default:
+            // preceded by the length of a string, number or binary, or the
+            // size of a set, list or map
+            return position + 5 + buffer.getInt(position + 1);
+        }
+    }
+
+    private String readName(int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        return new String(copy(position + 2, length), StringUtils.UTF8);
+    }
+
+    private String readString(int position) {
+        return new String(readBytes(position), StringUtils.UTF8);
+    }
+
+    private byte[] readBytes(int position) {
+        return copy(position + 4, buffer.getInt(position));
+    }
+
+    private byte[] copy(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position);
+        source.get(bytes);
+        return bytes;
+    }
+
+    private Map<String, AttributeValue> readAttributes(int position, int count) {
+        Map<String, AttributeValue> attributes = new LinkedHashMap<String, AttributeValue>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            String name = readName(position);
+            position = skipName(position);
+            attributes.put(name, readValue(position));
+            position = skipValue(position);
+        }
+        return attributes;
+    }
+
+    private AttributeValue readValue(int position) {
+        byte type = buffer.get(position);
+        switch (type) {
+        case S:
+            return new AttributeValue().withS(readString(position + 1));
+        case N:
+            return new AttributeValue().withN(readString(position + 1));
+        case B:
+            return new AttributeValue().withB(ByteBuffer.wrap(readBytes(position + 1)));
+        case BOOL:
+            return new AttributeValue().withBOOL(buffer.get(position + 1) != 0);
+        case NULL:
+            return new AttributeValue().withNULL(true);
+        case SS:
+        case NS:
+        case BS: {
+            int count = buffer.getInt(position + 5);
+            int element = position + 9;
+            List<String> strings = type == BS ? null : new ArrayList<String>(count);
+            List<ByteBuffer> binaries = type == BS ? new ArrayList<ByteBuffer>(count) : null;
+            for (int i = 0; i < count; i++) {
+                if (type == BS) {
+                    binaries.add(ByteBuffer.wrap(readBytes(element)));
+                } else {
+                    strings.add(readString(element));
+                }
+                element += 4 + buffer.getInt(element);
+            }
+            return type == SS ? new AttributeValue().withSS(strings)
+                    : type == NS ? new AttributeValue().withNS(strings)
+                    : new AttributeValue().withBS(binaries);
+        }
+        case L: {
+            int count = buffer.getInt(position + 5);
+            int element = position + 9;
+            List<AttributeValue> list = new ArrayList<AttributeValue>(count);
+            for (int i = 0; i < count; i++) {
+                list.add(readValue(element));
+                element = skipValue(element);
+            }
+            return new AttributeValue().withL(list);
+        }
+        case M:
+            return new AttributeValue().withM(readAttributes(position + 9, buffer.getInt(position + 5)));
+        default:
+            throw new IllegalStateException("Unknown attribute type " + type + " in compact item");
+        }
+    }
+}
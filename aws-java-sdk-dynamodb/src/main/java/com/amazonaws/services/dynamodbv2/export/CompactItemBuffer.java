@@ -0,0 +1,300 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.B;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.BOOL;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.BS;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.L;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.M;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.N;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.NS;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.NULL;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.S;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.SS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.annotation.NotThreadSafe;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * A growable buffer of items in a compact binary format, held off the Java
+ * heap in a direct byte buffer. An item costs a few bytes more than its
+ * attribute names and values, instead of the several objects per attribute
+ * of a map of {@link AttributeValue}s, so large numbers of items can be held
+ * and written out without garbage collection pressure.
+ * <p>
+ * The items are written to a channel as a block: the size of the items in
+ * bytes and their number, followed by the items. A file of such blocks is
+ * read back with a {@link CompactItemReader}.
+ *
+ * @see CompactItem
+ */
+@NotThreadSafe
+public class CompactItemBuffer implements Iterable<CompactItem> {
+
+    /** The default initial capacity, enough for the largest scan page */
+    public static final int DEFAULT_CAPACITY = 2 * 1024 * 1024;
+
+    /** The size in bytes and number of items preceding the items of a block */
+    static final int BLOCK_HEADER_BYTES = 8;
+
+    /** The max number of attribute names whose encoding is kept */
+    private static final int MAX_ENCODED_NAMES = 1024;
+
+    private ByteBuffer buffer;
+    private int itemCount;
+
+    /** The UTF-8 encodings of the attribute names written so far */
+    private final Map<String, byte[]> encodedNames = new HashMap<String, byte[]>();
+
+    public CompactItemBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity
+     *            the initial capacity in bytes; the buffer grows as needed
+     */
+    public CompactItemBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("The capacity cannot be negative");
+        }
+        buffer = ByteBuffer.allocateDirect(Math.max(initialCapacity, BLOCK_HEADER_BYTES));
+        clear();
+    }
+
+    /** Returns the number of items in the buffer. */
+    public int size() {
+        return itemCount;
+    }
+
+    /** Returns the size of the items in the buffer, in bytes. */
+    public int getSizeInBytes() {
+        return buffer.position() - BLOCK_HEADER_BYTES;
+    }
+
+    /** Removes all the items from the buffer, keeping its capacity. */
+    public void clear() {
+        buffer.clear();
+        buffer.position(BLOCK_HEADER_BYTES);
+        itemCount = 0;
+    }
+
+    /**
+     * Returns an iterator over the items of the buffer, viewed through a
+     * single {@link CompactItem}. The buffer must not be changed during the
+     * iteration.
+     */
+    @Override
+    public Iterator<CompactItem> iterator() {
+        return CompactItem.iterator(buffer, BLOCK_HEADER_BYTES, itemCount);
+    }
+
+    /** Adds the given item to the buffer. */
+    public void add(Map<String, AttributeValue> item) {
+        int start = reserve(CompactItem.HEADER_BYTES);
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            putName(attribute.getKey());
+            putValue(attribute.getValue());
+        }
+        endItem(start, item.size());
+    }
+
+    /**
+     * Writes the items of the buffer to the given channel, as a block.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer block = buffer.duplicate();
+        block.putInt(0, getSizeInBytes());
+        block.putInt(4, itemCount);
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+    }
+
+    // Writing of items in the compact format, for the JSON reader
+
+    int position() {
+        return buffer.position();
+    }
+
+    /** Reserves the given number of bytes, returning their position. */
+    int reserve(int bytes) {
+        ensureCapacity(bytes);
+        int position = buffer.position();
+        buffer.position(position + bytes);
+        return position;
+    }
+
+    /** Completes the item started at the given position. */
+    void endItem(int start, int attributeCount) {
+        buffer.putInt(start, buffer.position() - start);
+        buffer.putInt(start + 4, attributeCount);
+        itemCount++;
+    }
+
+    /** Starts a set, list or map, returning its position. */
+    int startContainer(byte type) {
+        int start = reserve(9);
+        buffer.put(start, type);
+        return start;
+    }
+
+    /**
+     * Completes the set, list or map started at the given position, whose
+     * type byte and size are followed by its number of elements.
+     */
+    void endContainer(int start, int count) {
+        buffer.putInt(start + 1, buffer.position() - start - 5);
+        buffer.putInt(start + 5, count);
+    }
+
+    void putByte(byte b) {
+        ensureCapacity(1);
+        buffer.put(b);
+    }
+
+    void putBytes(byte[] bytes) {
+        ensureCapacity(4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    void putBytes(ByteBuffer bytes) {
+        ByteBuffer source = bytes.duplicate();
+        ensureCapacity(4 + source.remaining());
+        buffer.putInt(source.remaining());
+        buffer.put(source);
+    }
+
+    void putName(String name) {
+        byte[] encoded = encodedNames.get(name);
+        if (encoded == null) {
+            encoded = name.getBytes(StringUtils.UTF8);
+            if (encodedNames.size() < MAX_ENCODED_NAMES) {
+                encodedNames.put(name, encoded);
+            }
+        }
+        ensureCapacity(2 + encoded.length);
+        buffer.putShort((short) encoded.length);
+        buffer.put(encoded);
+    }
+
+    void putString(String s) {
+        putBytes(s.getBytes(StringUtils.UTF8));
+    }
+
+    /** Writes the given characters as a length and their UTF-8 encoding. */
+    void putString(char[] chars, int offset, int length) {
+        ensureCapacity(4 + length * 3);
+        int start = buffer.position();
+        buffer.position(start + 4);
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // unpaired, as encoded by String.getBytes
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+
+    private void putValue(AttributeValue value) {
+        if (value.getS() != null) {
+            putByte(S);
+            putString(value.getS());
+        } else if (value.getN() != null) {
+            putByte(N);
+            putString(value.getN());
+        } else if (value.getB() != null) {
+            putByte(B);
+            putBytes(value.getB());
+        } else if (value.getBOOL() != null) {
+            putByte(BOOL);
+            putByte(value.getBOOL() ? (byte) 1 : (byte) 0);
+        } else if (value.getNULL() != null && value.getNULL()) {
+            putByte(NULL);
+        } else if (value.getSS() != null) {
+            putStrings(SS, value.getSS());
+        } else if (value.getNS() != null) {
+            putStrings(NS, value.getNS());
+        } else if (value.getBS() != null) {
+            int start = startContainer(BS);
+            for (ByteBuffer b : value.getBS()) {
+                putBytes(b);
+            }
+            endContainer(start, value.getBS().size());
+        } else if (value.getL() != null) {
+            int start = startContainer(L);
+            for (AttributeValue element : value.getL()) {
+                putValue(element);
+            }
+            endContainer(start, value.getL().size());
+        } else if (value.getM() != null) {
+            int start = startContainer(M);
+            for (Map.Entry<String, AttributeValue> e : value.getM().entrySet()) {
+                putName(e.getKey());
+                putValue(e.getValue());
+            }
+            endContainer(start, value.getM().size());
+        } else {
+            throw new IllegalArgumentException("Attribute value must not be empty");
+        }
+    }
+
+    private void putStrings(byte type, List<String> strings) {
+        int start = startContainer(type);
+        for (String s : strings) {
+            putString(s);
+        }
+        endContainer(start, strings.size());
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.B;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.BOOL;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.BS;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.L;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.M;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.N;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.NS;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.NULL;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.S;
+import static com.amazonaws.services.dynamodbv2.export.CompactItem.SS;
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+
+import java.io.IOException;
+
+import com.amazonaws.AmazonClientException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads items in the JSON wire format of DynamoDB straight into a
+ * {@link CompactItemBuffer}, without building any object per attribute.
+ */
+enum CompactItemJsonReader {
+    ;
+
+    /**
+     * Reads a JSON array of items, positioned at its start, into the given
+     * buffer.
+     */
+    static void readItems(JsonParser parser, CompactItemBuffer buffer) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == VALUE_NULL)
+            return;
+        expect(START_ARRAY, token);
+        while ((token = parser.nextToken()) != END_ARRAY) {
+            expect(START_OBJECT, token);
+            int start = buffer.reserve(CompactItem.HEADER_BYTES);
+            buffer.endItem(start, readAttributes(parser, buffer));
+        }
+    }
+
+    /**
+     * Reads the attributes of a JSON object, positioned at its start,
+     * returning their number.
+     */
+    private static int readAttributes(JsonParser parser, CompactItemBuffer buffer) throws IOException {
+        int count = 0;
+        while (parser.nextToken() == FIELD_NAME) {
+            buffer.putName(parser.getCurrentName());
+            parser.nextToken();
+            readValue(parser, buffer);
+            count++;
+        }
+        return count;
+    }
+
+    private static void readValue(JsonParser parser, CompactItemBuffer buffer) throws IOException {
+        expect(START_OBJECT, parser.getCurrentToken());
+        boolean empty = true;
+        while (parser.nextToken() == FIELD_NAME) {
+            String type = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == VALUE_NULL || !empty) {
+                parser.skipChildren();
+                continue;
+            }
+            if ("S".equals(type)) {
+                buffer.putByte(S);
+                putText(parser, buffer);
+            } else if ("N".equals(type)) {
+                buffer.putByte(N);
+                putText(parser, buffer);
+            } else if ("B".equals(type)) {
+                buffer.putByte(B);
+                buffer.putBytes(parser.getBinaryValue());
+            } else if ("SS".equals(type) || "NS".equals(type)) {
+                int start = buffer.startContainer("SS".equals(type) ? SS : NS);
+                int count = 0;
+                for (; parser.nextToken() != END_ARRAY; count++)
+                    putText(parser, buffer);
+                buffer.endContainer(start, count);
+            } else if ("BS".equals(type)) {
+                int start = buffer.startContainer(BS);
+                int count = 0;
+                for (; parser.nextToken() != END_ARRAY; count++)
+                    buffer.putBytes(parser.getBinaryValue());
+                buffer.endContainer(start, count);
+            } else if ("M".equals(type)) {
+                int start = buffer.startContainer(M);
+                buffer.endContainer(start, readAttributes(parser, buffer));
+            } else if ("L".equals(type)) {
+                int start = buffer.startContainer(L);
+                int count = 0;
+                for (; parser.nextToken() != END_ARRAY; count++)
+                    readValue(parser, buffer);
+                buffer.endContainer(start, count);
+            } else if ("NULL".equals(type)) {
+                if (!parser.getBooleanValue())
+                    throw new UnsupportedOperationException("False-NULL is not supported in DynamoDB");
+                buffer.putByte(NULL);
+            } else if ("BOOL".equals(type)) {
+                buffer.putByte(BOOL);
+                buffer.putByte(parser.getBooleanValue() ? (byte) 1 : (byte) 0);
+            } else {
+                // a type this version does not know of
+                parser.skipChildren();
+                continue;
+            }
+            empty = false;
+        }
+        if (empty)
+            throw new IllegalArgumentException("Attribute value must not be empty");
+    }
+
+    private static void putText(JsonParser parser, CompactItemBuffer buffer) throws IOException {
+        buffer.putString(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static void expect(JsonToken expected, JsonToken actual) {
+        if (actual != expected)
+            throw new AmazonClientException("Expected " + expected
+                    + " in item JSON but got " + actual);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.NotThreadSafe;
+
+/**
+ * Iterates over the items of a file written from {@link CompactItemBuffer}s,
+ * such as an export of a {@link ScanExporter}. The file is memory-mapped a
+ * window at a time, so the items are read without copying them onto the
+ * Java heap, and files of any size can be read.
+ * <p>
+ * Like the iterators of buffers, the reader returns the same
+ * {@link CompactItem} for every item.
+ */
+@NotThreadSafe
+public class CompactItemReader implements Iterator<CompactItem>, Closeable {
+
+    /** The size of the regions of the file mapped at a time */
+    private static final int WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long size;
+    private final CompactItem item = new CompactItem();
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    /** The position in the file of the next block */
+    private long blockPosition;
+    /** The position in the window of the next item of the current block */
+    private int itemPosition;
+    private int itemsLeft;
+
+    public CompactItemReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.size = channel.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (itemsLeft == 0 && blockPosition < size) {
+                readBlockHeader();
+            }
+        } catch (IOException e) {
+            throw new AmazonClientException("Unable to read compact items: " + e.getMessage(), e);
+        }
+        return itemsLeft > 0;
+    }
+
+    @Override
+    public CompactItem next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        item.at(window, itemPosition);
+        itemPosition += item.getSizeInBytes();
+        itemsLeft--;
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /** Maps the next block, and moves to its first item. */
+    private void readBlockHeader() throws IOException {
+        map(blockPosition, CompactItemBuffer.BLOCK_HEADER_BYTES);
+        int start = (int) (blockPosition - windowStart);
+        int length = window.getInt(start);
+        int count = window.getInt(start + 4);
+        map(blockPosition, CompactItemBuffer.BLOCK_HEADER_BYTES + length);
+        itemPosition = (int) (blockPosition - windowStart) + CompactItemBuffer.BLOCK_HEADER_BYTES;
+        itemsLeft = count;
+        blockPosition += CompactItemBuffer.BLOCK_HEADER_BYTES + length;
+    }
+
+    /** Ensures the given region of the file is in the window. */
+    private void map(long position, int length) throws IOException {
+        if (window != null && position >= windowStart
+                && position + length <= windowStart + window.limit()) {
+            return;
+        }
+        long mapped = Math.min(size - position, Math.max(WINDOW_BYTES, length));
+        if (mapped < length) {
+            throw new IOException("Truncated compact item file");
+        }
+        window = channel.map(MapMode.READ_ONLY, position, mapped);
+        windowStart = position;
+    }
+}
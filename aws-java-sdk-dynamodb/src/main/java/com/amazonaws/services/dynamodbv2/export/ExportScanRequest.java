@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.RequestClientOptions;
+import com.amazonaws.RequestClientOptions.Marker;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.transform.ItemReader;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * A scan request whose result items are read into a
+ * {@link CompactItemBuffer} instead of the result, which then has no items.
+ */
+class ExportScanRequest extends ScanRequest implements ItemReader {
+    private static final long serialVersionUID = 1L;
+
+    private final transient CompactItemBuffer buffer;
+
+    /**
+     * Constructs a copy of the given request, including its request options,
+     * reading its result items into the given buffer.
+     */
+    ExportScanRequest(ScanRequest request, CompactItemBuffer buffer) {
+        this.buffer = buffer;
+        setTableName(request.getTableName());
+        setIndexName(request.getIndexName());
+        setAttributesToGet(request.getAttributesToGet());
+        setLimit(request.getLimit());
+        setSelect(request.getSelect());
+        setScanFilter(request.getScanFilter());
+        setConditionalOperator(request.getConditionalOperator());
+        setExclusiveStartKey(request.getExclusiveStartKey());
+        setReturnConsumedCapacity(request.getReturnConsumedCapacity());
+        setTotalSegments(request.getTotalSegments());
+        setSegment(request.getSegment());
+        setProjectionExpression(request.getProjectionExpression());
+        setFilterExpression(request.getFilterExpression());
+        setExpressionAttributeNames(request.getExpressionAttributeNames());
+        setExpressionAttributeValues(request.getExpressionAttributeValues());
+
+        setRequestCredentials(request.getRequestCredentials());
+        setGeneralProgressListener(request.getGeneralProgressListener());
+        setRequestMetricCollector(request.getRequestMetricCollector());
+        setSdkRequestTimeout(request.getSdkRequestTimeout());
+        setSdkClientExecutionTimeout(request.getSdkClientExecutionTimeout());
+        if (request.getCustomRequestHeaders() != null) {
+            for (Map.Entry<String, String> header : request.getCustomRequestHeaders().entrySet()) {
+                putCustomRequestHeader(header.getKey(), header.getValue());
+            }
+        }
+        RequestClientOptions options = request.getRequestClientOptions();
+        getRequestClientOptions().setReadLimit(options.getReadLimit());
+        for (Marker marker : Marker.values()) {
+            getRequestClientOptions().putClientMarker(marker, options.getClientMarker(marker));
+        }
+    }
+
+    CompactItemBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> readItems(JsonParser parser)
+            throws IOException {
+        // a retried request reads the items again
+        buffer.clear();
+        CompactItemJsonReader.readItems(parser, buffer);
+        return null;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.s3.transfer.TransferManager;
+
+/**
+ * Exports the items of a scan in the compact binary format of
+ * {@link CompactItemBuffer}, for bulk exports of large tables. With an
+ * {@link com.amazonaws.services.dynamodbv2.AmazonDynamoDBClient}, the items of each page are read from the
+ * response straight into an off-heap buffer, without building any
+ * {@link AttributeValue}; only one page per segment is held at a time.
+ * <p>
+ * The items can be iterated over through flyweight {@link CompactItem}
+ * views, or written to a file or uploaded to Amazon S3, scanning the table
+ * in parallel segments. Exported files are read back with a
+ * {@link CompactItemReader}.
+ */
+@ThreadSafe
+public class ScanExporter implements Iterable<CompactItem> {
+
+    private static final Log log = LogFactory.getLog(ScanExporter.class);
+
+    private final AmazonDynamoDB client;
+    private final ScanRequest request;
+    private final int bufferCapacity;
+
+    /**
+     * @param request
+     *            the scan to export, from its exclusive start key if any
+     */
+    public ScanExporter(AmazonDynamoDB client, ScanRequest request) {
+        this(client, request, CompactItemBuffer.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param request
+     *            the scan to export, from its exclusive start key if any
+     * @param bufferCapacity
+     *            the initial capacity in bytes of the buffer of each segment
+     */
+    public ScanExporter(AmazonDynamoDB client, ScanRequest request, int bufferCapacity) {
+        if (client == null || request == null) {
+            throw new IllegalArgumentException("Client and request cannot be null");
+        }
+        this.client = client;
+        this.request = request;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Returns an iterator scanning the pages one at a time as the iteration
+     * proceeds. The returned {@link CompactItem} is the same for every item,
+     * and the items of a page are only valid until the iteration moves past
+     * it.
+     */
+    @Override
+    public Iterator<CompactItem> iterator() {
+        final ExportScanRequest scan = new ExportScanRequest(request, new CompactItemBuffer(bufferCapacity));
+        return new Iterator<CompactItem>() {
+            private Iterator<CompactItem> page;
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                while ((page == null || !page.hasNext()) && !lastPage) {
+                    lastPage = !scanPage(scan);
+                    page = scan.getBuffer().iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public CompactItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Writes the items of the scan to the given file, scanning the table in
+     * the given number of parallel segments.
+     *
+     * @return the number of items written
+     */
+    public long writeTo(File file, int totalSegments) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            return writeTo(out.getChannel(), totalSegments);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the items of the scan to the given channel, scanning the table
+     * in the given number of parallel segments, each with a thread of its
+     * own. The pages of the segments are written as they are read, one at a
+     * time.
+     *
+     * @param totalSegments
+     *            the number of segments, or 1 to scan the request as given,
+     *            which may be a segment of a parallel scan itself
+     * @return the number of items written
+     */
+    public long writeTo(final WritableByteChannel channel, final int totalSegments) throws IOException {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("The number of segments must be positive");
+        }
+        if (totalSegments == 1) {
+            return writeSegment(new ExportScanRequest(request, new CompactItemBuffer(bufferCapacity)), channel);
+        }
+        if (request.getTotalSegments() != null) {
+            throw new IllegalArgumentException("The scan request is already a segment of a parallel scan");
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(totalSegments);
+        try {
+            List<Future<Long>> segments = new ArrayList<Future<Long>>(totalSegments);
+            for (int i = 0; i < totalSegments; i++) {
+                final ExportScanRequest scan = new ExportScanRequest(request, new CompactItemBuffer(bufferCapacity));
+                scan.setSegment(i);
+                scan.setTotalSegments(totalSegments);
+                segments.add(executorService.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return writeSegment(scan, channel);
+                    }
+                }));
+            }
+            long count = 0;
+            for (Future<Long> segment : segments) {
+                count += waitFor(segment);
+            }
+            return count;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the items of the scan to a temporary file, scanning the table
+     * in the given number of parallel segments, and uploads the file to the
+     * given Amazon S3 object, waiting for the upload to complete.
+     *
+     * @return the number of items uploaded
+     */
+    public long upload(TransferManager transferManager, String bucketName, String key, int totalSegments)
+            throws IOException, InterruptedException {
+        File file = File.createTempFile("dynamodb-export", ".bin");
+        try {
+            long count = writeTo(file, totalSegments);
+            transferManager.upload(bucketName, key, file).waitForCompletion();
+            return count;
+        } finally {
+            if (!file.delete()) {
+                log.warn("Unable to delete the export file " + file);
+            }
+        }
+    }
+
+    private long writeSegment(ExportScanRequest scan, WritableByteChannel channel) throws IOException {
+        long count = 0;
+        boolean more;
+        do {
+            more = scanPage(scan);
+            synchronized (channel) {
+                scan.getBuffer().writeTo(channel);
+            }
+            count += scan.getBuffer().size();
+        } while (more);
+        return count;
+    }
+
+    /**
+     * Scans the next page into the buffer of the request, moving the request
+     * past it.
+     *
+     * @return whether there are pages left
+     */
+    private boolean scanPage(ExportScanRequest scan) {
+        CompactItemBuffer buffer = scan.getBuffer();
+        buffer.clear();
+        ScanResult result = client.scan(scan);
+        if (result.getItems() != null) {
+            // a client that does not read the items into the buffer
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                buffer.add(item);
+            }
+        }
+        scan.setExclusiveStartKey(result.getLastEvaluatedKey());
+        return result.getLastEvaluatedKey() != null;
+    }
+
+    private static long waitFor(Future<Long> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AmazonClientException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -78,7 +78,10 @@ public class BatchWriteItemRequestMarshaller implements Marshaller<Request<Batch
                                     jsonWriter.key("PutRequest");
                                     jsonWriter.object();
 
-                                    if (putRequest.getItem() != null) {
+                                    if (putRequest.getItem() instanceof JSONString) {
+                                        // written directly from the simple values of a document item
+                                        jsonWriter.key("Item").value(putRequest.getItem());
+                                    } else if (putRequest.getItem() != null) {
                                         jsonWriter.key("Item");
                                         jsonWriter.object();
                                         for (Map.Entry<String, AttributeValue> itemListValue : putRequest.getItem().entrySet()) {
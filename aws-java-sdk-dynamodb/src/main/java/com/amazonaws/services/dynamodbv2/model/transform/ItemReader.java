@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.model.transform;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Implemented by query and scan requests that read the items of their result
+ * from the response themselves, rather than have them unmarshalled into
+ * {@link AttributeValue}s.
+ *
+ * @see QueryResultJsonUnmarshaller
+ * @see ScanResultJsonUnmarshaller
+ */
+public interface ItemReader {
+    /**
+     * Reads the items of the result, from the parser positioned at the start
+     * of their JSON array. The returned items become the items of the
+     * result.
+     */
+    public List<Map<String, AttributeValue>> readItems(JsonParser parser)
+            throws IOException;
+}
@@ -64,7 +64,10 @@ public class PutItemRequestMarshaller implements Marshaller<Request<PutItemReque
             if (putItemRequest.getTableName() != null) {
                 jsonWriter.key("TableName").value(putItemRequest.getTableName());
             }
-            if (putItemRequest.getItem() != null) {
+            if (putItemRequest.getItem() instanceof JSONString) {
+                // written directly from the simple values of a document item
+                jsonWriter.key("Item").value(putItemRequest.getItem());
+            } else if (putItemRequest.getItem() != null) {
                 jsonWriter.key("Item");
                 jsonWriter.object();
                 for (Map.Entry<String, AttributeValue> itemListValue : putItemRequest.getItem().entrySet()) {
@@ -30,6 +30,21 @@ import static com.fasterxml.jackson.core.JsonToken.*;
  */
 public class QueryResultJsonUnmarshaller implements Unmarshaller<QueryResult, JsonUnmarshallerContext> {
 
+    private final ItemReader itemReader;
+
+    public QueryResultJsonUnmarshaller() {
+        this(null);
+    }
+
+    /**
+     * @param itemReader
+     *            the reader of the items of the result, or null to read them
+     *            into attribute values
+     */
+    public QueryResultJsonUnmarshaller(ItemReader itemReader) {
+        this.itemReader = itemReader;
+    }
+
     public QueryResult unmarshall(JsonUnmarshallerContext context) throws Exception {
         QueryResult queryResult = new QueryResult();
 
@@ -46,8 +61,13 @@ public class QueryResultJsonUnmarshaller implements Unmarshaller<QueryResult, Js
 
             if (token == FIELD_NAME || token == START_OBJECT) {
                 if (context.testExpression("Items", targetDepth)) {
-                    context.nextToken();
-                    queryResult.setItems(new ListUnmarshaller<java.util.Map<String,AttributeValue>>(new MapUnmarshaller<String,AttributeValue>(StringJsonUnmarshaller.getInstance(), AttributeValueJsonUnmarshaller.getInstance())).unmarshall(context));
+                    if (itemReader != null) {
+                        context.getJsonParser().nextToken();
+                        queryResult.setItems(itemReader.readItems(context.getJsonParser()));
+                    } else {
+                        context.nextToken();
+                        queryResult.setItems(new ListUnmarshaller<java.util.Map<String,AttributeValue>>(new MapUnmarshaller<String,AttributeValue>(StringJsonUnmarshaller.getInstance(), AttributeValueJsonUnmarshaller.getInstance())).unmarshall(context));
+                    }
                 }
                 if (context.testExpression("Count", targetDepth)) {
                     context.nextToken();
@@ -30,6 +30,21 @@ import static com.fasterxml.jackson.core.JsonToken.*;
  */
 public class ScanResultJsonUnmarshaller implements Unmarshaller<ScanResult, JsonUnmarshallerContext> {
 
+    private final ItemReader itemReader;
+
+    public ScanResultJsonUnmarshaller() {
+        this(null);
+    }
+
+    /**
+     * @param itemReader
+     *            the reader of the items of the result, or null to read them
+     *            into attribute values
+     */
+    public ScanResultJsonUnmarshaller(ItemReader itemReader) {
+        this.itemReader = itemReader;
+    }
+
     public ScanResult unmarshall(JsonUnmarshallerContext context) throws Exception {
         ScanResult scanResult = new ScanResult();
 
@@ -46,8 +61,13 @@ public class ScanResultJsonUnmarshaller implements Unmarshaller<ScanResult, Json
 
             if (token == FIELD_NAME || token == START_OBJECT) {
                 if (context.testExpression("Items", targetDepth)) {
-                    context.nextToken();
-                    scanResult.setItems(new ListUnmarshaller<java.util.Map<String,AttributeValue>>(new MapUnmarshaller<String,AttributeValue>(StringJsonUnmarshaller.getInstance(), AttributeValueJsonUnmarshaller.getInstance())).unmarshall(context));
+                    if (itemReader != null) {
+                        context.getJsonParser().nextToken();
+                        scanResult.setItems(itemReader.readItems(context.getJsonParser()));
+                    } else {
+                        context.nextToken();
+                        scanResult.setItems(new ListUnmarshaller<java.util.Map<String,AttributeValue>>(new MapUnmarshaller<String,AttributeValue>(StringJsonUnmarshaller.getInstance(), AttributeValueJsonUnmarshaller.getInstance())).unmarshall(context));
+                    }
                 }
                 if (context.testExpression("Count", targetDepth)) {
                     context.nextToken();
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.NotThreadSafe;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+
+/**
+ * Iterates over the results of a BatchGetItem request of any number of keys,
+ * across any number of tables. The keys are split into requests within the
+ * limit of {@value #MAX_KEYS_PER_REQUEST} keys of DynamoDB, and the keys left
+ * unprocessed by DynamoDB, for exceeding the 16 MB limit of a response or the
+ * provisioned throughput of a table, are requested again until every item has
+ * been read.
+ * <p>
+ * Each result is the response of one request to DynamoDB, with its
+ * unprocessed keys taken care of, so the items are returned as they arrive
+ * rather than once they have all been read. Given an executor, up to a
+ * bounded number of requests run concurrently; otherwise they run one at a
+ * time in the iterating thread. Requests are only issued as the iteration
+ * proceeds: an abandoned iterator leaves at most that many requests to
+ * complete.
+ * <p>
+ * Keys retried without any item read in between are requested after an
+ * exponential backoff, and the iteration fails after
+ * {@value #MAX_RETRIES_WITHOUT_PROGRESS} such retries.
+ */
+@NotThreadSafe
+public class BatchGetItemIterator implements Iterator<BatchGetItemResult> {
+
+    /** The max number of keys allowed in a BatchGetItem request */
+    public static final int MAX_KEYS_PER_REQUEST = 100;
+
+    /** The max number of retries of keys for which no item is read */
+    static final int MAX_RETRIES_WITHOUT_PROGRESS = 5;
+
+    /** The max back off time between retries */
+    static final long MAX_BACKOFF_IN_MILLISECONDS = 1000 * 3;
+
+    private static final Random random = new Random();
+
+    private final AmazonDynamoDB client;
+    private final BatchGetItemRequest request;
+    private final CompletionService<Batch> completionService;
+    private final int maxConcurrentRequests;
+
+    /** The batches yet to be requested */
+    private final LinkedList<Batch> pending = new LinkedList<Batch>();
+    private int inFlight;
+    private BatchGetItemResult next;
+
+    /**
+     * Constructs an iterator issuing the requests one at a time, in the
+     * iterating thread.
+     *
+     * @param request
+     *            the keys to read by table, and the options of the requests
+     *            to DynamoDB
+     */
+    public BatchGetItemIterator(AmazonDynamoDB client, BatchGetItemRequest request) {
+        this(client, request, null, 1);
+    }
+
+    /**
+     * Constructs an iterator issuing the requests through the given
+     * executor.
+     *
+     * @param request
+     *            the keys to read by table, and the options of the requests
+     *            to DynamoDB
+     * @param executorService
+     *            the executor to run the requests, or null to run them in the
+     *            iterating thread
+     * @param maxConcurrentRequests
+     *            the maximum number of requests in flight at a time
+     */
+    public BatchGetItemIterator(AmazonDynamoDB client, BatchGetItemRequest request,
+            ExecutorService executorService, int maxConcurrentRequests) {
+        if (client == null || request == null) {
+            throw new IllegalArgumentException("Client and request cannot be null");
+        }
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("At least one request must be allowed in flight");
+        }
+        this.client = client;
+        this.request = request;
+        this.completionService = executorService == null
+                ? null : new ExecutorCompletionService<Batch>(executorService);
+        this.maxConcurrentRequests = executorService == null ? 1 : maxConcurrentRequests;
+        if (request.getRequestItems() != null) {
+            pending.addAll(split(request.getRequestItems(), 0));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && (!pending.isEmpty() || inFlight > 0)) {
+            complete(completionService == null ? pending.removeFirst().call() : takeCompleted());
+        }
+        return next != null;
+    }
+
+    /**
+     * Returns the result of the next request to complete. Its unprocessed
+     * keys are always empty, since they are requested again.
+     */
+    @Override
+    public BatchGetItemResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        BatchGetItemResult result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private Batch takeCompleted() {
+        while (inFlight < maxConcurrentRequests && !pending.isEmpty()) {
+            completionService.submit(pending.removeFirst());
+            inFlight++;
+        }
+        Future<Batch> completed;
+        try {
+            completed = completionService.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        }
+        inFlight--;
+        try {
+            return completed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AmazonClientException(cause.getMessage(), cause);
+        }
+    }
+
+    private void complete(Batch batch) {
+        BatchGetItemResult result = batch.result;
+        Map<String, KeysAndAttributes> unprocessedKeys = result.getUnprocessedKeys();
+        if (unprocessedKeys != null && !unprocessedKeys.isEmpty()) {
+            int retries = hasItems(result) ? 0 : batch.retries + 1;
+            if (retries > MAX_RETRIES_WITHOUT_PROGRESS) {
+                throw new AmazonClientException(
+                        "Batch Get Item request to server hasn't received any data. "
+                        + "Please try again later.");
+            }
+            // retried first, to bound the keys held at a time
+            List<Batch> retry = split(unprocessedKeys, retries);
+            Collections.reverse(retry);
+            for (Batch b : retry) {
+                pending.addFirst(b);
+            }
+            result.setUnprocessedKeys(new LinkedHashMap<String, KeysAndAttributes>());
+        }
+        next = result;
+    }
+
+    private static boolean hasItems(BatchGetItemResult result) {
+        if (result.getResponses() != null) {
+            for (List<Map<String, AttributeValue>> items : result.getResponses().values()) {
+                if (items != null && !items.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits the keys by table into batches of at most
+     * {@value #MAX_KEYS_PER_REQUEST} keys, keeping the options of each table.
+     */
+    private List<Batch> split(Map<String, KeysAndAttributes> requestItems, int retries) {
+        List<Batch> batches = new ArrayList<Batch>();
+        Map<String, KeysAndAttributes> batch = new LinkedHashMap<String, KeysAndAttributes>();
+        int count = 0;
+        for (Map.Entry<String, KeysAndAttributes> table : requestItems.entrySet()) {
+            List<Map<String, AttributeValue>> keys = table.getValue().getKeys();
+            if (keys == null) {
+                continue;
+            }
+            int from = 0;
+            while (from < keys.size()) {
+                int to = Math.min(keys.size(), from + MAX_KEYS_PER_REQUEST - count);
+                batch.put(table.getKey(), table.getValue().clone()
+                        .withKeys(new ArrayList<Map<String, AttributeValue>>(keys.subList(from, to))));
+                count += to - from;
+                from = to;
+                if (count == MAX_KEYS_PER_REQUEST) {
+                    batches.add(new Batch(batch, retries));
+                    batch = new LinkedHashMap<String, KeysAndAttributes>();
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) {
+            batches.add(new Batch(batch, retries));
+        }
+        return batches;
+    }
+
+    /**
+     * A request of at most {@value #MAX_KEYS_PER_REQUEST} keys, and the
+     * number of retries of its keys without progress.
+     */
+    private final class Batch implements Callable<Batch> {
+        private final Map<String, KeysAndAttributes> requestItems;
+        private final int retries;
+        private BatchGetItemResult result;
+
+        private Batch(Map<String, KeysAndAttributes> requestItems, int retries) {
+            this.requestItems = requestItems;
+            this.retries = retries;
+        }
+
+        @Override
+        public Batch call() {
+            pauseExponentially(retries);
+            result = client.batchGetItem(request.clone().withRequestItems(requestItems));
+            return this;
+        }
+    }
+
+    private static void pauseExponentially(int retries) {
+        if (retries == 0) {
+            return;
+        }
+        long scaleFactor = 500 + random.nextInt(100);
+        long delay = Math.min((long) (Math.pow(2, retries) * scaleFactor), MAX_BACKOFF_IN_MILLISECONDS);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.dynamodbv2.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * A bounded, client-side read-through cache of DynamoDB items, for tables
+ * whose hot items are read far more often than they change. It can be shared
+ * by the document API, through {@link com.amazonaws.services.dynamodbv2.document.DynamoDB#DynamoDB(AmazonDynamoDB, ItemCache)},
+ * and by the object mapper, through
+ * {@link com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.Builder#withItemCache(ItemCache)}.
+ * <p>
+ * Only eventually consistent reads of whole items are served from the cache;
+ * items that do not exist are cached as such. Consistent reads always go to
+ * DynamoDB and refresh the cached item. Concurrent misses for the same item
+ * are coalesced into a single GetItem call.
+ * <p>
+ * Entries expire after a fixed time to live, and the least recently used are
+ * evicted to keep the cache within its item count and size limits. Items put
+ * through the same APIs replace the cached ones, and items updated or deleted
+ * through them are evicted. Changes made by other clients are only seen once
+ * the cached entries expire, so the time to live bounds how stale a read can
+ * be.
+ * <p>
+ * The cache holds copies of the items it is given, and hands out copies of
+ * the items it holds, so the items and binary values returned can be read and
+ * modified freely.
+ */
+@ThreadSafe
+public class ItemCache {
+
+    /** The size of the read capacity units, in bytes */
+    private static final int READ_CAPACITY_UNIT_BYTES = 4 * 1024;
+
+    private final int maxItems;
+    private final long maxSizeBytes;
+    private final long timeToLiveNanos;
+
+    /** Guards the entries, their total size and the invalidation of loads */
+    private final Object lock = new Object();
+    private final LinkedHashMap<CacheKey, CacheEntry> entries =
+            new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true);
+    private long sizeBytes;
+    /** The number of invalidations so far */
+    private long invalidations;
+
+    private final ConcurrentMap<CacheKey, Load> loads = new ConcurrentHashMap<CacheKey, Load>();
+
+    /** The names of the key attributes of the tables, learnt from the reads */
+    private final ConcurrentMap<String, Collection<String>> keyNames =
+            new ConcurrentHashMap<String, Collection<String>>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalescedMisses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong savedHalfReadCapacityUnits = new AtomicLong();
+
+    /**
+     * Constructs a cache of the given bounds.
+     *
+     * @param maxItems
+     *            the maximum number of items held
+     * @param maxSizeBytes
+     *            the maximum total size of the items held, in bytes, as
+     *            DynamoDB counts item sizes
+     * @param timeToLive
+     *            how long an item is served from the cache once read
+     * @param unit
+     *            the unit of the time to live
+     */
+    public ItemCache(int maxItems, long maxSizeBytes, long timeToLive, TimeUnit unit) {
+        if (maxItems < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one item");
+        }
+        if (maxSizeBytes < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        if (timeToLive < 1) {
+            throw new IllegalArgumentException("The time to live must be positive");
+        }
+        this.maxItems = maxItems;
+        this.maxSizeBytes = maxSizeBytes;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    /**
+     * Returns the item the request asks for, from the cache if it holds it and
+     * the request can be served from it, otherwise from DynamoDB through the
+     * given client.
+     * <p>
+     * Results served from the cache only carry the item.
+     */
+    public GetItemResult getItem(AmazonDynamoDB client, GetItemRequest request) {
+        keyNames.putIfAbsent(request.getTableName(),
+                Collections.unmodifiableList(new ArrayList<String>(request.getKey().keySet())));
+        if (!isCacheable(request)) {
+            if (!isWholeItem(request)) {
+                return client.getItem(request);
+            }
+            // a consistent read refreshes the cache, unless the item may have
+            // changed since the read was issued
+            long invalidationsBefore;
+            synchronized (lock) {
+                invalidationsBefore = invalidations;
+            }
+            GetItemResult result = client.getItem(request);
+            CacheKey key = new CacheKey(request.getTableName(), request.getKey());
+            Map<String, AttributeValue> snapshot = snapshotOf(result.getItem());
+            synchronized (lock) {
+                if (invalidations == invalidationsBefore) {
+                    put(key, snapshot);
+                }
+            }
+            return result;
+        }
+
+        CacheKey key = new CacheKey(request.getTableName(), request.getKey());
+        CacheEntry entry = lookup(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            savedHalfReadCapacityUnits.addAndGet(readCapacityUnits(entry.size));
+            return new GetItemResult().withItem(copyOf(entry.item));
+        }
+
+        Load load = new Load();
+        Load pending = loads.putIfAbsent(key, load);
+        if (pending != null) {
+            coalescedMisses.incrementAndGet();
+            Map<String, AttributeValue> item = pending.await();
+            savedHalfReadCapacityUnits.addAndGet(readCapacityUnits(sizeOf(item)));
+            return new GetItemResult().withItem(copyOf(item));
+        }
+
+        misses.incrementAndGet();
+        try {
+            GetItemResult result = client.getItem(request);
+            Map<String, AttributeValue> snapshot = snapshotOf(result.getItem());
+            synchronized (lock) {
+                if (!load.invalidated) {
+                    put(key, snapshot);
+                }
+            }
+            load.succeed(snapshot);
+            return result;
+        } catch (RuntimeException e) {
+            load.fail(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Caches an item that was just written in full, replacing the cached one.
+     *
+     * @param tableName
+     *            the table the item was written to
+     * @param item
+     *            all the attributes of the item as written
+     */
+    public void putItem(String tableName, Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = keyOf(tableName, item);
+        if (key != null) {
+            CacheKey cacheKey = new CacheKey(tableName, key);
+            Map<String, AttributeValue> snapshot = snapshotOf(item);
+            synchronized (lock) {
+                invalidate(cacheKey);
+                put(cacheKey, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Evicts an item that was, or may have been, changed, along with any read
+     * of it in flight, so that the next read of the item goes to DynamoDB.
+     *
+     * @param tableName
+     *            the table of the item
+     * @param keyOrItem
+     *            the primary key of the item, or the item itself
+     */
+    public void invalidate(String tableName, Map<String, AttributeValue> keyOrItem) {
+        Map<String, AttributeValue> key = keyOf(tableName, keyOrItem);
+        if (key != null) {
+            invalidate(new CacheKey(tableName, key));
+        }
+    }
+
+    /**
+     * Evicts the items written or deleted by a batch write.
+     *
+     * @param requestItems
+     *            the write requests of the batch, by table name
+     */
+    public void invalidateWrites(Map<String, List<WriteRequest>> requestItems) {
+        for (Map.Entry<String, List<WriteRequest>> table : requestItems.entrySet()) {
+            for (WriteRequest write : table.getValue()) {
+                if (write.getPutRequest() != null) {
+                    invalidate(table.getKey(), write.getPutRequest().getItem());
+                } else if (write.getDeleteRequest() != null) {
+                    invalidate(table.getKey(), write.getDeleteRequest().getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts all the items.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            entries.clear();
+            sizeBytes = 0;
+            invalidations++;
+            for (Load load : loads.values()) {
+                load.invalidated = true;
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     */
+    public ItemCacheStatistics getStatistics() {
+        int items;
+        long size;
+        synchronized (lock) {
+            items = entries.size();
+            size = sizeBytes;
+        }
+        return new ItemCacheStatistics(hits.get(), misses.get(), coalescedMisses.get(), evictions.get(),
+                savedHalfReadCapacityUnits.get() / 2.0, items, size);
+    }
+
+    private CacheEntry lookup(CacheKey key) {
+        synchronized (lock) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Must be called holding the lock, with a snapshot of the item that is
+     * not shared with the callers.
+     */
+    private void put(CacheKey key, Map<String, AttributeValue> item) {
+        long size = sizeOf(item);
+        remove(key);
+        if (size > maxSizeBytes) {
+            return;
+        }
+        entries.put(key, new CacheEntry(item, size, System.nanoTime() + timeToLiveNanos));
+        sizeBytes += size;
+        Iterator<CacheEntry> eldest = entries.values().iterator();
+        while (entries.size() > maxItems || sizeBytes > maxSizeBytes) {
+            sizeBytes -= eldest.next().size;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void invalidate(CacheKey key) {
+        synchronized (lock) {
+            remove(key);
+            invalidations++;
+            Load load = loads.remove(key);
+            if (load != null) {
+                load.invalidated = true;
+            }
+        }
+    }
+
+    /** Must be called holding the lock */
+    private void remove(CacheKey key) {
+        CacheEntry removed = entries.remove(key);
+        if (removed != null) {
+            sizeBytes -= removed.size;
+        }
+    }
+
+    /**
+     * Returns the primary key of the given item, or null if no item of the
+     * table has been read through the cache.
+     */
+    private Map<String, AttributeValue> keyOf(String tableName, Map<String, AttributeValue> item) {
+        Collection<String> names = keyNames.get(tableName);
+        if (names == null || item == null) {
+            return null;
+        }
+        Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+        for (String name : names) {
+            AttributeValue value = item.get(name);
+            if (value == null) {
+                return null;
+            }
+            key.put(name, value);
+        }
+        return key;
+    }
+
+    private static boolean isWholeItem(GetItemRequest request) {
+        return request.getProjectionExpression() == null
+                && (request.getAttributesToGet() == null || request.getAttributesToGet().isEmpty());
+    }
+
+    private static boolean isCacheable(GetItemRequest request) {
+        return isWholeItem(request) && !Boolean.TRUE.equals(request.getConsistentRead());
+    }
+
+    /**
+     * Returns the number of half read capacity units an eventually
+     * consistent read of an item of the given size consumes.
+     */
+    private static long readCapacityUnits(long size) {
+        return Math.max(1, (size + READ_CAPACITY_UNIT_BYTES - 1) / READ_CAPACITY_UNIT_BYTES);
+    }
+
+    /**
+     * Returns the size of an item as DynamoDB counts it: the lengths of the
+     * attribute names plus the sizes of the values.
+     */
+    static long sizeOf(Map<String, AttributeValue> item) {
+        if (item == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += StringUtils.utf8Length(attribute.getKey()) + sizeOf(attribute.getValue());
+        }
+        return size;
+    }
+
+    private static long sizeOf(AttributeValue value) {
+        if (value.getS() != null) {
+            return StringUtils.utf8Length(value.getS());
+        } else if (value.getN() != null) {
+            return value.getN().length();
+        } else if (value.getB() != null) {
+            return value.getB().remaining();
+        } else if (value.getSS() != null) {
+            long size = 0;
+            for (String s : value.getSS()) {
+                size += StringUtils.utf8Length(s);
+            }
+            return size;
+        } else if (value.getNS() != null) {
+            long size = 0;
+            for (String n : value.getNS()) {
+                size += n.length();
+            }
+            return size;
+        } else if (value.getBS() != null) {
+            long size = 0;
+            for (ByteBuffer b : value.getBS()) {
+                size += b.remaining();
+            }
+            return size;
+        } else if (value.getL() != null) {
+            long size = 3;
+            for (AttributeValue element : value.getL()) {
+                size += 1 + sizeOf(element);
+            }
+            return size;
+        } else if (value.getM() != null) {
+            return 3 + sizeOf(value.getM());
+        }
+        // BOOL and NULL
+        return 1;
+    }
+
+    /**
+     * Returns a copy of the given item that shares nothing mutable with it,
+     * down to the bytes of the binary values, to be held by the cache.
+     */
+    private static Map<String, AttributeValue> snapshotOf(Map<String, AttributeValue> item) {
+        return copyOf(item, true);
+    }
+
+    /**
+     * Returns a copy of an item held by the cache, to be handed out. The
+     * binary values are duplicates of the buffers held, so reading them
+     * leaves the cached ones as they are.
+     */
+    private static Map<String, AttributeValue> copyOf(Map<String, AttributeValue> item) {
+        return copyOf(item, false);
+    }
+
+    private static Map<String, AttributeValue> copyOf(Map<String, AttributeValue> item, boolean copyBytes) {
+        if (item == null) {
+            return null;
+        }
+        Map<String, AttributeValue> copy = new HashMap<String, AttributeValue>(item.size() * 4 / 3 + 1);
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            copy.put(attribute.getKey(), copyOf(attribute.getValue(), copyBytes));
+        }
+        return copy;
+    }
+
+    private static AttributeValue copyOf(AttributeValue value, boolean copyBytes) {
+        AttributeValue copy = new AttributeValue();
+        copy.setS(value.getS());
+        copy.setN(value.getN());
+        if (value.getB() != null) {
+            copy.setB(copyOf(value.getB(), copyBytes));
+        }
+        if (value.getSS() != null) {
+            copy.setSS(new ArrayList<String>(value.getSS()));
+        }
+        if (value.getNS() != null) {
+            copy.setNS(new ArrayList<String>(value.getNS()));
+        }
+        if (value.getBS() != null) {
+            List<ByteBuffer> bs = new ArrayList<ByteBuffer>(value.getBS().size());
+            for (ByteBuffer b : value.getBS()) {
+                bs.add(copyOf(b, copyBytes));
+            }
+            copy.setBS(bs);
+        }
+        if (value.getL() != null) {
+            List<AttributeValue> l = new ArrayList<AttributeValue>(value.getL().size());
+            for (AttributeValue element : value.getL()) {
+                l.add(copyOf(element, copyBytes));
+            }
+            copy.setL(l);
+        }
+        if (value.getM() != null) {
+            copy.setM(copyOf(value.getM(), copyBytes));
+        }
+        copy.setBOOL(value.getBOOL());
+        copy.setNULL(value.getNULL());
+        return copy;
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer buffer, boolean copyBytes) {
+        if (!copyBytes) {
+            return buffer.duplicate();
+        }
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate()).flip();
+        return copy;
+    }
+
+    private static final class CacheKey {
+        private final String tableName;
+        private final Map<String, AttributeValue> key;
+        private final int hashCode;
+
+        CacheKey(String tableName, Map<String, AttributeValue> key) {
+            this.tableName = tableName;
+            this.key = snapshotOf(key);
+            this.hashCode = 31 * tableName.hashCode() + this.key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return hashCode == other.hashCode && tableName.equals(other.tableName) && key.equals(other.key);
+        }
+    }
+
+    private static final class CacheEntry {
+        /** null if the item does not exist */
+        private final Map<String, AttributeValue> item;
+        private final long size;
+        private final long expiresAt;
+
+        CacheEntry(Map<String, AttributeValue> item, long size, long expiresAt) {
+            this.item = item;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A read of an item in flight, which the concurrent reads of the same item
+     * wait for.
+     */
+    private static final class Load {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Map<String, AttributeValue> item;
+        private RuntimeException failure;
+        /** Guarded by the cache lock */
+        private boolean invalidated;
+
+        void succeed(Map<String, AttributeValue> item) {
+            this.item = item;
+            done.countDown();
+        }
+
+        void fail(RuntimeException failure) {
+            this.failure = failure;
+            done.countDown();
+        }
+
+        Map<String, AttributeValue> await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmazonClientException("Interrupted while waiting for the item to be read", e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return item;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.dynamodbv2.util;
+
+/**
+ * A snapshot of the statistics of an {@link ItemCache}: how many reads it
+ * served, how many went to DynamoDB, and the read capacity it saved.
+ *
+ * @see ItemCache#getStatistics()
+ */
+public class ItemCacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long coalescedMissCount;
+    private final long evictionCount;
+    private final double savedReadCapacityUnits;
+    private final int itemCount;
+    private final long sizeBytes;
+
+    ItemCacheStatistics(long hitCount, long missCount, long coalescedMissCount, long evictionCount,
+            double savedReadCapacityUnits, int itemCount, long sizeBytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.coalescedMissCount = coalescedMissCount;
+        this.evictionCount = evictionCount;
+        this.savedReadCapacityUnits = savedReadCapacityUnits;
+        this.itemCount = itemCount;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /** @return the number of reads served from the cache. */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** @return the number of reads that went to DynamoDB. */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of reads that missed the cache but waited for a
+     *         concurrent read of the same item instead of going to DynamoDB.
+     */
+    public long getCoalescedMissCount() {
+        return coalescedMissCount;
+    }
+
+    /**
+     * @return the fraction of the reads that did not go to DynamoDB, or 0 if
+     *         there were no reads.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount + coalescedMissCount;
+        return requests == 0 ? 0 : (double) (hitCount + coalescedMissCount) / requests;
+    }
+
+    /** @return the number of items evicted to keep the cache within its limits. */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the read capacity units the reads that did not go to DynamoDB
+     *         would have consumed.
+     */
+    public double getSavedReadCapacityUnits() {
+        return savedReadCapacityUnits;
+    }
+
+    /** @return the number of items in the cache. */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /** @return the total size of the items in the cache, in bytes. */
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemCacheStatistics [hitCount=" + hitCount + ", missCount=" + missCount + ", coalescedMissCount="
+                + coalescedMissCount + ", hitRate=" + getHitRate() + ", evictionCount=" + evictionCount
+                + ", savedReadCapacityUnits=" + savedReadCapacityUnits + ", itemCount=" + itemCount
+                + ", sizeBytes=" + sizeBytes + "]";
+    }
+}
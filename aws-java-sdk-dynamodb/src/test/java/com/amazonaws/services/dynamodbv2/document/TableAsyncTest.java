@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.document.internal.AsyncPageIterator;
+import com.amazonaws.services.dynamodbv2.document.spec.GetItemSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.PutItemSpec;
+import com.amazonaws.services.dynamodbv2.document.spec.QuerySpec;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.util.ItemCache;
+
+public class TableAsyncTest {
+
+    private static final String TABLE = "table";
+    private static final int PAGES = 3;
+
+    private final Map<String, Map<String, AttributeValue>> items =
+            new HashMap<String, Map<String, AttributeValue>>();
+    private final AtomicInteger queryCalls = new AtomicInteger();
+    private ExecutorService executor;
+    private AmazonDynamoDBAsync client;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        client = EasyMock.createMock(AmazonDynamoDBAsync.class);
+        EasyMock
+            .expect(client.queryAsync(EasyMock.<QueryRequest>anyObject()))
+            .andAnswer(new IAnswer<Future<QueryResult>>() {
+                @Override
+                public Future<QueryResult> answer() {
+                    queryCalls.incrementAndGet();
+                    final Map<String, AttributeValue> startKey =
+                            ((QueryRequest) EasyMock.getCurrentArguments()[0]).getExclusiveStartKey();
+                    return executor.submit(new Callable<QueryResult>() {
+                        @Override
+                        public QueryResult call() {
+                            return page(startKey == null ? 0 : Integer.parseInt(startKey.get("id").getN()) + 1);
+                        }
+                    });
+                }
+            })
+            .anyTimes();
+        EasyMock
+            .expect(client.getItem(EasyMock.<GetItemRequest>anyObject()))
+            .andAnswer(new IAnswer<GetItemResult>() {
+                @Override
+                public GetItemResult answer() {
+                    return getItem((GetItemRequest) EasyMock.getCurrentArguments()[0]);
+                }
+            })
+            .anyTimes();
+        EasyMock
+            .expect(client.getItemAsync(EasyMock.<GetItemRequest>anyObject()))
+            .andAnswer(new IAnswer<Future<GetItemResult>>() {
+                @Override
+                public Future<GetItemResult> answer() {
+                    final GetItemRequest request = (GetItemRequest) EasyMock.getCurrentArguments()[0];
+                    return executor.submit(new Callable<GetItemResult>() {
+                        @Override
+                        public GetItemResult call() {
+                            return getItem(request);
+                        }
+                    });
+                }
+            })
+            .anyTimes();
+        EasyMock
+            .expect(client.putItemAsync(EasyMock.<PutItemRequest>anyObject(),
+                    EasyMock.<AsyncHandler<PutItemRequest, PutItemResult>>anyObject()))
+            .andAnswer(new IAnswer<Future<PutItemResult>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Future<PutItemResult> answer() {
+                    final PutItemRequest request = (PutItemRequest) EasyMock.getCurrentArguments()[0];
+                    final AsyncHandler<PutItemRequest, PutItemResult> handler =
+                            (AsyncHandler<PutItemRequest, PutItemResult>) EasyMock.getCurrentArguments()[1];
+                    return executor.submit(new Callable<PutItemResult>() {
+                        @Override
+                        public PutItemResult call() {
+                            items.put(request.getItem().get("id").getS(), request.getItem());
+                            PutItemResult result = new PutItemResult();
+                            handler.onSuccess(request, result);
+                            return result;
+                        }
+                    });
+                }
+            })
+            .anyTimes();
+        EasyMock.replay(client);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPagesAreRequestedAheadOfConsumption() throws Exception {
+        Table table = new DynamoDB(client).getTable(TABLE);
+        ItemCollection<QueryOutcome> col = table.query(new QuerySpec().withHashKey("id", 1));
+
+        AsyncPageIterator<QueryOutcome> pages = col.pagesAsync();
+        assertEquals(1, queryCalls.get());
+
+        int count = 0;
+        while (pages.hasNext()) {
+            Page<Item, QueryOutcome> page = pages.next();
+            assertEquals(count, page.iterator().next().getInt("id"));
+            count++;
+            // the next page was requested before this one was returned
+            assertEquals(Math.min(count + 1, PAGES), queryCalls.get());
+        }
+        assertEquals(PAGES, count);
+        assertEquals(PAGES, col.getTotalCount());
+    }
+
+    @Test
+    public void testFirstPageOfQuery() throws Exception {
+        Table table = new DynamoDB(client).getTable(TABLE);
+
+        Page<Item, QueryOutcome> page = table.queryAsync(new QuerySpec().withHashKey("id", 1))
+                .get(1, TimeUnit.MINUTES);
+
+        assertEquals(1, page.size());
+        assertTrue(page.hasNextPage());
+        assertEquals(1, queryCalls.get());
+    }
+
+    @Test
+    public void testPutUpdatesTheItemCache() throws Exception {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+        Table table = new DynamoDB(client, cache).getTable(TABLE);
+        assertNull(table.getItem("id", "a"));
+
+        table.putItemAsync(new PutItemSpec().withItem(new Item().withString("id", "a")))
+                .get(1, TimeUnit.MINUTES);
+
+        assertEquals("a", table.getItem("id", "a").getString("id"));
+        assertEquals(1, cache.getStatistics().getHitCount());
+        GetItemOutcome outcome = table.getItemOutcomeAsync(new GetItemSpec().withPrimaryKey("id", "a"))
+                .get(1, TimeUnit.MINUTES);
+        assertEquals("a", outcome.getItem().getString("id"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSynchronousClientIsRejected() {
+        AmazonDynamoDB syncClient = EasyMock.createMock(AmazonDynamoDB.class);
+        EasyMock.replay(syncClient);
+        new DynamoDB(syncClient).getTable(TABLE).query(new QuerySpec().withHashKey("id", 1)).pagesAsync();
+    }
+
+    private GetItemResult getItem(GetItemRequest request) {
+        return new GetItemResult().withItem(items.get(request.getKey().get("id").getS()));
+    }
+
+    private static QueryResult page(int index) {
+        Map<String, AttributeValue> item = Collections.singletonMap("id", new AttributeValue().withN(Integer.toString(index)));
+        List<Map<String, AttributeValue>> pageItems = Collections.singletonList(item);
+        QueryResult result = new QueryResult().withItems(pageItems).withCount(1);
+        if (index + 1 < PAGES) {
+            result.setLastEvaluatedKey(item);
+        }
+        return result;
+    }
+}
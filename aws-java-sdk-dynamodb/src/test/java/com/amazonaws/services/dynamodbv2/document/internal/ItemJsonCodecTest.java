@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.document.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.document.Item;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.transform.PutItemRequestMarshaller;
+import com.amazonaws.services.dynamodbv2.model.transform.QueryResultJsonUnmarshaller;
+import com.amazonaws.transform.JsonUnmarshallerContextImpl;
+import com.amazonaws.util.IOUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ItemJsonCodecTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static Item item() {
+        return new Item()
+                .withPrimaryKey("id", "a")
+                .withNumber("count", 42)
+                .withNumber("price", new BigDecimal("1.50"))
+                .withBoolean("active", true)
+                .withNull("nothing")
+                .withBinary("data", new byte[] { 1, 2, 3 })
+                .withStringSet("tags", "x", "y")
+                .withNumberSet("scores", 1, 2)
+                .withList("list", "s", 7, Arrays.asList("nested"))
+                .withMap("map", new Item().withString("inner", "v").asMap());
+    }
+
+    @Test
+    public void testEncodingMatchesAttributeValues() throws Exception {
+        ItemAttributeValueMap lazy = new ItemAttributeValueMap(item().asMap());
+        String direct = lazy.toJSONString();
+
+        // materializes the attribute values, which are then written by the
+        // generated marshaller
+        assertEquals(10, lazy.size());
+        String marshalled = lazy.toJSONString();
+
+        assertEquals(MAPPER.readTree(marshalled), MAPPER.readTree(direct));
+    }
+
+    @Test
+    public void testPutItemRequestIsMarshalledFromSimpleValues() throws Exception {
+        Item item = item();
+        PutItemRequest lazy = new PutItemRequest("table", InternalUtils.toLazyAttributeValues(item));
+        PutItemRequest eager = new PutItemRequest("table", InternalUtils.toAttributeValues(item));
+
+        assertEquals(MAPPER.readTree(content(new PutItemRequestMarshaller().marshall(eager))),
+                MAPPER.readTree(content(new PutItemRequestMarshaller().marshall(lazy))));
+    }
+
+    @Test
+    public void testDecodingMatchesAttributeValues() throws Exception {
+        String json = "{\"Items\":[" + ItemJsonCodec.toJson(item().asMap()) + "],\"Count\":1,"
+                + "\"LastEvaluatedKey\":{\"id\":{\"S\":\"a\"}}}";
+
+        QueryResult simple = unmarshall(json, true);
+        QueryResult eager = unmarshall(json, false);
+
+        assertEquals(Integer.valueOf(1), simple.getCount());
+        assertEquals(eager.getLastEvaluatedKey(), simple.getLastEvaluatedKey());
+        List<Item> simpleItems = InternalUtils.toItemList(simple.getItems());
+        List<Item> eagerItems = InternalUtils.toItemList(eager.getItems());
+        assertEquals(MAPPER.readTree(eagerItems.get(0).toJSON()), MAPPER.readTree(simpleItems.get(0).toJSON()));
+        assertEquals(item().toJSON(), simpleItems.get(0).toJSON());
+        assertTrue(simple.getItems().get(0) instanceof ItemAttributeValueMap);
+
+        // the attribute values are still available on access
+        Map<String, AttributeValue> attributes = simple.getItems().get(0);
+        assertEquals(eager.getItems().get(0), attributes);
+        assertEquals(Arrays.asList("x", "y"), attributes.get("tags").getSS());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyAttributeValue() throws Exception {
+        unmarshall("{\"Items\":[{\"id\":{}}]}", true);
+    }
+
+    private static QueryResult unmarshall(String json, boolean simpleItems) throws Exception {
+        return new QueryResultJsonUnmarshaller(simpleItems ? new ItemQueryRequest() : null).unmarshall(
+                new JsonUnmarshallerContextImpl(new JsonFactory().createParser(json)));
+    }
+
+    private static String content(com.amazonaws.Request<?> request) throws Exception {
+        return IOUtils.toString(request.getContent());
+    }
+}
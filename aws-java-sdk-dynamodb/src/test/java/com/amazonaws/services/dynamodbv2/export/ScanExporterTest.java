@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.export;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Test;
+
+import com.amazonaws.RequestClientOptions.Marker;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.transform.ItemReader;
+import com.amazonaws.services.dynamodbv2.model.transform.ScanResultJsonUnmarshaller;
+import com.amazonaws.transform.JsonUnmarshallerContextImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+public class ScanExporterTest {
+
+    private static final String ITEM = "{\"id\":{\"S\":\"caf\\u00e9 \\ud83d\\ude00\"},"
+            + "\"count\":{\"N\":\"42.50\"},"
+            + "\"data\":{\"B\":\"AQID\"},"
+            + "\"active\":{\"BOOL\":true},"
+            + "\"nothing\":{\"NULL\":true},"
+            + "\"tags\":{\"SS\":[\"x\",\"y\"]},"
+            + "\"scores\":{\"NS\":[\"1\",\"2\"]},"
+            + "\"blobs\":{\"BS\":[\"AQ==\"]},"
+            + "\"list\":{\"L\":[{\"S\":\"s\"},{\"L\":[]},{\"M\":{\"k\":{\"N\":\"1\"}}}]},"
+            + "\"map\":{\"M\":{\"inner\":{\"S\":\"v\"},\"flag\":{\"BOOL\":false}}}}";
+
+    @Test
+    public void testItemsAreReadFromJson() throws Exception {
+        String json = "{\"Items\":[" + ITEM + "," + ITEM + "],\"Count\":2}";
+        CompactItemBuffer buffer = new CompactItemBuffer(16);
+
+        ScanResult compact = unmarshall(json, new ExportScanRequest(new ScanRequest("table"), buffer));
+        ScanResult expected = unmarshall(json, null);
+
+        assertNull(compact.getItems());
+        assertEquals(Integer.valueOf(2), compact.getCount());
+        assertEquals(2, buffer.size());
+        for (CompactItem item : buffer) {
+            assertEquals(expected.getItems().get(0), item.toAttributeValues());
+        }
+
+        CompactItem item = buffer.iterator().next();
+        assertEquals(10, item.getAttributeCount());
+        assertEquals(Arrays.asList("id", "count", "data", "active", "nothing", "tags", "scores", "blobs",
+                "list", "map"), item.getAttributeNames());
+        assertEquals("caf\u00e9 \ud83d\ude00", item.getString("id"));
+        assertEquals(new BigDecimal("42.50"), item.getNumber("count"));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, item.getBinary("data"));
+        assertTrue(item.getBoolean("active"));
+        assertTrue(item.isNull("nothing"));
+        assertFalse(item.isNull("id"));
+        assertTrue(item.hasAttribute("map"));
+        assertFalse(item.hasAttribute("missing"));
+        assertNull(item.getString("missing"));
+        assertEquals(expected.getItems().get(0).get("map"), item.getAttributeValue("map"));
+    }
+
+    @Test
+    public void testItemsAreAddedFromAttributeValues() throws Exception {
+        Map<String, AttributeValue> expected = unmarshall("{\"Items\":[" + ITEM + "]}", null).getItems().get(0);
+        CompactItemBuffer buffer = new CompactItemBuffer();
+
+        buffer.add(expected);
+
+        assertEquals(expected, buffer.iterator().next().toAttributeValues());
+    }
+
+    @Test
+    public void testIteratorScansThePages() {
+        PagedClient pages = new PagedClient(3, 2);
+        ScanExporter exporter = new ScanExporter(pages.client, new ScanRequest("table"), 16);
+
+        Set<String> ids = new HashSet<String>();
+        for (CompactItem item : exporter) {
+            assertTrue(ids.add(item.getString("id")));
+        }
+
+        assertEquals(6, ids.size());
+        assertEquals(3, pages.scans);
+    }
+
+    @Test
+    public void testParallelExportIsReadBack() throws Exception {
+        PagedClient pages = new PagedClient(2, 50);
+        ScanExporter exporter = new ScanExporter(pages.client, new ScanRequest("table"));
+        File file = File.createTempFile("export", ".bin");
+        try {
+            assertEquals(400, exporter.writeTo(file, 4));
+
+            Set<String> ids = new HashSet<String>();
+            CompactItemReader reader = new CompactItemReader(file);
+            try {
+                while (reader.hasNext()) {
+                    CompactItem item = reader.next();
+                    assertTrue(ids.add(item.getString("id")));
+                    assertEquals(new BigDecimal("42.50"), item.getNumber("count"));
+                }
+            } finally {
+                reader.close();
+            }
+            assertEquals(400, ids.size());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testRequestOptionsAreCopied() {
+        ScanRequest request = new ScanRequest("table")
+                .withFilterExpression("#a > :v")
+                .withExpressionAttributeNames(Collections.singletonMap("#a", "a"))
+                .withSegment(1)
+                .withTotalSegments(4);
+        request.setSdkRequestTimeout(1000);
+        request.setSdkClientExecutionTimeout(5000);
+        request.putCustomRequestHeader("x-header", "value");
+        request.getRequestClientOptions().appendUserAgent("exporter");
+        request.getRequestClientOptions().setReadLimit(1024);
+
+        ExportScanRequest copy = new ExportScanRequest(request, new CompactItemBuffer(16));
+
+        assertEquals(request, copy);
+        assertEquals(Integer.valueOf(1000), copy.getSdkRequestTimeout());
+        assertEquals(Integer.valueOf(5000), copy.getSdkClientExecutionTimeout());
+        assertEquals(request.getCustomRequestHeaders(), copy.getCustomRequestHeaders());
+        assertEquals(request.getRequestClientOptions().getClientMarker(Marker.USER_AGENT),
+                copy.getRequestClientOptions().getClientMarker(Marker.USER_AGENT));
+        assertEquals(1024, copy.getRequestClientOptions().getReadLimit());
+    }
+
+    private static ScanResult unmarshall(String json, ItemReader request) throws Exception {
+        return new ScanResultJsonUnmarshaller(request).unmarshall(
+                new JsonUnmarshallerContextImpl(new JsonFactory().createParser(json)));
+    }
+
+    /**
+     * A client serving pages of items of every segment: as JSON read through
+     * the request, as the client does, for document API requests, and as
+     * attribute values otherwise.
+     */
+    private static class PagedClient {
+        private final int pageCount;
+        private final int pageSize;
+        private int scans;
+        private final AmazonDynamoDB client;
+
+        PagedClient(int pageCount, int pageSize) {
+            this.pageCount = pageCount;
+            this.pageSize = pageSize;
+            this.client = EasyMock.createMock(AmazonDynamoDB.class);
+            EasyMock
+                .expect(client.scan(EasyMock.<ScanRequest>anyObject()))
+                .andAnswer(new IAnswer<ScanResult>() {
+                    @Override
+                    public ScanResult answer() throws Throwable {
+                        return scan((ScanRequest) EasyMock.getCurrentArguments()[0]);
+                    }
+                })
+                .anyTimes();
+            EasyMock.replay(client);
+        }
+
+        private synchronized ScanResult scan(ScanRequest request) throws Exception {
+            scans++;
+            int segment = request.getSegment() == null ? 0 : request.getSegment();
+            int page = request.getExclusiveStartKey() == null
+                    ? 0 : Integer.parseInt(request.getExclusiveStartKey().get("page").getN());
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < pageSize; i++) {
+                json.append(i == 0 ? "" : ",").append(ITEM.replace("caf\\u00e9 \\ud83d\\ude00",
+                        segment + "-" + page + "-" + i));
+            }
+            json.append("]");
+
+            ScanResult result = new ScanResult();
+            if (page + 1 < pageCount) {
+                result.setLastEvaluatedKey(Collections.singletonMap("page",
+                        new AttributeValue().withN(Integer.toString(page + 1))));
+            }
+            if (segment % 2 == 0) {
+                JsonParser parser = new JsonFactory().createParser(json.toString());
+                parser.nextToken();
+                result.setItems(((ItemReader) request).readItems(parser));
+            } else {
+                result.setItems(unmarshall("{\"Items\":" + json + "}", null).getItems());
+            }
+            return result;
+        }
+    }
+}
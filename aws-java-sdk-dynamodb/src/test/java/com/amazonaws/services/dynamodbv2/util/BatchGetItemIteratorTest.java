@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+
+public class BatchGetItemIteratorTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile int maxKeysPerRequest;
+    private AmazonDynamoDB client;
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(8);
+        // reads every other key of a request, leaving the others unprocessed
+        client = EasyMock.createMock(AmazonDynamoDB.class);
+        EasyMock
+            .expect(client.batchGetItem(EasyMock.<BatchGetItemRequest>anyObject()))
+            .andAnswer(new IAnswer<BatchGetItemResult>() {
+                @Override
+                public BatchGetItemResult answer() throws Throwable {
+                    int current = inFlight.incrementAndGet();
+                    synchronized (maxInFlight) {
+                        maxInFlight.set(Math.max(maxInFlight.get(), current));
+                    }
+                    try {
+                        requests.incrementAndGet();
+                        Thread.sleep(5);
+                        return batchGetItem((BatchGetItemRequest) EasyMock.getCurrentArguments()[0]);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            })
+            .anyTimes();
+        // a thread-safe mock would serialize the concurrent requests
+        EasyMock.makeThreadSafe(client, false);
+        EasyMock.replay(client);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    private BatchGetItemResult batchGetItem(BatchGetItemRequest request) {
+        Map<String, List<Map<String, AttributeValue>>> responses =
+                new HashMap<String, List<Map<String, AttributeValue>>>();
+        Map<String, KeysAndAttributes> unprocessed = new HashMap<String, KeysAndAttributes>();
+        int keys = 0;
+        for (Map.Entry<String, KeysAndAttributes> table : request.getRequestItems().entrySet()) {
+            List<Map<String, AttributeValue>> items = new ArrayList<Map<String, AttributeValue>>();
+            List<Map<String, AttributeValue>> left = new ArrayList<Map<String, AttributeValue>>();
+            for (Map<String, AttributeValue> key : table.getValue().getKeys()) {
+                (keys++ % 2 == 0 ? items : left).add(key);
+            }
+            responses.put(table.getKey(), items);
+            if (!left.isEmpty()) {
+                unprocessed.put(table.getKey(), table.getValue().clone().withKeys(left));
+            }
+        }
+        synchronized (this) {
+            maxKeysPerRequest = Math.max(maxKeysPerRequest, keys);
+        }
+        return new BatchGetItemResult().withResponses(responses).withUnprocessedKeys(unprocessed);
+    }
+
+    @Test
+    public void testAllItemsAreReadInBatches() {
+        BatchGetItemRequest request = request(250, 130);
+
+        Set<String> read = readAll(new BatchGetItemIterator(client, request));
+
+        assertEquals(380, read.size());
+        assertTrue(read.contains("a-0") && read.contains("a-249") && read.contains("b-129"));
+        assertEquals(100, maxKeysPerRequest);
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    public void testConcurrentRequestsAreBounded() {
+        BatchGetItemRequest request = request(1000, 1000);
+
+        Set<String> read = readAll(new BatchGetItemIterator(client, request, executorService, 3));
+
+        assertEquals(2000, read.size());
+        assertTrue(maxInFlight.get() <= 3);
+        assertTrue(maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void testRequestsAreIssuedAsTheIterationProceeds() {
+        BatchGetItemIterator iterator = new BatchGetItemIterator(client, request(1000, 0), executorService, 2);
+        assertEquals(0, requests.get());
+
+        iterator.next();
+        assertTrue(requests.get() <= 2);
+    }
+
+    @Test
+    public void testEmptyRequest() {
+        assertFalse(new BatchGetItemIterator(client, new BatchGetItemRequest()).hasNext());
+        assertEquals(0, requests.get());
+    }
+
+    private static Set<String> readAll(BatchGetItemIterator iterator) {
+        Set<String> read = new HashSet<String>();
+        while (iterator.hasNext()) {
+            BatchGetItemResult result = iterator.next();
+            assertTrue(result.getUnprocessedKeys().isEmpty());
+            for (List<Map<String, AttributeValue>> items : result.getResponses().values()) {
+                for (Map<String, AttributeValue> item : items) {
+                    assertTrue(read.add(item.get("id").getS()));
+                }
+            }
+        }
+        return read;
+    }
+
+    private static BatchGetItemRequest request(int keysOfA, int keysOfB) {
+        Map<String, KeysAndAttributes> requestItems = new LinkedHashMap<String, KeysAndAttributes>();
+        requestItems.put("a", keys("a", keysOfA));
+        if (keysOfB > 0) {
+            requestItems.put("b", keys("b", keysOfB));
+        }
+        return new BatchGetItemRequest().withRequestItems(requestItems);
+    }
+
+    private static KeysAndAttributes keys(String table, int count) {
+        List<Map<String, AttributeValue>> keys = new ArrayList<Map<String, AttributeValue>>();
+        for (int i = 0; i < count; i++) {
+            Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+            key.put("id", new AttributeValue(table + "-" + i));
+            keys.add(key);
+        }
+        return new KeysAndAttributes().withKeys(keys).withConsistentRead(true);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+
+public class ItemCacheTest {
+
+    private static final String TABLE = "table";
+
+    /** The items of the table, by id */
+    private final Map<String, Map<String, AttributeValue>> items =
+            new HashMap<String, Map<String, AttributeValue>>();
+    private final AtomicInteger getItemCalls = new AtomicInteger();
+    private volatile CountDownLatch getItemStarted;
+    private volatile CountDownLatch getItemReleased;
+    private AmazonDynamoDB client;
+
+    @Before
+    public void setUp() {
+        client = EasyMock.createMock(AmazonDynamoDB.class);
+        EasyMock
+            .expect(client.getItem(EasyMock.<GetItemRequest>anyObject()))
+            .andAnswer(new IAnswer<GetItemResult>() {
+                @Override
+                public GetItemResult answer() throws Throwable {
+                    getItemCalls.incrementAndGet();
+                    if (getItemStarted != null) {
+                        getItemStarted.countDown();
+                        getItemReleased.await();
+                    }
+                    GetItemRequest request = (GetItemRequest) EasyMock.getCurrentArguments()[0];
+                    return new GetItemResult().withItem(items.get(request.getKey().get("id").getS()));
+                }
+            })
+            .anyTimes();
+        EasyMock.replay(client);
+        putItem("a", "1");
+        putItem("b", "2");
+        putItem("c", "3");
+    }
+
+    @Test
+    public void testHitsAfterMiss() {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+
+        assertEquals("1", cache.getItem(client, request("a")).getItem().get("value").getS());
+        assertEquals("1", cache.getItem(client, request("a")).getItem().get("value").getS());
+        assertEquals("1", cache.getItem(client, request("a")).getItem().get("value").getS());
+
+        assertEquals(1, getItemCalls.get());
+        ItemCacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(2 / 3.0, statistics.getHitRate(), 0.001);
+        assertEquals(1.0, statistics.getSavedReadCapacityUnits(), 0.001);
+    }
+
+    @Test
+    public void testMissingItemsAreCached() {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+
+        assertNull(cache.getItem(client, request("missing")).getItem());
+        assertNull(cache.getItem(client, request("missing")).getItem());
+
+        assertEquals(1, getItemCalls.get());
+    }
+
+    @Test
+    public void testConsistentReadsBypassTheCache() {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+        cache.getItem(client, request("a"));
+        putItem("a", "changed");
+
+        GetItemResult consistent = cache.getItem(client, request("a").withConsistentRead(true));
+
+        assertEquals("changed", consistent.getItem().get("value").getS());
+        assertEquals("changed", cache.getItem(client, request("a")).getItem().get("value").getS());
+        assertEquals(2, getItemCalls.get());
+    }
+
+    @Test
+    public void testWritesUpdateOrInvalidate() {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+        cache.getItem(client, request("a"));
+        cache.getItem(client, request("b"));
+
+        cache.putItem(TABLE, item("a", "put"));
+        putItem("b", "updated");
+        cache.invalidate(TABLE, key("b"));
+
+        assertEquals("put", cache.getItem(client, request("a")).getItem().get("value").getS());
+        assertEquals("updated", cache.getItem(client, request("b")).getItem().get("value").getS());
+        assertEquals(3, getItemCalls.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedItemsAreEvicted() {
+        ItemCache cache = new ItemCache(2, 1024, 1, TimeUnit.HOURS);
+        cache.getItem(client, request("a"));
+        cache.getItem(client, request("b"));
+        cache.getItem(client, request("a"));
+        cache.getItem(client, request("c"));
+
+        // b was the least recently used
+        cache.getItem(client, request("a"));
+        cache.getItem(client, request("b"));
+
+        assertEquals(4, getItemCalls.get());
+        assertEquals(2, cache.getStatistics().getEvictionCount());
+        assertEquals(2, cache.getStatistics().getItemCount());
+    }
+
+    @Test
+    public void testSizeLimit() {
+        // each item is 2 + 1 + 5 + 1 = 9 bytes
+        ItemCache cache = new ItemCache(10, 20, 1, TimeUnit.HOURS);
+        cache.getItem(client, request("a"));
+        cache.getItem(client, request("b"));
+        cache.getItem(client, request("c"));
+
+        assertEquals(2, cache.getStatistics().getItemCount());
+        assertEquals(18, cache.getStatistics().getSizeBytes());
+    }
+
+    @Test
+    public void testExpiredItemsAreReadAgain() throws InterruptedException {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.MILLISECONDS);
+        cache.getItem(client, request("a"));
+        Thread.sleep(5);
+        cache.getItem(client, request("a"));
+
+        assertEquals(2, getItemCalls.get());
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        final ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+        getItemStarted = new CountDownLatch(1);
+        getItemReleased = new CountDownLatch(1);
+
+        Thread first = new Thread() {
+            @Override
+            public void run() {
+                cache.getItem(client, request("a"));
+            }
+        };
+        first.start();
+        getItemStarted.await();
+
+        final GetItemResult[] second = new GetItemResult[1];
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                second[0] = cache.getItem(client, request("a"));
+            }
+        };
+        waiter.start();
+        while (cache.getStatistics().getCoalescedMissCount() == 0) {
+            Thread.sleep(1);
+        }
+        getItemReleased.countDown();
+        first.join();
+        waiter.join();
+
+        assertEquals(1, getItemCalls.get());
+        assertEquals("1", second[0].getItem().get("value").getS());
+    }
+
+    @Test
+    public void testItemsInvalidatedWhileLoadingAreNotCached() throws Exception {
+        final ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+        getItemStarted = new CountDownLatch(1);
+        getItemReleased = new CountDownLatch(1);
+
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                cache.getItem(client, request("a"));
+            }
+        };
+        reader.start();
+        getItemStarted.await();
+        cache.invalidate(TABLE, key("a"));
+        getItemReleased.countDown();
+        reader.join();
+
+        getItemStarted = null;
+        cache.getItem(client, request("a"));
+        assertEquals(2, getItemCalls.get());
+        assertTrue(cache.getStatistics().getItemCount() == 1);
+    }
+
+    @Test
+    public void testCachedItemsAreNotShared() {
+        ItemCache cache = new ItemCache(10, 1024, 1, TimeUnit.HOURS);
+        Map<String, AttributeValue> binary = key("bin");
+        binary.put("data", new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+        items.put("bin", binary);
+
+        // the caller drains the binary value and changes the item it got
+        Map<String, AttributeValue> first = cache.getItem(client, request("bin")).getItem();
+        first.get("data").getB().get(new byte[3]);
+        first.put("data", new AttributeValue("changed"));
+        Map<String, AttributeValue> second = cache.getItem(client, request("bin")).getItem();
+        second.get("data").getB().get();
+
+        assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }),
+                cache.getItem(client, request("bin")).getItem().get("data").getB());
+
+        Map<String, AttributeValue> put = item("a", "put");
+        cache.putItem(TABLE, put);
+        put.get("value").setS("changed after put");
+        assertEquals("put", cache.getItem(client, request("a")).getItem().get("value").getS());
+        assertEquals(1, getItemCalls.get());
+    }
+
+    private void putItem(String id, String value) {
+        items.put(id, item(id, value));
+    }
+
+    private static Map<String, AttributeValue> item(String id, String value) {
+        Map<String, AttributeValue> item = key(id);
+        item.put("value", new AttributeValue(value));
+        return item;
+    }
+
+    private static Map<String, AttributeValue> key(String id) {
+        Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+        key.put("id", new AttributeValue(id));
+        return key;
+    }
+
+    private static GetItemRequest request(String id) {
+        return new GetItemRequest(TABLE, key(id));
+    }
+}
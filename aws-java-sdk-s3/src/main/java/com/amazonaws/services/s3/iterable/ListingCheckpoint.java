@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A serializable snapshot of the progress of a parallel listing, which can be
+ * passed to {@link ParallelS3Objects#resumeFrom(ListingCheckpoint)} or
+ * {@link ParallelS3Versions#resumeFrom(ListingCheckpoint)} to continue an
+ * interrupted listing without starting over.
+ *
+ * @see ParallelListingIterator#getCheckpoint()
+ */
+public final class ListingCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String bucketName;
+    private final String prefix;
+    private final List<PartitionProgress> partitions;
+
+    ListingCheckpoint(String bucketName, String prefix,
+            List<PartitionProgress> partitions) {
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.partitions = Collections.unmodifiableList(
+                new ArrayList<PartitionProgress>(partitions));
+    }
+
+    /**
+     * Returns the name of the bucket being listed.
+     */
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    /**
+     * Returns the prefix the listing was restricted to, or null if the whole
+     * bucket was being listed.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Returns the progress of every partition discovered so far, including the
+     * completed ones.
+     */
+    public List<PartitionProgress> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns true if every discovered partition has been fully consumed.
+     */
+    public boolean isCompleted() {
+        for (PartitionProgress partition : partitions) {
+            if (!partition.isCompleted())
+                return false;
+        }
+        return true;
+    }
+}
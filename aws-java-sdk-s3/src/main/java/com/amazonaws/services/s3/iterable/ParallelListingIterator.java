@@ -0,0 +1,355 @@
+/*
+ * Copyright 2012-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Iterator over the summaries produced by a parallel, prefix-partitioned
+ * listing.
+ * <p>
+ * Each partition of the key space is listed by its own task on the executor.
+ * While a partition is listed with a delimiter, every common prefix it returns
+ * becomes a new partition, so the key space is split recursively until the
+ * configured maximum split depth is reached; deeper partitions are listed
+ * flat. Listed pages are handed to the consumer through a bounded queue, so
+ * listing tasks block rather than buffer unbounded numbers of summaries when
+ * the consumer falls behind.
+ * <p>
+ * Summaries are returned in no particular order. Callers that stop iterating
+ * before the end must call {@link #cancel()} to release the listing tasks.
+ * This class is not safe for use by multiple consumer threads.
+ *
+ * @param <T>
+ *            The type of summary returned.
+ */
+public abstract class ParallelListingIterator<T> implements Iterator<T> {
+
+    private static final Log log = LogFactory.getLog(ParallelListingIterator.class);
+
+    /** How long blocked producers and consumers wait before rechecking state. */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final String bucketName;
+    private final String prefix;
+    private final String delimiter;
+    private final int maxSplitDepth;
+    private final ExecutorService executor;
+    private final boolean shutDownExecutor;
+
+    private final ConcurrentMap<String, PartitionProgress> partitions =
+            new ConcurrentHashMap<String, PartitionProgress>();
+    private final BlockingQueue<Page<T>> pages;
+    private final AtomicInteger activePartitions = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private volatile boolean cancelled;
+
+    private Page<T> currentPage;
+    private Iterator<T> currentIterator;
+    private boolean finished;
+
+    /**
+     * A single page of listing results.
+     */
+    static final class Page<T> {
+        private static final Page<Object> END = new Page<Object>(
+                Collections.emptyList(), Collections.<String>emptyList(),
+                null, null, false);
+
+        final List<T> summaries;
+        final List<String> commonPrefixes;
+        final String nextKeyMarker;
+        final String nextVersionIdMarker;
+        final boolean truncated;
+        PartitionProgress partition;
+
+        Page(List<T> summaries, List<String> commonPrefixes,
+                String nextKeyMarker, String nextVersionIdMarker,
+                boolean truncated) {
+            this.summaries = summaries;
+            this.commonPrefixes = commonPrefixes;
+            this.nextKeyMarker = nextKeyMarker;
+            this.nextVersionIdMarker = nextVersionIdMarker;
+            this.truncated = truncated;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Page<T> end() {
+            return (Page<T>) END;
+        }
+    }
+
+    ParallelListingIterator(String bucketName, String prefix,
+            String delimiter, int maxSplitDepth, int maxBufferedPages,
+            ExecutorService executor, boolean shutDownExecutor,
+            ListingCheckpoint checkpoint) {
+        this.bucketName = bucketName;
+        this.prefix = prefix;
+        this.delimiter = delimiter;
+        this.maxSplitDepth = maxSplitDepth;
+        this.executor = executor;
+        this.shutDownExecutor = shutDownExecutor;
+        this.pages = new ArrayBlockingQueue<Page<T>>(maxBufferedPages);
+
+        if (checkpoint == null) {
+            startPartition(new PartitionProgress(prefix == null ? "" : prefix, 0));
+            return;
+        }
+
+        if (!bucketName.equals(checkpoint.getBucketName())
+                || !equal(prefix, checkpoint.getPrefix())) {
+            throw new IllegalArgumentException("The checkpoint was taken for "
+                    + checkpoint.getBucketName() + "/" + checkpoint.getPrefix()
+                    + " and cannot be used to resume listing " + bucketName
+                    + "/" + prefix);
+        }
+        // Register completed partitions first so that partitions rediscovered
+        // by re-listing a parent are not listed a second time.
+        List<PartitionProgress> pending = new ArrayList<PartitionProgress>();
+        for (PartitionProgress partition : checkpoint.getPartitions()) {
+            PartitionProgress copy = partition.copy();
+            if (copy.isCompleted()) {
+                partitions.put(copy.getPrefix(), copy);
+            } else {
+                pending.add(copy);
+            }
+        }
+        if (pending.isEmpty()) {
+            finish();
+            return;
+        }
+        activePartitions.addAndGet(pending.size());
+        for (PartitionProgress partition : pending) {
+            if (partitions.putIfAbsent(partition.getPrefix(), partition) == null) {
+                submit(partition);
+            } else {
+                partitionListed();
+            }
+        }
+    }
+
+    /**
+     * Fetches one page of the given partition.
+     *
+     * @param partitionPrefix
+     *            The prefix of the partition being listed.
+     * @param delimiter
+     *            The delimiter to roll keys up by, or null to list the
+     *            partition flat.
+     * @param keyMarker
+     *            The key to list after, or null to start at the beginning.
+     * @param versionIdMarker
+     *            The version id to list after; only used for versions.
+     */
+    abstract Page<T> fetchPage(String partitionPrefix, String delimiter,
+            String keyMarker, String versionIdMarker);
+
+    @Override
+    public boolean hasNext() {
+        while (currentIterator == null || !currentIterator.hasNext()) {
+            if (finished)
+                return false;
+            if (currentPage != null) {
+                Page<T> consumed = currentPage;
+                consumed.partition.commit(consumed.summaries.size(),
+                        consumed.nextKeyMarker, consumed.nextVersionIdMarker,
+                        consumed.truncated);
+                currentPage = null;
+                currentIterator = null;
+            }
+            Page<T> page = takePage();
+            if (page == Page.<T>end()) {
+                finish();
+                rethrowFailure();
+                return false;
+            }
+            currentPage = page;
+            currentIterator = page.summaries.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return currentIterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops the listing. Listing tasks still running exit after their current
+     * request, and {@link #hasNext()} returns false from now on. The
+     * checkpoint remains available so the listing can be resumed later.
+     */
+    public void cancel() {
+        cancelled = true;
+        finish();
+    }
+
+    /**
+     * Returns a snapshot of the progress of every partition discovered so far,
+     * ordered by prefix.
+     */
+    public List<PartitionProgress> getPartitionProgress() {
+        List<PartitionProgress> snapshot = new ArrayList<PartitionProgress>();
+        for (PartitionProgress partition : partitions.values()) {
+            snapshot.add(partition.copy());
+        }
+        Collections.sort(snapshot, new Comparator<PartitionProgress>() {
+            @Override
+            public int compare(PartitionProgress a, PartitionProgress b) {
+                return a.getPrefix().compareTo(b.getPrefix());
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Returns a checkpoint from which the listing can be resumed. Summaries
+     * returned before the checkpoint was taken are not returned again, except
+     * for those of the page currently being consumed.
+     */
+    public ListingCheckpoint getCheckpoint() {
+        return new ListingCheckpoint(bucketName, prefix, getPartitionProgress());
+    }
+
+    private Page<T> takePage() {
+        try {
+            while (true) {
+                Page<T> page = pages.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (page != null)
+                    return page;
+                rethrowFailure();
+                if (cancelled)
+                    return Page.end();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new AbortedException();
+        }
+    }
+
+    private void rethrowFailure() {
+        Throwable t = failure.get();
+        if (t == null)
+            return;
+        finish();
+        if (t instanceof AmazonClientException)
+            throw (AmazonClientException) t;
+        throw new AmazonClientException("Unable to list " + bucketName, t);
+    }
+
+    private void finish() {
+        finished = true;
+        if (shutDownExecutor)
+            executor.shutdownNow();
+    }
+
+    private void startPartition(PartitionProgress partition) {
+        if (partitions.putIfAbsent(partition.getPrefix(), partition) == null) {
+            activePartitions.incrementAndGet();
+            submit(partition);
+        }
+    }
+
+    private void submit(final PartitionProgress partition) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listPartition(partition);
+                } catch (Throwable t) {
+                    if (failure.compareAndSet(null, t))
+                        cancelled = true;
+                    log.debug("Unable to list partition " + partition.getPrefix(), t);
+                } finally {
+                    partitionListed();
+                }
+            }
+        });
+    }
+
+    private void partitionListed() {
+        if (activePartitions.decrementAndGet() == 0 && !cancelled)
+            enqueue(Page.<T>end());
+    }
+
+    private void listPartition(PartitionProgress partition) {
+        final boolean split = delimiter != null && partition.getDepth() < maxSplitDepth;
+        String keyMarker = partition.getKeyMarker();
+        String versionIdMarker = partition.getVersionIdMarker();
+        Page<T> page;
+        do {
+            if (cancelled)
+                return;
+            page = fetchPage(partition.getPrefix(), split ? delimiter : null,
+                    keyMarker, versionIdMarker);
+            page.partition = partition;
+            if (split) {
+                // Children are registered before the page is queued so the
+                // listing can never appear finished while they are pending.
+                for (String commonPrefix : page.commonPrefixes) {
+                    startPartition(new PartitionProgress(commonPrefix,
+                            partition.getDepth() + 1));
+                }
+            }
+            if (!enqueue(page))
+                return;
+            keyMarker = page.nextKeyMarker;
+            versionIdMarker = page.nextVersionIdMarker;
+        } while (page.truncated);
+    }
+
+    private boolean enqueue(Page<T> page) {
+        try {
+            while (!cancelled) {
+                if (pages.offer(page, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS))
+                    return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2012-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+/**
+ * Provides a way to enumerate very large numbers of Amazon S3 objects by
+ * listing many parts of the key space concurrently. For example:
+ *
+ * <pre class="brush: java">
+ * ParallelListingIterator&lt;S3ObjectSummary&gt; it =
+ *         ParallelS3Objects.inBucket(s3, &quot;my-bucket&quot;).withParallelism(32).iterator();
+ * while ( it.hasNext() ) {
+ *     S3ObjectSummary summary = it.next();
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * The key space is partitioned by the common prefixes discovered with the
+ * delimiter (by default "/"), recursively up to
+ * {@link #withMaxSplitDepth(int)} levels. Unlike {@link S3Objects}, summaries
+ * are <b>not</b> returned in key order. The progress of the listing can be
+ * saved with {@link ParallelListingIterator#getCheckpoint()} and resumed later
+ * with {@link #resumeFrom(ListingCheckpoint)}.
+ */
+public class ParallelS3Objects implements Iterable<S3ObjectSummary> {
+
+    /** Default delimiter used to discover partitions. */
+    public static final String DEFAULT_DELIMITER = "/";
+
+    /** Default number of partitions listed concurrently. */
+    public static final int DEFAULT_PARALLELISM = 10;
+
+    /** Default number of key-space splits below the listing prefix. */
+    public static final int DEFAULT_MAX_SPLIT_DEPTH = 4;
+
+    /** Default number of listing pages buffered ahead of the consumer. */
+    public static final int DEFAULT_MAX_BUFFERED_PAGES = 32;
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private String prefix;
+    private Integer batchSize;
+    private String delimiter = DEFAULT_DELIMITER;
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int maxSplitDepth = DEFAULT_MAX_SPLIT_DEPTH;
+    private int maxBufferedPages = DEFAULT_MAX_BUFFERED_PAGES;
+    private ExecutorService executorService;
+    private ListingCheckpoint checkpoint;
+
+    private ParallelS3Objects(AmazonS3 s3, String bucketName) {
+        this.s3 = s3;
+        this.bucketName = bucketName;
+    }
+
+    /**
+     * Constructs an iterable that covers all the objects in an Amazon S3
+     * bucket.
+     *
+     * @param s3
+     *            The Amazon S3 client.
+     * @param bucketName
+     *            The bucket name.
+     * @return An iterable for object summaries.
+     */
+    public static ParallelS3Objects inBucket(AmazonS3 s3, String bucketName) {
+        return new ParallelS3Objects(s3, bucketName);
+    }
+
+    /**
+     * Constructs an iterable that covers the objects in an Amazon S3 bucket
+     * where the key begins with the given prefix.
+     *
+     * @param s3
+     *            The Amazon S3 client.
+     * @param bucketName
+     *            The bucket name.
+     * @param prefix
+     *            The prefix.
+     * @return An iterable for object summaries.
+     */
+    public static ParallelS3Objects withPrefix(AmazonS3 s3, String bucketName, String prefix) {
+        ParallelS3Objects objects = new ParallelS3Objects(s3, bucketName);
+        objects.prefix = prefix;
+        return objects;
+    }
+
+    /**
+     * Sets the batch size, i.e., how many {@link S3ObjectSummary}s will be
+     * fetched by each listing request.
+     */
+    public ParallelS3Objects withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the delimiter used to discover partitions of the key space, or null
+     * to list the whole prefix as a single partition.
+     */
+    public ParallelS3Objects withDelimiter(String delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * Sets how many partitions are listed concurrently. Ignored if an executor
+     * service is supplied with {@link #withExecutorService(ExecutorService)}.
+     */
+    public ParallelS3Objects withParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets how many times the key space may be split below the listing
+     * prefix; partitions at this depth are listed without a delimiter.
+     */
+    public ParallelS3Objects withMaxSplitDepth(int maxSplitDepth) {
+        this.maxSplitDepth = maxSplitDepth;
+        return this;
+    }
+
+    /**
+     * Sets how many listing pages may be buffered ahead of the consumer before
+     * listing tasks block.
+     */
+    public ParallelS3Objects withMaxBufferedPages(int maxBufferedPages) {
+        if (maxBufferedPages < 1)
+            throw new IllegalArgumentException("maxBufferedPages must be at least 1");
+        this.maxBufferedPages = maxBufferedPages;
+        return this;
+    }
+
+    /**
+     * Sets the executor service used to run listing tasks. The executor is
+     * not shut down by the listing; its size bounds the number of partitions
+     * listed concurrently.
+     */
+    public ParallelS3Objects withExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Resumes the listing from a checkpoint previously taken with
+     * {@link ParallelListingIterator#getCheckpoint()}.
+     */
+    public ParallelS3Objects resumeFrom(ListingCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public AmazonS3 getS3() {
+        return s3;
+    }
+
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxSplitDepth() {
+        return maxSplitDepth;
+    }
+
+    public int getMaxBufferedPages() {
+        return maxBufferedPages;
+    }
+
+    @Override
+    public ParallelListingIterator<S3ObjectSummary> iterator() {
+        boolean ownExecutor = executorService == null;
+        ExecutorService executor = ownExecutor
+                ? createExecutorService(parallelism, "s3-parallel-list-objects-")
+                : executorService;
+        return new ParallelListingIterator<S3ObjectSummary>(bucketName,
+                prefix, delimiter, maxSplitDepth, maxBufferedPages, executor,
+                ownExecutor, checkpoint) {
+            @Override
+            Page<S3ObjectSummary> fetchPage(String partitionPrefix,
+                    String delimiter, String keyMarker, String versionIdMarker) {
+                ListObjectsRequest req = new ListObjectsRequest(bucketName,
+                        emptyToNull(partitionPrefix), keyMarker, delimiter,
+                        batchSize);
+                ObjectListing listing = s3.listObjects(req);
+                return new Page<S3ObjectSummary>(listing.getObjectSummaries(),
+                        listing.getCommonPrefixes(), listing.getNextMarker(),
+                        null, listing.isTruncated());
+            }
+        };
+    }
+
+    static String emptyToNull(String prefix) {
+        return prefix == null || prefix.length() == 0 ? null : prefix;
+    }
+
+    static ExecutorService createExecutorService(int threads, final String namePrefix) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                thread.setName(namePrefix + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
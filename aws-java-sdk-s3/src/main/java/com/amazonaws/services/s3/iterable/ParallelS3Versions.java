@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import static com.amazonaws.services.s3.iterable.ParallelS3Objects.createExecutorService;
+import static com.amazonaws.services.s3.iterable.ParallelS3Objects.emptyToNull;
+
+import java.util.concurrent.ExecutorService;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListVersionsRequest;
+import com.amazonaws.services.s3.model.S3VersionSummary;
+import com.amazonaws.services.s3.model.VersionListing;
+
+/**
+ * Provides a way to enumerate very large numbers of Amazon S3 object versions
+ * by listing many parts of the key space concurrently.
+ * <p>
+ * Partitioning, ordering and checkpointing behave as described for
+ * {@link ParallelS3Objects}; in particular, versions are <b>not</b> returned in
+ * key order.
+ */
+public class ParallelS3Versions implements Iterable<S3VersionSummary> {
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private String prefix;
+    private Integer batchSize;
+    private String delimiter = ParallelS3Objects.DEFAULT_DELIMITER;
+    private int parallelism = ParallelS3Objects.DEFAULT_PARALLELISM;
+    private int maxSplitDepth = ParallelS3Objects.DEFAULT_MAX_SPLIT_DEPTH;
+    private int maxBufferedPages = ParallelS3Objects.DEFAULT_MAX_BUFFERED_PAGES;
+    private ExecutorService executorService;
+    private ListingCheckpoint checkpoint;
+
+    private ParallelS3Versions(AmazonS3 s3, String bucketName) {
+        this.s3 = s3;
+        this.bucketName = bucketName;
+    }
+
+    /**
+     * Constructs an iterable that covers all the object versions in an Amazon
+     * S3 bucket.
+     *
+     * @param s3
+     *            The Amazon S3 client.
+     * @param bucketName
+     *            The bucket name.
+     * @return An iterable for object version summaries.
+     */
+    public static ParallelS3Versions inBucket(AmazonS3 s3, String bucketName) {
+        return new ParallelS3Versions(s3, bucketName);
+    }
+
+    /**
+     * Constructs an iterable that covers the versions in an Amazon S3 bucket
+     * where the object key begins with the given prefix.
+     *
+     * @param s3
+     *            The Amazon S3 client.
+     * @param bucketName
+     *            The bucket name.
+     * @param prefix
+     *            The prefix.
+     * @return An iterable for object version summaries.
+     */
+    public static ParallelS3Versions withPrefix(AmazonS3 s3, String bucketName,
+            String prefix) {
+        ParallelS3Versions versions = new ParallelS3Versions(s3, bucketName);
+        versions.prefix = prefix;
+        return versions;
+    }
+
+    /**
+     * Sets the batch size, i.e., how many {@link S3VersionSummary}s will be
+     * fetched by each listing request.
+     */
+    public ParallelS3Versions withBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @see ParallelS3Objects#withDelimiter(String)
+     */
+    public ParallelS3Versions withDelimiter(String delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * @see ParallelS3Objects#withParallelism(int)
+     */
+    public ParallelS3Versions withParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @see ParallelS3Objects#withMaxSplitDepth(int)
+     */
+    public ParallelS3Versions withMaxSplitDepth(int maxSplitDepth) {
+        this.maxSplitDepth = maxSplitDepth;
+        return this;
+    }
+
+    /**
+     * @see ParallelS3Objects#withMaxBufferedPages(int)
+     */
+    public ParallelS3Versions withMaxBufferedPages(int maxBufferedPages) {
+        if (maxBufferedPages < 1)
+            throw new IllegalArgumentException("maxBufferedPages must be at least 1");
+        this.maxBufferedPages = maxBufferedPages;
+        return this;
+    }
+
+    /**
+     * @see ParallelS3Objects#withExecutorService(ExecutorService)
+     */
+    public ParallelS3Versions withExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Resumes the listing from a checkpoint previously taken with
+     * {@link ParallelListingIterator#getCheckpoint()}.
+     */
+    public ParallelS3Versions resumeFrom(ListingCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public AmazonS3 getS3() {
+        return s3;
+    }
+
+    @Override
+    public ParallelListingIterator<S3VersionSummary> iterator() {
+        boolean ownExecutor = executorService == null;
+        ExecutorService executor = ownExecutor
+                ? createExecutorService(parallelism, "s3-parallel-list-versions-")
+                : executorService;
+        return new ParallelListingIterator<S3VersionSummary>(bucketName,
+                prefix, delimiter, maxSplitDepth, maxBufferedPages, executor,
+                ownExecutor, checkpoint) {
+            @Override
+            Page<S3VersionSummary> fetchPage(String partitionPrefix,
+                    String delimiter, String keyMarker, String versionIdMarker) {
+                ListVersionsRequest req = new ListVersionsRequest(bucketName,
+                        emptyToNull(partitionPrefix), keyMarker,
+                        versionIdMarker, delimiter, batchSize);
+                VersionListing listing = s3.listVersions(req);
+                return new Page<S3VersionSummary>(
+                        listing.getVersionSummaries(),
+                        listing.getCommonPrefixes(),
+                        listing.getNextKeyMarker(),
+                        listing.getNextVersionIdMarker(),
+                        listing.isTruncated());
+            }
+        };
+    }
+}
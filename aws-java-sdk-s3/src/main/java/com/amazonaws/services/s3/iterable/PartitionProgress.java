@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import java.io.Serializable;
+
+/**
+ * Progress of a single key-space partition of a parallel listing. A partition
+ * covers every key beginning with its prefix that is not covered by a deeper
+ * partition.
+ * <p>
+ * The markers recorded here only advance once all the summaries of a page
+ * have been handed out by the iterator, so resuming from a
+ * {@link ListingCheckpoint} never skips a summary, although summaries of a
+ * partially consumed page may be returned again.
+ *
+ * @see ParallelListingIterator#getPartitionProgress()
+ */
+public final class PartitionProgress implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String prefix;
+    private final int depth;
+    private String keyMarker;
+    private String versionIdMarker;
+    private long summariesConsumed;
+    private long pagesConsumed;
+    private boolean completed;
+
+    PartitionProgress(String prefix, int depth) {
+        this.prefix = prefix;
+        this.depth = depth;
+    }
+
+    /**
+     * Returns the key prefix covered by this partition; the empty string for
+     * the root of an entire bucket.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Returns how many times the key space was split to reach this partition,
+     * zero for the root partition.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the key marker after which listing of this partition resumes, or
+     * null if no page of this partition has been consumed yet.
+     */
+    public synchronized String getKeyMarker() {
+        return keyMarker;
+    }
+
+    /**
+     * Returns the version id marker after which listing of this partition
+     * resumes; only used when listing object versions.
+     */
+    public synchronized String getVersionIdMarker() {
+        return versionIdMarker;
+    }
+
+    /**
+     * Returns the number of summaries of this partition handed out so far.
+     */
+    public synchronized long getSummariesConsumed() {
+        return summariesConsumed;
+    }
+
+    /**
+     * Returns the number of listing pages of this partition handed out so far.
+     */
+    public synchronized long getPagesConsumed() {
+        return pagesConsumed;
+    }
+
+    /**
+     * Returns true if every summary of this partition has been handed out.
+     */
+    public synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Records that a page of this partition has been fully consumed.
+     */
+    synchronized void commit(int summaries, String nextKeyMarker,
+            String nextVersionIdMarker, boolean truncated) {
+        summariesConsumed += summaries;
+        pagesConsumed++;
+        keyMarker = nextKeyMarker;
+        versionIdMarker = nextVersionIdMarker;
+        completed = !truncated;
+    }
+
+    /**
+     * Returns a point-in-time copy of this progress record.
+     */
+    synchronized PartitionProgress copy() {
+        PartitionProgress copy = new PartitionProgress(prefix, depth);
+        copy.keyMarker = keyMarker;
+        copy.versionIdMarker = versionIdMarker;
+        copy.summariesConsumed = summariesConsumed;
+        copy.pagesConsumed = pagesConsumed;
+        copy.completed = completed;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "{prefix: " + prefix + ", depth: " + depth + ", keyMarker: "
+                + getKeyMarker() + ", summaries: " + getSummariesConsumed()
+                + ", completed: " + isCompleted() + "}";
+    }
+}
@@ -34,6 +34,9 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
  * The list of {@link S3ObjectSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
  * {@link S3Objects#withBatchSize(int)} method.
+ * <p>
+ * To enumerate very large buckets, see {@link ParallelS3Objects}, which lists many
+ * prefixes concurrently at the cost of key ordering.
  */
 public class S3Objects implements Iterable<S3ObjectSummary> {
 
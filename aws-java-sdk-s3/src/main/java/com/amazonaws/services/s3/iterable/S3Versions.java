@@ -34,6 +34,9 @@ import com.amazonaws.services.s3.model.VersionListing;
  * The list of {@link S3VersionSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
  * {@link S3Versions#withBatchSize(int)} method.
+ * <p>
+ * To enumerate very large buckets, see {@link ParallelS3Versions}, which lists many
+ * prefixes concurrently at the cost of key ordering.
  */
 public class S3Versions implements Iterable<S3VersionSummary> {
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.s3.payload;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.payload.PayloadStore;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.util.StringUtils;
+import com.amazonaws.util.json.Jackson;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A {@link PayloadStore} keeping payloads as objects of an Amazon S3 bucket,
+ * for offloading large Amazon SQS and Amazon SNS message bodies.
+ * Payloads are streamed to Amazon S3 as they are encoded, rather than copied
+ * into a byte array first. The pointers are small JSON documents naming the
+ * bucket and key of the object, such as
+ * <code>{"s3BucketName":"my-bucket","s3Key":"3f2504e0-..."}</code>.
+ */
+@ThreadSafe
+public class S3PayloadStore implements PayloadStore {
+
+    private static final String BUCKET_NAME_FIELD = "s3BucketName";
+    private static final String KEY_FIELD = "s3Key";
+    private static final String CONTENT_TYPE = "text/plain; charset=UTF-8";
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private final String keyPrefix;
+
+    /**
+     * Constructs a store keeping payloads at the root of the given bucket.
+     *
+     * @param s3
+     *            the client used to store, read and delete the payloads
+     * @param bucketName
+     *            the bucket holding the payloads; it must exist
+     */
+    public S3PayloadStore(AmazonS3 s3, String bucketName) {
+        this(s3, bucketName, "");
+    }
+
+    /**
+     * Constructs a store keeping payloads under the given key prefix of the
+     * given bucket.
+     *
+     * @param s3
+     *            the client used to store, read and delete the payloads
+     * @param bucketName
+     *            the bucket holding the payloads; it must exist
+     * @param keyPrefix
+     *            the prefix of the keys of the payloads, such as
+     *            "payloads/"
+     */
+    public S3PayloadStore(AmazonS3 s3, String bucketName, String keyPrefix) {
+        if (s3 == null) {
+            throw new IllegalArgumentException("S3 client cannot be null");
+        }
+        if (StringUtils.isNullOrEmpty(bucketName)) {
+            throw new IllegalArgumentException("Bucket name cannot be null or empty");
+        }
+        this.s3 = s3;
+        this.bucketName = bucketName;
+        this.keyPrefix = keyPrefix == null ? "" : keyPrefix;
+    }
+
+    @Override
+    public String storePayload(String payload) {
+        String key = keyPrefix + UUID.randomUUID().toString();
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(StringUtils.utf8Length(payload));
+        metadata.setContentType(CONTENT_TYPE);
+        s3.putObject(bucketName, key, new Utf8EncodingInputStream(payload), metadata);
+
+        Map<String, String> pointer = new LinkedHashMap<String, String>();
+        pointer.put(BUCKET_NAME_FIELD, bucketName);
+        pointer.put(KEY_FIELD, key);
+        return Jackson.toJsonString(pointer);
+    }
+
+    @Override
+    public String getPayload(String pointer) {
+        String[] location = parsePointer(pointer);
+        S3Object object = s3.getObject(location[0], location[1]);
+        try {
+            long length = object.getObjectMetadata().getContentLength();
+            StringBuilder payload = new StringBuilder((int) Math.min(Math.max(length, 16), Integer.MAX_VALUE));
+            Reader reader = new InputStreamReader(object.getObjectContent(), UTF8);
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                payload.append(buffer, 0, read);
+            }
+            return payload.toString();
+        } catch (IOException e) {
+            throw new AmazonClientException("Unable to read the payload " + pointer, e);
+        } finally {
+            try {
+                object.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void deletePayload(String pointer) {
+        String[] location = parsePointer(pointer);
+        s3.deleteObject(location[0], location[1]);
+    }
+
+    /**
+     * @return the bucket name and key of the pointer
+     */
+    private static String[] parsePointer(String pointer) {
+        JsonNode node = Jackson.jsonNodeOf(pointer);
+        JsonNode bucket = node == null ? null : node.get(BUCKET_NAME_FIELD);
+        JsonNode key = node == null ? null : node.get(KEY_FIELD);
+        if (bucket == null || key == null) {
+            throw new AmazonClientException("Invalid payload pointer " + pointer);
+        }
+        return new String[] { bucket.asText(), key.asText() };
+    }
+
+    /**
+     * Encodes characters to UTF-8 as they are read, a buffer at a time.
+     * Resetting to a mark encodes the characters again from the start, which
+     * lets the request be retried without holding the whole encoding in
+     * memory.
+     */
+    private static class Utf8EncodingInputStream extends InputStream {
+
+        private final CharSequence chars;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        private CharBuffer in;
+        private boolean encoded;
+        private boolean flushed;
+        private long position;
+        private long markPosition;
+
+        Utf8EncodingInputStream(CharSequence chars) {
+            this.chars = chars;
+            this.encoder = UTF8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            restart();
+        }
+
+        private void restart() {
+            in = CharBuffer.wrap(chars);
+            encoder.reset();
+            out.clear();
+            out.flip();
+            encoded = false;
+            flushed = false;
+            position = 0;
+        }
+
+        /**
+         * @return false if all the bytes have been read
+         */
+        private boolean fill() {
+            while (!out.hasRemaining() && !flushed) {
+                out.clear();
+                if (!encoded) {
+                    CoderResult result = encoder.encode(in, out, true);
+                    encoded = result.isUnderflow();
+                }
+                if (encoded) {
+                    flushed = encoder.flush(out).isUnderflow();
+                }
+                out.flip();
+            }
+            return out.hasRemaining();
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            position++;
+            return out.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, out.remaining());
+            out.get(b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return out.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            markPosition = position;
+        }
+
+        @Override
+        public void reset() {
+            restart();
+            while (position < markPosition && fill()) {
+                int count = (int) Math.min(out.remaining(), markPosition - position);
+                out.position(out.position() + count);
+                position += count;
+            }
+        }
+    }
+}
@@ -65,11 +65,11 @@ public class S3ProgressPublisher extends SDKProgressPublisher {
         // This is unfortunate as the listener should never block in the first
         // place, but such task submission is necessary to remain backward
         // compatible.
-        return setLatestFutureTask(getExecutorService().submit(new Runnable() {
+        return deliverCallback(listener, new Runnable() {
             @Override public void run() {
                 listener.onPersistableTransfer(persistableTransfer);
             }
-        }));
+        });
     }
 
     private static Future<?> quietlyCallListener(
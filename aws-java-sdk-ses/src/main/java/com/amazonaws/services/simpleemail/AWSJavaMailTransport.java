@@ -14,13 +14,19 @@
  */
 package com.amazonaws.services.simpleemail;
 
-import java.io.ByteArrayOutputStream;
-import java.io.OutputStream;
-import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.mail.Address;
 import javax.mail.Message;
@@ -35,7 +41,6 @@ import javax.mail.internet.MimeMessage;
 
 import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.services.simpleemail.model.RawMessage;
 import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
 import com.amazonaws.util.VersionInfoUtils;
 
@@ -92,9 +97,74 @@ public class AWSJavaMailTransport extends Transport {
 		checkAddresses(msg, addresses);
 		collateRecipients(msg, addresses);
 
-		SendRawEmailRequest req = prepareEmail(msg);
+		MimeMessageRawEmailMarshaller marshaller = prepareEmail(msg);
 
-		sendEmail(msg, req);
+		sendEmail(msg, marshaller);
+	}
+
+	/**
+	 * Sends the given MIME messages through Amazon's E-mail Service, up to the
+	 * given number at a time, each to the recipients embedded in the message.
+	 * All the messages are sent over the connections pooled by the client of
+	 * this transport, of which there are at most as many as the maximum number
+	 * of connections of its client configuration, so a higher concurrency
+	 * leaves messages waiting for a connection.
+	 *
+	 * @param msgs
+	 *            The Mime type e-mail messages to be sent
+	 * @param maxConcurrency
+	 *            The maximum number of messages being sent at a time
+	 * @throws MessagingException
+	 *             If any message could not be sent, once all the others have
+	 *             been; the exceptions of the failed messages are chained via
+	 *             {@link MessagingException#getNextException()}
+	 */
+	public void sendMessages(Message[] msgs, int maxConcurrency)
+			throws MessagingException {
+
+		checkConnection();
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency must be positive");
+		}
+		if (isNullOrEmpty(msgs))
+			return;
+
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(maxConcurrency, msgs.length), new SendThreadFactory());
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>(msgs.length);
+			for (final Message msg : msgs) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws MessagingException {
+						sendMessage(msg, msg == null ? null : msg.getAllRecipients());
+						return null;
+					}
+				}));
+			}
+
+			List<Exception> failures = new ArrayList<Exception>();
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					failures.add(cause instanceof Exception ? (Exception) cause : e);
+				}
+			}
+			if (!failures.isEmpty()) {
+				MessagingException e = new MessagingException(failures.size()
+						+ " of " + msgs.length + " messages could not be sent");
+				for (Exception failure : failures)
+					e.setNextException(failure);
+				throw e;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException("Interrupted while sending messages", e);
+		} finally {
+			executor.shutdownNow();
+		}
 	}
 
 	/**
@@ -213,27 +283,19 @@ public class AWSJavaMailTransport extends Transport {
     }
 
 	/**
-	 * Prepares the email to be sent using the JavaMail service. Wraps up the
-	 * message into a RawEmailRequest object to be processed by AWS's
+	 * Prepares the email to be sent using the JavaMail service. Writes the
+	 * message directly into the body of the request to be sent by AWS's
 	 * sendRawEmail().
 	 *
 	 * @param m
 	 *            A JavaMail message to be converted to a request
-	 * @return A Raw Email Request for AWS E-mail Service
+	 * @return A marshaller of the Raw Email Request for AWS E-mail Service
 	 */
-	private SendRawEmailRequest prepareEmail(Message m)
+	private MimeMessageRawEmailMarshaller prepareEmail(Message m)
 			throws MessagingException {
 
 		try {
-			OutputStream byteOutput = new ByteArrayOutputStream();
-			m.writeTo(byteOutput);
-			SendRawEmailRequest req = new SendRawEmailRequest();
-			byte[] messageByteArray = ((ByteArrayOutputStream) byteOutput)
-					.toByteArray();
-			RawMessage message = new RawMessage();
-			message.setData(ByteBuffer.wrap(messageByteArray));
-			req.setRawMessage(message);
-			return req;
+			return new MimeMessageRawEmailMarshaller(m);
 		} catch (Exception e) {
 		    Address[] sent = new Address[0];
 		    Address[] unsent = new Address[0];
@@ -251,10 +313,10 @@ public class AWSJavaMailTransport extends Transport {
 	 *
 	 * @param m
 	 *            Message used to notify users
-	 * @param req
-	 *            Raw email to be sent
+	 * @param marshaller
+	 *            Marshaller of the raw email to be sent
 	 */
-	private void sendEmail(Message m, SendRawEmailRequest req)
+	private void sendEmail(Message m, MimeMessageRawEmailMarshaller marshaller)
 			throws SendFailedException, MessagingException {
 
 		Address[] sent = null;
@@ -262,8 +324,8 @@ public class AWSJavaMailTransport extends Transport {
 		Address[] invalid = null;
 
 		try {
-		    appendUserAgent(req, USER_AGENT);
-			this.emailService.sendRawEmail(req);
+		    SendRawEmailRequest req = appendUserAgent(new SendRawEmailRequest(), USER_AGENT);
+			this.emailService.sendRawEmail(req, marshaller);
 			sent = m.getAllRecipients();
 			unsent = new Address[0];
 			invalid = new Address[0];
@@ -353,6 +415,20 @@ public class AWSJavaMailTransport extends Transport {
         return request;
     }
 
+    /**
+     * Names the daemon threads sending messages in bulk.
+     */
+    private static final class SendThreadFactory implements ThreadFactory {
+        private static final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "aws-javamail-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     private static final String USER_AGENT = AWSJavaMailTransport.class.getName() + "/" + VersionInfoUtils.getVersion();
 
 }
\ No newline at end of file
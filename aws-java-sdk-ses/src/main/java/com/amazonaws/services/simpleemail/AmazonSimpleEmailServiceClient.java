@@ -761,6 +761,37 @@ public class AmazonSimpleEmailServiceClient extends AmazonWebServiceClient imple
         }
     }
     
+    /**
+     * Sends a raw email marshalled by the given marshaller, such as one that
+     * writes the raw message directly into the request body.
+     */
+    SendRawEmailResult sendRawEmail(SendRawEmailRequest sendRawEmailRequest,
+            MimeMessageRawEmailMarshaller marshaller) {
+        ExecutionContext executionContext = createExecutionContext(sendRawEmailRequest);
+        AWSRequestMetrics awsRequestMetrics = executionContext.getAwsRequestMetrics();
+        awsRequestMetrics.startEvent(Field.ClientExecuteTime);
+        Request<SendRawEmailRequest> request = null;
+        Response<SendRawEmailResult> response = null;
+
+        try {
+            awsRequestMetrics.startEvent(Field.RequestMarshallTime);
+            try {
+                request = marshaller.marshall(super.beforeMarshalling(sendRawEmailRequest));
+                // Binds the request metrics to the current request.
+                request.setAWSRequestMetrics(awsRequestMetrics);
+            } finally {
+                awsRequestMetrics.endEvent(Field.RequestMarshallTime);
+            }
+
+            response = invoke(request, new SendRawEmailResultStaxUnmarshaller(), executionContext);
+            return response.getAwsResponse();
+
+        } finally {
+
+            endClientExecution(awsRequestMetrics, request, response);
+        }
+    }
+
     /**
      * <p>
      * Returns a list containing all of the identities (email addresses and
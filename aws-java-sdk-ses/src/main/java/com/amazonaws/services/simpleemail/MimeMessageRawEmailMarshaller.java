@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleemail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
+import com.amazonaws.transform.Marshaller;
+import com.amazonaws.util.Base64EncodingOutputStream;
+import com.amazonaws.util.SdkHttpUtils;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Marshalls a SendRawEmail request whose raw message is a JavaMail message,
+ * writing the message directly into the form encoded request body instead of
+ * via a byte array, a byte buffer and base 64 and URL encoded strings.
+ * <p>
+ * The message is written on construction, so that it can fail separately
+ * from the request. The body is held in memory in its final encoded form,
+ * since it is read once to be signed and again to be sent, and possibly
+ * again for retries. The raw message of the marshalled request, if any, is
+ * ignored.
+ */
+class MimeMessageRawEmailMarshaller
+        implements Marshaller<Request<SendRawEmailRequest>, SendRawEmailRequest> {
+    private static final String CONTENT_TYPE =
+            "application/x-www-form-urlencoded; charset=utf-8";
+
+    private final FormBody body;
+    /** The size of the body up to the end of the raw message. */
+    private final int messageEnd;
+
+    /**
+     * Writes the given message into the body of the requests to marshall.
+     */
+    MimeMessageRawEmailMarshaller(Message message) throws IOException, MessagingException {
+        body = new FormBody(initialSize(message));
+        body.append("Action=SendRawEmail&Version=2010-12-01&RawMessage.Data=");
+        Base64EncodingOutputStream out = new Base64EncodingOutputStream(
+                new Base64UrlEncodingOutputStream(body));
+        message.writeTo(out);
+        out.finish();
+        messageEnd = body.size();
+    }
+
+    @Override
+    public Request<SendRawEmailRequest> marshall(SendRawEmailRequest sendRawEmailRequest) {
+        if (sendRawEmailRequest == null) {
+            throw new AmazonClientException("Invalid argument passed to marshall(...)");
+        }
+
+        // Drops the parameters of any previously marshalled request
+        body.truncate(messageEnd);
+        if (sendRawEmailRequest.getSource() != null) {
+            body.append("&Source=").append(
+                    SdkHttpUtils.urlEncode(sendRawEmailRequest.getSource(), false));
+        }
+        int destinationsListIndex = 1;
+        for (String destination : sendRawEmailRequest.getDestinations()) {
+            if (destination != null) {
+                body.append("&Destinations.member." + destinationsListIndex + "=")
+                    .append(SdkHttpUtils.urlEncode(destination, false));
+            }
+            destinationsListIndex++;
+        }
+
+        Request<SendRawEmailRequest> request = new DefaultRequest<SendRawEmailRequest>(
+                sendRawEmailRequest, "AmazonSimpleEmailService");
+        request.setHttpMethod(HttpMethodName.POST);
+        request.addHeader("Content-Type", CONTENT_TYPE);
+        request.addHeader("Content-Length", Integer.toString(body.size()));
+        request.setContent(body.toInputStream());
+        return request;
+    }
+
+    /**
+     * Returns the initial capacity of the body for the given message, which
+     * is about a third larger than the message once base 64 encoded.
+     */
+    private static int initialSize(Message message) {
+        int size;
+        try {
+            size = message.getSize();
+        } catch (MessagingException e) {
+            size = -1;
+        }
+        if (size <= 0)
+            return 8192;
+        return (int) Math.min(Integer.MAX_VALUE - 8, 1024 + size * 3L / 2);
+    }
+
+    /**
+     * A growable buffer for the request body, read in place without a copy.
+     */
+    private static final class FormBody extends ByteArrayOutputStream {
+        FormBody(int size) {
+            super(size);
+        }
+
+        void truncate(int size) {
+            count = size;
+        }
+
+        FormBody append(String s) {
+            byte[] bytes = s.getBytes(StringUtils.UTF8);
+            write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
+    /**
+     * URL encodes the output of a base 64 encoder, of which only '+', '/'
+     * and '=' need to be escaped.
+     */
+    private static final class Base64UrlEncodingOutputStream extends FilterOutputStream {
+        private static final byte[] PLUS = {'%', '2', 'B'};
+        private static final byte[] SLASH = {'%', '2', 'F'};
+        private static final byte[] EQUALS = {'%', '3', 'D'};
+
+        Base64UrlEncodingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            switch (b) {
+                case '+': out.write(PLUS); break;
+                case '/': out.write(SLASH); break;
+                case '=': out.write(EQUALS); break;
+                default: out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            final int end = off + len;
+            int start = off;
+            for (int i = off; i < end; i++) {
+                byte c = b[i];
+                if (c == '+' || c == '/' || c == '=') {
+                    out.write(b, start, i - start);
+                    write(c);
+                    start = i + 1;
+                }
+            }
+            out.write(b, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.sns.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Pattern;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * Verifies the signatures of Simple Notification Service messages, fetching
+ * the certificates they are signed with from their
+ * <code>SigningCertURL</code>. Parsed certificates are cached by URL, and
+ * concurrent verifications of messages with the same uncached URL fetch the
+ * certificate once. Only HTTPS URLs of SNS hosts are trusted; messages
+ * referring to any other URL are not valid.
+ * <p>
+ * A verifier is meant to be shared, for example by all the threads of an
+ * HTTP endpoint receiving SNS notifications:
+ *
+ * <pre>
+ * MessageSignatureVerifier verifier = new MessageSignatureVerifier();
+ * ...
+ * if (!verifier.verifyMessage(requestBody))
+ *     response.sendError(HttpServletResponse.SC_FORBIDDEN);
+ * </pre>
+ */
+@ThreadSafe
+public class MessageSignatureVerifier {
+    /** The SNS hosts certificates may be fetched from. */
+    private static final Pattern SNS_HOST =
+            Pattern.compile("^sns\\.[a-z0-9\\-]+\\.amazonaws\\.com(\\.cn)?$");
+    /** Number of messages verified by each task of a batch. */
+    private static final int BATCH_CHUNK_SIZE = 32;
+
+    static final String SIGNING_CERT_URL = "SigningCertURL";
+    static final int DEFAULT_MAX_CACHED_CERTIFICATES = 64;
+
+    private final SignatureChecker checker = new SignatureChecker();
+    private final SigningCertificateFetcher fetcher;
+    private final int maxCachedCertificates;
+    private final ConcurrentMap<String, FutureTask<X509Certificate>> certificates =
+            new ConcurrentHashMap<String, FutureTask<X509Certificate>>();
+
+    /**
+     * Creates a verifier that fetches certificates over HTTPS.
+     */
+    public MessageSignatureVerifier() {
+        this(new UrlConnectionCertificateFetcher());
+    }
+
+    /**
+     * Creates a verifier that fetches certificates with the given fetcher,
+     * such as a local stand-in for tests.
+     */
+    public MessageSignatureVerifier(SigningCertificateFetcher fetcher) {
+        this(fetcher, DEFAULT_MAX_CACHED_CERTIFICATES);
+    }
+
+    /**
+     * Creates a verifier that fetches certificates with the given fetcher,
+     * and caches up to the given number of them.
+     */
+    public MessageSignatureVerifier(SigningCertificateFetcher fetcher,
+            int maxCachedCertificates) {
+        if (fetcher == null)
+            throw new IllegalArgumentException("fetcher must be specified");
+        if (maxCachedCertificates < 1)
+            throw new IllegalArgumentException("maxCachedCertificates must be positive");
+        this.fetcher = fetcher;
+        this.maxCachedCertificates = maxCachedCertificates;
+    }
+
+    /**
+     * Validates the signature on a JSON encoded Simple Notification Service
+     * message.
+     *
+     * @return True if the message was correctly validated, otherwise false.
+     * @throws AmazonClientException
+     *             If the signing certificate of the message could not be
+     *             fetched.
+     * @see SignatureChecker#verifyMessageSignature(String,
+     *      java.security.PublicKey)
+     */
+    public boolean verifyMessage(String message) {
+        return verifyMessage(checker.parseJSON(message));
+    }
+
+    /**
+     * Validates the signature on a parsed Simple Notification Service
+     * message.
+     *
+     * @return True if the message was correctly validated, otherwise false.
+     * @throws AmazonClientException
+     *             If the signing certificate of the message could not be
+     *             fetched.
+     * @see SignatureChecker#verifySignature(Map, java.security.PublicKey)
+     */
+    public boolean verifyMessage(Map<String, String> parsedMessage) {
+        URI signingCertUrl = toTrustedUrl(parsedMessage.get(SIGNING_CERT_URL));
+        if (signingCertUrl == null
+                || parsedMessage.get("SignatureVersion") == null
+                || parsedMessage.get("Signature") == null
+                || parsedMessage.get("Type") == null) {
+            return false;
+        }
+        X509Certificate certificate = getCertificate(signingCertUrl);
+        try {
+            certificate.checkValidity();
+        } catch (CertificateException e) {
+            return false;
+        }
+        return checker.verifySignature(parsedMessage, certificate.getPublicKey());
+    }
+
+    /**
+     * Validates the signatures on the given JSON encoded Simple Notification
+     * Service messages concurrently, with the given executor.
+     *
+     * @return Whether each message, in the same order, was correctly
+     *         validated.
+     * @throws AmazonClientException
+     *             If the signing certificate of any message could not be
+     *             fetched.
+     */
+    public boolean[] verifyMessages(final List<String> messages, ExecutorService executor) {
+        final boolean[] valid = new boolean[messages.size()];
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int start = 0; start < messages.size(); start += BATCH_CHUNK_SIZE) {
+            final int from = start;
+            final int to = Math.min(start + BATCH_CHUNK_SIZE, messages.size());
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = from; i < to; i++)
+                        valid[i] = verifyMessage(messages.get(i));
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new AmazonClientException(cause.getMessage(), cause);
+        } finally {
+            for (Future<?> future : futures)
+                future.cancel(true);
+        }
+        return valid;
+    }
+
+    /**
+     * Returns the certificate at the given URL from the cache, fetching it
+     * if needed.
+     */
+    private X509Certificate getCertificate(final URI signingCertUrl) {
+        String key = signingCertUrl.toString();
+        FutureTask<X509Certificate> task = certificates.get(key);
+        if (task == null) {
+            FutureTask<X509Certificate> newTask = new FutureTask<X509Certificate>(
+                    new Callable<X509Certificate>() {
+                        @Override
+                        public X509Certificate call() throws Exception {
+                            return fetchCertificate(signingCertUrl);
+                        }
+                    });
+            task = certificates.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                evictIfFull();
+                task.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        } catch (ExecutionException e) {
+            // Fetched again by the next message
+            certificates.remove(key, task);
+            throw toAmazonClientException(e.getCause());
+        }
+    }
+
+    private X509Certificate fetchCertificate(URI signingCertUrl)
+            throws IOException, CertificateException {
+        InputStream in = fetcher.fetchCertificate(signingCertUrl);
+        try {
+            return (X509Certificate) CertificateFactory.getInstance("X.509")
+                    .generateCertificate(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Evicts an arbitrary certificate if the cache holds too many; only a few
+     * distinct certificates are expected to be in use at a time.
+     */
+    private void evictIfFull() {
+        Iterator<String> iter = certificates.keySet().iterator();
+        while (certificates.size() > maxCachedCertificates && iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+    }
+
+    /**
+     * Returns the given signing certificate URL if it is an HTTPS URL of an
+     * SNS host; or null otherwise.
+     */
+    static URI toTrustedUrl(String signingCertUrl) {
+        if (signingCertUrl == null)
+            return null;
+        try {
+            URI uri = new URI(signingCertUrl);
+            return "https".equals(uri.getScheme())
+                    && uri.getHost() != null
+                    && SNS_HOST.matcher(uri.getHost()).matches()
+                 ? uri
+                 : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static AmazonClientException toAmazonClientException(Throwable t) {
+        if (t instanceof AmazonClientException)
+            return (AmazonClientException) t;
+        return new AmazonClientException(
+                "Unable to get the signing certificate: " + t.getMessage(), t);
+    }
+
+    /**
+     * Fetches certificates with a {@link URLConnection}.
+     */
+    private static final class UrlConnectionCertificateFetcher
+            implements SigningCertificateFetcher {
+        private static final int TIMEOUT_MILLIS = 10 * 1000;
+
+        @Override
+        public InputStream fetchCertificate(URI signingCertUrl) throws IOException {
+            URLConnection connection = signingCertUrl.toURL().openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            return connection.getInputStream();
+        }
+    }
+}
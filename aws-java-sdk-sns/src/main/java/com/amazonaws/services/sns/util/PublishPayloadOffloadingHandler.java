@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sns.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.payload.PayloadStore;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
+import com.amazonaws.services.sns.model.PublishRequest;
+import com.amazonaws.services.sqs.payload.PayloadOffloadingHandler;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Request handler that publishes messages too large for Amazon SNS through a
+ * {@link PayloadStore}, in the same format as the
+ * {@link PayloadOffloadingHandler} of Amazon SQS: the message is stored, and
+ * published with a pointer to the payload as its body and a
+ * {@link PayloadOffloadingHandler#RESERVED_ATTRIBUTE_NAME} message attribute
+ * holding its size.
+ * <p>
+ * Amazon SQS queues subscribed to the topic need raw message delivery enabled
+ * for the pointer and the attribute to reach the queue as the body and a
+ * message attribute of the message. A client of the queue with a
+ * {@code PayloadOffloadingHandler} over the same store then receives the
+ * payload as the body, and deletes it once it deletes the message. Messages
+ * with a JSON message structure are published unchanged.
+ */
+@ThreadSafe
+public class PublishPayloadOffloadingHandler extends RequestHandler2 {
+
+    private static final String JSON_MESSAGE_STRUCTURE = "json";
+
+    private static final Log log = LogFactory.getLog(PublishPayloadOffloadingHandler.class);
+
+    private final PayloadStore payloadStore;
+    private final long thresholdBytes;
+
+    /**
+     * Constructs a handler offloading the messages the service would reject
+     * for their size.
+     */
+    public PublishPayloadOffloadingHandler(PayloadStore payloadStore) {
+        this(payloadStore, PayloadOffloadingHandler.DEFAULT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Constructs a handler offloading the messages larger than the given
+     * size.
+     *
+     * @param thresholdBytes
+     *            the size in bytes of the largest message published through
+     *            the topic, counting its body and message attributes
+     */
+    public PublishPayloadOffloadingHandler(PayloadStore payloadStore, long thresholdBytes) {
+        if (payloadStore == null) {
+            throw new IllegalArgumentException("Payload store cannot be null");
+        }
+        if (thresholdBytes < 0 || thresholdBytes > PayloadOffloadingHandler.SERVICE_MAX_MESSAGE_SIZE_BYTES) {
+            throw new IllegalArgumentException("Threshold must be between 0 and "
+                    + PayloadOffloadingHandler.SERVICE_MAX_MESSAGE_SIZE_BYTES + " bytes");
+        }
+        this.payloadStore = payloadStore;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeMarshalling(AmazonWebServiceRequest request) {
+        if (!(request instanceof PublishRequest)) {
+            return request;
+        }
+        PublishRequest publishRequest = (PublishRequest) request;
+        Map<String, MessageAttributeValue> attributes = publishRequest.getMessageAttributes();
+        if (attributes != null && attributes.containsKey(PayloadOffloadingHandler.RESERVED_ATTRIBUTE_NAME)) {
+            throw new AmazonClientException("Message attribute name "
+                    + PayloadOffloadingHandler.RESERVED_ATTRIBUTE_NAME + " is reserved for offloaded messages");
+        }
+        if (JSON_MESSAGE_STRUCTURE.equals(publishRequest.getMessageStructure())
+                || sizeOf(publishRequest.getMessage(), attributes) <= thresholdBytes) {
+            return request;
+        }
+
+        String message = publishRequest.getMessage();
+        Map<String, MessageAttributeValue> withReserved = new HashMap<String, MessageAttributeValue>();
+        if (attributes != null) {
+            withReserved.putAll(attributes);
+        }
+        withReserved.put(PayloadOffloadingHandler.RESERVED_ATTRIBUTE_NAME, new MessageAttributeValue()
+                .withDataType("Number").withStringValue(Long.toString(StringUtils.utf8Length(message))));
+
+        PublishRequest offloaded = publishRequest.clone();
+        offloaded.setMessage(payloadStore.storePayload(message));
+        offloaded.setMessageAttributes(withReserved);
+        return offloaded;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+    }
+
+    /**
+     * Deletes the payload of a message the service rejected. It is kept if the
+     * outcome of the publish is unknown, since the message may have been
+     * delivered.
+     */
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        if (!(e instanceof AmazonServiceException) || ((AmazonServiceException) e).getErrorType() != ErrorType.Client) {
+            return;
+        }
+        if (request.getOriginalRequest() instanceof PublishRequest) {
+            PublishRequest publishRequest = (PublishRequest) request.getOriginalRequest();
+            Map<String, MessageAttributeValue> attributes = publishRequest.getMessageAttributes();
+            if (attributes != null && attributes.containsKey(PayloadOffloadingHandler.RESERVED_ATTRIBUTE_NAME)) {
+                try {
+                    payloadStore.deletePayload(publishRequest.getMessage());
+                } catch (RuntimeException deleteError) {
+                    log.warn("Failed to delete the payload " + publishRequest.getMessage(), deleteError);
+                }
+            }
+        }
+    }
+
+    private static long sizeOf(String message, Map<String, MessageAttributeValue> attributes) {
+        long size = message == null ? 0 : StringUtils.utf8Length(message);
+        if (attributes != null) {
+            for (Map.Entry<String, MessageAttributeValue> attribute : attributes.entrySet()) {
+                MessageAttributeValue value = attribute.getValue();
+                size += StringUtils.utf8Length(attribute.getKey());
+                if (value.getDataType() != null) {
+                    size += StringUtils.utf8Length(value.getDataType());
+                }
+                if (value.getStringValue() != null) {
+                    size += StringUtils.utf8Length(value.getStringValue());
+                }
+                if (value.getBinaryValue() != null) {
+                    size += value.getBinaryValue().remaining();
+                }
+            }
+        }
+        return size;
+    }
+}
@@ -33,10 +33,28 @@ import com.fasterxml.jackson.core.JsonToken;
 
 /**
  * Utility for validating signatures on a Simple Notification Service JSON message.
+ * Instances are thread-safe.
+ *
+ * @see MessageSignatureVerifier
  */
 public class SignatureChecker {
+    private static final JsonFactory jsonFactory = new JsonFactory();
 
-    private Signature sigChecker;
+    /**
+     * Signature engines reused by each thread, since looking them up is
+     * slower than initializing them with the key of each message.
+     */
+    private static final ThreadLocal<Signature> sigCheckers = new ThreadLocal<Signature>() {
+        @Override
+        protected Signature initialValue() {
+            try {
+                return Signature.getInstance("SHA1withRSA");
+            } catch (NoSuchAlgorithmException e) {
+                // Rare exception: JVM does not support SHA1 with RSA
+                return null;
+            }
+        }
+    };
 
     private final String NOTIFICATION_TYPE = "Notification";
     private final String SUBSCRIBE_TYPE = "SubscriptionConfirmation";
@@ -128,12 +146,12 @@ public class SignatureChecker {
         byte[] sigbytes = null;
         try {
             sigbytes = Base64.decode(signature.getBytes());
-            sigChecker = Signature.getInstance("SHA1withRSA"); //check the signature
+            Signature sigChecker = sigCheckers.get(); //check the signature
+            if (sigChecker == null)
+                return false;
             sigChecker.initVerify(publicKey);
             sigChecker.update(message.getBytes());
             result = sigChecker.verify(sigbytes);
-        } catch (NoSuchAlgorithmException e) {
-            // Rare exception: JVM does not support SHA1 with RSA
         } catch (InvalidKeyException e) {
             // Rare exception: The private key was incorrectly formatted
         } catch (SignatureException e) {
@@ -153,11 +171,10 @@ public class SignatureChecker {
         return result;
     }
 
-    private Map<String, String> parseJSON(String jsonmessage){
+    Map<String, String> parseJSON(String jsonmessage){
         Map<String, String> parsed = new HashMap<String, String>();
-        JsonFactory jf = new JsonFactory();
         try {
-            JsonParser parser = jf.createJsonParser(jsonmessage);
+            JsonParser parser = jsonFactory.createJsonParser(jsonmessage);
             parser.nextToken(); //shift past the START_OBJECT that begins the JSON
             while (parser.nextToken() != JsonToken.END_OBJECT) {
                 String fieldname = parser.getCurrentName();
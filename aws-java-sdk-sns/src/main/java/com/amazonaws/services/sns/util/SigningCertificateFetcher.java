@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.sns.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Fetches the X.509 certificates that Simple Notification Service messages
+ * are signed with, given the <code>SigningCertURL</code> of the messages.
+ * Implementations must be thread-safe.
+ *
+ * @see MessageSignatureVerifier
+ */
+public interface SigningCertificateFetcher {
+
+    /**
+     * Returns a stream of the PEM or DER encoded certificate at the given
+     * URL, which has already been checked to be an SNS certificate URL. The
+     * stream is closed by the caller.
+     */
+    InputStream fetchCertificate(URI signingCertUrl) throws IOException;
+}
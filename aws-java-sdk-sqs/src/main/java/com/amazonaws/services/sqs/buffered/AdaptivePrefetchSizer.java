@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.buffered;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Sizes the number of in flight and done receive batches of a
+ * {@link ReceiveQueueBuffer} after the rate at which its consumers drain
+ * messages and the latency of receive calls, so that the buffer stays just
+ * ahead of demand.
+ * <p>
+ * By Little's law, keeping up with consumers draining <i>r</i> messages per
+ * second, with receive calls taking <i>t</i> seconds and returning <i>b</i>
+ * messages each, takes <i>r * t / b</i> receive batches in flight, and as many
+ * done batches to cover the latency of the next call. The total is capped so
+ * that the prefetched messages are consumed within half of their visibility
+ * timeout, rather than expiring in the buffer and being redelivered. All
+ * targets stay between one and the configured maximums.
+ * <p>
+ * The drain rate counts the messages handed to consumers, averaged over
+ * windows of a second. As consumers that wait
+ * for messages can only drain as fast as messages are prefetched, the targets
+ * at least double after each window in which a receive call had to wait,
+ * within the visibility timeout cap.
+ */
+class AdaptivePrefetchSizer {
+    private static Log log = LogFactory.getLog(AdaptivePrefetchSizer.class);
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** Weight of the latest window in the average drain rate. */
+    private static final double RATE_WEIGHT = 0.5;
+    /** Weight of the latest receive call in the average latency and size. */
+    private static final double RECEIVE_WEIGHT = 0.2;
+    /** Part of the visibility timeout within which to consume prefetched messages. */
+    private static final double VISIBILITY_TIMEOUT_FRACTION = 0.5;
+
+    private final String qUrl;
+    private final int maxInflightBatches;
+    private final int maxDoneBatches;
+
+    private long windowStartNanos = System.nanoTime();
+    /** Messages delivered in the current window. */
+    private long windowDemand;
+    /** Receive calls that could not be satisfied right away in the current window. */
+    private int windowUnmetCalls;
+    private double drainRate;
+    /** Negative until the first receive call completes. */
+    private double receiveLatencySeconds = -1;
+    private double messagesPerBatch = -1;
+    private double visibilityTimeoutSeconds = -1;
+
+    private volatile int targetInflightBatches = 1;
+    private volatile int targetDoneBatches = 1;
+
+    AdaptivePrefetchSizer(String qUrl, int maxInflightBatches, int maxDoneBatches) {
+        this.qUrl = qUrl;
+        this.maxInflightBatches = Math.max(1, maxInflightBatches);
+        this.maxDoneBatches = Math.max(1, maxDoneBatches);
+    }
+
+    /** Records the given number of messages handed to consumers. */
+    synchronized void messagesDelivered(int count) {
+        windowDemand += count;
+        update(System.nanoTime());
+    }
+
+    /**
+     * Records a receive call that could not be satisfied from the buffer
+     * right away. The messages it gets are counted once delivered.
+     */
+    synchronized void demandUnmet() {
+        windowUnmetCalls++;
+        update(System.nanoTime());
+    }
+
+    /**
+     * Records a successful receive call of the given duration, which
+     * returned the given number of messages with the given visibility
+     * timeout.
+     */
+    synchronized void batchReceived(long latencyNanos, int count, long visibilityTimeoutNanos) {
+        double latency = latencyNanos / 1e9;
+        receiveLatencySeconds = receiveLatencySeconds < 0
+                ? latency : average(latency, receiveLatencySeconds, RECEIVE_WEIGHT);
+        messagesPerBatch = messagesPerBatch < 0
+                ? count : average(count, messagesPerBatch, RECEIVE_WEIGHT);
+        visibilityTimeoutSeconds = visibilityTimeoutNanos / 1e9;
+        update(System.nanoTime());
+    }
+
+    int getTargetInflightBatches() {
+        return targetInflightBatches;
+    }
+
+    int getTargetDoneBatches() {
+        return targetDoneBatches;
+    }
+
+    /**
+     * Returns a snapshot of the measurements and decisions of this sizer,
+     * along with the given current state of the buffer.
+     */
+    synchronized PrefetchStatistics getStatistics(boolean adaptive, int inflightBatches, int doneBatches) {
+        return new PrefetchStatistics(adaptive, drainRate,
+                receiveLatencySeconds < 0 ? 0 : (long) (receiveLatencySeconds * 1000),
+                messagesPerBatch < 0 ? 0 : messagesPerBatch,
+                adaptive ? targetInflightBatches : maxInflightBatches,
+                adaptive ? targetDoneBatches : maxDoneBatches,
+                inflightBatches, doneBatches);
+    }
+
+    /**
+     * Closes the current window if it has elapsed, and recomputes the
+     * targets.
+     */
+    private void update(long now) {
+        long elapsed = now - windowStartNanos;
+        if (elapsed < WINDOW_NANOS)
+            return;
+        double rate = windowDemand / (elapsed / 1e9);
+        drainRate = average(rate, drainRate, RATE_WEIGHT);
+        boolean starved = windowUnmetCalls > 0;
+        windowStartNanos = now;
+        windowDemand = 0;
+        windowUnmetCalls = 0;
+
+        double latency = receiveLatencySeconds < 0 ? 0 : receiveLatencySeconds;
+        double perBatch = Math.max(1, messagesPerBatch);
+        int batches = (int) Math.ceil(drainRate * latency / perBatch);
+        int inflight = clamp(starved ? Math.max(batches, 2 * targetInflightBatches) : batches,
+                maxInflightBatches);
+        int done = clamp(starved ? Math.max(batches, 2 * targetDoneBatches) : batches, maxDoneBatches);
+        if (visibilityTimeoutSeconds > 0) {
+            int cap = (int) (drainRate * visibilityTimeoutSeconds
+                    * VISIBILITY_TIMEOUT_FRACTION / perBatch);
+            inflight = clamp(Math.min(inflight, cap), maxInflightBatches);
+            done = clamp(Math.min(done, cap - inflight), maxDoneBatches);
+        }
+        if (inflight != targetInflightBatches || done != targetDoneBatches) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Queue %s drains %.1f messages/s with %.0f ms receive latency: "
+                        + "targeting %d inflight and %d done receive batches", qUrl, drainRate,
+                        latency * 1000, inflight, done));
+            }
+            targetInflightBatches = inflight;
+            targetDoneBatches = done;
+        }
+    }
+
+    private static double average(double latest, double average, double weight) {
+        return weight * latest + (1 - weight) * average;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(1, Math.min(value, max));
+    }
+}
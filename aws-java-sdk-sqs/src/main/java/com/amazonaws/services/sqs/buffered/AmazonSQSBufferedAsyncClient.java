@@ -329,6 +329,17 @@ public class AmazonSQSBufferedAsyncClient implements AmazonSQSAsync {
         return buffer.deleteMessage(deleteMessageRequest, null);
     }
 
+    /**
+     * Returns a snapshot of the prefetching of messages from the given queue by this client: how
+     * fast messages are consumed, how long receive calls take, and how many receive batches are
+     * kept in flight and done as a result.
+     * 
+     * @see QueueBufferConfig#isAdaptivePrefetching()
+     */
+    public PrefetchStatistics getPrefetchStatistics(String queueUrl) {
+        return getQBuffer(queueUrl).getPrefetchStatistics();
+    }
+
     /**
      * Returns (creating it if necessary) a queue buffer for a particular queue Since we are only
      * storing a limited number of queue buffers, it is possible that as a result of calling this
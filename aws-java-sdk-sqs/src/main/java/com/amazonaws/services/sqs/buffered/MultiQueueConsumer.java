@@ -0,0 +1,523 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.buffered;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.sqs.AmazonSQSAsync;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+
+/**
+ * Consumes the messages of many queues with a shared, bounded pool of long polling threads,
+ * instead of the receive tasks an {@link AmazonSQSBufferedAsyncClient} runs for each queue.
+ * <p>
+ * Each poller repeatedly picks the queue with the largest backlog, as estimated from the
+ * approximate number of messages of the queues and the results of the receive calls, and the least
+ * recently polled queue among equals. Pollers only receive as many messages as there are free
+ * handler threads, and messages are handed to the {@link QueueMessageHandler} right away. The
+ * visibility timeout of the messages being handled is extended as it runs out, and handled
+ * messages are deleted; the visibility changes and deletes are batched per queue by an
+ * {@link AmazonSQSBufferedAsyncClient}.
+ *
+ * <pre>
+ * MultiQueueConsumer consumer = new MultiQueueConsumer(sqs, handler, new MultiQueueConsumerConfig());
+ * for (String queueUrl : queueUrls)
+ *     consumer.addQueue(queueUrl);
+ * consumer.start();
+ * ...
+ * consumer.shutdown();
+ * consumer.awaitTermination(1, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * The consumer does not shut down the given SQS client.
+ */
+@ThreadSafe
+public class MultiQueueConsumer {
+    private static Log log = LogFactory.getLog(MultiQueueConsumer.class);
+
+    /** Maximum number of messages of a receive call. */
+    private static final int MAX_RECEIVE_BATCH_SIZE = 10;
+    /** Longest back off after failed receive calls on a queue. */
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final AmazonSQSAsync sqs;
+    /** Batches the deletes and visibility changes. */
+    private final AmazonSQSBufferedAsyncClient batchingClient;
+    private final QueueMessageHandler handler;
+    private final MultiQueueConsumerConfig config;
+
+    private final ExecutorService pollers;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService scheduler;
+
+    /** Permits for the messages being handled. */
+    private final Semaphore inflightMessagePermits;
+
+    /** The consumed queues. Synchronized by {@code this}, which is notified of polling changes. */
+    private final List<ConsumedQueue> queues = new ArrayList<ConsumedQueue>();
+
+    /** Number of deletes not yet completed. Its monitor is notified when it drops to 0. */
+    private final AtomicInteger pendingDeletes = new AtomicInteger();
+
+    /** The messages being handled, by receipt handle. */
+    private final Map<String, InflightMessage> inflightMessages = new ConcurrentHashMap<String, InflightMessage>();
+
+    private volatile boolean started;
+    private volatile boolean shutDown;
+
+    public MultiQueueConsumer(AmazonSQSAsync sqs, QueueMessageHandler handler, MultiQueueConsumerConfig config) {
+        if (sqs == null || handler == null) {
+            throw new IllegalArgumentException("sqs and handler must be specified");
+        }
+        config = new MultiQueueConsumerConfig(config);
+        config.validate();
+        this.sqs = sqs;
+        this.handler = handler;
+        this.config = config;
+        this.batchingClient = new AmazonSQSBufferedAsyncClient(sqs,
+                new QueueBufferConfig().withMaxBatchOpenMs(config.getMaxBatchOpenMs()));
+        this.inflightMessagePermits = new Semaphore(config.getMaxInflightMessages());
+        this.pollers = Executors.newFixedThreadPool(config.getMaxLongPollers(), new ConsumerThreadFactory("Poller"));
+        this.handlers = Executors.newFixedThreadPool(config.getMaxInflightMessages(),
+                new ConsumerThreadFactory("Handler"));
+        this.scheduler = Executors.newScheduledThreadPool(2, new ConsumerThreadFactory("Scheduler"));
+    }
+
+    /**
+     * Starts consuming the queues added to this consumer.
+     */
+    public synchronized void start() {
+        if (shutDown) {
+            throw new AmazonClientException("The consumer has been shut down.");
+        }
+        if (started) {
+            return;
+        }
+        started = true;
+        for (int i = 0; i < config.getMaxLongPollers(); i++) {
+            pollers.execute(new Poller());
+        }
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                extendVisibilityTimeouts();
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                refreshBacklogs();
+            }
+        }, 0, config.getBacklogRefreshIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Adds a queue to consume. Adding a queue that is already consumed has no effect.
+     */
+    public synchronized void addQueue(String queueUrl) {
+        if (findQueue(queueUrl) == null) {
+            queues.add(new ConsumedQueue(queueUrl));
+            notifyAll();
+        }
+    }
+
+    /**
+     * Stops consuming the given queue. The messages already received from it are still handled.
+     */
+    public synchronized void removeQueue(String queueUrl) {
+        ConsumedQueue queue = findQueue(queueUrl);
+        if (queue != null) {
+            queues.remove(queue);
+        }
+    }
+
+    /**
+     * Returns the URLs of the consumed queues.
+     */
+    public synchronized List<String> getQueueUrls() {
+        List<String> queueUrls = new ArrayList<String>(queues.size());
+        for (ConsumedQueue queue : queues) {
+            queueUrls.add(queue.url);
+        }
+        return queueUrls;
+    }
+
+    /**
+     * Returns the number of messages being handled.
+     */
+    public int getInflightMessageCount() {
+        return inflightMessages.size();
+    }
+
+    /**
+     * Stops receiving messages. The receive calls in progress complete, and the messages received
+     * are still handled and deleted.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutDown = true;
+            notifyAll();
+        }
+        pollers.shutdown();
+    }
+
+    /**
+     * Waits for the messages received before {@link #shutdown()} to be handled and deleted, and
+     * releases the threads of this consumer.
+     *
+     * @return true if all messages were handled, false if the timeout elapsed first
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!pollers.awaitTermination(timeout, unit)) {
+            return false;
+        }
+        handlers.shutdown();
+        if (!handlers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        synchronized (pendingDeletes) {
+            long toWait;
+            while (pendingDeletes.get() > 0) {
+                if ((toWait = deadline - System.nanoTime()) <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(pendingDeletes, toWait);
+            }
+        }
+        scheduler.shutdownNow();
+        return true;
+    }
+
+    private ConsumedQueue findQueue(String queueUrl) {
+        for (ConsumedQueue queue : queues) {
+            if (queue.url.equals(queueUrl)) {
+                return queue;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for a queue to poll and marks it as polled: the queue with the largest backlog, or the
+     * least recently polled among equals. A queue is polled by one poller at a time, plus one more
+     * per full receive batch of backlog.
+     *
+     * @return null if the consumer has been shut down
+     */
+    private synchronized ConsumedQueue nextQueue() throws InterruptedException {
+        while (!shutDown) {
+            long now = System.nanoTime();
+            ConsumedQueue next = null;
+            long nextEligibleNanos = Long.MAX_VALUE;
+            for (ConsumedQueue queue : queues) {
+                if (queue.pollers > queue.backlog / MAX_RECEIVE_BATCH_SIZE) {
+                    continue;
+                }
+                if (queue.notBeforeNanos - now > 0) {
+                    nextEligibleNanos = Math.min(nextEligibleNanos, queue.notBeforeNanos - now);
+                    continue;
+                }
+                if (next == null || queue.backlog > next.backlog
+                        || (queue.backlog == next.backlog && queue.lastPolledNanos - next.lastPolledNanos < 0)) {
+                    next = queue;
+                }
+            }
+            if (next != null) {
+                next.pollers++;
+                next.lastPolledNanos = now;
+                return next;
+            }
+            if (nextEligibleNanos == Long.MAX_VALUE) {
+                wait();
+            } else {
+                TimeUnit.NANOSECONDS.timedWait(this, nextEligibleNanos);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes the queue available to other pollers without polling it.
+     */
+    private synchronized void releaseQueue(ConsumedQueue queue) {
+        queue.pollers--;
+        notifyAll();
+    }
+
+    /**
+     * Records the outcome of a receive call, and makes the queue available to other pollers.
+     */
+    private synchronized void donePolling(ConsumedQueue queue, int requested, int received, boolean failed) {
+        queue.pollers--;
+        if (failed) {
+            queue.failures++;
+            long backoff = Math.min(TimeUnit.SECONDS.toNanos(1L << Math.min(queue.failures - 1, 5)),
+                    MAX_BACKOFF_NANOS);
+            queue.notBeforeNanos = System.nanoTime() + backoff;
+        } else {
+            queue.failures = 0;
+            // a partial batch means the queue has been drained
+            queue.backlog = received < requested ? 0 : Math.max(queue.backlog - received, 1);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Waits for at least one message to be allowed in flight, and takes as many permits as are
+     * available, up to a receive batch.
+     *
+     * @return the number of permits taken, or 0 if the consumer has been shut down
+     */
+    private int acquireInflightPermits() throws InterruptedException {
+        while (!shutDown) {
+            if (inflightMessagePermits.tryAcquire(1, TimeUnit.SECONDS)) {
+                int permits = 1;
+                while (permits < MAX_RECEIVE_BATCH_SIZE && inflightMessagePermits.tryAcquire()) {
+                    permits++;
+                }
+                return permits;
+            }
+        }
+        return 0;
+    }
+
+    private void poll(ConsumedQueue queue, int permits) {
+        ReceiveMessageRequest request = new ReceiveMessageRequest(queue.url).withMaxNumberOfMessages(permits)
+                .withVisibilityTimeout(config.getVisibilityTimeoutSeconds())
+                .withWaitTimeSeconds(config.getLongPollWaitTimeoutSeconds());
+        ResultConverter.appendUserAgent(request, AmazonSQSBufferedAsyncClient.USER_AGENT);
+        List<Message> messages;
+        try {
+            messages = sqs.receiveMessage(request).getMessages();
+        } catch (AmazonClientException e) {
+            log.warn("Unable to receive messages from queue " + queue.url + ": " + e.getMessage());
+            inflightMessagePermits.release(permits);
+            donePolling(queue, permits, 0, true);
+            return;
+        }
+        inflightMessagePermits.release(permits - messages.size());
+        donePolling(queue, permits, messages.size(), false);
+
+        long visibilityDeadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(config.getVisibilityTimeoutSeconds());
+        for (Message message : messages) {
+            InflightMessage inflight = new InflightMessage(queue.url, message, visibilityDeadline);
+            inflightMessages.put(message.getReceiptHandle(), inflight);
+            handlers.execute(inflight);
+        }
+    }
+
+    /**
+     * Extends the visibility timeout of the messages being handled that have less than half of it
+     * left.
+     */
+    private void extendVisibilityTimeouts() {
+        long visibilityTimeoutNanos = TimeUnit.SECONDS.toNanos(config.getVisibilityTimeoutSeconds());
+        long now = System.nanoTime();
+        for (InflightMessage inflight : inflightMessages.values()) {
+            if (inflight.visibilityDeadlineNanos - now < visibilityTimeoutNanos / 2) {
+                inflight.visibilityDeadlineNanos = now + visibilityTimeoutNanos;
+                batchingClient.changeMessageVisibilityAsync(new ChangeMessageVisibilityRequest(inflight.queueUrl,
+                        inflight.message.getReceiptHandle(), config.getVisibilityTimeoutSeconds()));
+            }
+        }
+    }
+
+    /**
+     * Refreshes the backlog of the queues from their approximate number of messages.
+     */
+    private void refreshBacklogs() {
+        for (String queueUrl : getQueueUrls()) {
+            if (shutDown) {
+                return;
+            }
+            GetQueueAttributesRequest request = new GetQueueAttributesRequest().withQueueUrl(queueUrl)
+                    .withAttributeNames("ApproximateNumberOfMessages");
+            ResultConverter.appendUserAgent(request, AmazonSQSBufferedAsyncClient.USER_AGENT);
+            try {
+                String count = sqs.getQueueAttributes(request).getAttributes().get("ApproximateNumberOfMessages");
+                if (count != null) {
+                    updateBacklog(queueUrl, Long.parseLong(count));
+                }
+            } catch (AmazonClientException e) {
+                log.warn("Unable to get the number of messages of queue " + queueUrl + ": " + e.getMessage());
+            } catch (NumberFormatException e) {
+                log.warn("Unexpected number of messages of queue " + queueUrl + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void updateBacklog(String queueUrl, long backlog) {
+        ConsumedQueue queue = findQueue(queueUrl);
+        if (queue != null && queue.backlog != backlog) {
+            queue.backlog = backlog;
+            notifyAll();
+        }
+    }
+
+    /**
+     * A queue being consumed. Synchronized by the enclosing consumer.
+     */
+    private static class ConsumedQueue {
+        final String url;
+        /** approximate number of messages waiting in the queue */
+        long backlog;
+        /** number of pollers currently polling the queue */
+        int pollers;
+        long lastPolledNanos = System.nanoTime();
+        /** number of consecutive failed receive calls */
+        int failures;
+        /** the queue is not polled before this time after failed receive calls */
+        long notBeforeNanos = System.nanoTime();
+
+        ConsumedQueue(String url) {
+            this.url = url;
+        }
+    }
+
+    /**
+     * Receives messages from the queues until the consumer is shut down.
+     */
+    private class Poller implements Runnable {
+        @Override
+        public void run() {
+            try {
+                while (!shutDown) {
+                    ConsumedQueue queue = nextQueue();
+                    if (queue == null) {
+                        return;
+                    }
+                    // only receive as many messages as can be handled right away
+                    int permits = 0;
+                    try {
+                        permits = acquireInflightPermits();
+                    } finally {
+                        if (permits == 0) {
+                            releaseQueue(queue);
+                        }
+                    }
+                    if (permits > 0) {
+                        poll(queue, permits);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Poller stopped by an unexpected exception", e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A message being handled, whose visibility timeout is extended until it is.
+     */
+    private class InflightMessage implements Runnable {
+        final String queueUrl;
+        final Message message;
+        /** Only updated by the scheduler. */
+        volatile long visibilityDeadlineNanos;
+
+        InflightMessage(String queueUrl, Message message, long visibilityDeadlineNanos) {
+            this.queueUrl = queueUrl;
+            this.message = message;
+            this.visibilityDeadlineNanos = visibilityDeadlineNanos;
+        }
+
+        @Override
+        public void run() {
+            try {
+                handler.handleMessage(queueUrl, message);
+                delete(queueUrl, message);
+            } catch (Exception e) {
+                log.warn("Unable to handle message " + message.getMessageId() + " of queue " + queueUrl, e);
+            } finally {
+                inflightMessages.remove(message.getReceiptHandle());
+                inflightMessagePermits.release();
+            }
+        }
+    }
+
+    /**
+     * Deletes a handled message, with a batch of other deletes for the same queue.
+     */
+    private void delete(final String queueUrl, Message message) {
+        pendingDeletes.incrementAndGet();
+        batchingClient.deleteMessageAsync(new DeleteMessageRequest(queueUrl, message.getReceiptHandle()),
+                new AsyncHandler<DeleteMessageRequest, Void>() {
+                    @Override
+                    public void onSuccess(DeleteMessageRequest request, Void result) {
+                        deleteCompleted();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        log.warn("Unable to delete a message of queue " + queueUrl + ": " + e.getMessage());
+                        deleteCompleted();
+                    }
+                });
+    }
+
+    private void deleteCompleted() {
+        if (pendingDeletes.decrementAndGet() == 0) {
+            synchronized (pendingDeletes) {
+                pendingDeletes.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Creates named daemon threads, so that the consumer does not keep the process running.
+     */
+    private static class ConsumerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger consumerCount = new AtomicInteger(0);
+        private final String prefix;
+        private final AtomicInteger threadCount = new AtomicInteger(0);
+
+        ConsumerThreadFactory(String role) {
+            this.prefix = "SQSMultiQueueConsumer-" + consumerCount.incrementAndGet() + "-" + role + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            thread.setName(prefix + threadCount.incrementAndGet());
+            return thread;
+        }
+    }
+}
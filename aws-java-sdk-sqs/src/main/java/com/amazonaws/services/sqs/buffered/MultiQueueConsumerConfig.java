@@ -0,0 +1,250 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.buffered;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Settings of a {@link MultiQueueConsumer}.
+ */
+public class MultiQueueConsumerConfig {
+
+    /**
+     * The number of threads long polling the queues, shared by all the queues. Each thread polls
+     * one queue at a time.
+     */
+    private int maxLongPollers;
+
+    /** 10 threads */
+    public static final int MAX_LONG_POLLERS_DEFAULT = 10;
+
+    /**
+     * The maximum number of messages being handled at a time, each on its own thread. Pollers only
+     * receive as many messages as can be handled right away, so that received messages do not wait
+     * while their visibility timeout runs.
+     */
+    private int maxInflightMessages;
+
+    /** 50 messages */
+    public static final int MAX_INFLIGHT_MESSAGES_DEFAULT = 50;
+
+    /**
+     * The amount of time, in seconds, a receive call waits for messages to arrive in an empty
+     * queue.
+     */
+    private int longPollWaitTimeoutSeconds;
+
+    /** 20 seconds */
+    public static final int LONG_POLL_WAIT_TIMEOUT_SECONDS_DEFAULT = 20;
+
+    /**
+     * The visibility timeout, in seconds, of received messages. It is extended by the same amount
+     * whenever half of it is left and the message is still being handled.
+     */
+    private int visibilityTimeoutSeconds;
+
+    /** 30 seconds */
+    public static final int VISIBILITY_TIMEOUT_SECONDS_DEFAULT = 30;
+
+    /**
+     * How often, in seconds, the approximate number of messages in each queue is refreshed. Queues
+     * with more messages are polled first.
+     */
+    private int backlogRefreshIntervalSeconds;
+
+    /** 60 seconds */
+    public static final int BACKLOG_REFRESH_INTERVAL_SECONDS_DEFAULT = 60;
+
+    /**
+     * The maximum time (milliseconds) deletes and visibility changes are held to be batched with
+     * others for the same queue.
+     */
+    private long maxBatchOpenMs;
+
+    /** 200 milliseconds */
+    public static final long MAX_BATCH_OPEN_MS_DEFAULT = QueueBufferConfig.MAX_BATCH_OPEN_MS_DEFAULT;
+
+    public MultiQueueConsumerConfig() {
+        this.maxLongPollers = MAX_LONG_POLLERS_DEFAULT;
+        this.maxInflightMessages = MAX_INFLIGHT_MESSAGES_DEFAULT;
+        this.longPollWaitTimeoutSeconds = LONG_POLL_WAIT_TIMEOUT_SECONDS_DEFAULT;
+        this.visibilityTimeoutSeconds = VISIBILITY_TIMEOUT_SECONDS_DEFAULT;
+        this.backlogRefreshIntervalSeconds = BACKLOG_REFRESH_INTERVAL_SECONDS_DEFAULT;
+        this.maxBatchOpenMs = MAX_BATCH_OPEN_MS_DEFAULT;
+    }
+
+    /** copy constructor */
+    public MultiQueueConsumerConfig(MultiQueueConsumerConfig other) {
+        maxLongPollers = other.maxLongPollers;
+        maxInflightMessages = other.maxInflightMessages;
+        longPollWaitTimeoutSeconds = other.longPollWaitTimeoutSeconds;
+        visibilityTimeoutSeconds = other.visibilityTimeoutSeconds;
+        backlogRefreshIntervalSeconds = other.backlogRefreshIntervalSeconds;
+        maxBatchOpenMs = other.maxBatchOpenMs;
+    }
+
+    @Override
+    public String toString() {
+        return "MultiQueueConsumerConfig [maxLongPollers=" + maxLongPollers + ", maxInflightMessages="
+                + maxInflightMessages + ", longPollWaitTimeoutSeconds=" + longPollWaitTimeoutSeconds
+                + ", visibilityTimeoutSeconds=" + visibilityTimeoutSeconds + ", backlogRefreshIntervalSeconds="
+                + backlogRefreshIntervalSeconds + ", maxBatchOpenMs=" + maxBatchOpenMs + "]";
+    }
+
+    /**
+     * The number of threads long polling the queues, shared by all the queues. Each thread polls
+     * one queue at a time.
+     */
+    public int getMaxLongPollers() {
+        return maxLongPollers;
+    }
+
+    /**
+     * The number of threads long polling the queues, shared by all the queues. Each thread polls
+     * one queue at a time.
+     */
+    public void setMaxLongPollers(int maxLongPollers) {
+        this.maxLongPollers = maxLongPollers;
+    }
+
+    public MultiQueueConsumerConfig withMaxLongPollers(int maxLongPollers) {
+        this.maxLongPollers = maxLongPollers;
+        return this;
+    }
+
+    /**
+     * The maximum number of messages being handled at a time, each on its own thread.
+     */
+    public int getMaxInflightMessages() {
+        return maxInflightMessages;
+    }
+
+    /**
+     * The maximum number of messages being handled at a time, each on its own thread.
+     */
+    public void setMaxInflightMessages(int maxInflightMessages) {
+        this.maxInflightMessages = maxInflightMessages;
+    }
+
+    public MultiQueueConsumerConfig withMaxInflightMessages(int maxInflightMessages) {
+        this.maxInflightMessages = maxInflightMessages;
+        return this;
+    }
+
+    /**
+     * The amount of time, in seconds, a receive call waits for messages to arrive in an empty
+     * queue.
+     */
+    public int getLongPollWaitTimeoutSeconds() {
+        return longPollWaitTimeoutSeconds;
+    }
+
+    /**
+     * The amount of time, in seconds, a receive call waits for messages to arrive in an empty
+     * queue.
+     */
+    public void setLongPollWaitTimeoutSeconds(int longPollWaitTimeoutSeconds) {
+        this.longPollWaitTimeoutSeconds = longPollWaitTimeoutSeconds;
+    }
+
+    public MultiQueueConsumerConfig withLongPollWaitTimeoutSeconds(int longPollWaitTimeoutSeconds) {
+        this.longPollWaitTimeoutSeconds = longPollWaitTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * The visibility timeout, in seconds, of received messages. It is extended by the same amount
+     * whenever half of it is left and the message is still being handled.
+     */
+    public int getVisibilityTimeoutSeconds() {
+        return visibilityTimeoutSeconds;
+    }
+
+    /**
+     * The visibility timeout, in seconds, of received messages. It is extended by the same amount
+     * whenever half of it is left and the message is still being handled.
+     */
+    public void setVisibilityTimeoutSeconds(int visibilityTimeoutSeconds) {
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+    }
+
+    public MultiQueueConsumerConfig withVisibilityTimeoutSeconds(int visibilityTimeoutSeconds) {
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * How often, in seconds, the approximate number of messages in each queue is refreshed.
+     */
+    public int getBacklogRefreshIntervalSeconds() {
+        return backlogRefreshIntervalSeconds;
+    }
+
+    /**
+     * How often, in seconds, the approximate number of messages in each queue is refreshed.
+     */
+    public void setBacklogRefreshIntervalSeconds(int backlogRefreshIntervalSeconds) {
+        this.backlogRefreshIntervalSeconds = backlogRefreshIntervalSeconds;
+    }
+
+    public MultiQueueConsumerConfig withBacklogRefreshIntervalSeconds(int backlogRefreshIntervalSeconds) {
+        this.backlogRefreshIntervalSeconds = backlogRefreshIntervalSeconds;
+        return this;
+    }
+
+    /**
+     * The maximum time (milliseconds) deletes and visibility changes are held to be batched with
+     * others for the same queue.
+     */
+    public long getMaxBatchOpenMs() {
+        return maxBatchOpenMs;
+    }
+
+    /**
+     * The maximum time (milliseconds) deletes and visibility changes are held to be batched with
+     * others for the same queue.
+     */
+    public void setMaxBatchOpenMs(long maxBatchOpenMs) {
+        this.maxBatchOpenMs = maxBatchOpenMs;
+    }
+
+    public MultiQueueConsumerConfig withMaxBatchOpenMs(long maxBatchOpenMs) {
+        this.maxBatchOpenMs = maxBatchOpenMs;
+        return this;
+    }
+
+    /**
+     * this method checks the config for validity. If the config is deemed to be invalid, an
+     * informative exception is thrown.
+     *
+     * @throws AmazonClientException
+     *             with a message explaining why the config was invalid
+     */
+    void validate() {
+        if (maxLongPollers < 1) {
+            throw new AmazonClientException("At least one long poller is required");
+        }
+        if (maxInflightMessages < 1) {
+            throw new AmazonClientException("At least one inflight message is required");
+        }
+        if (visibilityTimeoutSeconds < 1) {
+            throw new AmazonClientException("Visibility timeout value must be positive");
+        }
+        if (backlogRefreshIntervalSeconds < 1) {
+            throw new AmazonClientException("Backlog refresh interval must be positive");
+        }
+    }
+}
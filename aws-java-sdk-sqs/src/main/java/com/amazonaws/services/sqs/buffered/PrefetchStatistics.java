@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.buffered;
+
+/**
+ * A snapshot of the message prefetching of a queue by an
+ * {@link AmazonSQSBufferedAsyncClient}: how fast consumers drain messages,
+ * how long receive calls take, and how many receive batches are kept in
+ * flight and done as a result.
+ *
+ * @see QueueBufferConfig#isAdaptivePrefetching()
+ * @see AmazonSQSBufferedAsyncClient#getPrefetchStatistics(String)
+ */
+public class PrefetchStatistics {
+
+    private final boolean adaptive;
+    private final double drainRate;
+    private final long receiveLatencyMillis;
+    private final double messagesPerBatch;
+    private final int targetInflightReceiveBatches;
+    private final int targetDoneReceiveBatches;
+    private final int inflightReceiveBatches;
+    private final int doneReceiveBatches;
+
+    PrefetchStatistics(boolean adaptive, double drainRate, long receiveLatencyMillis,
+            double messagesPerBatch, int targetInflightReceiveBatches, int targetDoneReceiveBatches,
+            int inflightReceiveBatches, int doneReceiveBatches) {
+        this.adaptive = adaptive;
+        this.drainRate = drainRate;
+        this.receiveLatencyMillis = receiveLatencyMillis;
+        this.messagesPerBatch = messagesPerBatch;
+        this.targetInflightReceiveBatches = targetInflightReceiveBatches;
+        this.targetDoneReceiveBatches = targetDoneReceiveBatches;
+        this.inflightReceiveBatches = inflightReceiveBatches;
+        this.doneReceiveBatches = doneReceiveBatches;
+    }
+
+    /**
+     * @return true if the targets are adapted to the drain rate, false if
+     *         they are the configured maximums.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return the average number of messages per second consumers take from
+     *         the buffer, or zero if prefetching is not adaptive.
+     */
+    public double getDrainRate() {
+        return drainRate;
+    }
+
+    /** @return the average duration of receive calls, in milliseconds. */
+    public long getReceiveLatencyMillis() {
+        return receiveLatencyMillis;
+    }
+
+    /** @return the average number of messages returned by receive calls. */
+    public double getMessagesPerBatch() {
+        return messagesPerBatch;
+    }
+
+    /** @return the number of receive batches to keep in flight. */
+    public int getTargetInflightReceiveBatches() {
+        return targetInflightReceiveBatches;
+    }
+
+    /** @return the number of done receive batches to keep in the buffer. */
+    public int getTargetDoneReceiveBatches() {
+        return targetDoneReceiveBatches;
+    }
+
+    /** @return the number of receive batches currently in flight. */
+    public int getInflightReceiveBatches() {
+        return inflightReceiveBatches;
+    }
+
+    /** @return the number of done receive batches currently in the buffer. */
+    public int getDoneReceiveBatches() {
+        return doneReceiveBatches;
+    }
+
+    @Override
+    public String toString() {
+        return "PrefetchStatistics [adaptive=" + adaptive + ", drainRate=" + drainRate
+                + ", receiveLatencyMillis=" + receiveLatencyMillis + ", messagesPerBatch=" + messagesPerBatch
+                + ", targetInflightReceiveBatches=" + targetInflightReceiveBatches
+                + ", targetDoneReceiveBatches=" + targetDoneReceiveBatches + ", inflightReceiveBatches="
+                + inflightReceiveBatches + ", doneReceiveBatches=" + doneReceiveBatches + "]";
+    }
+}
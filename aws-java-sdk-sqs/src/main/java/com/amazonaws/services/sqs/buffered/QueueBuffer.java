@@ -189,6 +189,13 @@ class QueueBuffer {
         return waitForFuture(future);
     }
 
+    /**
+     * Returns a snapshot of the prefetching of messages by the receive buffer.
+     */
+    public PrefetchStatistics getPrefetchStatistics() {
+        return receiveBuffer.getPrefetchStatistics();
+    }
+
     /**
      * Shuts down the queue buffer. Once this method has been called, the queue buffer is not
      * operational and all subsequent calls to it may fail
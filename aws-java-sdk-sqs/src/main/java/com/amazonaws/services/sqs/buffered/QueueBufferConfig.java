@@ -81,6 +81,18 @@ public class QueueBufferConfig {
     /** 10 batches */
     public static final int MAX_DONE_RECEIVE_BATCHES_DEFAULT = 10;
 
+    /**
+     * Should the number of inflight and done receive batches be adapted to the rate at which
+     * messages are consumed? If so, maxInflightReceiveBatches and maxDoneReceiveBatches are upper
+     * bounds, and the buffer only prefetches as many messages as its consumers drain while a
+     * receive call is in flight, and no more than they can consume within half of the visibility
+     * timeout.
+     */
+    private boolean adaptivePrefetching;
+
+    /** false */
+    private static final boolean ADAPTIVE_PREFETCHING_DEFAULT = false;
+
     /**
      * Maximum permitted size of a SendMessage or SendMessageBatch message, in bytes
      */
@@ -123,6 +135,7 @@ public class QueueBufferConfig {
         this.visibilityTimeoutSeconds = visibilityTimeout;
         this.longPollWaitTimeoutSeconds = longPollTimeout;
         this.maxBatchSize = maxBatch;
+        this.adaptivePrefetching = ADAPTIVE_PREFETCHING_DEFAULT;
     }
 
     public QueueBufferConfig() {
@@ -133,6 +146,7 @@ public class QueueBufferConfig {
 
     /** copy constructor */
     public QueueBufferConfig(QueueBufferConfig other) {
+        adaptivePrefetching = other.adaptivePrefetching;
         longPoll = other.longPoll;
         longPollWaitTimeoutSeconds = other.longPollWaitTimeoutSeconds;
         maxBatchOpenMs = other.maxBatchOpenMs;
@@ -149,7 +163,7 @@ public class QueueBufferConfig {
         return "QueueBufferConfig [maxBatchSize=" + maxBatchSize + ", maxBatchOpenMs=" + maxBatchOpenMs + ", longPoll="
                 + longPoll + ", maxInflightOutboundBatches=" + maxInflightOutboundBatches
                 + ", maxInflightReceiveBatches=" + maxInflightReceiveBatches + ", maxDoneReceiveBatches="
-                + maxDoneReceiveBatches + ", maxBatchSizeBytes=" + maxBatchSizeBytes + ", visibilityTimeoutSeconds="
+                + maxDoneReceiveBatches + ", adaptivePrefetching=" + adaptivePrefetching + ", maxBatchSizeBytes=" + maxBatchSizeBytes + ", visibilityTimeoutSeconds="
                 + visibilityTimeoutSeconds + ", longPollWaitTimeoutSeconds=" + longPollWaitTimeoutSeconds + "]";
     }
 
@@ -286,6 +300,35 @@ public class QueueBufferConfig {
         return this;
     }
 
+    /**
+     * If true, the number of inflight and done receive batches is adapted to the rate at which
+     * messages are consumed, and maxInflightReceiveBatches and maxDoneReceiveBatches are upper
+     * bounds. The buffer then only prefetches as many messages as its consumers drain while a
+     * receive call is in flight, and no more than they can consume within half of the visibility
+     * timeout, so that fewer prefetched messages wait in the buffer while their visibility timeout
+     * expires.
+     */
+    public boolean isAdaptivePrefetching() {
+        return adaptivePrefetching;
+    }
+
+    /**
+     * If true, the number of inflight and done receive batches is adapted to the rate at which
+     * messages are consumed, and maxInflightReceiveBatches and maxDoneReceiveBatches are upper
+     * bounds. The buffer then only prefetches as many messages as its consumers drain while a
+     * receive call is in flight, and no more than they can consume within half of the visibility
+     * timeout, so that fewer prefetched messages wait in the buffer while their visibility timeout
+     * expires.
+     */
+    public void setAdaptivePrefetching(boolean adaptivePrefetching) {
+        this.adaptivePrefetching = adaptivePrefetching;
+    }
+
+    public QueueBufferConfig withAdaptivePrefetching(boolean adaptivePrefetching) {
+        this.adaptivePrefetching = adaptivePrefetching;
+        return this;
+    }
+
     /**
      * Maximum permitted size of a SendMessage or SendMessageBatch message, in bytes. This setting
      * is also enforced on the server, and if this client submits a request of a size larger than
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.buffered;
+
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Processes the messages received by a {@link MultiQueueConsumer}. Messages are handled
+ * concurrently, so implementations must be thread-safe.
+ */
+public interface QueueMessageHandler {
+
+    /**
+     * Processes a message received from the given queue. The visibility timeout of the message is
+     * extended for as long as this method runs. The message is deleted from the queue if this
+     * method returns normally; if it throws, the message becomes visible again once its visibility
+     * timeout expires, to be received again.
+     *
+     * @param queueUrl
+     *            the URL of the queue the message was received from
+     * @param message
+     *            the message to process
+     */
+    void handleMessage(String queueUrl, Message message) throws Exception;
+}
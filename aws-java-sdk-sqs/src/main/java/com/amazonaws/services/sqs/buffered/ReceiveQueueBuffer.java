@@ -39,6 +39,8 @@ import com.amazonaws.services.sqs.model.ReceiveMessageResult;
  * It uses the provided executor to pre-fetch messages from the server and keeps them in a buffer
  * which it uses to satisfy incoming requests. The number of requests pre-fetched and kept in the
  * buffer, as well as the maximum number of threads used to retrieve the messages are configurable.
+ * With adaptive prefetching, the configured numbers are upper bounds, and the actual numbers follow
+ * the rate at which messages are consumed, as measured by an {@link AdaptivePrefetchSizer}.
  * <p>
  * Synchronization strategy: - Threads must hold the TaskSpawnSyncPoint object monitor to spawn a
  * new task or modify the number of inflight tasks - Threads must hold the monitor of the "futures"
@@ -95,6 +97,9 @@ public class ReceiveQueueBuffer {
     /** shutdown buffer does not retrieve any more messages from sqs */
     volatile boolean shutDown = false;
 
+    /** measures the consumption of messages, and sizes prefetching after it */
+    private final AdaptivePrefetchSizer prefetchSizer;
+
     /** message delivery futures we gave out */
     private final LinkedList<ReceiveMessageFuture> futures = new LinkedList<ReceiveMessageFuture>();
 
@@ -106,7 +111,8 @@ public class ReceiveQueueBuffer {
         executor = paramExecutor;
         sqsClient = paramSQS;
         qUrl = url;
-
+        prefetchSizer = new AdaptivePrefetchSizer(url, config.getMaxInflightReceiveBatches(),
+                config.getMaxDoneReceiveBatches());
     }
 
     /**
@@ -145,6 +151,9 @@ public class ReceiveQueueBuffer {
 
         // attempt to satisfy it right away...
         satisfyFuturesFromBuffer();
+        if (!toReturn.isDone() && config.isAdaptivePrefetching()) {
+            prefetchSizer.demandUnmet();
+        }
 
         // spawn more receive tasks if we need them...
         spawnMoreReceiveTasks();
@@ -222,6 +231,9 @@ public class ReceiveQueueBuffer {
             finishedTasks.removeFirst();
         }
         result.setMessages(messages);
+        if (config.isAdaptivePrefetching()) {
+            prefetchSizer.messagesDelivered(numRetrieved);
+        }
 
         // if after the above runs the exception is not null,
         // the finished batch has encountered an error, and we will
@@ -288,7 +300,8 @@ public class ReceiveQueueBuffer {
             return;
         }
 
-        int desiredBatches = config.getMaxDoneReceiveBatches();
+        int desiredBatches = config.isAdaptivePrefetching() ? prefetchSizer.getTargetDoneBatches() : config
+                .getMaxDoneReceiveBatches();
         desiredBatches = desiredBatches < 1 ? 1 : desiredBatches;
 
         synchronized (finishedTasks) {
@@ -314,7 +327,8 @@ public class ReceiveQueueBuffer {
                 visibilityTimeoutNanos = TimeUnit.NANOSECONDS.convert(visibilityTimeoutSeconds, TimeUnit.SECONDS);
             }
 
-            int max = config.getMaxInflightReceiveBatches();
+            int max = config.isAdaptivePrefetching() ? prefetchSizer.getTargetInflightBatches() : config
+                    .getMaxInflightReceiveBatches();
             // must allow at least one inflight receive task, or receive won't
             // work at all.
             max = max > 0 ? max : 1;
@@ -349,6 +363,17 @@ public class ReceiveQueueBuffer {
         spawnMoreReceiveTasks();
     }
 
+    /**
+     * Returns a snapshot of the prefetching of this buffer.
+     */
+    PrefetchStatistics getPrefetchStatistics() {
+        int doneBatches;
+        synchronized (finishedTasks) {
+            doneBatches = finishedTasks.size();
+        }
+        return prefetchSizer.getStatistics(config.isAdaptivePrefetching(), inflightReceiveMessageBatches, doneBatches);
+    }
+
     /**
      * Clears and nacks any pre-fetched messages in this buffer.
      */
@@ -497,6 +522,8 @@ public class ReceiveQueueBuffer {
         public void run() {
 
             try {
+                long startNanos = System.nanoTime();
+                long batchVisibilityTimeoutNanos = visibilityTimeoutNanos;
                 visibilityDeadlineNano = System.nanoTime() + visibilityTimeoutNanos;
                 ReceiveMessageRequest request = new ReceiveMessageRequest(qUrl).withMaxNumberOfMessages(config
                         .getMaxBatchSize());
@@ -504,8 +531,9 @@ public class ReceiveQueueBuffer {
 
                 if (config.getVisibilityTimeoutSeconds() > 0) {
                     request.setVisibilityTimeout(config.getVisibilityTimeoutSeconds());
-                    visibilityDeadlineNano = System.nanoTime()
-                            + TimeUnit.NANOSECONDS.convert(config.getVisibilityTimeoutSeconds(), TimeUnit.SECONDS);
+                    batchVisibilityTimeoutNanos = TimeUnit.NANOSECONDS.convert(config.getVisibilityTimeoutSeconds(),
+                            TimeUnit.SECONDS);
+                    visibilityDeadlineNano = System.nanoTime() + batchVisibilityTimeoutNanos;
                 }
 
                 if (config.isLongPoll()) {
@@ -513,6 +541,8 @@ public class ReceiveQueueBuffer {
                 }
 
                 messages = sqsClient.receiveMessage(request).getMessages();
+                prefetchSizer.batchReceived(System.nanoTime() - startNanos, messages.size(),
+                        batchVisibilityTimeoutNanos);
             } catch (AmazonClientException e) {
                 exception = e;
             } finally {
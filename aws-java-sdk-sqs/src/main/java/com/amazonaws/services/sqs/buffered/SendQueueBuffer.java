@@ -19,6 +19,9 @@ import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -54,6 +57,10 @@ import com.amazonaws.services.sqs.model.SendMessageResult;
  * Internally, the batch objects maintain a list of futures corresponding to the requests added to
  * them. When a batch completes, it loads the results into the futures and marks the futures as
  * complete.
+ * <p>
+ * Requests are added to the open batch without locking, so that many threads can submit requests
+ * for the same queue concurrently. Only the threads that find the open batch closed synchronize, to
+ * open the next one.
  */
 public class SendQueueBuffer {
     private static Log log = LogFactory.getLog(SendQueueBuffer.class);
@@ -80,37 +87,35 @@ public class SendQueueBuffer {
     private final Executor executor;
 
     /**
-     * Object used to serialize sendMessage calls.
+     * Object used to serialize the opening of sendMessage batches.
      */
     private final Object sendMessageLock = new Object();
 
     /**
-     * Object used to serialize deleteMessage calls.
+     * Object used to serialize the opening of deleteMessage batches.
      */
     private final Object deleteMessageLock = new Object();
 
     /**
-     * Object used to serialize changeMessageVisibility calls.
+     * Object used to serialize the opening of changeMessageVisibility batches.
      */
     private final Object changeMessageVisibilityLock = new Object();
 
     /**
-     * Current batching task for sendMessage. Using a size 1 array to allow "passing by reference".
-     * Synchronized by {@code sendMessageLock}.
+     * Current batching task for sendMessage. Replaced while holding {@code sendMessageLock}.
      */
-    private final SendMessageBatchTask[] openSendMessageBatchTask = new SendMessageBatchTask[1];
+    private final AtomicReference<SendMessageBatchTask> openSendMessageBatchTask = new AtomicReference<SendMessageBatchTask>();
 
     /**
-     * Current batching task for deleteMessage. Using a size 1 array to allow
-     * "passing by reference". Synchronized by {@code deleteMessageLock}.
+     * Current batching task for deleteMessage. Replaced while holding {@code deleteMessageLock}.
      */
-    private final DeleteMessageBatchTask[] openDeleteMessageBatchTask = new DeleteMessageBatchTask[1];
+    private final AtomicReference<DeleteMessageBatchTask> openDeleteMessageBatchTask = new AtomicReference<DeleteMessageBatchTask>();
 
     /**
-     * Current batching task for changeMessageVisibility. Using a size 1 array to allow
-     * "passing by reference". Synchronized by {@code changeMessageVisibilityLock}.
+     * Current batching task for changeMessageVisibility. Replaced while holding
+     * {@code changeMessageVisibilityLock}.
      */
-    private final ChangeMessageVisibilityBatchTask[] openChangeMessageVisibilityBatchTask = new ChangeMessageVisibilityBatchTask[1];
+    private final AtomicReference<ChangeMessageVisibilityBatchTask> openChangeMessageVisibilityBatchTask = new AtomicReference<ChangeMessageVisibilityBatchTask>();
 
     /**
      * Permits controlling the number of in flight SendMessage batches.
@@ -222,8 +227,8 @@ public class SendQueueBuffer {
      * <p>
      * 
      * @param operationLock
-     *            the lock synchronizing calls for the call type ( {@code sendMessage},
-     *            {@code deleteMessage}, {@code changeMessageVisibility} )
+     *            the lock synchronizing the opening of batches for the call type (
+     *            {@code sendMessage}, {@code deleteMessage}, {@code changeMessageVisibility} )
      * @param openOutboundBatchTask
      *            the open batch task for this call type
      * @param request
@@ -236,28 +241,35 @@ public class SendQueueBuffer {
      */
     @SuppressWarnings("unchecked")
     <OBT extends OutboundBatchTask<R, Result>, R extends AmazonWebServiceRequest, Result> QueueBufferFuture<R, Result> submitOutboundRequest(Object operationLock,
-                                                                                                                                             OBT[] openOutboundBatchTask,
+                                                                                                                                             AtomicReference<OBT> openOutboundBatchTask,
                                                                                                                                              R request,
                                                                                                                                              final Semaphore inflightOperationBatches,
                                                                                                                                              QueueBufferCallback<R, Result> callback) {
         /*
          * Callers add requests to a single batch task (openOutboundBatchTask) until it is full or
          * maxBatchOpenMs elapses. The total number of batch task in flight is controlled by the
-         * inflightOperationBatch semaphore capped at maxInflightOutboundBatches.
+         * inflightOperationBatch semaphore capped at maxInflightOutboundBatches. Adding to the open
+         * batch takes no lock; callers that find it closed synchronize on operationLock to open
+         * the next one.
          */
+        OBT openTask = openOutboundBatchTask.get();
         QueueBufferFuture<R, Result> theFuture = null;
+        if (openTask != null && (theFuture = openTask.addRequest(request, callback)) != null) {
+            return theFuture;
+        }
         try {
             synchronized (operationLock) {
-                if (openOutboundBatchTask[0] == null
-                        || ((theFuture = openOutboundBatchTask[0].addRequest(request, callback))) == null) {
+                // another caller may have opened the next batch while we waited for the lock
+                OBT currentTask = openOutboundBatchTask.get();
+                if (currentTask == null || currentTask == openTask
+                        || ((theFuture = currentTask.addRequest(request, callback))) == null) {
 
                     OBT obt = (OBT) newOutboundBatchTask(request);
                     inflightOperationBatches.acquire();
-                    openOutboundBatchTask[0] = obt;
 
                     // Register a listener for the event signaling that the
                     // batch task has completed (successfully or not).
-                    openOutboundBatchTask[0].setOnCompleted(new Listener<OutboundBatchTask<R, Result>>() {
+                    obt.setOnCompleted(new Listener<OutboundBatchTask<R, Result>>() {
                         @Override
                         public void invoke(OutboundBatchTask<R, Result> task) {
                             inflightOperationBatches.release();
@@ -269,8 +281,9 @@ public class SendQueueBuffer {
                                 + inflightOperationBatches.availablePermits() + " free slots remain");
                     }
 
-                    theFuture = openOutboundBatchTask[0].addRequest(request, callback);
-                    executor.execute(openOutboundBatchTask[0]);
+                    theFuture = obt.addRequest(request, callback);
+                    openOutboundBatchTask.set(obt);
+                    executor.execute(obt);
                     if (null == theFuture) {
                         // this can happen only if the request itself is flawed,
                         // so that it can't be added to any batch, even a brand
@@ -298,6 +311,11 @@ public class SendQueueBuffer {
      * are assembled into a single batch request to SQS. Specialized for each type of outbound
      * request.
      * <p>
+     * Requests are added without locking: the number of requests in the batch, their total size and
+     * whether the batch is closed are packed in a single {@code state} word, which a caller updates
+     * to claim the slot its request and future are then stored in. Once the batch is closed, the
+     * task waits for the callers that claimed a slot to store their request.
+     * <p>
      * Instances of this class (and subclasses) are thread-safe.
      * 
      * @param <R>
@@ -307,16 +325,31 @@ public class SendQueueBuffer {
      */
     private abstract class OutboundBatchTask<R extends AmazonWebServiceRequest, Result> implements Runnable {
 
-        protected final List<R> requests;
-        protected final ArrayList<QueueBufferFuture<R, Result>> futures;
+        /** Bits of the state holding the number of requests added. */
+        private static final int COUNT_BITS = 20;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+        /** State bit set once the batch is closed. */
+        private static final long CLOSED = 1L << 62;
+
+        /**
+         * The number of requests added to the batch, the total size of the requests shifted by
+         * {@code COUNT_BITS}, and the {@code CLOSED} bit.
+         */
+        private final AtomicLong state = new AtomicLong();
 
-        private boolean closed;
+        private final int maxBatchSize;
+        private final AtomicReferenceArray<R> requestSlots;
+        private final AtomicReferenceArray<QueueBufferFuture<R, Result>> futureSlots;
+
+        /** Futures of the closed batch, for failing them. Synchronized by {@code this}. */
+        private List<QueueBufferFuture<R, Result>> futures;
 
         private volatile Listener<OutboundBatchTask<R, Result>> onCompleted;
 
         public OutboundBatchTask() {
-            this.requests = new ArrayList<R>(config.getMaxBatchSize());
-            this.futures = new ArrayList<QueueBufferFuture<R, Result>>(config.getMaxBatchSize());
+            this.maxBatchSize = (int) Math.min(Math.max(config.getMaxBatchSize(), 1), COUNT_MASK);
+            this.requestSlots = new AtomicReferenceArray<R>(maxBatchSize);
+            this.futureSlots = new AtomicReferenceArray<QueueBufferFuture<R, Result>>(maxBatchSize);
         }
 
         public void setOnCompleted(Listener<OutboundBatchTask<R, Result>> value) {
@@ -329,86 +362,92 @@ public class SendQueueBuffer {
          * @return the future that can be used to get the results of the execution, or null if the
          *         addition failed.
          */
-        public synchronized QueueBufferFuture<R, Result> addRequest(R request, QueueBufferCallback<R, Result> callback) {
-
-            if (closed) {
-                return null;
-            }
-
-            QueueBufferFuture<R, Result> theFuture = addIfAllowed(request, callback);
+        public QueueBufferFuture<R, Result> addRequest(R request, QueueBufferCallback<R, Result> callback) {
+            long size = sizeOf(request);
+            long maxSize = maxBatchSizeBytes();
+            while (true) {
+                long current = state.get();
+                if ((current & CLOSED) != 0) {
+                    return null;
+                }
+                int index = (int) (current & COUNT_MASK);
+                long batchSize = current >>> COUNT_BITS;
+                // a request too large for any batch goes alone, to be offloaded by a request
+                // handler or rejected by the service
+                if (index >= maxBatchSize || (index > 0 && batchSize + size >= maxSize)) {
+                    // the addition did not work, so we can close the batch.
+                    if (state.compareAndSet(current, current | CLOSED)) {
+                        signalClosed();
+                        return null;
+                    }
+                    continue;
+                }
 
-            // if the addition did not work, or this addition made us full,
-            // we can close the request.
-            if ((null == theFuture) || isFull()) {
-                closed = true;
-                notify();
+                // if this addition makes us full, we can close the batch.
+                boolean full = index + 1 >= maxBatchSize || batchSize + size >= maxSize;
+                long next = ((batchSize + size) << COUNT_BITS) | (index + 1) | (full ? CLOSED : 0);
+                if (state.compareAndSet(current, next)) {
+                    QueueBufferFuture<R, Result> theFuture = new QueueBufferFuture<R, Result>(callback);
+                    futureSlots.set(index, theFuture);
+                    // stored last: a non null request means its future is there too
+                    requestSlots.set(index, request);
+                    if (full) {
+                        signalClosed();
+                    }
+                    return theFuture;
+                }
             }
-
-            return theFuture;
         }
 
         /**
-         * Adds the request to the batch if capacity allows it. Called by {@code addRequest} with a
-         * lock on {@code this} held.
-         * 
-         * @param request
-         * @return the future that will be signaled when the request is completed and can be used to
-         *         retrieve the result. Can be null if the addition could not be done
+         * Returns the size of the request counted towards {@link #maxBatchSizeBytes()}.
          */
-        private QueueBufferFuture<R, Result> addIfAllowed(R request, QueueBufferCallback<R, Result> callback) {
-
-            if (isOkToAdd(request)) {
-
-                requests.add(request);
-
-                QueueBufferFuture<R, Result> theFuture = new QueueBufferFuture<R, Result>(callback);
-
-                futures.add(theFuture);
-                onRequestAdded(request);
-                return theFuture;
-
-            } else {
-                return null;
-            }
+        protected long sizeOf(R request) {
+            return 0;
         }
 
         /**
-         * Checks whether it's okay to add the request to this buffer. Called by
-         * {@code addIfAllowed} with a lock on {@code this} held.
-         * 
-         * @param request
-         *            the request to add
-         * @return true if the request is okay to add, false otherwise
+         * Returns the total size of the requests beyond which the batch is full.
          */
-        protected boolean isOkToAdd(R request) {
-            return requests.size() < config.getMaxBatchSize();
+        protected long maxBatchSizeBytes() {
+            return Long.MAX_VALUE;
         }
 
-        /**
-         * A hook to be run when a request is successfully added to this buffer. Called by
-         * {@code addIfAllowed} with a lock on {@code this} held.
-         * 
-         * @param request
-         *            the request that was added
-         */
-        protected void onRequestAdded(R request) {
-            // to be overridden by subclasses
+        private boolean isClosed() {
+            return (state.get() & CLOSED) != 0;
+        }
+
+        private synchronized void signalClosed() {
+            notify();
         }
 
         /**
-         * Checks whether the buffer is now full. Called by {@code addIfAllowed} with a lock on
-         * {@code this} held.
-         * 
-         * @return whether the buffer is filled to capacity
+         * Closes the batch if needed, waits for the requests being added to be stored, and collects
+         * the requests and futures of the batch, in the order they were added.
          */
-        protected boolean isFull() {
-            return requests.size() >= config.getMaxBatchSize();
+        private synchronized void collect(List<R> requests) {
+            long current;
+            do {
+                current = state.get();
+            } while ((current & CLOSED) == 0 && !state.compareAndSet(current, current | CLOSED));
+
+            int count = (int) (current & COUNT_MASK);
+            futures = new ArrayList<QueueBufferFuture<R, Result>>(count);
+            for (int i = 0; i < count; i++) {
+                R request;
+                while ((request = requestSlots.get(i)) == null) {
+                    // a caller claimed the slot and is about to store its request
+                    Thread.yield();
+                }
+                requests.add(request);
+                futures.add(futureSlots.get(i));
+            }
         }
 
         /**
          * Processes the batch once closed. Is <em>NOT</em> called with a lock on {@code this}.
-         * However, it's passed a local copy of both the {@code requests} and {@code futures} lists
-         * made while holding the lock.
+         * However, it's passed the {@code requests} and {@code futures} collected once the batch
+         * closed.
          */
         protected abstract void process(List<R> requests, List<QueueBufferFuture<R, Result>> futures);
 
@@ -416,26 +455,20 @@ public class SendQueueBuffer {
         public final void run() {
             try {
 
-                long deadlineMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS)
-                        + config.getMaxBatchOpenMs() + 1;
-                long t = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+                long deadlineNanos = System.nanoTime()
+                        + TimeUnit.NANOSECONDS.convert(config.getMaxBatchOpenMs(), TimeUnit.MILLISECONDS);
 
-                List<R> requests;
+                List<R> requests = new ArrayList<R>(maxBatchSize);
                 List<QueueBufferFuture<R, Result>> futures;
 
                 synchronized (this) {
-                    while (!closed && (t < deadlineMs)) {
-                        t = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
-
-                        // zero means "wait forever", can't have that.
-                        long toWait = Math.max(1, deadlineMs - t);
-                        wait(toWait);
+                    long toWait;
+                    while (!isClosed() && (toWait = deadlineNanos - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, toWait);
                     }
 
-                    closed = true;
-
-                    requests = new ArrayList<R>(this.requests);
-                    futures = new ArrayList<QueueBufferFuture<R, Result>>(this.futures);
+                    collect(requests);
+                    futures = this.futures;
                 }
 
                 process(requests, futures);
@@ -460,7 +493,10 @@ public class SendQueueBuffer {
             }
         }
 
-        private void failAll(Exception e) {
+        private synchronized void failAll(Exception e) {
+            if (futures == null) {
+                collect(new ArrayList<R>(maxBatchSize));
+            }
             for (QueueBufferFuture<R, Result> f : futures) {
                 f.setFailure(e);
             }
@@ -469,22 +505,14 @@ public class SendQueueBuffer {
 
     private class SendMessageBatchTask extends OutboundBatchTask<SendMessageRequest, SendMessageResult> {
 
-        int batchSizeBytes = 0;
-
-        @Override
-        protected boolean isOkToAdd(SendMessageRequest request) {
-            return (requests.size() < config.getMaxBatchSize())
-                    && ((request.getMessageBody().getBytes().length + batchSizeBytes) < config.getMaxBatchSizeBytes());
-        }
-
         @Override
-        protected void onRequestAdded(SendMessageRequest request) {
-            batchSizeBytes += request.getMessageBody().getBytes().length;
+        protected long sizeOf(SendMessageRequest request) {
+            return request.getMessageBody().getBytes().length;
         }
 
         @Override
-        protected boolean isFull() {
-            return (requests.size() >= config.getMaxBatchSize()) || (batchSizeBytes >= config.getMaxBatchSizeBytes());
+        protected long maxBatchSizeBytes() {
+            return config.getMaxBatchSizeBytes();
         }
 
         @Override
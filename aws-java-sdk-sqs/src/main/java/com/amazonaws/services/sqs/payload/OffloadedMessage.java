@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.payload;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amazonaws.payload.PayloadStore;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+
+/**
+ * A received message whose body was offloaded to a {@link PayloadStore}. The
+ * body is fetched from the store the first time it is asked for, so that
+ * messages which are only forwarded, deleted or dropped by the application
+ * never cost a read of their payload. {@link #toString()},
+ * {@link #hashCode()} and {@link #equals(Object)} never fetch it.
+ * <p>
+ * The MD5 of the body is null: the one computed by Amazon SQS is that of the
+ * pointer the message was sent with, not of the payload.
+ */
+class OffloadedMessage extends Message {
+
+    private final PayloadStore payloadStore;
+    private final String pointer;
+    private boolean resolved;
+
+    /**
+     * @param message
+     *            the message as received, with the pointer as its body
+     * @param receiptHandle
+     *            the receipt handle to expose, which carries the pointer
+     */
+    OffloadedMessage(Message message, String receiptHandle, PayloadStore payloadStore) {
+        this.payloadStore = payloadStore;
+        this.pointer = message.getBody();
+        setMessageId(message.getMessageId());
+        setReceiptHandle(receiptHandle);
+        setAttributes(message.getAttributes());
+        setMD5OfMessageAttributes(message.getMD5OfMessageAttributes());
+
+        Map<String, MessageAttributeValue> attributes = new HashMap<String, MessageAttributeValue>(
+                message.getMessageAttributes());
+        attributes.remove(PayloadOffloadingHandler.RESERVED_ATTRIBUTE_NAME);
+        setMessageAttributes(attributes);
+    }
+
+    /**
+     * Returns the body of the message, fetching it from the payload store on
+     * the first call.
+     *
+     * @throws com.amazonaws.AmazonClientException
+     *             if the payload could not be fetched
+     */
+    @Override
+    public synchronized String getBody() {
+        if (!resolved) {
+            super.setBody(payloadStore.getPayload(pointer));
+            resolved = true;
+        }
+        return super.getBody();
+    }
+
+    @Override
+    public synchronized void setBody(String body) {
+        super.setBody(body);
+        resolved = true;
+    }
+
+    @Override
+    public Message withBody(String body) {
+        setBody(body);
+        return this;
+    }
+
+    /**
+     * Returns the body if it was fetched or set, otherwise a placeholder
+     * naming the pointer to the payload.
+     */
+    private synchronized String bodyOrPointer() {
+        return resolved ? super.getBody() : "(offloaded: " + pointer + ")";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        if (getMessageId() != null) sb.append("MessageId: " + getMessageId() + ",");
+        if (getReceiptHandle() != null) sb.append("ReceiptHandle: " + getReceiptHandle() + ",");
+        sb.append("Body: " + bodyOrPointer() + ",");
+        if (getAttributes() != null) sb.append("Attributes: " + getAttributes() + ",");
+        if (getMD5OfMessageAttributes() != null) sb.append("MD5OfMessageAttributes: " + getMD5OfMessageAttributes() + ",");
+        if (getMessageAttributes() != null) sb.append("MessageAttributes: " + getMessageAttributes() );
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Hashes the message by its id and receipt handle, which identify the
+     * received message and its payload.
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int hashCode = 1;
+
+        hashCode = prime * hashCode + ((getMessageId() == null) ? 0 : getMessageId().hashCode());
+        hashCode = prime * hashCode + ((getReceiptHandle() == null) ? 0 : getReceiptHandle().hashCode());
+        return hashCode;
+    }
+
+    /**
+     * Returns true if the given object is the same received message, with
+     * the same pointer to its payload, attributes and message attributes.
+     * The bodies themselves are not compared.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj instanceof OffloadedMessage == false) return false;
+        OffloadedMessage other = (OffloadedMessage)obj;
+
+        return equal(getMessageId(), other.getMessageId())
+                && equal(getReceiptHandle(), other.getReceiptHandle())
+                && pointer.equals(other.pointer)
+                && equal(getAttributes(), other.getAttributes())
+                && equal(getMD5OfMessageAttributes(), other.getMD5OfMessageAttributes())
+                && equal(getMessageAttributes(), other.getMessageAttributes());
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2015 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazonaws.services.sqs.payload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.annotation.ThreadSafe;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.payload.PayloadStore;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageRequest;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.amazonaws.util.StringUtils;
+
+/**
+ * Request handler that sends message bodies too large for Amazon SQS through a
+ * {@link PayloadStore}, such as the {@code S3PayloadStore} of the Amazon S3
+ * module. It is registered on a client with {@code addRequestHandler}, and
+ * works the same on the synchronous, asynchronous and buffered clients.
+ * <p>
+ * Messages larger than the threshold are stored, and sent with a pointer to
+ * the payload as their body and a {@link #RESERVED_ATTRIBUTE_NAME} message
+ * attribute holding the size of the payload. Batches larger than the service
+ * limit also have their largest messages offloaded until they fit.
+ * <p>
+ * Received messages carrying the attribute are returned with the payload as
+ * their body, fetched from the store only when {@link Message#getBody()} is
+ * first called, and with a receipt handle carrying the pointer too. Deleting
+ * a message with that receipt handle deletes its payload once the message
+ * itself is deleted. Payloads of messages that are never deleted, such as
+ * those expiring from the queue, are left to the store to expire.
+ * <p>
+ * Payloads of messages the service rejected are deleted right away. They are
+ * kept if the outcome of the send is unknown, as when the connection fails,
+ * since the message may have been enqueued.
+ */
+@ThreadSafe
+public class PayloadOffloadingHandler extends RequestHandler2 {
+
+    /**
+     * The message attribute marking offloaded messages, holding the size in
+     * bytes of their payload. Messages sent through this handler may not use
+     * it.
+     */
+    public static final String RESERVED_ATTRIBUTE_NAME = "SQSLargePayloadSize";
+
+    /** The size in bytes of the largest message or batch of messages the service accepts. */
+    public static final long SERVICE_MAX_MESSAGE_SIZE_BYTES = 256 * 1024;
+
+    /** Messages larger than the service allows are offloaded */
+    public static final long DEFAULT_THRESHOLD_BYTES = SERVICE_MAX_MESSAGE_SIZE_BYTES;
+
+    private static final String RECEIPT_HANDLE_MARKER = "-..s3Pointer..-";
+    private static final String RECEIPT_HANDLE_PARAMETER = "ReceiptHandle";
+    private static final String ALL_ATTRIBUTES = "All";
+    private static final String ALL_ATTRIBUTES_PATTERN = ".*";
+
+    private static final Log log = LogFactory.getLog(PayloadOffloadingHandler.class);
+
+    private final PayloadStore payloadStore;
+    private final long thresholdBytes;
+
+    /**
+     * Constructs a handler offloading the messages the service would reject
+     * for their size.
+     */
+    public PayloadOffloadingHandler(PayloadStore payloadStore) {
+        this(payloadStore, DEFAULT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Constructs a handler offloading the messages larger than the given
+     * size.
+     *
+     * @param thresholdBytes
+     *            the size in bytes of the largest message sent through the
+     *            queue, counting its body and message attributes
+     */
+    public PayloadOffloadingHandler(PayloadStore payloadStore, long thresholdBytes) {
+        if (payloadStore == null) {
+            throw new IllegalArgumentException("Payload store cannot be null");
+        }
+        if (thresholdBytes < 0 || thresholdBytes > SERVICE_MAX_MESSAGE_SIZE_BYTES) {
+            throw new IllegalArgumentException("Threshold must be between 0 and "
+                    + SERVICE_MAX_MESSAGE_SIZE_BYTES + " bytes");
+        }
+        this.payloadStore = payloadStore;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    public PayloadStore getPayloadStore() {
+        return payloadStore;
+    }
+
+    public long getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeMarshalling(AmazonWebServiceRequest request) {
+        if (request instanceof SendMessageRequest) {
+            return offload((SendMessageRequest) request);
+        } else if (request instanceof SendMessageBatchRequest) {
+            return offload((SendMessageBatchRequest) request);
+        } else if (request instanceof ReceiveMessageRequest) {
+            return requestReservedAttribute((ReceiveMessageRequest) request);
+        }
+        return request;
+    }
+
+    /**
+     * Swaps the receipt handles carrying a pointer for the ones the service
+     * issued. This is done on the marshalled request, so that the original
+     * request still has the pointer once the message is deleted.
+     */
+    @Override
+    public void beforeRequest(Request<?> request) {
+        List<Map.Entry<String, String>> parameters = new ArrayList<Map.Entry<String, String>>(request
+                .getParameters().entrySet());
+        for (Map.Entry<String, String> parameter : parameters) {
+            if (parameter.getKey().endsWith(RECEIPT_HANDLE_PARAMETER) && isOffloaded(parameter.getValue())) {
+                request.addParameter(parameter.getKey(), receiptHandleOf(parameter.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        Object originalRequest = request.getOriginalRequest();
+        Object result = response == null ? null : response.getAwsResponse();
+
+        if (originalRequest instanceof DeleteMessageRequest) {
+            String receiptHandle = ((DeleteMessageRequest) originalRequest).getReceiptHandle();
+            if (isOffloaded(receiptHandle)) {
+                deletePayloadQuietly(pointerOf(receiptHandle));
+            }
+        } else if (originalRequest instanceof DeleteMessageBatchRequest && result instanceof DeleteMessageBatchResult) {
+            Map<String, String> receiptHandles = new HashMap<String, String>();
+            for (DeleteMessageBatchRequestEntry entry : ((DeleteMessageBatchRequest) originalRequest).getEntries()) {
+                receiptHandles.put(entry.getId(), entry.getReceiptHandle());
+            }
+            for (DeleteMessageBatchResultEntry entry : ((DeleteMessageBatchResult) result).getSuccessful()) {
+                String receiptHandle = receiptHandles.get(entry.getId());
+                if (isOffloaded(receiptHandle)) {
+                    deletePayloadQuietly(pointerOf(receiptHandle));
+                }
+            }
+        } else if (result instanceof ReceiveMessageResult) {
+            resolve((ReceiveMessageResult) result);
+        } else if (originalRequest instanceof SendMessageBatchRequest && result instanceof SendMessageBatchResult) {
+            Map<String, SendMessageBatchRequestEntry> entries = new HashMap<String, SendMessageBatchRequestEntry>();
+            for (SendMessageBatchRequestEntry entry : ((SendMessageBatchRequest) originalRequest).getEntries()) {
+                entries.put(entry.getId(), entry);
+            }
+            for (BatchResultErrorEntry failed : ((SendMessageBatchResult) result).getFailed()) {
+                SendMessageBatchRequestEntry entry = entries.get(failed.getId());
+                if (entry != null && isOffloaded(entry.getMessageAttributes())) {
+                    deletePayloadQuietly(entry.getMessageBody());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        if (!(e instanceof AmazonServiceException) || ((AmazonServiceException) e).getErrorType() != ErrorType.Client) {
+            // the message may have been enqueued
+            return;
+        }
+        Object originalRequest = request.getOriginalRequest();
+        if (originalRequest instanceof SendMessageRequest) {
+            SendMessageRequest sendMessageRequest = (SendMessageRequest) originalRequest;
+            if (isOffloaded(sendMessageRequest.getMessageAttributes())) {
+                deletePayloadQuietly(sendMessageRequest.getMessageBody());
+            }
+        } else if (originalRequest instanceof SendMessageBatchRequest) {
+            for (SendMessageBatchRequestEntry entry : ((SendMessageBatchRequest) originalRequest).getEntries()) {
+                if (isOffloaded(entry.getMessageAttributes())) {
+                    deletePayloadQuietly(entry.getMessageBody());
+                }
+            }
+        }
+    }
+
+    private AmazonWebServiceRequest offload(SendMessageRequest request) {
+        checkAttributes(request.getMessageAttributes());
+        if (sizeOf(request.getMessageBody(), request.getMessageAttributes()) <= thresholdBytes) {
+            return request;
+        }
+        SendMessageRequest offloaded = request.clone();
+        String body = request.getMessageBody();
+        offloaded.setMessageBody(payloadStore.storePayload(body));
+        offloaded.setMessageAttributes(withReservedAttribute(request.getMessageAttributes(), body));
+        return offloaded;
+    }
+
+    private AmazonWebServiceRequest offload(SendMessageBatchRequest request) {
+        List<SendMessageBatchRequestEntry> entries = request.getEntries();
+        int count = entries.size();
+        SendMessageBatchRequestEntry[] sent = entries.toArray(new SendMessageBatchRequestEntry[count]);
+        long[] sizes = new long[count];
+        boolean[] offloaded = new boolean[count];
+        long total = 0;
+        boolean changed = false;
+
+        try {
+            for (int i = 0; i < count; i++) {
+                checkAttributes(sent[i].getMessageAttributes());
+                sizes[i] = sizeOf(sent[i].getMessageBody(), sent[i].getMessageAttributes());
+                if (sizes[i] > thresholdBytes) {
+                    sent[i] = offload(sent[i]);
+                    offloaded[i] = changed = true;
+                    sizes[i] = sizeOf(sent[i].getMessageBody(), sent[i].getMessageAttributes());
+                }
+                total += sizes[i];
+            }
+
+            // the largest of the remaining messages make room for the others
+            while (total > SERVICE_MAX_MESSAGE_SIZE_BYTES) {
+                int largest = -1;
+                for (int i = 0; i < count; i++) {
+                    if (!offloaded[i] && (largest < 0 || sizes[i] > sizes[largest])) {
+                        largest = i;
+                    }
+                }
+                if (largest < 0) {
+                    break;
+                }
+                total -= sizes[largest];
+                sent[largest] = offload(sent[largest]);
+                offloaded[largest] = changed = true;
+                sizes[largest] = sizeOf(sent[largest].getMessageBody(), sent[largest].getMessageAttributes());
+                total += sizes[largest];
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < count; i++) {
+                if (offloaded[i]) {
+                    deletePayloadQuietly(sent[i].getMessageBody());
+                }
+            }
+            throw e;
+        }
+
+        if (!changed) {
+            return request;
+        }
+        SendMessageBatchRequest batch = request.clone();
+        batch.setEntries(Arrays.asList(sent));
+        return batch;
+    }
+
+    private SendMessageBatchRequestEntry offload(SendMessageBatchRequestEntry entry) {
+        SendMessageBatchRequestEntry offloaded = entry.clone();
+        String body = entry.getMessageBody();
+        offloaded.setMessageBody(payloadStore.storePayload(body));
+        offloaded.setMessageAttributes(withReservedAttribute(entry.getMessageAttributes(), body));
+        return offloaded;
+    }
+
+    private static AmazonWebServiceRequest requestReservedAttribute(ReceiveMessageRequest request) {
+        List<String> names = request.getMessageAttributeNames();
+        if (names.contains(RESERVED_ATTRIBUTE_NAME) || names.contains(ALL_ATTRIBUTES)
+                || names.contains(ALL_ATTRIBUTES_PATTERN)) {
+            return request;
+        }
+        ReceiveMessageRequest withReserved = request.clone();
+        List<String> withReservedNames = new ArrayList<String>(names);
+        withReservedNames.add(RESERVED_ATTRIBUTE_NAME);
+        withReserved.setMessageAttributeNames(withReservedNames);
+        return withReserved;
+    }
+
+    private void resolve(ReceiveMessageResult result) {
+        List<Message> messages = result.getMessages();
+        List<Message> resolved = new ArrayList<Message>(messages.size());
+        boolean changed = false;
+        for (Message message : messages) {
+            if (isOffloaded(message.getMessageAttributes())) {
+                String receiptHandle = RECEIPT_HANDLE_MARKER + message.getBody() + RECEIPT_HANDLE_MARKER
+                        + message.getReceiptHandle();
+                resolved.add(new OffloadedMessage(message, receiptHandle, payloadStore));
+                changed = true;
+            } else {
+                resolved.add(message);
+            }
+        }
+        if (changed) {
+            result.setMessages(resolved);
+        }
+    }
+
+    private void deletePayloadQuietly(String pointer) {
+        try {
+            payloadStore.deletePayload(pointer);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete the payload " + pointer, e);
+        }
+    }
+
+    private static void checkAttributes(Map<String, MessageAttributeValue> attributes) {
+        if (attributes != null && attributes.containsKey(RESERVED_ATTRIBUTE_NAME)) {
+            throw new AmazonClientException("Message attribute name " + RESERVED_ATTRIBUTE_NAME
+                    + " is reserved for offloaded messages");
+        }
+    }
+
+    private static Map<String, MessageAttributeValue> withReservedAttribute(
+            Map<String, MessageAttributeValue> attributes, String body) {
+        Map<String, MessageAttributeValue> withReserved = new HashMap<String, MessageAttributeValue>();
+        if (attributes != null) {
+            withReserved.putAll(attributes);
+        }
+        withReserved.put(RESERVED_ATTRIBUTE_NAME, new MessageAttributeValue().withDataType("Number")
+                .withStringValue(Long.toString(StringUtils.utf8Length(body))));
+        return withReserved;
+    }
+
+    private static boolean isOffloaded(Map<String, MessageAttributeValue> attributes) {
+        return attributes != null && attributes.containsKey(RESERVED_ATTRIBUTE_NAME);
+    }
+
+    private static boolean isOffloaded(String receiptHandle) {
+        return receiptHandle != null && receiptHandle.startsWith(RECEIPT_HANDLE_MARKER)
+                && receiptHandle.indexOf(RECEIPT_HANDLE_MARKER, RECEIPT_HANDLE_MARKER.length()) > 0;
+    }
+
+    private static String pointerOf(String receiptHandle) {
+        return receiptHandle.substring(RECEIPT_HANDLE_MARKER.length(),
+                receiptHandle.indexOf(RECEIPT_HANDLE_MARKER, RECEIPT_HANDLE_MARKER.length()));
+    }
+
+    private static String receiptHandleOf(String receiptHandle) {
+        return receiptHandle.substring(receiptHandle.indexOf(RECEIPT_HANDLE_MARKER, RECEIPT_HANDLE_MARKER.length())
+                + RECEIPT_HANDLE_MARKER.length());
+    }
+
+    /**
+     * Returns the size of a message as the service counts it: its body and the
+     * names, types and values of its message attributes.
+     */
+    static long sizeOf(String body, Map<String, MessageAttributeValue> attributes) {
+        long size = body == null ? 0 : StringUtils.utf8Length(body);
+        if (attributes != null) {
+            for (Map.Entry<String, MessageAttributeValue> attribute : attributes.entrySet()) {
+                MessageAttributeValue value = attribute.getValue();
+                size += StringUtils.utf8Length(attribute.getKey());
+                if (value.getDataType() != null) {
+                    size += StringUtils.utf8Length(value.getDataType());
+                }
+                if (value.getStringValue() != null) {
+                    size += StringUtils.utf8Length(value.getStringValue());
+                }
+                if (value.getBinaryValue() != null) {
+                    size += value.getBinaryValue().remaining();
+                }
+            }
+        }
+        return size;
+    }
+}